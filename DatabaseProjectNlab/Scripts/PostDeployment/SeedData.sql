@@ -19,4 +19,71 @@ BEGIN
         ('Pago Regular', 'Pago Regular', 2.5, 1),
         ('3 meses', '3 Meses Sin Intereses', 3.5, 3),
         ('6 meses', '6 Meses Sin Intereses', 4.5, 6);
-END
\ No newline at end of file
+END
+
+-- Backfill the appointment read model with appointments written before it existed
+INSERT INTO [dbo].[AppointmentReadModel] ([AppointmentId], [PatientId], [PatientName], [NutritionistId],
+    [NutritionistName], [PurchasedPackageId], [PackageTypeId], [PackageName], [AppointmentDateTime],
+    [Status], [CreatedAt], [UpdatedAt])
+SELECT a.Id, pp.PatientID, CONCAT(p.FirstName, ' ', p.LastName), n.Id,
+    CONCAT(n.FirstName, ' ', n.LastName), pp.Id, pt.Id, pt.Name, a.AppointmentDateTime,
+    a.Status, a.CreatedAt, a.UpdatedAt
+FROM [dbo].[Appointment] a
+INNER JOIN [dbo].[PurchasedPackage] pp ON pp.Id = a.PurchasedPackageID
+INNER JOIN [dbo].[Patient] p ON p.Id = pp.PatientID
+INNER JOIN [dbo].[Nutritionist] n ON n.Id = a.NutritionistID
+INNER JOIN [dbo].[PackageType] pt ON pt.Id = pp.PackageTypeID
+WHERE NOT EXISTS (SELECT 1 FROM [dbo].[AppointmentReadModel] r WHERE r.AppointmentId = a.Id);
+
+-- Backfill the status event log with the current status of appointments written before it
+-- existed, and the counters once from the same state
+INSERT INTO [dbo].[AppointmentStatusEvent] ([AppointmentId], [ChangeType], [PatientId], [NutritionistId],
+    [AppointmentDateTime], [Status], [OccurredAt])
+SELECT a.Id, 'SCHEDULED', pp.PatientID, a.NutritionistID, a.AppointmentDateTime, a.Status,
+    COALESCE(a.CreatedAt, getdate())
+FROM [dbo].[Appointment] a
+INNER JOIN [dbo].[PurchasedPackage] pp ON pp.Id = a.PurchasedPackageID
+WHERE NOT EXISTS (SELECT 1 FROM [dbo].[AppointmentStatusEvent] e WHERE e.AppointmentId = a.Id);
+
+IF NOT EXISTS (SELECT 1 FROM [dbo].[AppointmentStatusCounter])
+BEGIN
+    INSERT INTO [dbo].[AppointmentStatusCounter] ([Scope], [ScopeKey], [Status], [AppointmentCount])
+    SELECT 'NUTRITIONIST', CONVERT(NVARCHAR(20), a.NutritionistID), a.Status, COUNT_BIG(*)
+    FROM [dbo].[Appointment] a
+    GROUP BY a.NutritionistID, a.Status
+    UNION ALL
+    SELECT 'PATIENT', CONVERT(NVARCHAR(20), pp.PatientID), a.Status, COUNT_BIG(*)
+    FROM [dbo].[Appointment] a
+    INNER JOIN [dbo].[PurchasedPackage] pp ON pp.Id = a.PurchasedPackageID
+    GROUP BY pp.PatientID, a.Status
+    UNION ALL
+    SELECT 'DAY', CONVERT(NVARCHAR(10), CAST(a.AppointmentDateTime AS DATE), 23), a.Status, COUNT_BIG(*)
+    FROM [dbo].[Appointment] a
+    GROUP BY CAST(a.AppointmentDateTime AS DATE), a.Status;
+END
+
+-- Backfill of the running paid total of the purchased packages, later drift is fixed by the repair job
+UPDATE pp SET pp.[PaidTotal] = s.[Total]
+FROM [dbo].[PurchasedPackage] pp
+INNER JOIN (
+    SELECT [PurchasedPackageId], SUM([TotalPaid]) AS [Total]
+    FROM [dbo].[PatientPayment]
+    GROUP BY [PurchasedPackageId]
+) s ON s.[PurchasedPackageId] = pp.[Id]
+WHERE pp.[PaidTotal] <> s.[Total];
+
+-- Lease rows of the background jobs, created up front so instances only race on the update
+IF NOT EXISTS (SELECT 1 FROM [dbo].[JobLease] WHERE [JobName] = 'ExpiredPackageSweeper')
+BEGIN
+    INSERT INTO [dbo].[JobLease] ([JobName]) VALUES ('ExpiredPackageSweeper');
+END
+
+IF NOT EXISTS (SELECT 1 FROM [dbo].[JobLease] WHERE [JobName] = 'PaidTotalRepairJob')
+BEGIN
+    INSERT INTO [dbo].[JobLease] ([JobName]) VALUES ('PaidTotalRepairJob');
+END
+
+IF NOT EXISTS (SELECT 1 FROM [dbo].[JobLease] WHERE [JobName] = 'NutritionistPayrollRun')
+BEGIN
+    INSERT INTO [dbo].[JobLease] ([JobName]) VALUES ('NutritionistPayrollRun');
+END
@@ -5,6 +5,7 @@ CREATE TABLE [dbo].[Appointment] (
     [AppointmentDateTime] DATETIME2 (7)  NOT NULL,
     [Status]              NVARCHAR (20)  NOT NULL,
     [Notes]               NVARCHAR (MAX) NULL,
+    [PackageExpired]      BIT            DEFAULT (0) NULL,
     [CreatedAt]           DATETIME2 (7)  DEFAULT (getdate()) NULL,
     [UpdatedAt]           DATETIME2 (7)  DEFAULT (getdate()) NULL,
     PRIMARY KEY CLUSTERED ([Id] ASC),
@@ -15,3 +16,29 @@ CREATE TABLE [dbo].[Appointment] (
 
 GO
 
+-- A nutritionist slot can only be held by one active appointment
+CREATE UNIQUE NONCLUSTERED INDEX [UX_Appointment_NutritionistID_AppointmentDateTime]
+    ON [dbo].[Appointment] ([NutritionistID] ASC, [AppointmentDateTime] ASC)
+    WHERE [Status] IN ('AGENDADA', 'REAGENDADA');
+
+-- Seek index for cursor paging of vPatientAppointments, which filters by package and
+-- orders by the appointment timestamp
+CREATE NONCLUSTERED INDEX [IX_Appointment_PurchasedPackageID_AppointmentDateTime]
+    ON [dbo].[Appointment] ([PurchasedPackageID] ASC, [AppointmentDateTime] ASC, [Id] ASC);
+
+-- Nutritionist calendar and booked-slot lookups over every status, the unique index
+-- above only holds active appointments
+CREATE NONCLUSTERED INDEX [IX_Appointment_NutritionistID_AppointmentDateTime]
+    ON [dbo].[Appointment] ([NutritionistID] ASC, [AppointmentDateTime] ASC)
+    INCLUDE ([PurchasedPackageID], [Status]);
+
+-- Clinic-wide agenda of a day, a range seek on the timestamp
+CREATE NONCLUSTERED INDEX [IX_Appointment_AppointmentDateTime]
+    ON [dbo].[Appointment] ([AppointmentDateTime] ASC)
+    INCLUDE ([PurchasedPackageID], [NutritionistID], [Status]);
+
+-- Payment period totals, a seek on the nutritionist and status plus a range on the
+-- timestamp, covering the join to the package
+CREATE NONCLUSTERED INDEX [IX_Appointment_NutritionistID_Status_AppointmentDateTime]
+    ON [dbo].[Appointment] ([NutritionistID] ASC, [Status] ASC, [AppointmentDateTime] ASC)
+    INCLUDE ([PurchasedPackageID]);
@@ -0,0 +1,41 @@
+-- Denormalized appointment rows for patient and calendar reads, written by the API in the
+-- same transaction as the appointment and kept in step with patient, nutritionist and
+-- package type renames
+CREATE TABLE [dbo].[AppointmentReadModel] (
+    [AppointmentId]       INT            NOT NULL,
+    [PatientId]           INT            NOT NULL,
+    [PatientName]         NVARCHAR (101) NOT NULL,
+    [NutritionistId]      INT            NOT NULL,
+    [NutritionistName]    NVARCHAR (101) NOT NULL,
+    [PurchasedPackageId]  INT            NOT NULL,
+    [PackageTypeId]       INT            NOT NULL,
+    [PackageName]         NVARCHAR (50)  NOT NULL,
+    [AppointmentDateTime] DATETIME2 (7)  NOT NULL,
+    [Status]              NVARCHAR (20)  NOT NULL,
+    [CreatedAt]           DATETIME2 (7)  NULL,
+    [UpdatedAt]           DATETIME2 (7)  NULL,
+    PRIMARY KEY CLUSTERED ([AppointmentId] ASC)
+);
+
+
+GO
+
+CREATE NONCLUSTERED INDEX [IX_AppointmentReadModel_PatientId_AppointmentDateTime]
+    ON [dbo].[AppointmentReadModel] ([PatientId] ASC, [AppointmentDateTime] ASC, [AppointmentId] ASC);
+
+GO
+
+CREATE NONCLUSTERED INDEX [IX_AppointmentReadModel_NutritionistId_AppointmentDateTime]
+    ON [dbo].[AppointmentReadModel] ([NutritionistId] ASC, [AppointmentDateTime] ASC)
+    INCLUDE ([Status], [PurchasedPackageId], [PatientId], [PatientName], [PackageName]);
+
+GO
+
+CREATE NONCLUSTERED INDEX [IX_AppointmentReadModel_AppointmentDateTime]
+    ON [dbo].[AppointmentReadModel] ([AppointmentDateTime] ASC);
+
+GO
+
+-- Renames update every row of the entity
+CREATE NONCLUSTERED INDEX [IX_AppointmentReadModel_PackageTypeId]
+    ON [dbo].[AppointmentReadModel] ([PackageTypeId] ASC);
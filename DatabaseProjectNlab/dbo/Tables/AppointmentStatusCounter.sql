@@ -0,0 +1,19 @@
+-- Number of appointments in each status per nutritionist, patient and day, maintained
+-- incrementally from the status events so dashboards read them without aggregating
+CREATE TABLE [dbo].[AppointmentStatusCounter] (
+    [Id]               BIGINT        IDENTITY (1, 1) NOT NULL,
+    [Scope]            NVARCHAR (20) NOT NULL,
+    [ScopeKey]         NVARCHAR (20) NOT NULL,
+    [Status]           NVARCHAR (20) NOT NULL,
+    [AppointmentCount] BIGINT        NOT NULL,
+    [UpdatedAt]        DATETIME2 (7) DEFAULT (getdate()) NOT NULL,
+    PRIMARY KEY CLUSTERED ([Id] ASC)
+);
+
+
+GO
+
+-- One row per counter, also the seek of the incremental MERGE and of dashboard reads
+CREATE UNIQUE NONCLUSTERED INDEX [UX_AppointmentStatusCounter_Scope_ScopeKey_Status]
+    ON [dbo].[AppointmentStatusCounter] ([Scope] ASC, [ScopeKey] ASC, [Status] ASC)
+    INCLUDE ([AppointmentCount]);
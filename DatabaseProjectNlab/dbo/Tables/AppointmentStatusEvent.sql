@@ -0,0 +1,24 @@
+-- Append-only history of appointment status changes, written by the API in the same
+-- transaction as the appointment. The status counters can be rebuilt from it.
+CREATE TABLE [dbo].[AppointmentStatusEvent] (
+    [Id]                     BIGINT        IDENTITY (1, 1) NOT NULL,
+    [AppointmentId]          INT           NOT NULL,
+    [ChangeType]             NVARCHAR (20) NOT NULL,
+    [PatientId]              INT           NOT NULL,
+    [PreviousNutritionistId] INT           NULL,
+    [PreviousDateTime]       DATETIME2 (7) NULL,
+    [PreviousStatus]         NVARCHAR (20) NULL,
+    [NutritionistId]         INT           NOT NULL,
+    [AppointmentDateTime]    DATETIME2 (7) NOT NULL,
+    [Status]                 NVARCHAR (20) NOT NULL,
+    [OccurredAt]             DATETIME2 (7) DEFAULT (getdate()) NOT NULL,
+    PRIMARY KEY CLUSTERED ([Id] ASC),
+    FOREIGN KEY ([AppointmentId]) REFERENCES [dbo].[Appointment] ([Id])
+);
+
+
+GO
+
+-- History of one appointment in order
+CREATE NONCLUSTERED INDEX [IX_AppointmentStatusEvent_AppointmentId]
+    ON [dbo].[AppointmentStatusEvent] ([AppointmentId] ASC, [Id] ASC);
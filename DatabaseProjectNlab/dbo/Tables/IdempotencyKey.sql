@@ -0,0 +1,21 @@
+-- Mutating requests sent with an Idempotency-Key header and their stored responses, shared
+-- by every API instance so a retry is replayed wherever it lands
+CREATE TABLE [dbo].[IdempotencyKey] (
+    [Id]             NVARCHAR (200)  NOT NULL,
+    [RequestHash]    CHAR (64)       NOT NULL,
+    [Status]         NVARCHAR (20)   NOT NULL,
+    [ResponseStatus] INT             NULL,
+    [ContentType]    NVARCHAR (100)  NULL,
+    [ResponseBody]   VARBINARY (MAX) NULL,
+    [CreatedAt]      DATETIME2 (7)   NOT NULL,
+    [LockedUntil]    DATETIME2 (7)   NOT NULL,
+    [ExpiresAt]      DATETIME2 (7)   NOT NULL,
+    PRIMARY KEY CLUSTERED ([Id] ASC)
+);
+
+
+GO
+
+-- Purge of expired keys
+CREATE NONCLUSTERED INDEX [IX_IdempotencyKey_ExpiresAt]
+    ON [dbo].[IdempotencyKey] ([ExpiresAt] ASC);
@@ -0,0 +1,11 @@
+-- One row per background job, the instance named in LockedBy runs the job until LockedUntil
+-- and moves LockedUntil forward on every heartbeat. Jobs that scan a table over several runs
+-- keep the last id they processed in ResumeAfterId, NULL starts the next run from the beginning
+CREATE TABLE [dbo].[JobLease] (
+    [JobName]       NVARCHAR (100) NOT NULL,
+    [LockedBy]      NVARCHAR (100) NULL,
+    [LockedUntil]   DATETIME2 (7)  NULL,
+    [HeartbeatAt]   DATETIME2 (7)  NULL,
+    [ResumeAfterId] INT            NULL,
+    PRIMARY KEY CLUSTERED ([JobName] ASC)
+);
@@ -0,0 +1,28 @@
+-- Reminders waiting for delivery, written in the same transaction as the appointment
+-- and drained in batches by the API's notification dispatcher
+CREATE TABLE [dbo].[NotificationOutbox] (
+    [Id]            BIGINT         IDENTITY (1, 1) NOT NULL,
+    [AppointmentId] INT            NOT NULL,
+    [Kind]          NVARCHAR (30)  NOT NULL,
+    [Status]        NVARCHAR (20)  NOT NULL,
+    [Attempts]      INT            DEFAULT (0) NOT NULL,
+    [NextAttemptAt] DATETIME2 (7)  NOT NULL,
+    [LastError]     NVARCHAR (500) NULL,
+    [SentAt]        DATETIME2 (7)  NULL,
+    [CreatedAt]     DATETIME2 (7)  DEFAULT (getdate()) NOT NULL,
+    PRIMARY KEY CLUSTERED ([Id] ASC),
+    FOREIGN KEY ([AppointmentId]) REFERENCES [dbo].[Appointment] ([Id])
+);
+
+
+GO
+
+-- Dispatcher polling, only pending rows are kept in the index
+CREATE NONCLUSTERED INDEX [IX_NotificationOutbox_Pending_NextAttemptAt]
+    ON [dbo].[NotificationOutbox] ([NextAttemptAt] ASC, [Id] ASC)
+    WHERE [Status] = 'PENDING';
+
+-- Cancelling the pending reminders of a changed appointment
+CREATE NONCLUSTERED INDEX [IX_NotificationOutbox_AppointmentId]
+    ON [dbo].[NotificationOutbox] ([AppointmentId] ASC)
+    WHERE [Status] = 'PENDING';
@@ -0,0 +1,16 @@
+CREATE TABLE [dbo].[NutritionistBlockOut] (
+    [Id]             INT            IDENTITY (1, 1) NOT NULL,
+    [NutritionistID] INT            NOT NULL,
+    [StartDateTime]  DATETIME2 (7)  NOT NULL,
+    [EndDateTime]    DATETIME2 (7)  NOT NULL,
+    [Reason]         NVARCHAR (200) NULL,
+    [CreatedAt]      DATETIME2 (7)  DEFAULT (getdate()) NULL,
+    PRIMARY KEY CLUSTERED ([Id] ASC),
+    FOREIGN KEY ([NutritionistID]) REFERENCES [dbo].[Nutritionist] ([Id])
+);
+
+
+GO
+
+CREATE NONCLUSTERED INDEX [IX_NutritionistBlockOut_NutritionistID_EndDateTime]
+    ON [dbo].[NutritionistBlockOut] ([NutritionistID] ASC, [EndDateTime] ASC);
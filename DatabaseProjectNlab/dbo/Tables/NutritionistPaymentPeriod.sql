@@ -14,3 +14,8 @@ CREATE TABLE [dbo].[NutritionistPaymentPeriod] (
 
 GO
 
+-- Overlap check of the payroll run, a range seek on the end date covering the rest of
+-- the predicate
+CREATE NONCLUSTERED INDEX [IX_NutritionistPaymentPeriod_PeriodEndDate]
+    ON [dbo].[NutritionistPaymentPeriod] ([PeriodEndDate] ASC)
+    INCLUDE ([NutritionistID], [PeriodStartDate], [PaymentStatus]);
@@ -0,0 +1,16 @@
+CREATE TABLE [dbo].[NutritionistWorkingHours] (
+    [Id]             INT          IDENTITY (1, 1) NOT NULL,
+    [NutritionistID] INT          NOT NULL,
+    [DayOfWeek]      TINYINT      NOT NULL,
+    [StartTime]      TIME (0)     NOT NULL,
+    [EndTime]        TIME (0)     NOT NULL,
+    PRIMARY KEY CLUSTERED ([Id] ASC),
+    FOREIGN KEY ([NutritionistID]) REFERENCES [dbo].[Nutritionist] ([Id]),
+    CHECK ([DayOfWeek] BETWEEN 1 AND 7)
+);
+
+
+GO
+
+CREATE NONCLUSTERED INDEX [IX_NutritionistWorkingHours_NutritionistID]
+    ON [dbo].[NutritionistWorkingHours] ([NutritionistID] ASC);
@@ -15,3 +15,7 @@ CREATE TABLE [dbo].[PackageType] (
 
 GO
 
+
+-- Seek index for cursor paging of the package type listing by name
+CREATE NONCLUSTERED INDEX [IX_PackageType_Name_Id]
+    ON [dbo].[PackageType] ([Name] ASC, [Id] ASC);
@@ -14,3 +14,7 @@ CREATE TABLE [dbo].[Patient] (
 
 GO
 
+
+-- Seek index for cursor paging of the patient listing by last name
+CREATE NONCLUSTERED INDEX [IX_Patient_LastName_Id]
+    ON [dbo].[Patient] ([LastName] ASC, [Id] ASC);
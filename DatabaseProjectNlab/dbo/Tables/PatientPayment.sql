@@ -10,4 +10,13 @@ CREATE TABLE [dbo].[PatientPayment]
   FOREIGN KEY ([PurchasedPackageId]) REFERENCES [dbo].[PurchasedPackage] ([Id]),
   FOREIGN KEY ([CardPaymentTypeID]) REFERENCES [dbo].[CardPaymentType] ([Id]),
   FOREIGN KEY ([PaymentMethodID]) REFERENCES [dbo].[PaymentMethod] ([Id])
-)
+);
+
+
+GO
+
+
+-- Payments of a package and the per-package sum of the paid total repair job
+CREATE NONCLUSTERED INDEX [IX_PatientPayment_PurchasedPackageId]
+    ON [dbo].[PatientPayment] ([PurchasedPackageId] ASC)
+    INCLUDE ([TotalPaid]);
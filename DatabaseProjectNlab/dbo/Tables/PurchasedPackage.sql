@@ -5,8 +5,10 @@ CREATE TABLE [dbo].[PurchasedPackage]
     [PackageTypeID] INT NOT NULL,
     [PurchaseDate] DATETIME2 (7) DEFAULT (getdate()) NULL,
     [PaidInFull] BIT DEFAULT(0),
+    [PaidTotal] DECIMAL (10, 2) NOT NULL DEFAULT(0),
     [RemainingAppointments] INT NOT NULL,
     [ExpirationDate] DATETIME2 (7) NULL,
+    [Expired] BIT NOT NULL DEFAULT(0),
     PRIMARY KEY CLUSTERED ([Id] ASC),
     FOREIGN KEY ([PackageTypeID]) REFERENCES [dbo].[PackageType] ([Id]),
     FOREIGN KEY ([PatientID]) REFERENCES [dbo].[Patient] ([Id])
@@ -15,3 +17,18 @@ CREATE TABLE [dbo].[PurchasedPackage]
 
 GO
 
+
+-- Seek index for cursor paging of a patient's packages by purchase date
+CREATE NONCLUSTERED INDEX [IX_PurchasedPackage_PatientID_PurchaseDate_Id]
+    ON [dbo].[PurchasedPackage] ([PatientID] ASC, [PurchaseDate] ASC, [Id] ASC);
+
+-- Join key of vPatientAppointments to PackageType, lookups by PatientID use the index above
+CREATE NONCLUSTERED INDEX [IX_PurchasedPackage_PackageTypeID]
+    ON [dbo].[PurchasedPackage] ([PackageTypeID] ASC)
+    INCLUDE ([PatientID]);
+
+-- Keyset scan of the expired package sweeper, only packages not marked yet
+CREATE NONCLUSTERED INDEX [IX_PurchasedPackage_Id_NotExpired]
+    ON [dbo].[PurchasedPackage] ([Id] ASC)
+    INCLUDE ([ExpirationDate])
+    WHERE [Expired] = 0;
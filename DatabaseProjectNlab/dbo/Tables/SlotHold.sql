@@ -0,0 +1,23 @@
+-- Slots reserved for a few minutes while a booking form is filled, used when the API runs
+-- on several instances (nlab.booking.hold-store=database)
+CREATE TABLE [dbo].[SlotHold] (
+    [Id]             NVARCHAR (36) NOT NULL,
+    [NutritionistId] INT           NOT NULL,
+    [StartsAt]       DATETIME2 (7) NOT NULL,
+    [EndsAt]         DATETIME2 (7) NOT NULL,
+    [ExpiresAt]      DATETIME2 (7) NOT NULL,
+    PRIMARY KEY CLUSTERED ([Id] ASC),
+    FOREIGN KEY ([NutritionistId]) REFERENCES [dbo].[Nutritionist] ([Id])
+);
+
+
+GO
+
+-- Two instances holding the same slot at once, and overlap lookups of a nutritionist
+CREATE UNIQUE NONCLUSTERED INDEX [UX_SlotHold_NutritionistId_StartsAt]
+    ON [dbo].[SlotHold] ([NutritionistId] ASC, [StartsAt] ASC)
+    INCLUDE ([EndsAt], [ExpiresAt]);
+
+-- Purge of expired holds
+CREATE NONCLUSTERED INDEX [IX_SlotHold_ExpiresAt]
+    ON [dbo].[SlotHold] ([ExpiresAt] ASC);
@@ -0,0 +1,27 @@
+-- Patients asking for an earlier appointment, booked into cancelled slots of the
+-- nutritionist in the order the requests were made
+CREATE TABLE [dbo].[WaitlistEntry] (
+    [Id]                 INT           IDENTITY (1, 1) NOT NULL,
+    [NutritionistId]     INT           NOT NULL,
+    [PatientId]          INT           NOT NULL,
+    [PurchasedPackageId] INT           NOT NULL,
+    [EarliestDateTime]   DATETIME2 (7) NOT NULL,
+    [LatestDateTime]     DATETIME2 (7) NOT NULL,
+    [Status]             NVARCHAR (20) NOT NULL,
+    [AppointmentId]      INT           NULL,
+    [RequestedAt]        DATETIME2 (7) DEFAULT (getdate()) NOT NULL,
+    PRIMARY KEY CLUSTERED ([Id] ASC),
+    FOREIGN KEY ([NutritionistId]) REFERENCES [dbo].[Nutritionist] ([Id]),
+    FOREIGN KEY ([PatientId]) REFERENCES [dbo].[Patient] ([Id]),
+    FOREIGN KEY ([PurchasedPackageId]) REFERENCES [dbo].[PurchasedPackage] ([Id]),
+    FOREIGN KEY ([AppointmentId]) REFERENCES [dbo].[Appointment] ([Id])
+);
+
+
+GO
+
+-- Open requests loaded into the in-memory queue and listed per nutritionist
+CREATE NONCLUSTERED INDEX [IX_WaitlistEntry_NutritionistId_RequestedAt_Waiting]
+    ON [dbo].[WaitlistEntry] ([NutritionistId] ASC, [RequestedAt] ASC)
+    INCLUDE ([PatientId], [PurchasedPackageId], [EarliestDateTime], [LatestDateTime])
+    WHERE [Status] = 'WAITING';
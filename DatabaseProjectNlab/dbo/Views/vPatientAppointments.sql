@@ -1,3 +1,5 @@
+-- AppointmentDate and AppointmentTime are for display only. Filter on AppointmentDateTime
+-- with half-open ranges so the predicates seek on the Appointment indexes.
 CREATE VIEW [dbo].[vPatientAppointments]
   AS 
   SELECT a.Id AS AppointmentId,
@@ -7,6 +9,7 @@ CREATE VIEW [dbo].[vPatientAppointments]
     d.Name AS PackageName,
     CAST(a.AppointmentDateTime AS DATE) AS AppointmentDate,
     CAST(a.AppointmentDateTime AS TIME) AS AppointmentTime,
+    a.AppointmentDateTime,
     a.Status,
     a.CreatedAt,
     a.UpdatedAt
@@ -0,0 +1,93 @@
+package com.effisoft.nlab.appointmentapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalTime;
+
+/**
+ * Tunables for the booking path, bound from the {@code nlab.booking.*} properties.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "nlab.booking")
+public class BookingProperties {
+    /**
+     * Length of a single appointment in minutes. Two appointments of the same
+     * nutritionist conflict when their intervals overlap.
+     */
+    private int appointmentDurationMinutes = 60;
+
+    /**
+     * Number of days ahead that the in-memory booking index covers
+     */
+    private int indexHorizonDays = 90;
+
+    /**
+     * When true the in-memory index is trusted as the source of truth for free slots.
+     * Off by default, so a free slot reported by the index is confirmed against the
+     * database. Only turn it on for a single API instance writing to the database.
+     */
+    private boolean indexAuthoritative = false;
+
+    /**
+     * Number of lock stripes used to serialize bookings of the same nutritionist
+     */
+    private int lockStripes = 64;
+
+    /**
+     * Maximum time to wait for a nutritionist's booking lock before giving up
+     */
+    private long lockTimeoutMillis = 5000;
+
+    /**
+     * Clinic opening and closing time, offered by availability searches for
+     * nutritionists without working hours of their own
+     */
+    private LocalTime openingTime = LocalTime.of(8, 0);
+    private LocalTime closingTime = LocalTime.of(20, 0);
+
+    /**
+     * Granularity of the start times offered by availability searches
+     */
+    private int availabilityStepMinutes = 30;
+
+    /**
+     * Longest date range a single availability search may cover
+     */
+    private int availabilityMaxDays = 31;
+
+    /**
+     * Number of nutritionists whose upcoming appointments are kept in memory
+     */
+    private int upcomingCacheMaxEntries = 500;
+
+    /**
+     * How long a cached upcoming-appointments window is served before it is reloaded.
+     * Bounds the staleness of names and of changes made outside the appointment service.
+     */
+    private int upcomingCacheTtlMinutes = 10;
+
+    /**
+     * Where slot holds are kept, memory for a single API instance or database when
+     * several instances share the database
+     */
+    private String holdStore = "memory";
+
+    /**
+     * Default and longest lifetime of a slot hold
+     */
+    private int holdTtlMinutes = 5;
+    private int holdMaxMinutes = 15;
+
+    /**
+     * Number of waiting requests tried, best first, before a freed slot is left open
+     */
+    private int waitlistMaxAttempts = 3;
+
+    public Duration appointmentDuration() {
+        return Duration.ofMinutes(appointmentDurationMinutes);
+    }
+}
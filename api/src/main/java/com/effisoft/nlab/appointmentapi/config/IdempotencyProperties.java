@@ -0,0 +1,43 @@
+package com.effisoft.nlab.appointmentapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tunables for the {@code Idempotency-Key} handling of mutating requests, bound from the
+ * {@code nlab.idempotency.*} properties.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "nlab.idempotency")
+public class IdempotencyProperties {
+    private boolean enabled = true;
+
+    /**
+     * How long a key and its response are kept, retries after that run the request again
+     */
+    private int ttlHours = 24;
+
+    /**
+     * Completed responses kept in memory, older ones are read back from the database
+     */
+    private int maxCachedResponses = 1000;
+
+    /**
+     * How long a duplicate waits for the request that holds its key before it is answered
+     * with 409 Conflict
+     */
+    private long waitSeconds = 10;
+
+    /**
+     * How long an in-progress key stays with the instance that claimed it, must exceed the
+     * slowest request. Afterwards the claiming instance is presumed dead.
+     */
+    private long lockSeconds = 60;
+
+    /**
+     * Interval between two reads of a key another instance is working on
+     */
+    private long pollMillis = 100;
+}
@@ -0,0 +1,44 @@
+package com.effisoft.nlab.appointmentapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tunables for the background jobs, bound from the {@code nlab.jobs.*} properties.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "nlab.jobs")
+public class JobProperties {
+    /**
+     * How long a job lease is held before another instance may take it over. The holder
+     * extends it on every heartbeat, so it only runs out when the holder stopped.
+     */
+    private int leaseMinutes = 5;
+
+    /**
+     * Interval between two heartbeats of the leases held by this instance
+     */
+    private int heartbeatSeconds = 60;
+
+    /**
+     * Number of purchased packages marked expired per transaction
+     */
+    private int expiredPackagesChunkSize = 500;
+
+    /**
+     * Number of purchased packages whose paid total is recomputed per transaction
+     */
+    private int paidTotalRepairChunkSize = 500;
+
+    /**
+     * Pause between two chunks, keeps the sweeper from competing with regular traffic
+     */
+    private long chunkPauseMillis = 250;
+
+    /**
+     * Upper bound of chunks processed by a single run, the rest is left for the next run
+     */
+    private int maxChunksPerRun = 200;
+}
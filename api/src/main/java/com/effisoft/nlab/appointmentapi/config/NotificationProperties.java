@@ -0,0 +1,38 @@
+package com.effisoft.nlab.appointmentapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tunables for appointment reminders, bound from the {@code nlab.notifications.*} properties.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "nlab.notifications")
+public class NotificationProperties {
+    /**
+     * Outbox rows handed to the sender per batch
+     */
+    private int batchSize = 100;
+
+    /**
+     * Upper bound of batches drained by a single dispatcher run
+     */
+    private int maxBatchesPerRun = 20;
+
+    /**
+     * Failed deliveries are retried until this many attempts, then dead-lettered
+     */
+    private int maxAttempts = 5;
+
+    /**
+     * Delay before the first retry, doubled after every further failure
+     */
+    private long backoffSeconds = 60;
+
+    /**
+     * Upper bound of the retry delay
+     */
+    private long maxBackoffMinutes = 60;
+}
@@ -0,0 +1,34 @@
+package com.effisoft.nlab.appointmentapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tunables for the appointment change stream, bound from the {@code nlab.stream.*} properties.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "nlab.stream")
+public class StreamProperties {
+    /**
+     * Events kept per subscriber while its connection is busy. When the buffer is full
+     * the oldest event is dropped.
+     */
+    private int bufferSize = 64;
+
+    /**
+     * Lifetime of a stream connection, browsers reconnect on their own afterwards
+     */
+    private long timeoutMinutes = 30;
+
+    /**
+     * Interval of the keep-alive comment sent to idle connections
+     */
+    private long heartbeatSeconds = 25;
+
+    /**
+     * Threads writing buffered events to the connections
+     */
+    private int dispatchThreads = 4;
+}
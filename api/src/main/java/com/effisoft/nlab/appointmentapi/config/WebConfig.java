@@ -12,7 +12,8 @@ public class WebConfig implements WebMvcConfigurer {
         registry.addMapping("/**")
             .allowedOrigins("http://localhost:3000") // Your frontend URL
             .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH")
-            .allowedHeaders("Authorization", "Content-Type", "Accept")
+            .allowedHeaders("Authorization", "Content-Type", "Accept", "Idempotency-Key")
+            .exposedHeaders("Idempotent-Replayed")
             .allowCredentials(true)
             .maxAge(3600); // 1 hour
     }
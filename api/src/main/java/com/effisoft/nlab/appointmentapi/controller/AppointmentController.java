@@ -1,10 +1,24 @@
 package com.effisoft.nlab.appointmentapi.controller;
 
+import com.effisoft.nlab.appointmentapi.dto.AppointmentCalendarRow;
 import com.effisoft.nlab.appointmentapi.dto.AppointmentDTO;
+import com.effisoft.nlab.appointmentapi.dto.AppointmentResponseDTO;
+import com.effisoft.nlab.appointmentapi.dto.AppointmentSeriesDTO;
+import com.effisoft.nlab.appointmentapi.dto.AppointmentStatusChangeDTO;
+import com.effisoft.nlab.appointmentapi.dto.AppointmentStatusResultDTO;
+import com.effisoft.nlab.appointmentapi.dto.AvailabilitySlotDTO;
+import com.effisoft.nlab.appointmentapi.dto.BulkReassignDTO;
+import com.effisoft.nlab.appointmentapi.dto.BulkReassignResultDTO;
+import com.effisoft.nlab.appointmentapi.dto.CursorPageResponseDTO;
 import com.effisoft.nlab.appointmentapi.dto.PageResponseDTO;
+import com.effisoft.nlab.appointmentapi.dto.SlotHoldDTO;
 import com.effisoft.nlab.appointmentapi.entity.Appointment;
-import com.effisoft.nlab.appointmentapi.entity.PatientAppointmentView;
+import com.effisoft.nlab.appointmentapi.entity.AppointmentReadModel;
+import com.effisoft.nlab.appointmentapi.entity.SlotHold;
+import com.effisoft.nlab.appointmentapi.mapper.AppointmentMapper;
 import com.effisoft.nlab.appointmentapi.service.AppointmentService;
+import com.effisoft.nlab.appointmentapi.service.AvailabilityService;
+import com.effisoft.nlab.appointmentapi.service.stream.AppointmentStreamBroker;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 
@@ -12,10 +26,13 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -26,32 +43,109 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class AppointmentController {
     private final AppointmentService appointmentService;
+    private final AvailabilityService availabilityService;
+    private final AppointmentStreamBroker appointmentStreamBroker;
+    private final AppointmentMapper appointmentMapper;
 
     @PostMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'NUTRITIONIST')")
-    public ResponseEntity<Appointment> scheduleAppointment(
+    public ResponseEntity<AppointmentResponseDTO> scheduleAppointment(
             @Valid @RequestBody AppointmentDTO appointmentDTO) {
         Appointment AGENDADAAppointment = appointmentService.scheduleAppointment(appointmentDTO);
-        return new ResponseEntity<>(AGENDADAAppointment, HttpStatus.CREATED);
+        return new ResponseEntity<>(appointmentMapper.toResponseDto(AGENDADAAppointment), HttpStatus.CREATED);
+    }
+
+    @PostMapping("/series")
+    @PreAuthorize("hasAnyRole('ADMIN', 'NUTRITIONIST')")
+    public ResponseEntity<List<AppointmentResponseDTO>> scheduleAppointmentSeries(
+            @Valid @RequestBody AppointmentSeriesDTO appointmentSeriesDTO) {
+        List<Appointment> appointments = appointmentService.scheduleAppointmentSeries(appointmentSeriesDTO);
+        return new ResponseEntity<>(appointmentMapper.toResponseDtoList(appointments), HttpStatus.CREATED);
+    }
+
+    /**
+     * Reserves a slot while the booking form is filled, the returned id is sent back as
+     * holdId when booking
+     */
+    @PostMapping("/holds")
+    @PreAuthorize("hasAnyRole('ADMIN', 'NUTRITIONIST')")
+    public ResponseEntity<SlotHold> holdSlot(@Valid @RequestBody SlotHoldDTO slotHoldDTO) {
+        return new ResponseEntity<>(appointmentService.holdSlot(slotHoldDTO), HttpStatus.CREATED);
+    }
+
+    @DeleteMapping("/holds/{holdId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'NUTRITIONIST')")
+    public ResponseEntity<Void> releaseHold(@PathVariable String holdId) {
+        appointmentService.releaseHold(holdId);
+        return ResponseEntity.noContent().build();
     }
 
     @GetMapping("/nutritionist/{nutritionistId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'NUTRITIONIST')")
-    public ResponseEntity<List<Appointment>> getAppointmentsByNutritionist(
+    public ResponseEntity<List<AppointmentCalendarRow>> getAppointmentsByNutritionist(
             @PathVariable Integer nutritionistId,
             @RequestParam LocalDateTime startDate,
             @RequestParam LocalDateTime endDate) {
-        List<Appointment> appointments = appointmentService
+        List<AppointmentCalendarRow> appointments = appointmentService
                 .getAppointmentsByNutritionistAndDateRange(nutritionistId, startDate, endDate);
         return ResponseEntity.ok(appointments);
     }
 
+    @GetMapping("/nutritionist/{nutritionistId}/upcoming")
+    @PreAuthorize("hasAnyRole('ADMIN', 'NUTRITIONIST')")
+    public ResponseEntity<List<AppointmentCalendarRow>> getUpcomingAppointments(@PathVariable Integer nutritionistId) {
+        return ResponseEntity.ok(appointmentService.getUpcomingAppointments(nutritionistId));
+    }
+
+    /**
+     * Server-Sent Events stream of the nutritionist's appointment changes, replaces polling
+     * the calendar to notice bookings made by colleagues
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'NUTRITIONIST')")
+    public SseEmitter streamAppointmentChanges(@RequestParam Integer nutritionistId) {
+        return appointmentStreamBroker.subscribe(nutritionistId);
+    }
+
+    @GetMapping("/availability")
+    @PreAuthorize("hasAnyRole('ADMIN', 'NUTRITIONIST')")
+    public ResponseEntity<List<AvailabilitySlotDTO>> getAvailability(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Integer duration) {
+        List<AvailabilitySlotDTO> slots = availabilityService.findAvailableSlots(from, to, duration);
+        return ResponseEntity.ok(slots);
+    }
+
     @PutMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'NUTRITIONIST')")
-    public ResponseEntity<Appointment> updateAppointment(
+    public ResponseEntity<AppointmentResponseDTO> updateAppointment(
             @Valid @RequestBody AppointmentDTO appointmentDTO) {
         Appointment updatedAppointment = appointmentService.updateAppointmentStatus(appointmentDTO);
-        return ResponseEntity.ok(updatedAppointment);
+        return ResponseEntity.ok(appointmentMapper.toResponseDto(updatedAppointment));
+    }
+
+    /**
+     * Changes the status of several appointments at once, reporting the outcome of each
+     */
+    @PatchMapping("/status")
+    @PreAuthorize("hasAnyRole('ADMIN', 'NUTRITIONIST')")
+    public ResponseEntity<List<AppointmentStatusResultDTO>> updateAppointmentStatuses(
+            @RequestBody List<@Valid AppointmentStatusChangeDTO> statusChanges) {
+        List<AppointmentStatusResultDTO> results = appointmentService.updateAppointmentStatuses(statusChanges);
+        return ResponseEntity.ok(results);
+    }
+
+    /**
+     * Moves a nutritionist's appointments in a date range to a colleague and/or another
+     * time in one request, reporting the outcome of each appointment
+     */
+    @PostMapping("/bulk-reassign")
+    @PreAuthorize("hasAnyRole('ADMIN', 'NUTRITIONIST')")
+    public ResponseEntity<BulkReassignResultDTO> bulkReassign(
+            @Valid @RequestBody BulkReassignDTO bulkReassignDTO) {
+        BulkReassignResultDTO result = appointmentService.bulkReassign(bulkReassignDTO);
+        return ResponseEntity.ok(result);
     }
 
     @DeleteMapping("/{id}")
@@ -63,7 +157,7 @@ public class AppointmentController {
 
     @GetMapping("/patient/{patientId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'NUTRITIONIST')")
-    public ResponseEntity<PageResponseDTO<PatientAppointmentView>> getPatientAppointments(
+    public ResponseEntity<PageResponseDTO<AppointmentReadModel>> getPatientAppointments(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "appointmentDate") String sortBy,
@@ -72,10 +166,10 @@ public class AppointmentController {
         Sort.Direction direction = sortDirection.equalsIgnoreCase("DESC") ? Sort.Direction.DESC : Sort.Direction.ASC;
 
         Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
-        Page<PatientAppointmentView> patientAppointments = appointmentService.getPatientAppointments(pageable,
+        Page<AppointmentReadModel> patientAppointments = appointmentService.getPatientAppointments(pageable,
                 patientId);
 
-        PageResponseDTO<PatientAppointmentView> response = new PageResponseDTO<>(
+        PageResponseDTO<AppointmentReadModel> response = new PageResponseDTO<>(
                 patientAppointments.getContent(),
                 patientAppointments.getNumber(),
                 patientAppointments.getSize(),
@@ -87,10 +181,24 @@ public class AppointmentController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping(value = "/patient/{patientId}", params = "cursor")
+    @PreAuthorize("hasAnyRole('ADMIN', 'NUTRITIONIST')")
+    public ResponseEntity<CursorPageResponseDTO<AppointmentReadModel>> scrollPatientAppointments(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "appointmentDate") String sortBy,
+            @RequestParam(defaultValue = "ASC") String sortDirection,
+            @PathVariable Integer patientId) {
+        Sort.Direction direction = sortDirection.equalsIgnoreCase("DESC") ? Sort.Direction.DESC : Sort.Direction.ASC;
+
+        return ResponseEntity.ok(appointmentService.scrollPatientAppointments(patientId, cursor, size, sortBy,
+                direction));
+    }
+
     @GetMapping("/{appointmentId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'NUTRITIONIST')")
-    public ResponseEntity<Appointment> getAppointmentById(@PathVariable Integer appointmentId) {
+    public ResponseEntity<AppointmentResponseDTO> getAppointmentById(@PathVariable Integer appointmentId) {
         Optional<Appointment> appointment = appointmentService.getByAppointmentId(appointmentId);
-        return ResponseEntity.ok(appointment.orElse(null));
+        return ResponseEntity.ok(appointment.map(appointmentMapper::toResponseDto).orElse(null));
     }
 }
\ No newline at end of file
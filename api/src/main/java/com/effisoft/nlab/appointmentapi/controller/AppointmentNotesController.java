@@ -9,6 +9,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.effisoft.nlab.appointmentapi.dto.AppointmentNotesDTO;
 import com.effisoft.nlab.appointmentapi.entity.AppointmentNotes;
+import com.effisoft.nlab.appointmentapi.mapper.AppointmentNotesMapper;
 import com.effisoft.nlab.appointmentapi.service.AppointmentNotesService;
 
 import lombok.RequiredArgsConstructor;
@@ -18,12 +19,13 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class AppointmentNotesController {
     private final AppointmentNotesService appointmentNotesService;
+    private final AppointmentNotesMapper appointmentNotesMapper;
 
     @PostMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'NUTRITIONIST')")
-    public ResponseEntity<AppointmentNotes> createAppointmentNotes(@RequestBody AppointmentNotesDTO dto) {
+    public ResponseEntity<AppointmentNotesDTO> createAppointmentNotes(@RequestBody AppointmentNotesDTO dto) {
         AppointmentNotes appointmentNotes = appointmentNotesService.createAppointmentNotes(dto);
 
-        return ResponseEntity.ok(appointmentNotes);
+        return ResponseEntity.ok(appointmentNotesMapper.toDto(appointmentNotes));
     }
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+package com.effisoft.nlab.appointmentapi.controller;
+
+import com.effisoft.nlab.appointmentapi.dto.AppointmentStatusCountsDTO;
+import com.effisoft.nlab.appointmentapi.dto.StatusCounterRebuildDTO;
+import com.effisoft.nlab.appointmentapi.service.AppointmentStatsService;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDate;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/appointment-stats")
+@RequiredArgsConstructor
+public class AppointmentStatsController {
+    private final AppointmentStatsService appointmentStatsService;
+
+    @GetMapping("/nutritionists/{nutritionistId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'NUTRITIONIST')")
+    public ResponseEntity<AppointmentStatusCountsDTO> getNutritionistCounts(@PathVariable Integer nutritionistId) {
+        return ResponseEntity.ok(appointmentStatsService.getNutritionistCounts(nutritionistId));
+    }
+
+    @GetMapping("/patients/{patientId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'NUTRITIONIST')")
+    public ResponseEntity<AppointmentStatusCountsDTO> getPatientCounts(@PathVariable Integer patientId) {
+        return ResponseEntity.ok(appointmentStatsService.getPatientCounts(patientId));
+    }
+
+    @GetMapping("/days/{day}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'NUTRITIONIST')")
+    public ResponseEntity<AppointmentStatusCountsDTO> getDayCounts(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate day) {
+        return ResponseEntity.ok(appointmentStatsService.getDayCounts(day));
+    }
+
+    @PostMapping("/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StatusCounterRebuildDTO> rebuildCounters() {
+        return ResponseEntity.ok(appointmentStatsService.rebuildCounters());
+    }
+}
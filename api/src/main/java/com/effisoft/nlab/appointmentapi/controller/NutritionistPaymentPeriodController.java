@@ -1,15 +1,21 @@
 package com.effisoft.nlab.appointmentapi.controller;
 
 import com.effisoft.nlab.appointmentapi.dto.NutritionistPaymentPeriodDTO;
+import com.effisoft.nlab.appointmentapi.dto.NutritionistPaymentPeriodResponseDTO;
+import com.effisoft.nlab.appointmentapi.dto.PayrollRunResultDTO;
 import com.effisoft.nlab.appointmentapi.entity.NutritionistPaymentPeriod;
+import com.effisoft.nlab.appointmentapi.mapper.NutritionistPaymentPeriodMapper;
 import com.effisoft.nlab.appointmentapi.service.NutritionistPaymentPeriodService;
+import com.effisoft.nlab.appointmentapi.service.NutritionistPayrollService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -17,42 +23,52 @@ import java.util.List;
 @RequiredArgsConstructor
 public class NutritionistPaymentPeriodController {
     private final NutritionistPaymentPeriodService nutritionistPaymentPeriodService;
+    private final NutritionistPayrollService nutritionistPayrollService;
+    private final NutritionistPaymentPeriodMapper nutritionistPaymentPeriodMapper;
 
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<NutritionistPaymentPeriod> createPaymentPeriod(
+    public ResponseEntity<NutritionistPaymentPeriodResponseDTO> createPaymentPeriod(
             @Valid @RequestBody NutritionistPaymentPeriodDTO paymentPeriodDTO) {
         NutritionistPaymentPeriod createdPeriod = nutritionistPaymentPeriodService.createPaymentPeriod(paymentPeriodDTO);
-        return new ResponseEntity<>(createdPeriod, HttpStatus.CREATED);
+        return new ResponseEntity<>(nutritionistPaymentPeriodMapper.toResponseDto(createdPeriod), HttpStatus.CREATED);
+    }
+
+    @PostMapping("/run")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<PayrollRunResultDTO> runPayroll(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end) {
+        return ResponseEntity.ok(nutritionistPayrollService.runPayroll(start, end));
     }
 
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<NutritionistPaymentPeriod>> getAllPaymentPeriods() {
+    public ResponseEntity<List<NutritionistPaymentPeriodResponseDTO>> getAllPaymentPeriods() {
         List<NutritionistPaymentPeriod> periods = nutritionistPaymentPeriodService.getAllPaymentPeriods();
-        return ResponseEntity.ok(periods);
+        return ResponseEntity.ok(nutritionistPaymentPeriodMapper.toResponseDtoList(periods));
     }
 
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'NUTRITIONIST')")
-    public ResponseEntity<NutritionistPaymentPeriod> getPaymentPeriodById(@PathVariable Integer id) {
+    public ResponseEntity<NutritionistPaymentPeriodResponseDTO> getPaymentPeriodById(@PathVariable Integer id) {
         NutritionistPaymentPeriod period = nutritionistPaymentPeriodService.getPaymentPeriodById(id);
-        return ResponseEntity.ok(period);
+        return ResponseEntity.ok(nutritionistPaymentPeriodMapper.toResponseDto(period));
     }
 
     @PutMapping("/{id}/process")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<NutritionistPaymentPeriod> processPayment(@PathVariable Integer id) {
+    public ResponseEntity<NutritionistPaymentPeriodResponseDTO> processPayment(@PathVariable Integer id) {
         NutritionistPaymentPeriod processedPeriod = nutritionistPaymentPeriodService.processPayment(id);
-        return ResponseEntity.ok(processedPeriod);
+        return ResponseEntity.ok(nutritionistPaymentPeriodMapper.toResponseDto(processedPeriod));
     }
 
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<NutritionistPaymentPeriod> updatePaymentPeriod(
+    public ResponseEntity<NutritionistPaymentPeriodResponseDTO> updatePaymentPeriod(
             @PathVariable Integer id,
             @Valid @RequestBody NutritionistPaymentPeriodDTO paymentPeriodDTO) {
         NutritionistPaymentPeriod updatedPeriod = nutritionistPaymentPeriodService.updatePaymentPeriod(id, paymentPeriodDTO);
-        return ResponseEntity.ok(updatedPeriod);
+        return ResponseEntity.ok(nutritionistPaymentPeriodMapper.toResponseDto(updatedPeriod));
     }
 }
\ No newline at end of file
@@ -0,0 +1,69 @@
+package com.effisoft.nlab.appointmentapi.controller;
+
+import com.effisoft.nlab.appointmentapi.dto.BlockOutDTO;
+import com.effisoft.nlab.appointmentapi.dto.WorkingHoursDTO;
+import com.effisoft.nlab.appointmentapi.entity.NutritionistBlockOut;
+import com.effisoft.nlab.appointmentapi.entity.NutritionistWorkingHours;
+import com.effisoft.nlab.appointmentapi.mapper.NutritionistScheduleMapper;
+import com.effisoft.nlab.appointmentapi.service.NutritionistScheduleService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/nutritionists/{nutritionistId}")
+@Validated
+@RequiredArgsConstructor
+public class NutritionistScheduleController {
+    private final NutritionistScheduleService nutritionistScheduleService;
+    private final NutritionistScheduleMapper nutritionistScheduleMapper;
+
+    @GetMapping("/working-hours")
+    @PreAuthorize("hasAnyRole('ADMIN', 'NUTRITIONIST')")
+    public ResponseEntity<List<WorkingHoursDTO>> getWorkingHours(@PathVariable Integer nutritionistId) {
+        List<NutritionistWorkingHours> workingHours = nutritionistScheduleService.getWorkingHours(nutritionistId);
+        return ResponseEntity.ok(nutritionistScheduleMapper.toWorkingHoursDtoList(workingHours));
+    }
+
+    @PutMapping("/working-hours")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<WorkingHoursDTO>> replaceWorkingHours(
+            @PathVariable Integer nutritionistId,
+            @RequestBody List<@Valid WorkingHoursDTO> workingHours) {
+        List<NutritionistWorkingHours> saved = nutritionistScheduleService
+                .replaceWorkingHours(nutritionistId, workingHours);
+        return ResponseEntity.ok(nutritionistScheduleMapper.toWorkingHoursDtoList(saved));
+    }
+
+    @GetMapping("/block-outs")
+    @PreAuthorize("hasAnyRole('ADMIN', 'NUTRITIONIST')")
+    public ResponseEntity<List<BlockOutDTO>> getBlockOuts(@PathVariable Integer nutritionistId) {
+        List<NutritionistBlockOut> blockOuts = nutritionistScheduleService.getUpcomingBlockOuts(nutritionistId);
+        return ResponseEntity.ok(nutritionistScheduleMapper.toBlockOutDtoList(blockOuts));
+    }
+
+    @PostMapping("/block-outs")
+    @PreAuthorize("hasAnyRole('ADMIN', 'NUTRITIONIST')")
+    public ResponseEntity<BlockOutDTO> addBlockOut(
+            @PathVariable Integer nutritionistId,
+            @Valid @RequestBody BlockOutDTO blockOutDTO) {
+        NutritionistBlockOut blockOut = nutritionistScheduleService.addBlockOut(nutritionistId, blockOutDTO);
+        return new ResponseEntity<>(nutritionistScheduleMapper.toDto(blockOut), HttpStatus.CREATED);
+    }
+
+    @DeleteMapping("/block-outs/{blockOutId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'NUTRITIONIST')")
+    public ResponseEntity<Void> deleteBlockOut(
+            @PathVariable Integer nutritionistId,
+            @PathVariable Integer blockOutId) {
+        nutritionistScheduleService.deleteBlockOut(nutritionistId, blockOutId);
+        return ResponseEntity.noContent().build();
+    }
+}
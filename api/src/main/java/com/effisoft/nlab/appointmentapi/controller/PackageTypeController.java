@@ -1,5 +1,6 @@
 package com.effisoft.nlab.appointmentapi.controller;
 
+import com.effisoft.nlab.appointmentapi.dto.CursorPageResponseDTO;
 import com.effisoft.nlab.appointmentapi.dto.PackageTypeDTO;
 import com.effisoft.nlab.appointmentapi.dto.PackageTypeSelectDTO;
 import com.effisoft.nlab.appointmentapi.dto.PageResponseDTO;
@@ -65,6 +66,20 @@ public class PackageTypeController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping(params = "cursor")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CursorPageResponseDTO<PackageTypeDTO>> scrollPackageTypes(@RequestParam String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "name") String sortBy,
+            @RequestParam(defaultValue = "ASC") String sortDirection,
+            @RequestParam(required = false) String searchTerm,
+            @RequestParam(required = false) Boolean active) {
+        Sort.Direction direction = sortDirection.equalsIgnoreCase("DESC") ? Sort.Direction.DESC : Sort.Direction.ASC;
+
+        return ResponseEntity.ok(packageTypeService.scrollPackageTypes(cursor, size, sortBy, direction,
+                searchTerm, active));
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'NUTRITIONIST')")
     public ResponseEntity<PackageType> getPackageTypeById(@PathVariable Integer id) {
@@ -1,5 +1,6 @@
 package com.effisoft.nlab.appointmentapi.controller;
 
+import com.effisoft.nlab.appointmentapi.dto.CursorPageResponseDTO;
 import com.effisoft.nlab.appointmentapi.dto.PatientDTO;
 import com.effisoft.nlab.appointmentapi.dto.PageResponseDTO;
 import com.effisoft.nlab.appointmentapi.entity.Patient;
@@ -74,6 +75,23 @@ public class PatientController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Keyset mode of the listing, selected by the cursor parameter. The first page is
+     * requested with an empty cursor, the next ones with the nextCursor of the previous page.
+     */
+    @GetMapping(params = "cursor")
+    @PreAuthorize("hasAnyRole('ADMIN', 'NUTRITIONIST')")
+    public ResponseEntity<CursorPageResponseDTO<PatientDTO>> scrollPatients(@RequestParam String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "lastName") String sortBy,
+            @RequestParam(defaultValue = "ASC") String sortDirection,
+            @RequestParam(required = false) String searchTerm,
+            @RequestParam(required = false) Boolean active) {
+        Sort.Direction direction = sortDirection.equalsIgnoreCase("DESC") ? Sort.Direction.DESC : Sort.Direction.ASC;
+
+        return ResponseEntity.ok(patientService.scrollPatients(cursor, size, sortBy, direction, searchTerm, active));
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'NUTRITIONIST')")
     public ResponseEntity<Patient> getPatientById(@PathVariable Integer id) {
@@ -10,6 +10,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.effisoft.nlab.appointmentapi.dto.PatientPaymentDTO;
 import com.effisoft.nlab.appointmentapi.entity.PatientPayment;
+import com.effisoft.nlab.appointmentapi.mapper.PatientPaymentMapper;
 import com.effisoft.nlab.appointmentapi.service.PatientPaymentService;
 
 import jakarta.validation.Valid;
@@ -20,14 +21,15 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class PatientPaymentController {
     private final PatientPaymentService patientPaymentService;
+    private final PatientPaymentMapper patientPaymentMapper;
 
     @PostMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'NUTRITIONIST')")
-    public ResponseEntity<PatientPayment> createPatientPayment(
+    public ResponseEntity<PatientPaymentDTO> createPatientPayment(
         @Valid @RequestBody PatientPaymentDTO patientPaymentDTO
     ) {
         PatientPayment createdPatientPayment = patientPaymentService.createPatientPayment(patientPaymentDTO);
-        return new ResponseEntity<>(createdPatientPayment, HttpStatus.CREATED);
+        return new ResponseEntity<>(patientPaymentMapper.toDto(createdPatientPayment), HttpStatus.CREATED);
     }
 
 }
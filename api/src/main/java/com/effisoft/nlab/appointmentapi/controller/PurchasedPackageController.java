@@ -1,9 +1,12 @@
 package com.effisoft.nlab.appointmentapi.controller;
 
+import com.effisoft.nlab.appointmentapi.dto.CursorPageResponseDTO;
 import com.effisoft.nlab.appointmentapi.dto.PageResponseDTO;
 import com.effisoft.nlab.appointmentapi.dto.PatientPurchasedPackageDTO;
 import com.effisoft.nlab.appointmentapi.dto.PurchasedPackageDTO;
+import com.effisoft.nlab.appointmentapi.dto.PurchasedPackageResponseDTO;
 import com.effisoft.nlab.appointmentapi.entity.PurchasedPackage;
+import com.effisoft.nlab.appointmentapi.mapper.PurchasedPackageMapper;
 import com.effisoft.nlab.appointmentapi.service.PurchasedPackageService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -24,20 +27,21 @@ import java.util.List;
 @RequiredArgsConstructor
 public class PurchasedPackageController {
     private final PurchasedPackageService purchasedPackageService;
+    private final PurchasedPackageMapper purchasedPackageMapper;
 
     @PostMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'NUTRITIONIST')")
-    public ResponseEntity<PurchasedPackage> createPurchasedPackage(
+    public ResponseEntity<PurchasedPackageResponseDTO> createPurchasedPackage(
             @Valid @RequestBody PurchasedPackageDTO purchasedPackageDTO) {
         PurchasedPackage createdPackage = purchasedPackageService.createPurchasedPackage(purchasedPackageDTO);
-        return new ResponseEntity<>(createdPackage, HttpStatus.CREATED);
+        return new ResponseEntity<>(purchasedPackageMapper.toResponseDto(createdPackage), HttpStatus.CREATED);
     }
 
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'NUTRITIONIST')")
-    public ResponseEntity<List<PurchasedPackage>> getAllPurchasedPackages() {
+    public ResponseEntity<List<PurchasedPackageResponseDTO>> getAllPurchasedPackages() {
         List<PurchasedPackage> packages = purchasedPackageService.getAllPurchasedPackages();
-        return ResponseEntity.ok(packages);
+        return ResponseEntity.ok(purchasedPackageMapper.toResponseDtoList(packages));
     }
 
     @GetMapping("/{id}")
@@ -50,11 +54,11 @@ public class PurchasedPackageController {
 
     @PutMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'NUTRITIONIST')")
-    public ResponseEntity<PurchasedPackage> updatePurchasedPackage(
+    public ResponseEntity<PurchasedPackageResponseDTO> updatePurchasedPackage(
             @PathVariable Integer id,
             @Valid @RequestBody PurchasedPackageDTO purchasedPackageDTO) {
         PurchasedPackage updatedPackage = purchasedPackageService.updatePurchasedPackage(id, purchasedPackageDTO);
-        return ResponseEntity.ok(updatedPackage);
+        return ResponseEntity.ok(purchasedPackageMapper.toResponseDto(updatedPackage));
     }
 
     @GetMapping("/{id}/valid")
@@ -66,7 +70,7 @@ public class PurchasedPackageController {
 
     @GetMapping("/patient/{patientId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'NUTRITIONIST', 'PATIENT')")
-    public ResponseEntity<PageResponseDTO<PurchasedPackage>> getPurchasedPackagesByPatient(
+    public ResponseEntity<PageResponseDTO<PurchasedPackageResponseDTO>> getPurchasedPackagesByPatient(
             @PathVariable Integer patientId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
@@ -79,8 +83,8 @@ public class PurchasedPackageController {
         Page<PurchasedPackage> packagesPage = purchasedPackageService.getPurchasedPackagesByPatientId(patientId,
                 pageable);
 
-        PageResponseDTO<PurchasedPackage> response = new PageResponseDTO<>(
-                packagesPage.getContent(),
+        PageResponseDTO<PurchasedPackageResponseDTO> response = new PageResponseDTO<>(
+                purchasedPackageMapper.toResponseDtoList(packagesPage.getContent()),
                 packagesPage.getNumber(),
                 packagesPage.getSize(),
                 packagesPage.getTotalElements(),
@@ -90,4 +94,19 @@ public class PurchasedPackageController {
 
         return ResponseEntity.ok(response);
     }
+
+    @GetMapping(value = "/patient/{patientId}", params = "cursor")
+    @PreAuthorize("hasAnyRole('ADMIN', 'NUTRITIONIST', 'PATIENT')")
+    public ResponseEntity<CursorPageResponseDTO<PurchasedPackageResponseDTO>> scrollPurchasedPackagesByPatient(
+            @PathVariable Integer patientId,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "purchaseDate") String sortBy,
+            @RequestParam(defaultValue = "DESC") String sortDirection) {
+
+        Sort.Direction direction = sortDirection.equalsIgnoreCase("DESC") ? Sort.Direction.DESC : Sort.Direction.ASC;
+
+        return ResponseEntity.ok(purchasedPackageService.scrollPurchasedPackagesByPatientId(patientId, cursor, size,
+                sortBy, direction));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,48 @@
+package com.effisoft.nlab.appointmentapi.controller;
+
+import com.effisoft.nlab.appointmentapi.dto.WaitlistEntryDTO;
+import com.effisoft.nlab.appointmentapi.entity.WaitlistEntry;
+import com.effisoft.nlab.appointmentapi.service.WaitlistService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/nutritionists/{nutritionistId}/waitlist")
+@Validated
+@RequiredArgsConstructor
+public class WaitlistController {
+    private final WaitlistService waitlistService;
+
+    @GetMapping
+    @PreAuthorize("hasAnyRole('ADMIN', 'NUTRITIONIST')")
+    public ResponseEntity<List<WaitlistEntry>> getWaitingEntries(@PathVariable Integer nutritionistId) {
+        List<WaitlistEntry> entries = waitlistService.getWaitingEntries(nutritionistId);
+        return ResponseEntity.ok(entries);
+    }
+
+    @PostMapping
+    @PreAuthorize("hasAnyRole('ADMIN', 'NUTRITIONIST')")
+    public ResponseEntity<WaitlistEntry> addEntry(
+            @PathVariable Integer nutritionistId,
+            @Valid @RequestBody WaitlistEntryDTO waitlistEntryDTO) {
+        WaitlistEntry entry = waitlistService.addEntry(nutritionistId, waitlistEntryDTO);
+        return new ResponseEntity<>(entry, HttpStatus.CREATED);
+    }
+
+    @DeleteMapping("/{entryId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'NUTRITIONIST')")
+    public ResponseEntity<Void> cancelEntry(
+            @PathVariable Integer nutritionistId,
+            @PathVariable Integer entryId) {
+        waitlistService.cancelEntry(nutritionistId, entryId);
+        return ResponseEntity.noContent().build();
+    }
+}
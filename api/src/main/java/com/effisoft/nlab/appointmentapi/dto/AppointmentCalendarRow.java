@@ -0,0 +1,24 @@
+package com.effisoft.nlab.appointmentapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat calendar entry of an appointment, filled by a single join query so calendar views
+ * do not load the package, patient and package type entities of every row.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentCalendarRow {
+    private Integer id;
+    private LocalDateTime appointmentDateTime;
+    private String status;
+    private Integer purchasedPackageId;
+    private Integer patientId;
+    private String patientName;
+    private String packageName;
+}
@@ -0,0 +1,35 @@
+package com.effisoft.nlab.appointmentapi.dto;
+
+import com.effisoft.nlab.appointmentapi.event.AppointmentChangedEvent;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Appointment change pushed to the nutritionist's open dashboards
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentChangeDTO {
+    private String changeType;
+    private Integer appointmentId;
+    private Integer nutritionistId;
+    private LocalDateTime appointmentDateTime;
+    private String status;
+    private LocalDateTime previousDateTime;
+    private String previousStatus;
+
+    public static AppointmentChangeDTO from(AppointmentChangedEvent event) {
+        return new AppointmentChangeDTO(
+                event.getChangeType().name(),
+                event.getAppointmentId(),
+                event.getNutritionistId(),
+                event.getAppointmentDateTime(),
+                event.getStatus(),
+                event.getPreviousDateTime(),
+                event.getPreviousStatus());
+    }
+}
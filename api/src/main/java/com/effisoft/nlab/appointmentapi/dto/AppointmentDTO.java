@@ -24,4 +24,9 @@ public class AppointmentDTO {
     private String status;
 
     private String notes;
+
+    /**
+     * Hold placed on the slot while the booking form was filled, released once booked
+     */
+    private String holdId;
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.effisoft.nlab.appointmentapi.dto;
+
+/**
+ * Patient of an appointment, read without loading the appointment and its package
+ */
+public interface AppointmentPatient {
+    Integer getAppointmentId();
+
+    Integer getPatientId();
+}
@@ -0,0 +1,26 @@
+package com.effisoft.nlab.appointmentapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of a bulk reassignment for one appointment
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentReassignmentDTO {
+    private Integer appointmentId;
+    private Integer previousNutritionistId;
+    private LocalDateTime previousDateTime;
+    private Integer nutritionistId;
+    private LocalDateTime appointmentDateTime;
+    private boolean moved;
+
+    /**
+     * Why the appointment was left in place, null when it moved
+     */
+    private String reason;
+}
@@ -0,0 +1,21 @@
+package com.effisoft.nlab.appointmentapi.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Appointment as returned by the API. The package and nutritionist are referenced by id,
+ * reading them never loads the associations.
+ */
+@Data
+public class AppointmentResponseDTO {
+    private Integer id;
+    private Integer purchasedPackageId;
+    private Integer nutritionistId;
+    private LocalDateTime appointmentDateTime;
+    private String status;
+    private String notes;
+    private Boolean packageExpired;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,49 @@
+package com.effisoft.nlab.appointmentapi.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.Data;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Recurrence rule for booking several appointments of a package at once, e.g. every
+ * Tuesday at 10:00 starting on the first appointment date.
+ */
+@Data
+public class AppointmentSeriesDTO {
+    @NotNull(message = "Purchased package ID is required")
+    private Integer purchasedPackageId;
+
+    @NotNull(message = "Nutritionist ID is required")
+    private Integer nutritionistId;
+
+    /**
+     * Date and time of the first session. Every session uses the same time of day.
+     */
+    @NotNull(message = "First appointment date/time is required")
+    @Future(message = "First appointment date/time must be in the future")
+    private LocalDateTime firstAppointmentDateTime;
+
+    /**
+     * Days of the week to book. Defaults to the day of the first appointment.
+     */
+    private Set<DayOfWeek> daysOfWeek;
+
+    /**
+     * Number of weeks between booked weeks, 1 for weekly, 2 for every other week
+     */
+    @Min(value = 1, message = "Interval weeks must be at least 1")
+    @Max(value = 12, message = "Interval weeks must not exceed 12")
+    private Integer intervalWeeks = 1;
+
+    /**
+     * Number of sessions to book. Defaults to the remaining appointments of the package.
+     */
+    @Min(value = 1, message = "Occurrences must be at least 1")
+    @Max(value = 52, message = "Occurrences must not exceed 52")
+    private Integer occurrences;
+
+    private String notes;
+}
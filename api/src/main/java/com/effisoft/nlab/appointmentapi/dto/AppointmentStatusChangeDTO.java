@@ -0,0 +1,15 @@
+package com.effisoft.nlab.appointmentapi.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.Data;
+
+@Data
+public class AppointmentStatusChangeDTO {
+    @NotNull(message = "Appointment ID is required")
+    private Integer id;
+
+    @NotBlank(message = "Status is required")
+    @Pattern(regexp = "^(AGENDADA|COMPLETADA|CANCELADA|REAGENDADA|NO_ASISTENCIA)$",
+            message = "Invalid status. Must be one of: AGENDADA, COMPLETADA, CANCELADA, REAGENDADA, NO_ASISTENCIA")
+    private String status;
+}
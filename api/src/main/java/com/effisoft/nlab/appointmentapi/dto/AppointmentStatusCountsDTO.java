@@ -0,0 +1,19 @@
+package com.effisoft.nlab.appointmentapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.Map;
+
+/**
+ * Number of appointments in each status for a nutritionist, a patient or a day
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentStatusCountsDTO {
+    private String scope;
+    private String scopeKey;
+    private Map<String, Long> counts;
+    private long total;
+}
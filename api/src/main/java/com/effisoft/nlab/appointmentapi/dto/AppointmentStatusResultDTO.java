@@ -0,0 +1,22 @@
+package com.effisoft.nlab.appointmentapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of a batch status update for one appointment
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentStatusResultDTO {
+    private Integer appointmentId;
+    private String status;
+    private boolean updated;
+
+    /**
+     * Why the status was not changed, null when it was
+     */
+    private String error;
+}
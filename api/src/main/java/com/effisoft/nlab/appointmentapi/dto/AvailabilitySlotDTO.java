@@ -0,0 +1,17 @@
+package com.effisoft.nlab.appointmentapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilitySlotDTO {
+    private Integer nutritionistId;
+    private String nutritionistName;
+    private LocalDateTime start;
+    private LocalDateTime end;
+}
@@ -0,0 +1,21 @@
+package com.effisoft.nlab.appointmentapi.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class BlockOutDTO {
+    private Integer id;
+
+    @NotNull(message = "Start date/time is required")
+    private LocalDateTime startDateTime;
+
+    @NotNull(message = "End date/time is required")
+    private LocalDateTime endDateTime;
+
+    @Size(max = 200, message = "Reason must not exceed 200 characters")
+    private String reason;
+}
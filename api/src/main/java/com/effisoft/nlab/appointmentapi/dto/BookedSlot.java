@@ -0,0 +1,14 @@
+package com.effisoft.nlab.appointmentapi.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lightweight projection of an occupied appointment slot
+ */
+public interface BookedSlot {
+    Integer getAppointmentId();
+
+    Integer getNutritionistId();
+
+    LocalDateTime getAppointmentDateTime();
+}
@@ -0,0 +1,33 @@
+package com.effisoft.nlab.appointmentapi.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Moves the active appointments of a nutritionist within a date range to another
+ * nutritionist, to another time, or both, e.g. when the nutritionist is out sick.
+ */
+@Data
+public class BulkReassignDTO {
+    @NotNull(message = "Source nutritionist ID is required")
+    private Integer sourceNutritionistId;
+
+    @NotNull(message = "Start date/time is required")
+    private LocalDateTime startDateTime;
+
+    @NotNull(message = "End date/time is required")
+    private LocalDateTime endDateTime;
+
+    /**
+     * Nutritionist taking over the appointments. Defaults to the source nutritionist.
+     */
+    private Integer targetNutritionistId;
+
+    /**
+     * Minutes every appointment is moved by, negative to move earlier. Defaults to 0.
+     */
+    @Min(value = -43200, message = "Shift minutes must not exceed 30 days")
+    @Max(value = 43200, message = "Shift minutes must not exceed 30 days")
+    private Integer shiftMinutes;
+}
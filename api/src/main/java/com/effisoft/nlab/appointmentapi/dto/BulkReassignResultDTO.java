@@ -0,0 +1,15 @@
+package com.effisoft.nlab.appointmentapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkReassignResultDTO {
+    private int moved;
+    private int skipped;
+    private List<AppointmentReassignmentDTO> results;
+}
@@ -0,0 +1,22 @@
+package com.effisoft.nlab.appointmentapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Page of a keyset (cursor) listing. Unlike {@link PageResponseDTO} it carries no totals,
+ * fetching the next page means passing {@code nextCursor} back as the {@code cursor}
+ * parameter.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResponseDTO<T> {
+    private List<T> content;
+    private int pageSize;
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,22 @@
+package com.effisoft.nlab.appointmentapi.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Payment period as returned by the API, with the nutritionist it was fetched with
+ */
+@Data
+public class NutritionistPaymentPeriodResponseDTO {
+    private Integer id;
+    private NutritionistDTO nutritionist;
+    private LocalDate periodStartDate;
+    private LocalDate periodEndDate;
+    private Integer totalAppointments;
+    private BigDecimal totalAmount;
+    private String paymentStatus;
+    private LocalDateTime processedDate;
+}
@@ -0,0 +1,8 @@
+package com.effisoft.nlab.appointmentapi.dto;
+
+/**
+ * Payment period totals of one nutritionist, a row of the payroll run aggregate
+ */
+public interface NutritionistPaymentTotals extends PaymentPeriodTotals {
+    Integer getNutritionistId();
+}
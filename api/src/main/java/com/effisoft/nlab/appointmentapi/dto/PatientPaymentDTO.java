@@ -1,6 +1,7 @@
 package com.effisoft.nlab.appointmentapi.dto;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
@@ -20,4 +21,9 @@ public class PatientPaymentDTO {
 
     @Min(value = 1, message = "Total Paid must be at least 1")
     private BigDecimal totalPaid;
+
+    /**
+     * Set by the server when the payment is recorded
+     */
+    private LocalDateTime paymentDate;
 }
@@ -3,18 +3,16 @@ package com.effisoft.nlab.appointmentapi.dto;
 import java.math.BigDecimal;
 import java.util.List;
 
-import com.effisoft.nlab.appointmentapi.entity.PurchasedPackage;
-
 public class PatientPurchasedPackageDTO {
-    private PurchasedPackage purchasedPackage;
+    private PurchasedPackageResponseDTO purchasedPackage;
     private List<PatientPackagePaymentsDTO> patientPayments;
     private BigDecimal packagePaidTotal;
 
-    public PurchasedPackage getPurchasedPackage() {
+    public PurchasedPackageResponseDTO getPurchasedPackage() {
         return purchasedPackage;
     }
 
-    public void setPurchasedPackage(PurchasedPackage purchasedPackage) {
+    public void setPurchasedPackage(PurchasedPackageResponseDTO purchasedPackage) {
         this.purchasedPackage = purchasedPackage;
     }
 
@@ -23,17 +21,17 @@ public class PatientPurchasedPackageDTO {
     }
 
     public void setPatientPayments(List<PatientPackagePaymentsDTO> patientPayments) {
-        this.packagePaidTotal = BigDecimal.ZERO;
         this.patientPayments = patientPayments;
-
-        if (this.patientPayments != null && !this.patientPayments.isEmpty()) {
-            this.packagePaidTotal = this.patientPayments.stream()
-                    .map(PatientPackagePaymentsDTO::getTotalPaid)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-        }
     }
 
     public BigDecimal getPackagePaidTotal() {
         return packagePaidTotal;
     }
+
+    /**
+     * Running total kept on the purchased package, not summed from the payments
+     */
+    public void setPackagePaidTotal(BigDecimal packagePaidTotal) {
+        this.packagePaidTotal = packagePaidTotal;
+    }
 }
@@ -0,0 +1,16 @@
+package com.effisoft.nlab.appointmentapi.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Completed appointments of a nutritionist in a payment period and the sum of their
+ * nutritionist rates, aggregated by the database
+ */
+public interface PaymentPeriodTotals {
+    Long getTotalAppointments();
+
+    /**
+     * Null when the period has no completed appointments
+     */
+    BigDecimal getTotalAmount();
+}
@@ -0,0 +1,21 @@
+package com.effisoft.nlab.appointmentapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PayrollRunResultDTO {
+    private LocalDate periodStartDate;
+    private LocalDate periodEndDate;
+    private int created;
+    private int skippedOverlapping;
+    private int skippedWithoutAppointments;
+    private long totalAppointments;
+    private BigDecimal totalAmount;
+    private long durationMillis;
+}
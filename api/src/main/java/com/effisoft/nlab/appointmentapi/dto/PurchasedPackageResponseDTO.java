@@ -0,0 +1,23 @@
+package com.effisoft.nlab.appointmentapi.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Purchased package as returned by the API, with the patient and package type it was
+ * fetched with
+ */
+@Data
+public class PurchasedPackageResponseDTO {
+    private Integer id;
+    private PatientDTO patient;
+    private PackageTypeDTO packageType;
+    private LocalDateTime purchaseDate;
+    private Boolean paidInFull;
+    private BigDecimal paidTotal;
+    private Integer remainingAppointments;
+    private LocalDateTime expirationDate;
+    private Boolean expired;
+}
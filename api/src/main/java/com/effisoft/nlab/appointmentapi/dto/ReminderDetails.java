@@ -0,0 +1,27 @@
+package com.effisoft.nlab.appointmentapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Current state of an appointment and the contact data of its patient, loaded for a whole
+ * batch of reminders by a single join query.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReminderDetails {
+    private Integer appointmentId;
+    private LocalDateTime appointmentDateTime;
+    private String status;
+    private Integer patientId;
+    private String patientFirstName;
+    private String patientLastName;
+    private String patientEmail;
+    private String patientPhone;
+    private String nutritionistFirstName;
+    private String nutritionistLastName;
+}
@@ -0,0 +1,21 @@
+package com.effisoft.nlab.appointmentapi.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+public class SlotHoldDTO {
+    @NotNull(message = "Nutritionist ID is required")
+    private Integer nutritionistId;
+
+    @NotNull(message = "Appointment date/time is required")
+    @Future(message = "Appointment date/time must be in the future")
+    private LocalDateTime appointmentDateTime;
+
+    /**
+     * How long the slot stays held, defaults to nlab.booking.hold-ttl-minutes
+     */
+    @Positive(message = "Hold minutes must be positive")
+    private Integer minutes;
+}
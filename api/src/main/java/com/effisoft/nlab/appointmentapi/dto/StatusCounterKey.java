@@ -0,0 +1,19 @@
+package com.effisoft.nlab.appointmentapi.dto;
+
+import java.util.Comparator;
+
+/**
+ * Identifies one appointment status counter
+ */
+public record StatusCounterKey(String scope, String scopeKey, String status) implements Comparable<StatusCounterKey> {
+
+    private static final Comparator<StatusCounterKey> ORDER = Comparator
+            .comparing(StatusCounterKey::scope)
+            .thenComparing(StatusCounterKey::scopeKey)
+            .thenComparing(StatusCounterKey::status);
+
+    @Override
+    public int compareTo(StatusCounterKey other) {
+        return ORDER.compare(this, other);
+    }
+}
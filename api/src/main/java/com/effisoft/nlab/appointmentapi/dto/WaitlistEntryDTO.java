@@ -0,0 +1,19 @@
+package com.effisoft.nlab.appointmentapi.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+public class WaitlistEntryDTO {
+    @NotNull(message = "Purchased package ID is required")
+    private Integer purchasedPackageId;
+
+    @NotNull(message = "Earliest date/time is required")
+    @Future(message = "Earliest date/time must be in the future")
+    private LocalDateTime earliestDateTime;
+
+    @NotNull(message = "Latest date/time is required")
+    @Future(message = "Latest date/time must be in the future")
+    private LocalDateTime latestDateTime;
+}
@@ -0,0 +1,23 @@
+package com.effisoft.nlab.appointmentapi.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+/**
+ * One working window of a nutritionist's weekly template, e.g. Monday 09:00 to 13:00.
+ * Times must fall on 15-minute boundaries; an end time of 00:00 means midnight.
+ */
+@Data
+public class WorkingHoursDTO {
+    @NotNull(message = "Day of week is required")
+    private DayOfWeek dayOfWeek;
+
+    @NotNull(message = "Start time is required")
+    private LocalTime startTime;
+
+    @NotNull(message = "End time is required")
+    private LocalTime endTime;
+}
@@ -14,12 +14,12 @@ public class Appointment {
     private Integer id;
 
     @NotNull(message = "Purchased package is required")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "PurchasedPackageID", nullable = false)
     private PurchasedPackage purchasedPackage;
 
     @NotNull(message = "Nutritionist is required")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "NutritionistID", nullable = false)
     private Nutritionist nutritionist;
 
@@ -36,6 +36,11 @@ public class Appointment {
 
     private String notes;
 
+    /**
+     * Set on active future appointments whose package expired before they took place
+     */
+    private Boolean packageExpired = false;
+
     @Column(nullable = false)
     private LocalDateTime createdAt;
 
@@ -16,7 +16,7 @@ public class AppointmentNotes {
     private Integer id;
 
     @NotNull(message = "Appointment is required")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "AppointmentID", nullable = false)
     private Appointment appointment;
 
@@ -0,0 +1,69 @@
+package com.effisoft.nlab.appointmentapi.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.LocalDateTime;
+
+/**
+ * Denormalized row per appointment with the patient, nutritionist and package names
+ * already resolved, so patient and calendar reads do not join. Rows are written by
+ * {@link com.effisoft.nlab.appointmentapi.service.AppointmentReadModelProjector} in the
+ * transaction of every appointment or name change.
+ */
+@Data
+@Entity
+@Table(name = "AppointmentReadModel")
+public class AppointmentReadModel {
+    @Id
+    @Column(name = "AppointmentId")
+    private Integer appointmentId;
+
+    @Column(name = "PatientId")
+    private Integer patientId;
+
+    @Column(name = "PatientName")
+    private String patientName;
+
+    @Column(name = "NutritionistId")
+    private Integer nutritionistId;
+
+    @Column(name = "NutritionistName")
+    private String nutritionistName;
+
+    @Column(name = "PurchasedPackageId")
+    private Integer purchasedPackageId;
+
+    @Column(name = "PackageTypeId")
+    private Integer packageTypeId;
+
+    @Column(name = "PackageName")
+    private String packageName;
+
+    @Column(name = "AppointmentDateTime")
+    private LocalDateTime appointmentDateTime;
+
+    @Column(name = "Status")
+    private String status;
+
+    @Column(name = "CreatedAt")
+    private LocalDateTime createdAt;
+
+    @Column(name = "UpdatedAt")
+    private LocalDateTime updatedAt;
+
+    /**
+     * Date part of the appointment, kept in the JSON for clients of the former view
+     */
+    public LocalDate getAppointmentDate() {
+        return appointmentDateTime == null ? null : appointmentDateTime.toLocalDate();
+    }
+
+    /**
+     * Time part of the appointment, kept in the JSON for clients of the former view
+     */
+    public LocalTime getAppointmentTime() {
+        return appointmentDateTime == null ? null : appointmentDateTime.toLocalTime();
+    }
+}
@@ -0,0 +1,40 @@
+package com.effisoft.nlab.appointmentapi.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Number of appointments currently in a status for a nutritionist, a patient or a day.
+ * Written only through the status projector, read by dashboards.
+ */
+@Data
+@Entity
+@Table(name = "AppointmentStatusCounter")
+public class AppointmentStatusCounter {
+    public static final String NUTRITIONIST = "NUTRITIONIST";
+    public static final String PATIENT = "PATIENT";
+    public static final String DAY = "DAY";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 20)
+    private String scope;
+
+    /**
+     * Nutritionist or patient id, or the ISO date of the day
+     */
+    @Column(nullable = false, length = 20)
+    private String scopeKey;
+
+    @Column(nullable = false, length = 20)
+    private String status;
+
+    @Column(nullable = false)
+    private Long appointmentCount;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
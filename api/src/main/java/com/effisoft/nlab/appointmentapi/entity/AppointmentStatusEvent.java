@@ -0,0 +1,48 @@
+package com.effisoft.nlab.appointmentapi.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Entry of the append-only appointment history. One row is written for every change of an
+ * appointment, in the transaction that made it, and never updated.
+ */
+@Data
+@Entity
+@Table(name = "AppointmentStatusEvent")
+public class AppointmentStatusEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Integer appointmentId;
+
+    @Column(nullable = false, length = 20)
+    private String changeType;
+
+    @Column(nullable = false)
+    private Integer patientId;
+
+    /**
+     * State before the change, null when the appointment was scheduled
+     */
+    private Integer previousNutritionistId;
+    private LocalDateTime previousDateTime;
+
+    @Column(length = 20)
+    private String previousStatus;
+
+    @Column(nullable = false)
+    private Integer nutritionistId;
+
+    @Column(nullable = false)
+    private LocalDateTime appointmentDateTime;
+
+    @Column(nullable = false, length = 20)
+    private String status;
+
+    @Column(nullable = false)
+    private LocalDateTime occurredAt;
+}
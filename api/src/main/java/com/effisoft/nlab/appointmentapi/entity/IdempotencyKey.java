@@ -0,0 +1,54 @@
+package com.effisoft.nlab.appointmentapi.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Mutating request seen with an {@code Idempotency-Key} header. The row is claimed before
+ * the request runs and completed with its response, so a retry on any API instance
+ * replays the stored response instead of running the request again.
+ */
+@Data
+@Entity
+@Table(name = "IdempotencyKey")
+public class IdempotencyKey {
+    public static final String IN_PROGRESS = "IN_PROGRESS";
+    public static final String COMPLETED = "COMPLETED";
+
+    /**
+     * Caller scope and key, {@code <subject>:<Idempotency-Key>}
+     */
+    @Id
+    @Column(length = 200)
+    private String id;
+
+    /**
+     * SHA-256 of the method, path, query and body, a key reused for another request is rejected
+     */
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    @Column(nullable = false, length = 20)
+    private String status;
+
+    private Integer responseStatus;
+
+    @Column(length = 100)
+    private String contentType;
+
+    private byte[] responseBody;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Until when the claiming instance is presumed to still run the request, another
+     * instance may take an in-progress key over afterwards
+     */
+    @Column(nullable = false)
+    private LocalDateTime lockedUntil;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
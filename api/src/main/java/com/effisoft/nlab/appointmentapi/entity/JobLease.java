@@ -0,0 +1,34 @@
+package com.effisoft.nlab.appointmentapi.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Lease that lets a single API instance run a background job at a time. The holder
+ * heartbeats it while working, another instance takes it over once it expires.
+ */
+@Data
+@Entity
+@Table(name = "JobLease")
+public class JobLease {
+    @Id
+    @Column(length = 100)
+    private String jobName;
+
+    @Column(length = 100)
+    private String lockedBy;
+
+    private LocalDateTime lockedUntil;
+
+    /**
+     * Last time the holder confirmed it is still running the job
+     */
+    private LocalDateTime heartbeatAt;
+
+    /**
+     * Last id processed by a job that scans a table over several runs, null when the
+     * next run starts from the beginning
+     */
+    private Integer resumeAfterId;
+}
@@ -0,0 +1,54 @@
+package com.effisoft.nlab.appointmentapi.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Notification waiting to be delivered. Rows are written in the transaction that changed
+ * the appointment and drained by the notification dispatcher.
+ */
+@Data
+@Entity
+@Table(name = "NotificationOutbox")
+public class NotificationOutbox {
+    public static final String PENDING = "PENDING";
+    public static final String SENT = "SENT";
+    public static final String CANCELLED = "CANCELLED";
+    public static final String DEAD = "DEAD";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Integer appointmentId;
+
+    @Column(nullable = false, length = 30)
+    private String kind;
+
+    @Column(nullable = false, length = 20)
+    private String status;
+
+    @Column(nullable = false)
+    private Integer attempts;
+
+    /**
+     * Due time of the first attempt, pushed back by the retry backoff after a failure
+     */
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 500)
+    private String lastError;
+
+    private LocalDateTime sentAt;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,33 @@
+package com.effisoft.nlab.appointmentapi.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "NutritionistBlockOut")
+public class NutritionistBlockOut {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @NotNull(message = "Nutritionist is required")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "NutritionistID", nullable = false)
+    private Nutritionist nutritionist;
+
+    @NotNull(message = "Start date/time is required")
+    @Column(nullable = false)
+    private LocalDateTime startDateTime;
+
+    @NotNull(message = "End date/time is required")
+    @Column(nullable = false)
+    private LocalDateTime endDateTime;
+
+    @Size(max = 200, message = "Reason must not exceed 200 characters")
+    private String reason;
+
+    private LocalDateTime createdAt;
+}
@@ -16,7 +16,7 @@ public class NutritionistPaymentPeriod {
     private Integer id;
 
     @NotNull(message = "Nutritionist is required")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "NutritionistID", nullable = false)
     private Nutritionist nutritionist;
 
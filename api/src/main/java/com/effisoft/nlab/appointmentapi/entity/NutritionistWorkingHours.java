@@ -0,0 +1,37 @@
+package com.effisoft.nlab.appointmentapi.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.*;
+import lombok.Data;
+import java.time.LocalTime;
+
+@Data
+@Entity
+@Table(name = "NutritionistWorkingHours")
+public class NutritionistWorkingHours {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @NotNull(message = "Nutritionist is required")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "NutritionistID", nullable = false)
+    private Nutritionist nutritionist;
+
+    /**
+     * ISO day of the week, 1 for Monday through 7 for Sunday
+     */
+    @NotNull(message = "Day of week is required")
+    @Min(value = 1, message = "Day of week must be between 1 and 7")
+    @Max(value = 7, message = "Day of week must be between 1 and 7")
+    @Column(nullable = false)
+    private Integer dayOfWeek;
+
+    @NotNull(message = "Start time is required")
+    @Column(nullable = false)
+    private LocalTime startTime;
+
+    @NotNull(message = "End time is required")
+    @Column(nullable = false)
+    private LocalTime endTime;
+}
@@ -5,6 +5,7 @@ import java.time.LocalDateTime;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -24,16 +25,16 @@ public class PatientPayment {
     private Integer id;
 
     @NotNull(message = "Purchased Package is required")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "PurchasedPackageID", nullable = false)
     private PurchasedPackage purchasedPackage;
 
     @NotNull(message = "Payment Method is required")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "PaymentMethodID", nullable = false)
     private PaymentMethod paymentMethod;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "CardPaymentTypeID", nullable = false)
     private CardPaymentType cardPaymentType;
 
@@ -3,6 +3,7 @@ package com.effisoft.nlab.appointmentapi.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.Data;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
@@ -14,12 +15,12 @@ public class PurchasedPackage {
     private Integer id;
 
     @NotNull(message = "Patient is required")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "PatientID", nullable = false)
     private Patient patient;
 
     @NotNull(message = "Package type is required")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "PackageTypeID", nullable = false)
     private PackageType packageType;
 
@@ -28,10 +29,25 @@ public class PurchasedPackage {
 
     private Boolean paidInFull;
 
+    /**
+     * Sum of the payments of the package, maintained by the payment insert and
+     * recomputed by the paid total repair job. Only those conditional updates write it,
+     * a save of the entity would put back the total it read.
+     */
+    @Column(nullable = false, precision = 10, scale = 2, updatable = false)
+    private BigDecimal paidTotal = BigDecimal.ZERO;
+
     @NotNull(message = "Remaining appointments is required")
     @Min(value = 0, message = "Remaining appointments cannot be negative")
     @Column(nullable = false)
     private Integer remainingAppointments;
 
     private LocalDateTime expirationDate;
+
+    /**
+     * Set by the expired package sweeper once the expiration date has passed and cleared
+     * when the package is extended, both through their own updates
+     */
+    @Column(nullable = false, updatable = false)
+    private Boolean expired = false;
 }
\ No newline at end of file
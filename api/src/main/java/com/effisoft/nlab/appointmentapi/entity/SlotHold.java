@@ -0,0 +1,38 @@
+package com.effisoft.nlab.appointmentapi.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Short-lived reservation of a nutritionist slot while a booking form is being filled.
+ * Kept in memory by default and in the SlotHold table when several API instances
+ * share the database.
+ */
+@Data
+@Entity
+@Table(name = "SlotHold")
+public class SlotHold {
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(nullable = false)
+    private Integer nutritionistId;
+
+    @Column(nullable = false)
+    private LocalDateTime startsAt;
+
+    @Column(nullable = false)
+    private LocalDateTime endsAt;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    /**
+     * Whether the hold covers part of [from, to) and is still active at the given instant
+     */
+    public boolean overlaps(LocalDateTime from, LocalDateTime to, LocalDateTime now) {
+        return startsAt.isBefore(to) && endsAt.isAfter(from) && expiresAt.isAfter(now);
+    }
+}
@@ -0,0 +1,60 @@
+package com.effisoft.nlab.appointmentapi.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Patient asking for an earlier appointment with a nutritionist. When an appointment in
+ * the requested window is cancelled the slot is booked for the oldest waiting request.
+ */
+@Data
+@Entity
+@Table(name = "WaitlistEntry")
+public class WaitlistEntry {
+    public static final String WAITING = "WAITING";
+    public static final String BOOKED = "BOOKED";
+    public static final String CANCELLED = "CANCELLED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(nullable = false)
+    private Integer nutritionistId;
+
+    @Column(nullable = false)
+    private Integer patientId;
+
+    @Column(nullable = false)
+    private Integer purchasedPackageId;
+
+    /**
+     * Window of acceptable appointment start times
+     */
+    @Column(nullable = false)
+    private LocalDateTime earliestDateTime;
+
+    @Column(nullable = false)
+    private LocalDateTime latestDateTime;
+
+    @Column(nullable = false, length = 20)
+    private String status;
+
+    /**
+     * Appointment booked for the request once a slot was found
+     */
+    private Integer appointmentId;
+
+    @Column(nullable = false)
+    private LocalDateTime requestedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        requestedAt = LocalDateTime.now();
+    }
+
+    public boolean accepts(LocalDateTime slot) {
+        return !slot.isBefore(earliestDateTime) && !slot.isAfter(latestDateTime);
+    }
+}
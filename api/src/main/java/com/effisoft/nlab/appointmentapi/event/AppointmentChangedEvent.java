@@ -0,0 +1,58 @@
+package com.effisoft.nlab.appointmentapi.event;
+
+import com.effisoft.nlab.appointmentapi.entity.Appointment;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by the appointment service whenever an appointment is created or its
+ * slot/status changes. Carries the slot before and after the change so listeners can
+ * update their own state without reloading the appointment.
+ */
+@Value
+public class AppointmentChangedEvent {
+    public enum ChangeType {
+        SCHEDULED, UPDATED, CANCELLED
+    }
+
+    ChangeType changeType;
+    Integer appointmentId;
+
+    Integer previousNutritionistId;
+    LocalDateTime previousDateTime;
+    String previousStatus;
+
+    Integer nutritionistId;
+    LocalDateTime appointmentDateTime;
+    String status;
+
+    public static AppointmentChangedEvent scheduled(Appointment appointment) {
+        return new AppointmentChangedEvent(
+                ChangeType.SCHEDULED,
+                appointment.getId(),
+                null,
+                null,
+                null,
+                appointment.getNutritionist().getId(),
+                appointment.getAppointmentDateTime(),
+                appointment.getStatus());
+    }
+
+    public static AppointmentChangedEvent changed(
+            ChangeType changeType,
+            Integer previousNutritionistId,
+            LocalDateTime previousDateTime,
+            String previousStatus,
+            Appointment appointment) {
+        return new AppointmentChangedEvent(
+                changeType,
+                appointment.getId(),
+                previousNutritionistId,
+                previousDateTime,
+                previousStatus,
+                appointment.getNutritionist().getId(),
+                appointment.getAppointmentDateTime(),
+                appointment.getStatus());
+    }
+}
@@ -0,0 +1,11 @@
+package com.effisoft.nlab.appointmentapi.event;
+
+import lombok.Value;
+
+/**
+ * Published when the working hours or block-outs of a nutritionist change
+ */
+@Value
+public class NutritionistScheduleChangedEvent {
+    Integer nutritionistId;
+}
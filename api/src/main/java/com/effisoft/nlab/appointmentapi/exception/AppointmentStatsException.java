@@ -0,0 +1,11 @@
+package com.effisoft.nlab.appointmentapi.exception;
+
+public class AppointmentStatsException extends AppointmentApiException {
+    public AppointmentStatsException(String message) {
+        super(message);
+    }
+
+    public AppointmentStatsException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,11 @@
+package com.effisoft.nlab.appointmentapi.exception;
+
+public class InvalidCursorException extends AppointmentApiException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+
+    public InvalidCursorException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
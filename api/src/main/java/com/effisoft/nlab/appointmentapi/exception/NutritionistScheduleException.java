@@ -0,0 +1,11 @@
+package com.effisoft.nlab.appointmentapi.exception;
+
+public class NutritionistScheduleException extends AppointmentApiException {
+    public NutritionistScheduleException(String message) {
+        super(message);
+    }
+
+    public NutritionistScheduleException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
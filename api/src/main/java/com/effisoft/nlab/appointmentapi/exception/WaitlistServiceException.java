@@ -0,0 +1,11 @@
+package com.effisoft.nlab.appointmentapi.exception;
+
+public class WaitlistServiceException extends AppointmentApiException {
+    public WaitlistServiceException(String message) {
+        super(message);
+    }
+
+    public WaitlistServiceException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,18 @@
+package com.effisoft.nlab.appointmentapi.mapper;
+
+import java.util.List;
+
+import org.mapstruct.*;
+
+import com.effisoft.nlab.appointmentapi.dto.AppointmentResponseDTO;
+import com.effisoft.nlab.appointmentapi.entity.Appointment;
+
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE)
+public interface AppointmentMapper {
+
+    @Mapping(target = "purchasedPackageId", source = "purchasedPackage.id")
+    @Mapping(target = "nutritionistId", source = "nutritionist.id")
+    AppointmentResponseDTO toResponseDto(Appointment entity);
+
+    List<AppointmentResponseDTO> toResponseDtoList(List<Appointment> entities);
+}
@@ -27,6 +27,7 @@ public abstract class AppointmentNotesMapper {
     @Mapping(target = "id", expression = "java(dto.getId() != null && dto.getId() > 0 ? dto.getId() : null)")
     public abstract AppointmentNotes toEntity(AppointmentNotesDTO dto);
 
+    @Mapping(target = "appointmentId", source = "appointment.id")
     public abstract AppointmentNotesDTO toDto(AppointmentNotes entity);
 
     public abstract List<AppointmentNotesDTO> toDtoList(List<AppointmentNotes> entities);
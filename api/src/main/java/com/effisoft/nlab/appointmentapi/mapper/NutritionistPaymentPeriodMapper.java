@@ -0,0 +1,19 @@
+package com.effisoft.nlab.appointmentapi.mapper;
+
+import java.util.List;
+
+import org.mapstruct.*;
+
+import com.effisoft.nlab.appointmentapi.dto.NutritionistPaymentPeriodResponseDTO;
+import com.effisoft.nlab.appointmentapi.entity.NutritionistPaymentPeriod;
+
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE)
+public interface NutritionistPaymentPeriodMapper {
+
+    /**
+     * Reads the nutritionist, callers pass periods fetched with it
+     */
+    NutritionistPaymentPeriodResponseDTO toResponseDto(NutritionistPaymentPeriod entity);
+
+    List<NutritionistPaymentPeriodResponseDTO> toResponseDtoList(List<NutritionistPaymentPeriod> entities);
+}
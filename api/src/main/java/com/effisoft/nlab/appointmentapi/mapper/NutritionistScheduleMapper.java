@@ -0,0 +1,24 @@
+package com.effisoft.nlab.appointmentapi.mapper;
+
+import java.time.DayOfWeek;
+import java.util.List;
+
+import org.mapstruct.*;
+
+import com.effisoft.nlab.appointmentapi.dto.BlockOutDTO;
+import com.effisoft.nlab.appointmentapi.dto.WorkingHoursDTO;
+import com.effisoft.nlab.appointmentapi.entity.NutritionistBlockOut;
+import com.effisoft.nlab.appointmentapi.entity.NutritionistWorkingHours;
+
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE, imports = DayOfWeek.class)
+public interface NutritionistScheduleMapper {
+
+    @Mapping(target = "dayOfWeek", expression = "java(DayOfWeek.of(entity.getDayOfWeek()))")
+    WorkingHoursDTO toDto(NutritionistWorkingHours entity);
+
+    List<WorkingHoursDTO> toWorkingHoursDtoList(List<NutritionistWorkingHours> entities);
+
+    BlockOutDTO toDto(NutritionistBlockOut entity);
+
+    List<BlockOutDTO> toBlockOutDtoList(List<NutritionistBlockOut> entities);
+}
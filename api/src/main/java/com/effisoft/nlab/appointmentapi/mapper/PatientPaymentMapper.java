@@ -18,7 +18,10 @@ public interface PatientPaymentMapper {
     @Mapping(target = "paymentDate", ignore = true)
     PatientPayment toEntity(PatientPaymentDTO dto);
 
-    PatientPaymentDTO tDto(PatientPayment entity);
+    @Mapping(target = "purchasedPackageId", source = "purchasedPackage.id")
+    @Mapping(target = "paymentMethodId", source = "paymentMethod.id")
+    @Mapping(target = "cardPaymentTypeId", source = "cardPaymentType.id")
+    PatientPaymentDTO toDto(PatientPayment entity);
 
     List<PatientPaymentDTO> toDtoList(List<PatientPayment> entities);
 
@@ -5,6 +5,7 @@ import java.util.List;
 import org.mapstruct.*;
 
 import com.effisoft.nlab.appointmentapi.dto.PurchasedPackageDTO;
+import com.effisoft.nlab.appointmentapi.dto.PurchasedPackageResponseDTO;
 import com.effisoft.nlab.appointmentapi.entity.PurchasedPackage;
 
 @Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE, nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
@@ -17,6 +18,13 @@ public interface PurchasedPackageMapper {
 
     List<PurchasedPackageDTO> toDtoList(List<PurchasedPackage> entities);
 
+    /**
+     * Reads the patient and package type, callers pass packages fetched with both
+     */
+    PurchasedPackageResponseDTO toResponseDto(PurchasedPackage entity);
+
+    List<PurchasedPackageResponseDTO> toResponseDtoList(List<PurchasedPackage> entities);
+
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     void updatePurchasedPackageFromDTO(PurchasedPackageDTO dto, @MappingTarget PurchasedPackage entity);
 
@@ -0,0 +1,66 @@
+package com.effisoft.nlab.appointmentapi.repository;
+
+import com.effisoft.nlab.appointmentapi.entity.Appointment;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC batch writes for appointments. Hibernate cannot batch inserts of IDENTITY
+ * entities, so bulk bookings go through a single JDBC batch instead. Status changes
+ * only write the status, so closing past appointments does not revalidate the entity.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AppointmentBatchRepository {
+    private static final String INSERT_APPOINTMENT =
+            "INSERT INTO Appointment (PurchasedPackageID, NutritionistID, AppointmentDateTime, Status, Notes, CreatedAt) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_STATUS = "UPDATE Appointment SET Status = ? WHERE Id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public int insertAll(List<Appointment> appointments) {
+        int[][] counts = jdbcTemplate.batchUpdate(INSERT_APPOINTMENT, appointments, appointments.size(),
+                (ps, appointment) -> {
+                    ps.setInt(1, appointment.getPurchasedPackage().getId());
+                    ps.setInt(2, appointment.getNutritionist().getId());
+                    ps.setTimestamp(3, Timestamp.valueOf(appointment.getAppointmentDateTime()));
+                    ps.setString(4, appointment.getStatus());
+                    ps.setString(5, appointment.getNotes());
+                    ps.setTimestamp(6, Timestamp.valueOf(appointment.getCreatedAt()));
+                });
+
+        return rowCount(counts);
+    }
+
+    /**
+     * Sets the status of each appointment in the map, keyed by appointment id
+     */
+    public int updateStatuses(Map<Integer, String> statusesById) {
+        int[][] counts = jdbcTemplate.batchUpdate(UPDATE_STATUS, new ArrayList<>(statusesById.entrySet()),
+                statusesById.size(),
+                (ps, change) -> {
+                    ps.setString(1, change.getValue());
+                    ps.setInt(2, change.getKey());
+                });
+        return rowCount(counts);
+    }
+
+    private static int rowCount(int[][] counts) {
+        int rows = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                // Drivers may report SUCCESS_NO_INFO (-2) instead of a row count
+                rows += count < 0 ? 1 : count;
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,108 @@
+package com.effisoft.nlab.appointmentapi.repository;
+
+import com.effisoft.nlab.appointmentapi.dto.AppointmentCalendarRow;
+import com.effisoft.nlab.appointmentapi.entity.AppointmentReadModel;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface AppointmentReadModelRepository extends JpaRepository<AppointmentReadModel, Integer>,
+        JpaSpecificationExecutor<AppointmentReadModel> {
+
+    Page<AppointmentReadModel> findByPatientId(Integer patientId, Pageable pageable);
+
+    static Specification<AppointmentReadModel> ofPatient(Integer patientId) {
+        return (root, query, cb) -> cb.equal(root.get("patientId"), patientId);
+    }
+
+    List<AppointmentReadModel> findByNutritionistId(Integer nutritionistId);
+
+    /*
+     * Date filters are half-open ranges on AppointmentDateTime so they seek on its indexes
+     */
+
+    default List<AppointmentReadModel> findByAppointmentDate(LocalDate date) {
+        return findByAppointmentDateTimeRange(date.atStartOfDay(), date.plusDays(1).atStartOfDay());
+    }
+
+    default List<AppointmentReadModel> findByPatientIdAndDateRange(Integer patientId, LocalDate startDate,
+            LocalDate endDate) {
+        return findByPatientIdAndAppointmentDateTimeRange(patientId, startDate.atStartOfDay(),
+                endDate.plusDays(1).atStartOfDay());
+    }
+
+    @Query("SELECT r FROM AppointmentReadModel r WHERE r.appointmentDateTime >= :from " +
+            "AND r.appointmentDateTime < :to ORDER BY r.appointmentDateTime")
+    List<AppointmentReadModel> findByAppointmentDateTimeRange(
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    @Query("SELECT r FROM AppointmentReadModel r WHERE r.patientId = :patientId " +
+            "AND r.appointmentDateTime >= :from AND r.appointmentDateTime < :to ORDER BY r.appointmentDateTime")
+    List<AppointmentReadModel> findByPatientIdAndAppointmentDateTimeRange(
+            @Param("patientId") Integer patientId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    /**
+     * Calendar rows of the nutritionist's appointments in the range
+     */
+    @Query("SELECT new com.effisoft.nlab.appointmentapi.dto.AppointmentCalendarRow(" +
+            "r.appointmentId, r.appointmentDateTime, r.status, r.purchasedPackageId, r.patientId, " +
+            "r.patientName, r.packageName) " +
+            "FROM AppointmentReadModel r " +
+            "WHERE r.nutritionistId = :nutritionistId " +
+            "AND r.appointmentDateTime BETWEEN :startDate AND :endDate " +
+            "ORDER BY r.appointmentDateTime")
+    List<AppointmentCalendarRow> findCalendarRows(
+            @Param("nutritionistId") Integer nutritionistId,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM AppointmentReadModel r WHERE r.appointmentId = :appointmentId")
+    int deleteByAppointmentId(@Param("appointmentId") Integer appointmentId);
+
+    /**
+     * Rebuilds the row of the appointment from the normalized tables. Pending changes are
+     * flushed first so the statement reads the state written by the current transaction.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO AppointmentReadModel (AppointmentId, PatientId, PatientName, NutritionistId, " +
+            "NutritionistName, PurchasedPackageId, PackageTypeId, PackageName, AppointmentDateTime, Status, " +
+            "CreatedAt, UpdatedAt) " +
+            "SELECT a.Id, pp.PatientID, CONCAT(p.FirstName, ' ', p.LastName), n.Id, " +
+            "CONCAT(n.FirstName, ' ', n.LastName), pp.Id, pt.Id, pt.Name, a.AppointmentDateTime, a.Status, " +
+            "a.CreatedAt, :updatedAt " +
+            "FROM Appointment a " +
+            "INNER JOIN PurchasedPackage pp ON pp.Id = a.PurchasedPackageID " +
+            "INNER JOIN Patient p ON p.Id = pp.PatientID " +
+            "INNER JOIN Nutritionist n ON n.Id = a.NutritionistID " +
+            "INNER JOIN PackageType pt ON pt.Id = pp.PackageTypeID " +
+            "WHERE a.Id = :appointmentId", nativeQuery = true)
+    int insertProjection(@Param("appointmentId") Integer appointmentId, @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE AppointmentReadModel r SET r.nutritionistName = :name WHERE r.nutritionistId = :nutritionistId")
+    int updateNutritionistName(@Param("nutritionistId") Integer nutritionistId, @Param("name") String name);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE AppointmentReadModel r SET r.patientName = :name WHERE r.patientId = :patientId")
+    int updatePatientName(@Param("patientId") Integer patientId, @Param("name") String name);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE AppointmentReadModel r SET r.packageName = :name WHERE r.packageTypeId = :packageTypeId")
+    int updatePackageName(@Param("packageTypeId") Integer packageTypeId, @Param("name") String name);
+}
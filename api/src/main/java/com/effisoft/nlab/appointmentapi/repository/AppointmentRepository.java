@@ -1,16 +1,144 @@
 package com.effisoft.nlab.appointmentapi.repository;
 
+import com.effisoft.nlab.appointmentapi.dto.AppointmentPatient;
+import com.effisoft.nlab.appointmentapi.dto.BookedSlot;
+import com.effisoft.nlab.appointmentapi.dto.NutritionistPaymentTotals;
+import com.effisoft.nlab.appointmentapi.dto.PaymentPeriodTotals;
+import com.effisoft.nlab.appointmentapi.dto.ReminderDetails;
 import com.effisoft.nlab.appointmentapi.entity.Appointment;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface AppointmentRepository extends JpaRepository<Appointment, Integer> {
+    @EntityGraph(attributePaths = {"purchasedPackage", "purchasedPackage.packageType"})
     List<Appointment> findByNutritionistIdAndAppointmentDateTimeBetween(
             Integer nutritionistId, LocalDateTime startDate, LocalDateTime endDate);
-            
-    boolean existsByNutritionistIdAndAppointmentDateTime(Integer nutritionistId, LocalDateTime appointmentDateTime);
-}
\ No newline at end of file
+
+    /**
+     * Count and rate sum of the nutritionist's appointments in a status, a single row
+     * computed from the (NutritionistID, Status, AppointmentDateTime) index
+     */
+    @Query("SELECT COUNT(a) AS totalAppointments, SUM(t.nutritionistRate) AS totalAmount " +
+            "FROM Appointment a JOIN a.purchasedPackage pp JOIN pp.packageType t " +
+            "WHERE a.nutritionist.id = :nutritionistId AND a.status = :status " +
+            "AND a.appointmentDateTime BETWEEN :startDate AND :endDate")
+    PaymentPeriodTotals sumNutritionistRates(
+            @Param("nutritionistId") Integer nutritionistId,
+            @Param("status") String status,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate);
+
+    /**
+     * Count and rate sum of the appointments in a status per nutritionist, one row for
+     * every nutritionist with appointments in the range, computed in a single pass over
+     * the (AppointmentDateTime) index
+     */
+    @Query("SELECT a.nutritionist.id AS nutritionistId, COUNT(a) AS totalAppointments, " +
+            "SUM(t.nutritionistRate) AS totalAmount " +
+            "FROM Appointment a JOIN a.purchasedPackage pp JOIN pp.packageType t " +
+            "WHERE a.status = :status AND a.appointmentDateTime BETWEEN :startDate AND :endDate " +
+            "GROUP BY a.nutritionist.id")
+    List<NutritionistPaymentTotals> sumNutritionistRatesByNutritionist(
+            @Param("status") String status,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate);
+
+    /**
+     * Checks whether any appointment of the nutritionist starts strictly inside
+     * (earliestStart, end). Callers pass earliestStart = start - duration so the
+     * check covers every appointment overlapping [start, end).
+     */
+    @Query("SELECT CASE WHEN COUNT(a) > 0 THEN true ELSE false END FROM Appointment a " +
+            "WHERE a.nutritionist.id = :nutritionistId " +
+            "AND a.status IN :statuses " +
+            "AND a.appointmentDateTime > :earliestStart " +
+            "AND a.appointmentDateTime < :end " +
+            "AND (:excludedId IS NULL OR a.id <> :excludedId)")
+    boolean existsOverlapping(
+            @Param("nutritionistId") Integer nutritionistId,
+            @Param("earliestStart") LocalDateTime earliestStart,
+            @Param("end") LocalDateTime end,
+            @Param("statuses") Collection<String> statuses,
+            @Param("excludedId") Integer excludedId);
+
+    @Query("SELECT a.id AS appointmentId, a.nutritionist.id AS nutritionistId, " +
+            "a.appointmentDateTime AS appointmentDateTime FROM Appointment a " +
+            "WHERE a.status IN :statuses AND a.appointmentDateTime BETWEEN :startDate AND :endDate")
+    List<BookedSlot> findBookedSlots(
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("statuses") Collection<String> statuses);
+
+    @Query("SELECT a.id AS appointmentId, a.nutritionist.id AS nutritionistId, " +
+            "a.appointmentDateTime AS appointmentDateTime FROM Appointment a " +
+            "WHERE a.nutritionist.id = :nutritionistId AND a.status IN :statuses " +
+            "AND a.appointmentDateTime BETWEEN :startDate AND :endDate")
+    List<BookedSlot> findBookedSlotsByNutritionist(
+            @Param("nutritionistId") Integer nutritionistId,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("statuses") Collection<String> statuses);
+
+    /**
+     * Active appointments of the nutritionist in the range with their packages, in the
+     * order the caller applies the changes
+     */
+    @EntityGraph(attributePaths = {"purchasedPackage", "nutritionist"})
+    @Query("SELECT a FROM Appointment a WHERE a.nutritionist.id = :nutritionistId " +
+            "AND a.status IN :statuses AND a.appointmentDateTime BETWEEN :startDate AND :endDate")
+    List<Appointment> findActiveByNutritionist(
+            @Param("nutritionistId") Integer nutritionistId,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("statuses") Collection<String> statuses,
+            Sort sort);
+
+    @Query("SELECT a.id AS appointmentId, a.purchasedPackage.patient.id AS patientId " +
+            "FROM Appointment a WHERE a.id IN :ids")
+    List<AppointmentPatient> findPatientIdsByIds(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Active appointments of a package with one nutritionist at the given times. The
+     * unique index on the active slots of a nutritionist allows one row per time, so
+     * cancelled appointments at the same times are not returned.
+     */
+    List<Appointment> findByPurchasedPackageIdAndNutritionistIdAndStatusAndAppointmentDateTimeIn(
+            Integer purchasedPackageId, Integer nutritionistId, String status,
+            Collection<LocalDateTime> appointmentDateTimes);
+
+    /**
+     * Flags the active appointments after the given instant that belong to one of the packages
+     * @return number of appointments flagged
+     */
+    @Modifying
+    @Query("UPDATE Appointment a SET a.packageExpired = true " +
+            "WHERE a.purchasedPackage.id IN :purchasedPackageIds AND a.appointmentDateTime > :after " +
+            "AND a.status IN :statuses")
+    int flagPackageExpired(@Param("purchasedPackageIds") Collection<Integer> purchasedPackageIds,
+            @Param("after") LocalDateTime after,
+            @Param("statuses") Collection<String> statuses);
+
+    /**
+     * Clears the flag on the appointments of a package whose expiration was extended
+     */
+    @Modifying
+    @Query("UPDATE Appointment a SET a.packageExpired = false " +
+            "WHERE a.purchasedPackage.id = :purchasedPackageId AND a.packageExpired = true")
+    int clearPackageExpired(@Param("purchasedPackageId") Integer purchasedPackageId);
+
+    @Query("SELECT new com.effisoft.nlab.appointmentapi.dto.ReminderDetails(a.id, a.appointmentDateTime, a.status, " +
+            "p.id, p.firstName, p.lastName, p.email, p.phone, n.firstName, n.lastName) " +
+            "FROM Appointment a JOIN a.purchasedPackage pp JOIN pp.patient p JOIN a.nutritionist n " +
+            "WHERE a.id IN :ids")
+    List<ReminderDetails> findReminderDetails(@Param("ids") Collection<Integer> ids);
+}
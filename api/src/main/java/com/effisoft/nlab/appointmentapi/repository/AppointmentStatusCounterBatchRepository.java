@@ -0,0 +1,138 @@
+package com.effisoft.nlab.appointmentapi.repository;
+
+import com.effisoft.nlab.appointmentapi.dto.StatusCounterKey;
+import com.effisoft.nlab.appointmentapi.entity.AppointmentStatusEvent;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.function.Consumer;
+
+/**
+ * JDBC writes of the appointment status counters and streaming reads of the status log
+ */
+@Repository
+@RequiredArgsConstructor
+public class AppointmentStatusCounterBatchRepository {
+    private static final String MERGE_COUNTER =
+            "MERGE AppointmentStatusCounter WITH (HOLDLOCK) AS c " +
+            "USING (VALUES (?, ?, ?, ?)) AS d (Scope, ScopeKey, Status, Delta) " +
+            "ON c.Scope = d.Scope AND c.ScopeKey = d.ScopeKey AND c.Status = d.Status " +
+            "WHEN MATCHED THEN UPDATE SET AppointmentCount = c.AppointmentCount + d.Delta, UpdatedAt = SYSDATETIME() " +
+            "WHEN NOT MATCHED THEN INSERT (Scope, ScopeKey, Status, AppointmentCount, UpdatedAt) " +
+            "VALUES (d.Scope, d.ScopeKey, d.Status, d.Delta, SYSDATETIME());";
+
+    private static final String INSERT_COUNTER =
+            "INSERT INTO AppointmentStatusCounter (Scope, ScopeKey, Status, AppointmentCount, UpdatedAt) " +
+            "VALUES (?, ?, ?, ?, SYSDATETIME())";
+
+    /**
+     * Shared table lock held until commit, new events wait for the rebuild to finish
+     */
+    private static final String LOCK_EVENT_LOG =
+            "SELECT MAX(Id) FROM AppointmentStatusEvent WITH (TABLOCK, HOLDLOCK)";
+
+    private static final String LAST_EVENT_ID = "SELECT MAX(Id) FROM AppointmentStatusEvent";
+
+    private static final String SELECT_EVENTS =
+            "SELECT Id, AppointmentId, ChangeType, PatientId, PreviousNutritionistId, PreviousDateTime, " +
+            "PreviousStatus, NutritionistId, AppointmentDateTime, Status, OccurredAt " +
+            "FROM AppointmentStatusEvent WHERE Id > ? AND Id <= ? ORDER BY Id";
+
+    private static final int FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Adds the deltas to their counters, creating missing ones. Counters are written in key
+     * order so concurrent transactions lock them in the same order.
+     */
+    public void applyDeltas(SortedMap<StatusCounterKey, Long> deltas) {
+        jdbcTemplate.batchUpdate(MERGE_COUNTER, new ArrayList<>(deltas.entrySet()), deltas.size(),
+                (ps, delta) -> {
+                    ps.setString(1, delta.getKey().scope());
+                    ps.setString(2, delta.getKey().scopeKey());
+                    ps.setString(3, delta.getKey().status());
+                    ps.setLong(4, delta.getValue());
+                });
+    }
+
+    /**
+     * Locks the status log against new events for the rest of the transaction
+     *
+     * @return id of the last event, 0 when the log is empty
+     */
+    public long lockEventLog() {
+        Long lastId = jdbcTemplate.queryForObject(LOCK_EVENT_LOG, Long.class);
+        return lastId != null ? lastId : 0;
+    }
+
+    /**
+     * Id of the last event without locking the log. Ids are assigned on insert, so events
+     * written afterwards all get a higher id.
+     *
+     * @return id of the last event, 0 when the log is empty
+     */
+    public long lastEventId() {
+        Long lastId = jdbcTemplate.queryForObject(LAST_EVENT_ID, Long.class);
+        return lastId != null ? lastId : 0;
+    }
+
+    /**
+     * Streams the events after one event up to another, in order
+     *
+     * @return number of events read
+     */
+    public long forEachEvent(long afterId, long upToId, Consumer<AppointmentStatusEvent> consumer) {
+        long[] count = {0};
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_EVENTS);
+            statement.setFetchSize(FETCH_SIZE);
+            statement.setLong(1, afterId);
+            statement.setLong(2, upToId);
+            return statement;
+        }, resultSet -> {
+            AppointmentStatusEvent event = new AppointmentStatusEvent();
+            event.setId(resultSet.getLong("Id"));
+            event.setAppointmentId(resultSet.getInt("AppointmentId"));
+            event.setChangeType(resultSet.getString("ChangeType"));
+            event.setPatientId(resultSet.getInt("PatientId"));
+            event.setPreviousNutritionistId(resultSet.getObject("PreviousNutritionistId", Integer.class));
+            event.setPreviousDateTime(toLocalDateTime(resultSet.getTimestamp("PreviousDateTime")));
+            event.setPreviousStatus(resultSet.getString("PreviousStatus"));
+            event.setNutritionistId(resultSet.getInt("NutritionistId"));
+            event.setAppointmentDateTime(toLocalDateTime(resultSet.getTimestamp("AppointmentDateTime")));
+            event.setStatus(resultSet.getString("Status"));
+            event.setOccurredAt(toLocalDateTime(resultSet.getTimestamp("OccurredAt")));
+            consumer.accept(event);
+            count[0]++;
+        });
+        return count[0];
+    }
+
+    /**
+     * Replaces every counter with the given values
+     */
+    public void replaceAll(Map<StatusCounterKey, Long> counters) {
+        jdbcTemplate.update("DELETE FROM AppointmentStatusCounter");
+        List<Map.Entry<StatusCounterKey, Long>> rows = new ArrayList<>(counters.entrySet());
+        jdbcTemplate.batchUpdate(INSERT_COUNTER, rows, 500, (ps, counter) -> {
+            ps.setString(1, counter.getKey().scope());
+            ps.setString(2, counter.getKey().scopeKey());
+            ps.setString(3, counter.getKey().status());
+            ps.setLong(4, counter.getValue());
+        });
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,12 @@
+package com.effisoft.nlab.appointmentapi.repository;
+
+import com.effisoft.nlab.appointmentapi.entity.AppointmentStatusCounter;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface AppointmentStatusCounterRepository extends JpaRepository<AppointmentStatusCounter, Long> {
+
+    List<AppointmentStatusCounter> findByScopeAndScopeKey(String scope, String scopeKey);
+}
@@ -0,0 +1,12 @@
+package com.effisoft.nlab.appointmentapi.repository;
+
+import com.effisoft.nlab.appointmentapi.entity.AppointmentStatusEvent;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface AppointmentStatusEventRepository extends JpaRepository<AppointmentStatusEvent, Long> {
+
+    List<AppointmentStatusEvent> findByAppointmentIdOrderByIdAsc(Integer appointmentId);
+}
@@ -0,0 +1,54 @@
+package com.effisoft.nlab.appointmentapi.repository;
+
+import com.effisoft.nlab.appointmentapi.entity.IdempotencyKey;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+
+    /**
+     * Claims a key that was not seen yet, fails on the primary key when another request
+     * claimed it first
+     */
+    @Modifying
+    @Query(value = "INSERT INTO IdempotencyKey (Id, RequestHash, Status, CreatedAt, LockedUntil, ExpiresAt) " +
+            "VALUES (:id, :requestHash, 'IN_PROGRESS', :now, :lockedUntil, :expiresAt)", nativeQuery = true)
+    int insert(@Param("id") String id, @Param("requestHash") String requestHash, @Param("now") LocalDateTime now,
+            @Param("lockedUntil") LocalDateTime lockedUntil, @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Takes over an in-progress key whose instance stopped before completing it
+     * @return 1 when the key was taken over, 0 when it completed or another instance took it first
+     */
+    @Modifying
+    @Query("UPDATE IdempotencyKey k SET k.lockedUntil = :lockedUntil " +
+            "WHERE k.id = :id AND k.requestHash = :requestHash AND k.status = 'IN_PROGRESS' AND k.lockedUntil <= :now")
+    int takeOver(@Param("id") String id, @Param("requestHash") String requestHash,
+            @Param("now") LocalDateTime now, @Param("lockedUntil") LocalDateTime lockedUntil);
+
+    @Modifying
+    @Query("UPDATE IdempotencyKey k SET k.status = 'COMPLETED', k.responseStatus = :responseStatus, " +
+            "k.contentType = :contentType, k.responseBody = :responseBody WHERE k.id = :id")
+    int complete(@Param("id") String id, @Param("responseStatus") Integer responseStatus,
+            @Param("contentType") String contentType, @Param("responseBody") byte[] responseBody);
+
+    /**
+     * Drops the claim of a request that failed, so a retry runs it again
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.id = :id AND k.status = 'IN_PROGRESS'")
+    int release(@Param("id") String id);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.id = :id AND k.expiresAt <= :now")
+    int deleteIfExpired(@Param("id") String id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.expiresAt <= :now")
+    int deleteAllExpired(@Param("now") LocalDateTime now);
+}
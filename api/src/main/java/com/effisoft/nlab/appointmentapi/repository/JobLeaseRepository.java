@@ -0,0 +1,62 @@
+package com.effisoft.nlab.appointmentapi.repository;
+
+import com.effisoft.nlab.appointmentapi.entity.JobLease;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface JobLeaseRepository extends JpaRepository<JobLease, String> {
+
+    /**
+     * Takes or renews the lease when it is free, expired or already held by the owner
+     * @return 1 when the owner holds the lease, 0 when another owner does or the row does not exist
+     */
+    @Modifying
+    @Query("UPDATE JobLease l SET l.lockedBy = :owner, l.lockedUntil = :until, l.heartbeatAt = :now " +
+            "WHERE l.jobName = :jobName AND (l.lockedUntil IS NULL OR l.lockedUntil <= :now OR l.lockedBy = :owner)")
+    int acquire(@Param("jobName") String jobName, @Param("owner") String owner,
+            @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+
+    /**
+     * Creates the lease row for a job that never ran, fails on the primary key when
+     * another instance created it first
+     */
+    @Modifying
+    @Query(value = "INSERT INTO JobLease (JobName, LockedBy, LockedUntil, HeartbeatAt) " +
+            "VALUES (:jobName, :owner, :until, :now)", nativeQuery = true)
+    int insert(@Param("jobName") String jobName, @Param("owner") String owner,
+            @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+
+    /**
+     * Extends a lease the owner still holds
+     * @return 0 when the lease was taken over by another owner after expiring
+     */
+    @Modifying
+    @Query("UPDATE JobLease l SET l.lockedUntil = :until, l.heartbeatAt = :now " +
+            "WHERE l.jobName = :jobName AND l.lockedBy = :owner")
+    int heartbeat(@Param("jobName") String jobName, @Param("owner") String owner,
+            @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+
+    @Query("SELECT l.resumeAfterId FROM JobLease l WHERE l.jobName = :jobName")
+    Optional<Integer> findResumeAfterId(@Param("jobName") String jobName);
+
+    /**
+     * Stores where the next run of the job continues, only while the owner holds the lease
+     * @return 0 when the lease was taken over by another owner
+     */
+    @Modifying
+    @Query("UPDATE JobLease l SET l.resumeAfterId = :resumeAfterId " +
+            "WHERE l.jobName = :jobName AND l.lockedBy = :owner")
+    int saveResumeAfterId(@Param("jobName") String jobName, @Param("owner") String owner,
+            @Param("resumeAfterId") Integer resumeAfterId);
+
+    @Modifying
+    @Query("UPDATE JobLease l SET l.lockedUntil = :now WHERE l.jobName = :jobName AND l.lockedBy = :owner")
+    int release(@Param("jobName") String jobName, @Param("owner") String owner,
+            @Param("now") LocalDateTime now);
+}
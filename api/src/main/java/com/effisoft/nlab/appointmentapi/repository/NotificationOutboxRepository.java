@@ -0,0 +1,39 @@
+package com.effisoft.nlab.appointmentapi.repository;
+
+import com.effisoft.nlab.appointmentapi.entity.NotificationOutbox;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long> {
+
+    /**
+     * Pending notifications due at the given instant, oldest first
+     */
+    @Query("SELECT o FROM NotificationOutbox o WHERE o.status = 'PENDING' AND o.nextAttemptAt <= :now " +
+            "ORDER BY o.nextAttemptAt, o.id")
+    List<NotificationOutbox> findDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE NotificationOutbox o SET o.status = 'CANCELLED' " +
+            "WHERE o.appointmentId = :appointmentId AND o.status = 'PENDING'")
+    int cancelPending(@Param("appointmentId") Integer appointmentId);
+
+    @Modifying
+    @Query("UPDATE NotificationOutbox o SET o.status = :status, o.sentAt = :sentAt WHERE o.id IN :ids")
+    int markCompleted(@Param("ids") Collection<Long> ids, @Param("status") String status,
+            @Param("sentAt") LocalDateTime sentAt);
+
+    @Modifying
+    @Query("UPDATE NotificationOutbox o SET o.status = :status, o.attempts = :attempts, " +
+            "o.nextAttemptAt = :nextAttemptAt, o.lastError = :lastError WHERE o.id = :id")
+    int recordFailure(@Param("id") Long id, @Param("status") String status, @Param("attempts") int attempts,
+            @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("lastError") String lastError);
+}
@@ -0,0 +1,15 @@
+package com.effisoft.nlab.appointmentapi.repository;
+
+import com.effisoft.nlab.appointmentapi.entity.NutritionistBlockOut;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface NutritionistBlockOutRepository extends JpaRepository<NutritionistBlockOut, Integer> {
+    List<NutritionistBlockOut> findByEndDateTimeAfter(LocalDateTime dateTime);
+
+    List<NutritionistBlockOut> findByNutritionistIdAndEndDateTimeAfterOrderByStartDateTimeAsc(
+            Integer nutritionistId, LocalDateTime dateTime);
+}
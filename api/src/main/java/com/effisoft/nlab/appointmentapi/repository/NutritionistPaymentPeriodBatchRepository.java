@@ -0,0 +1,45 @@
+package com.effisoft.nlab.appointmentapi.repository;
+
+import com.effisoft.nlab.appointmentapi.entity.NutritionistPaymentPeriod;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.util.List;
+
+/**
+ * JDBC batch writes for payment periods. Hibernate cannot batch inserts of IDENTITY
+ * entities, so the periods of a payroll run go through a single JDBC batch instead.
+ */
+@Repository
+@RequiredArgsConstructor
+public class NutritionistPaymentPeriodBatchRepository {
+    private static final String INSERT_PERIOD =
+            "INSERT INTO NutritionistPaymentPeriod (NutritionistID, PeriodStartDate, PeriodEndDate, " +
+            "TotalAppointments, TotalAmount, PaymentStatus) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public int insertAll(List<NutritionistPaymentPeriod> periods) {
+        int[][] counts = jdbcTemplate.batchUpdate(INSERT_PERIOD, periods, periods.size(),
+                (ps, period) -> {
+                    ps.setInt(1, period.getNutritionist().getId());
+                    ps.setDate(2, Date.valueOf(period.getPeriodStartDate()));
+                    ps.setDate(3, Date.valueOf(period.getPeriodEndDate()));
+                    ps.setInt(4, period.getTotalAppointments());
+                    ps.setBigDecimal(5, period.getTotalAmount());
+                    ps.setString(6, period.getPaymentStatus());
+                });
+
+        int inserted = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                // Drivers may report SUCCESS_NO_INFO (-2) instead of a row count
+                inserted += count < 0 ? 1 : count;
+            }
+        }
+        return inserted;
+    }
+}
@@ -1,7 +1,31 @@
 package com.effisoft.nlab.appointmentapi.repository;
 
 import com.effisoft.nlab.appointmentapi.entity.NutritionistPaymentPeriod;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
 
 public interface NutritionistPaymentPeriodRepository extends JpaRepository<NutritionistPaymentPeriod, Integer> {
+    @Override
+    @EntityGraph(attributePaths = {"nutritionist"})
+    List<NutritionistPaymentPeriod> findAll();
+
+    @EntityGraph(attributePaths = {"nutritionist"})
+    Optional<NutritionistPaymentPeriod> findWithNutritionistById(Integer id);
+
+    /**
+     * Nutritionists with a period that is not cancelled and shares at least one day with
+     * the given range
+     */
+    @Query("SELECT DISTINCT p.nutritionist.id FROM NutritionistPaymentPeriod p " +
+            "WHERE p.paymentStatus <> 'CANCELADA' " +
+            "AND p.periodStartDate <= :endDate AND p.periodEndDate >= :startDate")
+    List<Integer> findNutritionistIdsWithPeriodsOverlapping(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
 }
@@ -14,6 +14,9 @@ import java.util.Optional;
 public interface NutritionistRepository extends JpaRepository<Nutritionist, Integer> {
        List<Nutritionist> findByActiveTrue();
 
+       @Query("SELECT n.id FROM Nutritionist n WHERE n.active = true ORDER BY n.id")
+       List<Integer> findActiveIds();
+
        Optional<Nutritionist> findByEmail(String email);
 
        @Query("SELECT p FROM Nutritionist p WHERE " +
@@ -0,0 +1,18 @@
+package com.effisoft.nlab.appointmentapi.repository;
+
+import com.effisoft.nlab.appointmentapi.entity.NutritionistWorkingHours;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface NutritionistWorkingHoursRepository extends JpaRepository<NutritionistWorkingHours, Integer> {
+    List<NutritionistWorkingHours> findByNutritionistIdOrderByDayOfWeekAscStartTimeAsc(Integer nutritionistId);
+
+    @Modifying
+    @Query("DELETE FROM NutritionistWorkingHours w WHERE w.nutritionist.id = :nutritionistId")
+    int deleteByNutritionistId(@Param("nutritionistId") Integer nutritionistId);
+}
@@ -4,13 +4,15 @@ import com.effisoft.nlab.appointmentapi.entity.PackageType;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
-public interface PackageTypeRepository extends JpaRepository<PackageType, Integer> {
+public interface PackageTypeRepository extends JpaRepository<PackageType, Integer>, JpaSpecificationExecutor<PackageType> {
        List<PackageType> findByActiveTrue();
 
        @Query("SELECT p FROM PackageType p WHERE " +
@@ -20,4 +22,21 @@ public interface PackageTypeRepository extends JpaRepository<PackageType, Intege
                      @Param("searchTerm") String searchTerm,
                      @Param("active") Boolean active,
                      Pageable pageable);
+
+       /**
+        * Same filter as {@link #findPackageTypes}, for keyset scrolling
+        */
+       static Specification<PackageType> matching(String searchTerm, Boolean active) {
+              return (root, query, cb) -> {
+                     var predicate = cb.conjunction();
+                     if (searchTerm != null) {
+                            predicate = cb.and(predicate,
+                                          cb.like(cb.lower(root.get("name")), "%" + searchTerm.toLowerCase() + "%"));
+                     }
+                     if (active != null) {
+                            predicate = cb.and(predicate, cb.equal(root.get("active"), active));
+                     }
+                     return predicate;
+              };
+       }
 }
@@ -2,10 +2,12 @@ package com.effisoft.nlab.appointmentapi.repository;
 
 import java.util.List;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import com.effisoft.nlab.appointmentapi.entity.PatientPayment;
 
 public interface PatientPaymentRepository extends JpaRepository<PatientPayment, Integer> {
+    @EntityGraph(attributePaths = {"paymentMethod", "cardPaymentType"})
     List<PatientPayment> findByPurchasedPackageId(Integer purchasedPackageId);
 }
@@ -4,14 +4,16 @@ import com.effisoft.nlab.appointmentapi.entity.Patient;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
 
-public interface PatientRepository extends JpaRepository<Patient, Integer> {
+public interface PatientRepository extends JpaRepository<Patient, Integer>, JpaSpecificationExecutor<Patient> {
     List<Patient> findByActiveTrue();
     Optional<Patient> findByEmail(String email);
 
@@ -24,4 +26,24 @@ public interface PatientRepository extends JpaRepository<Patient, Integer> {
             @Param("searchTerm") String searchTerm,
             @Param("active") Boolean active,
             Pageable pageable);
+
+    /**
+     * Same filter as {@link #findPatients}, for keyset scrolling
+     */
+    static Specification<Patient> matching(String searchTerm, Boolean active) {
+        return (root, query, cb) -> {
+            var predicate = cb.conjunction();
+            if (searchTerm != null) {
+                String pattern = "%" + searchTerm.toLowerCase() + "%";
+                predicate = cb.and(predicate, cb.or(
+                        cb.like(cb.lower(root.get("firstName")), pattern),
+                        cb.like(cb.lower(root.get("lastName")), pattern),
+                        cb.like(cb.lower(root.get("email")), pattern)));
+            }
+            if (active != null) {
+                predicate = cb.and(predicate, cb.equal(root.get("active"), active));
+            }
+            return predicate;
+        };
+    }
 }
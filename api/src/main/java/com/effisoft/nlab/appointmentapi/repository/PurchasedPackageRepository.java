@@ -2,10 +2,126 @@ package com.effisoft.nlab.appointmentapi.repository;
 
 import com.effisoft.nlab.appointmentapi.entity.PurchasedPackage;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface PurchasedPackageRepository extends JpaRepository<PurchasedPackage, Integer> {
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface PurchasedPackageRepository extends JpaRepository<PurchasedPackage, Integer>,
+        JpaSpecificationExecutor<PurchasedPackage> {
+    @Override
+    @EntityGraph(attributePaths = {"patient", "packageType"})
+    List<PurchasedPackage> findAll();
+
+    @EntityGraph(attributePaths = {"patient", "packageType"})
+    Optional<PurchasedPackage> findWithDetailsById(Integer id);
+
+    @EntityGraph(attributePaths = {"patient", "packageType"})
     Page<PurchasedPackage> findByPatientId(Integer patientId, Pageable pageable);
+
+    static Specification<PurchasedPackage> ofPatient(Integer patientId) {
+        return (root, query, cb) -> cb.equal(root.get("patient").get("id"), patientId);
+    }
+
+    @Query("SELECT p.remainingAppointments FROM PurchasedPackage p WHERE p.id = :id")
+    Optional<Integer> findRemainingAppointmentsById(@Param("id") Integer id);
+
+    /**
+     * Atomically consumes one appointment of the package.
+     * @return 1 when an appointment was consumed, 0 when the package does not exist or has none left
+     */
+    @Modifying
+    @Query("UPDATE PurchasedPackage p SET p.remainingAppointments = p.remainingAppointments - 1 " +
+            "WHERE p.id = :id AND p.remainingAppointments > 0")
+    int decrementRemainingAppointments(@Param("id") Integer id);
+
+    /**
+     * Atomically consumes several appointments of the package, all or nothing
+     * @return 1 when the appointments were consumed, 0 when the package does not have enough left
+     */
+    @Modifying
+    @Query("UPDATE PurchasedPackage p SET p.remainingAppointments = p.remainingAppointments - :count " +
+            "WHERE p.id = :id AND p.remainingAppointments >= :count")
+    int decrementRemainingAppointmentsBy(@Param("id") Integer id, @Param("count") int count);
+
+    /**
+     * Atomically gives one appointment back to the package
+     */
+    @Modifying
+    @Query("UPDATE PurchasedPackage p SET p.remainingAppointments = p.remainingAppointments + 1 " +
+            "WHERE p.id = :id")
+    int incrementRemainingAppointments(@Param("id") Integer id);
+
+    /**
+     * Atomically adds a payment to the running paid total as long as it does not exceed the
+     * price of the package, and marks the package paid in full once the total reaches it.
+     * The row stays locked until the transaction ends, so concurrent payments of the package
+     * are checked one after the other against the latest total.
+     * @return 1 when the payment was added, 0 when the package does not exist or the payment
+     * exceeds its price
+     */
+    @Modifying
+    @Query("UPDATE PurchasedPackage p SET p.paidTotal = p.paidTotal + :amount, " +
+            "p.paidInFull = CASE WHEN p.paidTotal + :amount = " +
+            "(SELECT t.price FROM PackageType t WHERE t.id = p.packageType.id) THEN true ELSE p.paidInFull END " +
+            "WHERE p.id = :id AND p.paidTotal + :amount <= " +
+            "(SELECT t.price FROM PackageType t WHERE t.id = p.packageType.id)")
+    int addPayment(@Param("id") Integer id, @Param("amount") BigDecimal amount);
+
+    /**
+     * Keyset scan of package ids, ordered by id
+     */
+    @Query("SELECT p.id FROM PurchasedPackage p WHERE p.id > :afterId ORDER BY p.id")
+    List<Integer> findIdsAfter(@Param("afterId") Integer afterId, Pageable pageable);
+
+    /**
+     * Locks the packages in the id range until the transaction ends, so a payment that
+     * already locked its package through {@link #addPayment} commits before the range is
+     * summed and a later one waits for the repair
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p.id FROM PurchasedPackage p WHERE p.id BETWEEN :fromId AND :toId")
+    List<Integer> lockIdRange(@Param("fromId") Integer fromId, @Param("toId") Integer toId);
+
+    /**
+     * Recomputes the paid total of the packages in the id range from their payments,
+     * only rows that drifted are written. Callers lock the range with {@link #lockIdRange}
+     * first, the sums would miss payments still in flight otherwise.
+     * @return number of packages whose total was corrected
+     */
+    @Modifying
+    @Query("UPDATE PurchasedPackage p SET p.paidTotal = " +
+            "(SELECT COALESCE(SUM(pay.totalPaid), 0) FROM PatientPayment pay WHERE pay.purchasedPackage.id = p.id) " +
+            "WHERE p.id BETWEEN :fromId AND :toId AND p.paidTotal <> " +
+            "(SELECT COALESCE(SUM(pay.totalPaid), 0) FROM PatientPayment pay WHERE pay.purchasedPackage.id = p.id)")
+    int repairPaidTotals(@Param("fromId") Integer fromId, @Param("toId") Integer toId);
+
+    /**
+     * Keyset scan of packages past their expiration date that are not marked yet, ordered by id
+     */
+    @Query("SELECT p.id FROM PurchasedPackage p WHERE p.id > :afterId AND p.expired = false " +
+            "AND p.expirationDate < :now ORDER BY p.id")
+    List<Integer> findExpiredIdsAfter(@Param("afterId") Integer afterId, @Param("now") LocalDateTime now,
+            Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE PurchasedPackage p SET p.expired = true WHERE p.id IN :ids")
+    int markExpired(@Param("ids") Collection<Integer> ids);
+
+    @Modifying
+    @Query("UPDATE PurchasedPackage p SET p.expired = false WHERE p.id = :id")
+    int clearExpired(@Param("id") Integer id);
 }
@@ -0,0 +1,31 @@
+package com.effisoft.nlab.appointmentapi.repository;
+
+import com.effisoft.nlab.appointmentapi.entity.SlotHold;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface SlotHoldRepository extends JpaRepository<SlotHold, String> {
+
+    @Query("SELECT h FROM SlotHold h WHERE h.nutritionistId = :nutritionistId " +
+            "AND h.startsAt < :to AND h.endsAt > :from AND h.expiresAt > :now")
+    List<SlotHold> findActive(@Param("nutritionistId") Integer nutritionistId, @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to, @Param("now") LocalDateTime now);
+
+    @Query("SELECT h FROM SlotHold h WHERE h.startsAt < :to AND h.endsAt > :from AND h.expiresAt > :now")
+    List<SlotHold> findActiveBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+            @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM SlotHold h WHERE h.nutritionistId = :nutritionistId AND h.expiresAt <= :now")
+    int deleteExpired(@Param("nutritionistId") Integer nutritionistId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM SlotHold h WHERE h.expiresAt <= :now")
+    int deleteAllExpired(@Param("now") LocalDateTime now);
+}
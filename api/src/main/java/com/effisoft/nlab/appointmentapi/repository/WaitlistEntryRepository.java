@@ -0,0 +1,31 @@
+package com.effisoft.nlab.appointmentapi.repository;
+
+import com.effisoft.nlab.appointmentapi.entity.WaitlistEntry;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Integer> {
+
+    List<WaitlistEntry> findByNutritionistIdAndStatusOrderByRequestedAtAsc(Integer nutritionistId, String status);
+
+    /**
+     * Waiting requests whose window has not passed yet
+     */
+    @Query("SELECT w FROM WaitlistEntry w WHERE w.status = 'WAITING' AND w.latestDateTime > :now")
+    List<WaitlistEntry> findOpen(@Param("now") LocalDateTime now);
+
+    /**
+     * Records the booked appointment of a request that is still waiting
+     * @return 0 when the request was booked or cancelled in the meantime
+     */
+    @Modifying
+    @Query("UPDATE WaitlistEntry w SET w.status = 'BOOKED', w.appointmentId = :appointmentId " +
+            "WHERE w.id = :id AND w.status = 'WAITING'")
+    int markBooked(@Param("id") Integer id, @Param("appointmentId") Integer appointmentId);
+}
@@ -0,0 +1,66 @@
+package com.effisoft.nlab.appointmentapi.service;
+
+import com.effisoft.nlab.appointmentapi.entity.Nutritionist;
+import com.effisoft.nlab.appointmentapi.entity.PackageType;
+import com.effisoft.nlab.appointmentapi.entity.Patient;
+import com.effisoft.nlab.appointmentapi.event.AppointmentChangedEvent;
+import com.effisoft.nlab.appointmentapi.repository.AppointmentReadModelRepository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Keeps {@link com.effisoft.nlab.appointmentapi.entity.AppointmentReadModel} in step with
+ * the normalized tables. Appointment changes arrive as events, which are delivered
+ * synchronously, so the row is rewritten inside the transaction that changed the
+ * appointment and commits or rolls back with it. Renames are pushed by the owning services.
+ */
+@Component
+@RequiredArgsConstructor
+public class AppointmentReadModelProjector {
+    private final AppointmentReadModelRepository readModelRepository;
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        project(event.getAppointmentId());
+    }
+
+    /**
+     * Rewrites the read model row of the appointment from the current table state
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void project(Integer appointmentId) {
+        readModelRepository.deleteByAppointmentId(appointmentId);
+        readModelRepository.insertProjection(appointmentId, LocalDateTime.now());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void nutritionistRenamed(Nutritionist nutritionist) {
+        readModelRepository.updateNutritionistName(nutritionist.getId(),
+                fullName(nutritionist.getFirstName(), nutritionist.getLastName()));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void patientRenamed(Patient patient) {
+        readModelRepository.updatePatientName(patient.getId(),
+                fullName(patient.getFirstName(), patient.getLastName()));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void packageTypeRenamed(PackageType packageType) {
+        readModelRepository.updatePackageName(packageType.getId(), packageType.getName());
+    }
+
+    /**
+     * Same format as the CONCAT used by the projection insert
+     */
+    static String fullName(String firstName, String lastName) {
+        return firstName + " " + lastName;
+    }
+}
@@ -1,53 +1,121 @@
 package com.effisoft.nlab.appointmentapi.service;
 
+import com.effisoft.nlab.appointmentapi.config.BookingProperties;
+import com.effisoft.nlab.appointmentapi.dto.AppointmentCalendarRow;
 import com.effisoft.nlab.appointmentapi.dto.AppointmentDTO;
+import com.effisoft.nlab.appointmentapi.dto.AppointmentSeriesDTO;
+import com.effisoft.nlab.appointmentapi.dto.AppointmentStatusChangeDTO;
+import com.effisoft.nlab.appointmentapi.dto.AppointmentStatusResultDTO;
+import com.effisoft.nlab.appointmentapi.dto.AppointmentReassignmentDTO;
+import com.effisoft.nlab.appointmentapi.dto.BookedSlot;
+import com.effisoft.nlab.appointmentapi.dto.BulkReassignDTO;
+import com.effisoft.nlab.appointmentapi.dto.BulkReassignResultDTO;
+import com.effisoft.nlab.appointmentapi.dto.CursorPageResponseDTO;
+import com.effisoft.nlab.appointmentapi.dto.SlotHoldDTO;
 import com.effisoft.nlab.appointmentapi.entity.Appointment;
+import com.effisoft.nlab.appointmentapi.entity.AppointmentReadModel;
 import com.effisoft.nlab.appointmentapi.entity.Nutritionist;
-import com.effisoft.nlab.appointmentapi.entity.PatientAppointmentView;
 import com.effisoft.nlab.appointmentapi.entity.PurchasedPackage;
+import com.effisoft.nlab.appointmentapi.entity.SlotHold;
+import com.effisoft.nlab.appointmentapi.event.AppointmentChangedEvent;
 import com.effisoft.nlab.appointmentapi.exception.AppointmentServiceException;
+import com.effisoft.nlab.appointmentapi.repository.AppointmentBatchRepository;
+import com.effisoft.nlab.appointmentapi.repository.AppointmentReadModelRepository;
 import com.effisoft.nlab.appointmentapi.repository.AppointmentRepository;
 import com.effisoft.nlab.appointmentapi.repository.NutritionistRepository;
 import com.effisoft.nlab.appointmentapi.repository.PurchasedPackageRepository;
-import com.effisoft.nlab.appointmentapi.repository.PatientAppointmentViewRepository;
+import com.effisoft.nlab.appointmentapi.service.base.CursorPagination;
 import com.effisoft.nlab.appointmentapi.service.base.ServiceExceptionHandler;
+import com.effisoft.nlab.appointmentapi.service.booking.NutritionistBookingIndex;
+import com.effisoft.nlab.appointmentapi.service.booking.NutritionistLockStripes;
+import com.effisoft.nlab.appointmentapi.service.booking.NutritionistScheduleIndex;
+import com.effisoft.nlab.appointmentapi.service.booking.SlotHoldStore;
+import com.effisoft.nlab.appointmentapi.service.booking.UpcomingAppointmentsCache;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.validation.annotation.Validated;
 
+import java.time.DayOfWeek;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Validated
 @RequiredArgsConstructor
 public class AppointmentService {
     private final AppointmentRepository appointmentRepository;
+    private final AppointmentBatchRepository appointmentBatchRepository;
     private final PurchasedPackageRepository purchasedPackageRepository;
     private final NutritionistRepository nutritionistRepository;
-    private final PatientAppointmentViewRepository patientAppointmentViewRepository;
+    private final AppointmentReadModelRepository readModelRepository;
+    private final NutritionistBookingIndex bookingIndex;
+    private final NutritionistLockStripes lockStripes;
+    private final NutritionistScheduleIndex scheduleIndex;
+    private final UpcomingAppointmentsCache upcomingAppointmentsCache;
+    private final SlotHoldStore slotHoldStore;
+    private final BookingProperties bookingProperties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PlatformTransactionManager transactionManager;
 
     private static final Set<String> VALID_STATUSES = Set.of(
             "AGENDADA", "COMPLETADA", "CANCELADA", "REAGENDADA", "NO_ASISTENCIA");
 
+    /**
+     * Largest number of appointments a single batch status update may change
+     */
+    private static final int MAX_STATUS_BATCH_SIZE = 200;
+
+    /**
+     * The appointment date and time sort options both sort on the stored timestamp
+     */
+    private static final Map<String, String> APPOINTMENT_CURSOR_SORTS = Map.of(
+            "appointmentDate", "appointmentDateTime",
+            "appointmentTime", "appointmentDateTime",
+            "status", "status");
+
     @Transactional
     public Appointment scheduleAppointment(@Valid AppointmentDTO dto) {
         return ServiceExceptionHandler.executeWithExceptionHandling(
                 () -> {
+                    // Consume one appointment of the package atomically, so concurrent bookings
+                    // against the same package cannot both use its last appointment
+                    boolean consumed = purchasedPackageRepository
+                            .decrementRemainingAppointments(dto.getPurchasedPackageId()) > 0;
+
                     PurchasedPackage purchasedPackage = purchasedPackageRepository
                             .findById(dto.getPurchasedPackageId())
                             .orElseThrow(() -> new AppointmentServiceException("Purchased package not found"));
 
                     // Check if package has remaining appointments
-                    if (purchasedPackage.getRemainingAppointments() <= 0) {
+                    if (!consumed) {
                         throw new AppointmentServiceException("No remaining appointments in the package");
                     }
 
@@ -66,11 +134,13 @@ public class AppointmentService {
                         throw new AppointmentServiceException("Appointment time must be in the future");
                     }
 
-                    // Check if the appointment time is already booked
-                    if (appointmentRepository.existsByNutritionistIdAndAppointmentDateTime(
-                            dto.getNutritionistId(), dto.getAppointmentDateTime())) {
-                        throw new AppointmentServiceException("Appointment time is already booked");
-                    }
+                    ensureWithinWorkingHours(nutritionist.getId(), dto.getAppointmentDateTime());
+
+                    // Check if the appointment time overlaps an existing booking. The nutritionist
+                    // stays locked until commit so concurrent bookings see each other
+                    lockStripes.lockUntilTransactionCompletes(nutritionist.getId());
+                    ensureSlotAvailable(nutritionist.getId(), dto.getAppointmentDateTime(), null);
+                    ensureSlotNotHeld(nutritionist.getId(), dto.getAppointmentDateTime(), dto.getHoldId());
 
                     // Create new appointment
                     Appointment appointment = new Appointment();
@@ -81,19 +151,106 @@ public class AppointmentService {
                     appointment.setNotes(dto.getNotes());
                     appointment.setCreatedAt(LocalDateTime.now());
 
-                    // Update remaining appointments in package
-                    purchasedPackage.setRemainingAppointments(purchasedPackage.getRemainingAppointments() - 1);
-                    purchasedPackageRepository.save(purchasedPackage);
-
                     // Save and return appointment
-                    return appointmentRepository.save(appointment);
+                    Appointment savedAppointment = saveBooking(appointment);
+                    eventPublisher.publishEvent(AppointmentChangedEvent.scheduled(savedAppointment));
+                    if (dto.getHoldId() != null) {
+                        releaseHoldAfterCommit(dto.getHoldId());
+                    }
+                    return savedAppointment;
                 },
                 AppointmentServiceException::new,
                 "Schedule Appointment");
     }
 
+    /**
+     * Books every session of a recurrence rule in one transaction: the slots are
+     * validated against a single range query, inserted as one JDBC batch and the
+     * package is decremented once by the number of sessions.
+     */
+    @Transactional
+    public List<Appointment> scheduleAppointmentSeries(@Valid AppointmentSeriesDTO dto) {
+        return ServiceExceptionHandler.executeWithExceptionHandling(
+                () -> {
+                    int occurrences = dto.getOccurrences() != null
+                            ? dto.getOccurrences()
+                            : purchasedPackageRepository.findRemainingAppointmentsById(dto.getPurchasedPackageId())
+                                    .orElseThrow(() -> new AppointmentServiceException("Purchased package not found"));
+
+                    if (occurrences <= 0) {
+                        throw new AppointmentServiceException("No remaining appointments in the package");
+                    }
+
+                    // Consume all sessions at once, all or nothing
+                    boolean consumed = purchasedPackageRepository
+                            .decrementRemainingAppointmentsBy(dto.getPurchasedPackageId(), occurrences) > 0;
+
+                    PurchasedPackage purchasedPackage = purchasedPackageRepository
+                            .findById(dto.getPurchasedPackageId())
+                            .orElseThrow(() -> new AppointmentServiceException("Purchased package not found"));
+
+                    if (!consumed) {
+                        throw new AppointmentServiceException(
+                                "Not enough remaining appointments in the package for " + occurrences + " sessions");
+                    }
+
+                    if (purchasedPackage.getExpirationDate().isBefore(LocalDateTime.now())) {
+                        throw new AppointmentServiceException("Package has expired");
+                    }
+
+                    Nutritionist nutritionist = nutritionistRepository
+                            .findById(dto.getNutritionistId())
+                            .orElseThrow(() -> new AppointmentServiceException("Nutritionist not found"));
+
+                    if (dto.getFirstAppointmentDateTime().isBefore(LocalDateTime.now())) {
+                        throw new AppointmentServiceException("Appointment time must be in the future");
+                    }
+
+                    List<LocalDateTime> slots = generateSeriesSlots(dto, occurrences);
+                    LocalDateTime lastSlot = slots.get(slots.size() - 1);
+                    if (purchasedPackage.getExpirationDate().isBefore(lastSlot)) {
+                        throw new AppointmentServiceException("The series extends past the package expiration date");
+                    }
+
+                    slots.forEach(slot -> ensureWithinWorkingHours(nutritionist.getId(), slot));
+
+                    // Validate every slot against one range query of the nutritionist's bookings
+                    lockStripes.lockUntilTransactionCompletes(nutritionist.getId());
+                    ensureSlotsAvailable(nutritionist.getId(), slots);
+                    ensureSlotsNotHeld(nutritionist.getId(), slots);
+
+                    LocalDateTime createdAt = LocalDateTime.now();
+                    List<Appointment> appointments = new ArrayList<>();
+                    for (LocalDateTime slot : slots) {
+                        Appointment appointment = new Appointment();
+                        appointment.setPurchasedPackage(purchasedPackage);
+                        appointment.setNutritionist(nutritionist);
+                        appointment.setAppointmentDateTime(slot);
+                        appointment.setStatus("AGENDADA");
+                        appointment.setNotes(dto.getNotes());
+                        appointment.setCreatedAt(createdAt);
+                        appointments.add(appointment);
+                    }
+
+                    try {
+                        appointmentBatchRepository.insertAll(appointments);
+                    } catch (DataIntegrityViolationException e) {
+                        throw new AppointmentServiceException("Appointment time is already booked", e);
+                    }
+
+                    List<Appointment> savedAppointments = appointmentRepository
+                            .findByPurchasedPackageIdAndNutritionistIdAndStatusAndAppointmentDateTimeIn(
+                                    purchasedPackage.getId(), nutritionist.getId(), "AGENDADA", slots);
+                    savedAppointments.forEach(appointment ->
+                            eventPublisher.publishEvent(AppointmentChangedEvent.scheduled(appointment)));
+                    return savedAppointments;
+                },
+                AppointmentServiceException::new,
+                "Schedule Appointment Series");
+    }
+
     @Transactional(readOnly = true)
-    public List<Appointment> getAppointmentsByNutritionistAndDateRange(
+    public List<AppointmentCalendarRow> getAppointmentsByNutritionistAndDateRange(
             Integer nutritionistId,
             LocalDateTime startDate,
             LocalDateTime endDate) {
@@ -109,14 +266,65 @@ public class AppointmentService {
                         throw new AppointmentServiceException("Start date must be before end date");
                     }
 
-                    return appointmentRepository
-                            .findByNutritionistIdAndAppointmentDateTimeBetween(nutritionistId, startDate, endDate);
+                    return readModelRepository.findCalendarRows(nutritionistId, startDate, endDate);
                 },
                 AppointmentServiceException::new,
                 "Get Appointments By Nutritionist And Date Range");
 
     }
 
+    /**
+     * Reserves a free slot for a few minutes while a booking form is being filled. Only a
+     * booking that presents the hold id may take the slot until the hold expires.
+     */
+    @Transactional
+    public SlotHold holdSlot(@Valid SlotHoldDTO dto) {
+        return ServiceExceptionHandler.executeWithExceptionHandling(
+                () -> {
+                    LocalDateTime now = LocalDateTime.now();
+                    if (dto.getAppointmentDateTime().isBefore(now)) {
+                        throw new AppointmentServiceException("Appointment time must be in the future");
+                    }
+
+                    int minutes = dto.getMinutes() != null ? dto.getMinutes() : bookingProperties.getHoldTtlMinutes();
+                    if (minutes > bookingProperties.getHoldMaxMinutes()) {
+                        throw new AppointmentServiceException(
+                                "A slot cannot be held for more than " + bookingProperties.getHoldMaxMinutes() + " minutes");
+                    }
+
+                    if (!nutritionistRepository.existsById(dto.getNutritionistId())) {
+                        throw new AppointmentServiceException("Nutritionist not found");
+                    }
+
+                    ensureWithinWorkingHours(dto.getNutritionistId(), dto.getAppointmentDateTime());
+                    lockStripes.lockUntilTransactionCompletes(dto.getNutritionistId());
+                    ensureSlotAvailable(dto.getNutritionistId(), dto.getAppointmentDateTime(), null);
+
+                    SlotHold hold = new SlotHold();
+                    hold.setId(UUID.randomUUID().toString());
+                    hold.setNutritionistId(dto.getNutritionistId());
+                    hold.setStartsAt(dto.getAppointmentDateTime());
+                    hold.setEndsAt(dto.getAppointmentDateTime().plus(bookingProperties.appointmentDuration()));
+                    hold.setExpiresAt(now.plusMinutes(minutes));
+
+                    return slotHoldStore.tryHold(hold, now)
+                            .orElseThrow(() -> new AppointmentServiceException(
+                                    "Appointment time is held by another booking"));
+                },
+                AppointmentServiceException::new,
+                "Hold Slot");
+    }
+
+    public void releaseHold(String holdId) {
+        ServiceExceptionHandler.executeWithExceptionHandling(
+                () -> {
+                    slotHoldStore.release(holdId);
+                    return null;
+                },
+                AppointmentServiceException::new,
+                "Release Slot Hold");
+    }
+
     @Transactional
     public Appointment updateAppointmentStatus(AppointmentDTO dto) {
         return ServiceExceptionHandler.executeWithExceptionHandling(
@@ -139,18 +347,250 @@ public class AppointmentService {
                     // Validate status transition
                     validateStatusTransition(appointment.getStatus(), dto.getStatus());
 
+                    Integer previousNutritionistId = appointment.getNutritionist().getId();
+                    LocalDateTime previousDateTime = appointment.getAppointmentDateTime();
+                    String previousStatus = appointment.getStatus();
+
+                    // Moving an active appointment must not overlap another booking
+                    boolean slotChanged = !previousNutritionistId.equals(nutritionist.getId()) ||
+                            !previousDateTime.equals(dto.getAppointmentDateTime());
+                    if (slotChanged && NutritionistBookingIndex.BLOCKING_STATUSES.contains(dto.getStatus())) {
+                        ensureWithinWorkingHours(nutritionist.getId(), dto.getAppointmentDateTime());
+                        lockStripes.lockUntilTransactionCompletes(nutritionist.getId());
+                        ensureSlotAvailable(nutritionist.getId(), dto.getAppointmentDateTime(), appointment.getId());
+                        ensureSlotNotHeld(nutritionist.getId(), dto.getAppointmentDateTime(), dto.getHoldId());
+                    }
+
                     // Update status
                     appointment.setStatus(dto.getStatus());
                     appointment.setAppointmentDateTime(dto.getAppointmentDateTime());
                     appointment.setNutritionist(nutritionist);
                     appointment.setNotes(null);
 
-                    return appointmentRepository.save(appointment);
+                    Appointment savedAppointment = saveBooking(appointment);
+                    eventPublisher.publishEvent(AppointmentChangedEvent.changed(
+                            AppointmentChangedEvent.ChangeType.UPDATED,
+                            previousNutritionistId,
+                            previousDateTime,
+                            previousStatus,
+                            savedAppointment));
+                    if (dto.getHoldId() != null) {
+                        releaseHoldAfterCommit(dto.getHoldId());
+                    }
+                    return savedAppointment;
                 },
                 AppointmentServiceException::new,
                 "Update Appointment Status");
     }
 
+    /**
+     * Changes the status of several appointments at once, e.g. closing a day's agenda.
+     * The appointments are loaded with one IN query, the transition rules are applied in
+     * memory and the statuses are written as one JDBC batch, leaving the loaded entities
+     * untouched so past appointments can be closed. Invalid changes are reported per
+     * appointment without failing the others.
+     */
+    @Transactional
+    public List<AppointmentStatusResultDTO> updateAppointmentStatuses(
+            List<@Valid AppointmentStatusChangeDTO> changes) {
+        return ServiceExceptionHandler.executeWithExceptionHandling(
+                () -> {
+                    if (changes.size() > MAX_STATUS_BATCH_SIZE) {
+                        throw new AppointmentServiceException(
+                                "A batch may change at most " + MAX_STATUS_BATCH_SIZE + " appointments");
+                    }
+
+                    Map<Integer, Appointment> appointments = appointmentRepository
+                            .findAllById(changes.stream().map(AppointmentStatusChangeDTO::getId).toList())
+                            .stream()
+                            .collect(Collectors.toMap(Appointment::getId, Function.identity()));
+
+                    // Lock every nutritionist taking a slot back at once, in stripe order
+                    Set<Integer> reactivatedNutritionists = new HashSet<>();
+                    for (AppointmentStatusChangeDTO change : changes) {
+                        Appointment appointment = appointments.get(change.getId());
+                        if (appointment != null && isReactivation(appointment.getStatus(), change.getStatus())) {
+                            reactivatedNutritionists.add(appointment.getNutritionist().getId());
+                        }
+                    }
+                    if (!reactivatedNutritionists.isEmpty()) {
+                        lockStripes.lockUntilTransactionCompletes(reactivatedNutritionists.toArray(Integer[]::new));
+                    }
+
+                    List<AppointmentStatusResultDTO> results = new ArrayList<>();
+                    Map<Integer, String> updated = new LinkedHashMap<>();
+                    List<AppointmentChangedEvent> events = new ArrayList<>();
+                    Set<Integer> seen = new HashSet<>();
+                    Map<Integer, List<LocalDateTime>> reactivatedSlots = new HashMap<>();
+                    for (AppointmentStatusChangeDTO change : changes) {
+                        Appointment appointment = appointments.get(change.getId());
+                        try {
+                            if (!seen.add(change.getId())) {
+                                throw new AppointmentServiceException("Appointment appears more than once in the batch");
+                            }
+                            if (appointment == null) {
+                                throw new AppointmentServiceException("Appointment not found");
+                            }
+                            // Cancelling also restores the appointment to the package
+                            if ("CANCELADA".equals(change.getStatus())) {
+                                throw new AppointmentServiceException("Use the cancel endpoint to cancel an appointment");
+                            }
+                            validateStatusTransition(appointment.getStatus(), change.getStatus());
+
+                            // An inactive appointment becoming active takes its slot back, also
+                            // against the slots taken back earlier in this batch
+                            Integer nutritionistId = appointment.getNutritionist().getId();
+                            if (isReactivation(appointment.getStatus(), change.getStatus())) {
+                                List<LocalDateTime> taken = reactivatedSlots.getOrDefault(nutritionistId, List.of());
+                                ensureNoOverlap(taken, appointment.getAppointmentDateTime());
+                                ensureSlotAvailable(nutritionistId, appointment.getAppointmentDateTime(),
+                                        appointment.getId());
+                                reactivatedSlots.computeIfAbsent(nutritionistId, id -> new ArrayList<>())
+                                        .add(appointment.getAppointmentDateTime());
+                            }
+                        } catch (AppointmentServiceException e) {
+                            results.add(new AppointmentStatusResultDTO(change.getId(), change.getStatus(),
+                                    false, e.getMessage()));
+                            continue;
+                        }
+
+                        Integer nutritionistId = appointment.getNutritionist().getId();
+                        updated.put(appointment.getId(), change.getStatus());
+                        events.add(new AppointmentChangedEvent(
+                                AppointmentChangedEvent.ChangeType.UPDATED,
+                                appointment.getId(),
+                                nutritionistId,
+                                appointment.getAppointmentDateTime(),
+                                appointment.getStatus(),
+                                nutritionistId,
+                                appointment.getAppointmentDateTime(),
+                                change.getStatus()));
+                        results.add(new AppointmentStatusResultDTO(change.getId(), change.getStatus(), true, null));
+                    }
+
+                    try {
+                        if (!updated.isEmpty()) {
+                            appointmentBatchRepository.updateStatuses(updated);
+                        }
+                    } catch (DataIntegrityViolationException e) {
+                        throw new AppointmentServiceException("Appointment time is already booked", e);
+                    }
+                    events.forEach(eventPublisher::publishEvent);
+                    return results;
+                },
+                AppointmentServiceException::new,
+                "Update Appointment Statuses");
+    }
+
+    /**
+     * Moves the active appointments of a nutritionist in a date range to another
+     * nutritionist, another time or both, in one transaction. Every move is checked in
+     * memory against the target's bookings and holds, each loaded once for the whole
+     * range, and the updates are flushed as one JDBC batch. Appointments that cannot
+     * move are left in place and reported with the reason.
+     */
+    @Transactional
+    public BulkReassignResultDTO bulkReassign(@Valid BulkReassignDTO dto) {
+        return ServiceExceptionHandler.executeWithExceptionHandling(
+                () -> {
+                    if (dto.getStartDateTime().isAfter(dto.getEndDateTime())) {
+                        throw new AppointmentServiceException("Start date must be before end date");
+                    }
+
+                    Integer sourceId = dto.getSourceNutritionistId();
+                    Integer targetId = dto.getTargetNutritionistId() != null ? dto.getTargetNutritionistId() : sourceId;
+                    Duration shift = Duration.ofMinutes(dto.getShiftMinutes() != null ? dto.getShiftMinutes() : 0);
+                    boolean sameNutritionist = targetId.equals(sourceId);
+                    if (sameNutritionist && shift.isZero()) {
+                        throw new AppointmentServiceException("A target nutritionist or a shift is required");
+                    }
+
+                    if (!nutritionistRepository.existsById(sourceId)) {
+                        throw new AppointmentServiceException("Nutritionist not found");
+                    }
+                    Nutritionist target = nutritionistRepository.findById(targetId)
+                            .orElseThrow(() -> new AppointmentServiceException("Target nutritionist not found"));
+
+                    // Moving later, the latest appointment moves first so each one lands in a
+                    // slot already vacated, and the other way round when moving earlier. The
+                    // batched updates then never collide on the unique slot index.
+                    Sort order = Sort.by(shift.isNegative() ? Sort.Direction.ASC : Sort.Direction.DESC,
+                            "appointmentDateTime");
+                    List<Appointment> appointments = appointmentRepository.findActiveByNutritionist(
+                            sourceId, dto.getStartDateTime(), dto.getEndDateTime(),
+                            NutritionistBookingIndex.BLOCKING_STATUSES, order);
+                    if (appointments.isEmpty()) {
+                        return new BulkReassignResultDTO(0, 0, List.of());
+                    }
+
+                    Duration duration = bookingProperties.appointmentDuration();
+                    LocalDateTime now = LocalDateTime.now();
+                    LocalDateTime firstSlot = dto.getStartDateTime().plus(shift);
+                    LocalDateTime lastSlot = dto.getEndDateTime().plus(shift);
+
+                    lockStripes.lockUntilTransactionCompletes(targetId);
+                    Set<Integer> movingIds = appointments.stream().map(Appointment::getId).collect(Collectors.toSet());
+                    NavigableSet<LocalDateTime> booked = appointmentRepository
+                            .findBookedSlotsByNutritionist(
+                                    targetId,
+                                    firstSlot.minus(duration),
+                                    lastSlot.plus(duration),
+                                    NutritionistBookingIndex.BLOCKING_STATUSES)
+                            .stream()
+                            .filter(slot -> !movingIds.contains(slot.getAppointmentId()))
+                            .map(BookedSlot::getAppointmentDateTime)
+                            .collect(Collectors.toCollection(TreeSet::new));
+                    List<SlotHold> holds = slotHoldStore.findActive(targetId, firstSlot, lastSlot.plus(duration), now);
+
+                    List<AppointmentReassignmentDTO> results = new ArrayList<>();
+                    List<Appointment> moved = new ArrayList<>();
+                    List<AppointmentChangedEvent> events = new ArrayList<>();
+                    for (Appointment appointment : appointments) {
+                        LocalDateTime previousDateTime = appointment.getAppointmentDateTime();
+                        LocalDateTime slot = previousDateTime.plus(shift);
+
+                        String conflict = findReassignmentConflict(appointment, targetId, slot, booked, holds, now);
+                        if (conflict != null) {
+                            // The appointment keeps its slot, which stays taken for the others
+                            if (sameNutritionist) {
+                                booked.add(previousDateTime);
+                            }
+                            results.add(new AppointmentReassignmentDTO(appointment.getId(), sourceId,
+                                    previousDateTime, sourceId, previousDateTime, false, conflict));
+                            continue;
+                        }
+
+                        String previousStatus = appointment.getStatus();
+                        booked.add(slot);
+                        appointment.setNutritionist(target);
+                        appointment.setAppointmentDateTime(slot);
+                        if (!shift.isZero()) {
+                            appointment.setStatus("REAGENDADA");
+                        }
+                        moved.add(appointment);
+                        events.add(AppointmentChangedEvent.changed(
+                                AppointmentChangedEvent.ChangeType.UPDATED,
+                                sourceId,
+                                previousDateTime,
+                                previousStatus,
+                                appointment));
+                        results.add(new AppointmentReassignmentDTO(appointment.getId(), sourceId,
+                                previousDateTime, targetId, slot, true, null));
+                    }
+
+                    try {
+                        appointmentRepository.saveAllAndFlush(moved);
+                    } catch (DataIntegrityViolationException e) {
+                        throw new AppointmentServiceException("Appointment time is already booked", e);
+                    }
+                    events.forEach(eventPublisher::publishEvent);
+
+                    return new BulkReassignResultDTO(moved.size(), results.size() - moved.size(), results);
+                },
+                AppointmentServiceException::new,
+                "Bulk Reassign Appointments");
+    }
+
     @Transactional
     public Appointment cancelAppointment(Integer appointmentId) {
         return ServiceExceptionHandler.executeWithExceptionHandling(
@@ -168,13 +608,20 @@ public class AppointmentService {
                     }
 
                     // Restore appointment to package
-                    PurchasedPackage purchasedPackage = appointment.getPurchasedPackage();
-                    purchasedPackage.setRemainingAppointments(purchasedPackage.getRemainingAppointments() + 1);
-                    purchasedPackageRepository.save(purchasedPackage);
+                    purchasedPackageRepository.incrementRemainingAppointments(
+                            appointment.getPurchasedPackage().getId());
 
                     // Update appointment status
+                    String previousStatus = appointment.getStatus();
                     appointment.setStatus("CANCELADA");
-                    return appointmentRepository.save(appointment);
+                    Appointment savedAppointment = appointmentRepository.save(appointment);
+                    eventPublisher.publishEvent(AppointmentChangedEvent.changed(
+                            AppointmentChangedEvent.ChangeType.CANCELLED,
+                            savedAppointment.getNutritionist().getId(),
+                            savedAppointment.getAppointmentDateTime(),
+                            previousStatus,
+                            savedAppointment));
+                    return savedAppointment;
 
                 },
                 AppointmentServiceException::new,
@@ -191,34 +638,269 @@ public class AppointmentService {
                 "Get Appointment By Id");
     }
 
-    @Transactional(readOnly = true)
-    public List<Appointment> getUpcomingAppointments(Integer nutritionistId) {
+    /**
+     * Not transactional, a cache hit never takes a connection. Only a miss opens a read-only
+     * transaction to load the window.
+     */
+    public List<AppointmentCalendarRow> getUpcomingAppointments(Integer nutritionistId) {
         return ServiceExceptionHandler.executeWithExceptionHandling(
                 () -> {
-                    // Validate nutritionist exists
-                    if (!nutritionistRepository.existsById(nutritionistId)) {
-                        throw new AppointmentServiceException("Nutritionist not found");
-                    }
-
-                    LocalDateTime now = LocalDateTime.now();
-                    return appointmentRepository
-                            .findByNutritionistIdAndAppointmentDateTimeBetween(
-                                    nutritionistId,
-                                    now,
-                                    now.plusMonths(1));
+                    return upcomingAppointmentsCache.get(nutritionistId, LocalDateTime.now(), (from, to) -> {
+                        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+                        readOnly.setReadOnly(true);
+                        return readOnly.execute(status -> {
+                            // Validate nutritionist exists
+                            if (!nutritionistRepository.existsById(nutritionistId)) {
+                                throw new AppointmentServiceException("Nutritionist not found");
+                            }
+
+                            return readModelRepository.findCalendarRows(nutritionistId, from, to);
+                        });
+                    });
                 },
                 AppointmentServiceException::new,
                 "Get Upcoming Appointments");
     }
 
     @Transactional(readOnly = true)
-    public Page<PatientAppointmentView> getPatientAppointments(Pageable pageable, Integer patientId) {
+    public Page<AppointmentReadModel> getPatientAppointments(Pageable pageable, Integer patientId) {
         return ServiceExceptionHandler.executeWithExceptionHandling(
             () -> {
-                return patientAppointmentViewRepository.findByPatientId(patientId, pageable);
+                return readModelRepository.findByPatientId(patientId, toReadModelSort(pageable));
             }, AppointmentServiceException::new, "Get Patient Appointments");
     }
 
+    @Transactional(readOnly = true)
+    public CursorPageResponseDTO<AppointmentReadModel> scrollPatientAppointments(Integer patientId, String cursor,
+            int size, String sortBy, Sort.Direction direction) {
+        return ServiceExceptionHandler.executeWithExceptionHandling(
+                () -> {
+                    Sort sort = CursorPagination.sort(sortBy, direction, APPOINTMENT_CURSOR_SORTS, "appointmentId");
+                    int pageSize = CursorPagination.pageSize(size);
+                    return CursorPagination.toResponse(
+                            readModelRepository.findBy(AppointmentReadModelRepository.ofPatient(patientId),
+                                    q -> q.sortBy(sort).limit(pageSize)
+                                            .scroll(CursorPagination.position(cursor, sort))),
+                            Function.identity(), pageSize);
+                }, AppointmentServiceException::new, "Scroll Patient Appointments");
+    }
+
+    /**
+     * The read model stores the appointment timestamp in one column, so sorting by the
+     * date or time of the appointment sorts by that column
+     */
+    private static Pageable toReadModelSort(Pageable pageable) {
+        Sort sort = Sort.by(pageable.getSort().stream()
+                .map(order -> order.withProperty(
+                        APPOINTMENT_CURSOR_SORTS.getOrDefault(order.getProperty(), order.getProperty())))
+                .toList());
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
+    }
+
+    /**
+     * Rejects the slot when the nutritionist is off shift or blocked out during any of it
+     */
+    private void ensureWithinWorkingHours(Integer nutritionistId, LocalDateTime start) {
+        if (!scheduleIndex.isWithinWorkingHours(nutritionistId, start, bookingProperties.appointmentDuration())) {
+            throw new AppointmentServiceException("Appointment time is outside the nutritionist's working hours");
+        }
+    }
+
+    private static boolean isReactivation(String currentStatus, String newStatus) {
+        return !NutritionistBookingIndex.BLOCKING_STATUSES.contains(currentStatus)
+                && NutritionistBookingIndex.BLOCKING_STATUSES.contains(newStatus);
+    }
+
+    /**
+     * Rejects the slot when it overlaps one of the given starts, for slots taken within
+     * the same transaction that neither the index nor the database show yet
+     */
+    private void ensureNoOverlap(List<LocalDateTime> takenStarts, LocalDateTime start) {
+        if (takenStarts.isEmpty()) {
+            return;
+        }
+        Duration duration = bookingProperties.appointmentDuration();
+        for (LocalDateTime taken : takenStarts) {
+            if (taken.isBefore(start.plus(duration)) && start.isBefore(taken.plus(duration))) {
+                throw new AppointmentServiceException("Appointment time is already booked");
+            }
+        }
+    }
+
+    /**
+     * Rejects the slot when it overlaps another active appointment of the nutritionist.
+     * The in-memory booking index answers for the near future, the database is only
+     * queried for slots outside the indexed horizon.
+     */
+    private void ensureSlotAvailable(Integer nutritionistId, LocalDateTime start, Integer excludedAppointmentId) {
+        boolean booked = switch (bookingIndex.check(nutritionistId, start, excludedAppointmentId)) {
+            case CONFLICT -> true;
+            case FREE -> false;
+            case UNKNOWN -> {
+                Duration duration = bookingProperties.appointmentDuration();
+                yield appointmentRepository.existsOverlapping(
+                        nutritionistId,
+                        start.minus(duration),
+                        start.plus(duration),
+                        NutritionistBookingIndex.BLOCKING_STATUSES,
+                        excludedAppointmentId);
+            }
+        };
+
+        if (booked) {
+            throw new AppointmentServiceException("Appointment time is already booked");
+        }
+    }
+
+    /**
+     * Rejects the slot when another booking holds part of it
+     *
+     * @param holdId hold of the caller, which does not count against it
+     */
+    private void ensureSlotNotHeld(Integer nutritionistId, LocalDateTime start, String holdId) {
+        LocalDateTime end = start.plus(bookingProperties.appointmentDuration());
+        boolean heldByOthers = slotHoldStore.findActive(nutritionistId, start, end, LocalDateTime.now()).stream()
+                .anyMatch(hold -> !hold.getId().equals(holdId));
+        if (heldByOthers) {
+            throw new AppointmentServiceException("Appointment time is held by another booking");
+        }
+    }
+
+    /**
+     * Checks all slots of a series against the nutritionist's holds, looked up once for
+     * the whole series
+     */
+    private void ensureSlotsNotHeld(Integer nutritionistId, List<LocalDateTime> slots) {
+        Duration duration = bookingProperties.appointmentDuration();
+        LocalDateTime now = LocalDateTime.now();
+        List<SlotHold> holds = slotHoldStore.findActive(
+                nutritionistId, slots.get(0), slots.get(slots.size() - 1).plus(duration), now);
+        if (holds.isEmpty()) {
+            return;
+        }
+
+        List<LocalDateTime> conflicts = slots.stream()
+                .filter(slot -> holds.stream().anyMatch(hold -> hold.overlaps(slot, slot.plus(duration), now)))
+                .toList();
+        if (!conflicts.isEmpty()) {
+            throw new AppointmentServiceException("Appointment time is held by another booking: " +
+                    conflicts.stream().map(LocalDateTime::toString).collect(Collectors.joining(", ")));
+        }
+    }
+
+    /**
+     * Frees the hold of a booking once the booking is visible to the other receptionists
+     */
+    private void releaseHoldAfterCommit(String holdId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            slotHoldStore.release(holdId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                slotHoldStore.release(holdId);
+            }
+        });
+    }
+
+    /**
+     * Expands the recurrence rule into the session start times, in chronological order
+     */
+    private List<LocalDateTime> generateSeriesSlots(AppointmentSeriesDTO dto, int occurrences) {
+        LocalDateTime first = dto.getFirstAppointmentDateTime();
+        List<DayOfWeek> days = (dto.getDaysOfWeek() == null || dto.getDaysOfWeek().isEmpty()
+                ? Set.of(first.getDayOfWeek())
+                : dto.getDaysOfWeek()).stream().sorted().toList();
+        int intervalWeeks = dto.getIntervalWeeks() != null ? dto.getIntervalWeeks() : 1;
+
+        List<LocalDateTime> slots = new ArrayList<>();
+        LocalDateTime weekStart = first.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        while (slots.size() < occurrences) {
+            for (DayOfWeek day : days) {
+                LocalDateTime slot = weekStart.with(TemporalAdjusters.nextOrSame(day));
+                if (!slot.isBefore(first) && slots.size() < occurrences) {
+                    slots.add(slot);
+                }
+            }
+            weekStart = weekStart.plusWeeks(intervalWeeks);
+        }
+        return slots;
+    }
+
+    /**
+     * Checks all slots of a series against the nutritionist's bookings loaded with a
+     * single range query, and against each other.
+     */
+    private void ensureSlotsAvailable(Integer nutritionistId, List<LocalDateTime> slots) {
+        Duration duration = bookingProperties.appointmentDuration();
+        LocalDateTime first = slots.get(0);
+        LocalDateTime last = slots.get(slots.size() - 1);
+
+        NavigableSet<LocalDateTime> booked = appointmentRepository
+                .findBookedSlotsByNutritionist(
+                        nutritionistId,
+                        first.minus(duration),
+                        last.plus(duration),
+                        NutritionistBookingIndex.BLOCKING_STATUSES)
+                .stream()
+                .map(BookedSlot::getAppointmentDateTime)
+                .collect(Collectors.toCollection(TreeSet::new));
+
+        List<LocalDateTime> conflicts = new ArrayList<>();
+        for (LocalDateTime slot : slots) {
+            if (!booked.subSet(slot.minus(duration), false, slot.plus(duration), false).isEmpty()) {
+                conflicts.add(slot);
+            }
+            booked.add(slot);
+        }
+
+        if (!conflicts.isEmpty()) {
+            throw new AppointmentServiceException("Appointment time is already booked: " +
+                    conflicts.stream().map(LocalDateTime::toString).collect(Collectors.joining(", ")));
+        }
+    }
+
+    /**
+     * Why an appointment cannot move to the slot of the target nutritionist, null when it can
+     */
+    private String findReassignmentConflict(Appointment appointment, Integer targetId, LocalDateTime slot,
+            NavigableSet<LocalDateTime> booked, List<SlotHold> holds, LocalDateTime now) {
+        Duration duration = bookingProperties.appointmentDuration();
+        LocalDateTime expirationDate = appointment.getPurchasedPackage().getExpirationDate();
+
+        if (slot.isBefore(now)) {
+            return "Appointment time must be in the future";
+        }
+        if (expirationDate != null && expirationDate.isBefore(slot)) {
+            return "Appointment time is past the package expiration date";
+        }
+        if (!scheduleIndex.isWithinWorkingHours(targetId, slot, duration)) {
+            return "Appointment time is outside the nutritionist's working hours";
+        }
+        if (!booked.subSet(slot.minus(duration), false, slot.plus(duration), false).isEmpty()) {
+            return "Appointment time is already booked";
+        }
+        if (holds.stream().anyMatch(hold -> hold.overlaps(slot, slot.plus(duration), now))) {
+            return "Appointment time is held by another booking";
+        }
+        return null;
+    }
+
+    /**
+     * Saves an appointment that occupies a slot. The unique slot index on the Appointment
+     * table rejects double bookings that slipped past the in-memory checks, e.g. from
+     * another API instance. The save is flushed so a moved appointment hits the index here
+     * too, not only at commit where the violation could no longer be reported.
+     */
+    private Appointment saveBooking(Appointment appointment) {
+        try {
+            return appointmentRepository.saveAndFlush(appointment);
+        } catch (DataIntegrityViolationException e) {
+            throw new AppointmentServiceException("Appointment time is already booked", e);
+        }
+    }
+
     private void validateStatusTransition(String currentStatus, String newStatus) {
         // Prevent updating COMPLETADA or CANCELADA appointments
         if ("COMPLETADA".equals(currentStatus) || "CANCELADA".equals(currentStatus)) {
@@ -0,0 +1,109 @@
+package com.effisoft.nlab.appointmentapi.service;
+
+import com.effisoft.nlab.appointmentapi.dto.AppointmentStatusCountsDTO;
+import com.effisoft.nlab.appointmentapi.dto.StatusCounterKey;
+import com.effisoft.nlab.appointmentapi.dto.StatusCounterRebuildDTO;
+import com.effisoft.nlab.appointmentapi.entity.AppointmentStatusCounter;
+import com.effisoft.nlab.appointmentapi.exception.AppointmentStatsException;
+import com.effisoft.nlab.appointmentapi.repository.AppointmentStatusCounterBatchRepository;
+import com.effisoft.nlab.appointmentapi.repository.AppointmentStatusCounterRepository;
+import com.effisoft.nlab.appointmentapi.service.base.ServiceExceptionHandler;
+import com.effisoft.nlab.appointmentapi.service.job.ClusterJobRunner;
+import com.effisoft.nlab.appointmentapi.service.stats.AppointmentStatusProjector;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Reads the precomputed appointment status counters, one index seek per request, and
+ * rebuilds them from the status log when they are suspected to have drifted.
+ */
+@Service
+@RequiredArgsConstructor
+public class AppointmentStatsService {
+    private static final Logger log = LoggerFactory.getLogger(AppointmentStatsService.class);
+
+    public static final String REBUILD_JOB_NAME = "AppointmentStatusCounterRebuild";
+
+    private final AppointmentStatusCounterRepository counterRepository;
+    private final AppointmentStatusCounterBatchRepository counterBatchRepository;
+    private final ClusterJobRunner clusterJobRunner;
+    private final TransactionTemplate transactionTemplate;
+
+    @Transactional(readOnly = true)
+    public AppointmentStatusCountsDTO getNutritionistCounts(Integer nutritionistId) {
+        return getCounts(AppointmentStatusCounter.NUTRITIONIST, nutritionistId.toString());
+    }
+
+    @Transactional(readOnly = true)
+    public AppointmentStatusCountsDTO getPatientCounts(Integer patientId) {
+        return getCounts(AppointmentStatusCounter.PATIENT, patientId.toString());
+    }
+
+    @Transactional(readOnly = true)
+    public AppointmentStatusCountsDTO getDayCounts(LocalDate day) {
+        return getCounts(AppointmentStatusCounter.DAY, day.toString());
+    }
+
+    /**
+     * Recomputes every counter from the status log. The log is replayed up to its last
+     * event without blocking appointment writes, the plain read committed scan only waits
+     * for events still being committed. The events written meanwhile are then caught up
+     * with the log locked, and the counters are swapped in that same short transaction,
+     * so no change is counted twice or lost.
+     */
+    public StatusCounterRebuildDTO rebuildCounters() {
+        return ServiceExceptionHandler.executeWithExceptionHandling(
+                () -> {
+                    AtomicReference<StatusCounterRebuildDTO> result = new AtomicReference<>();
+                    boolean ran = clusterJobRunner.runExclusively(REBUILD_JOB_NAME, () -> {
+                        Map<StatusCounterKey, Long> counters = new HashMap<>();
+                        long highWaterMark = counterBatchRepository.lastEventId();
+                        long replayed = counterBatchRepository.forEachEvent(0, highWaterMark,
+                                entry -> AppointmentStatusProjector.replay(entry, counters));
+
+                        result.set(transactionTemplate.execute(status -> {
+                            long lastEventId = counterBatchRepository.lockEventLog();
+                            long caughtUp = counterBatchRepository.forEachEvent(highWaterMark, lastEventId,
+                                    entry -> AppointmentStatusProjector.replay(entry, counters));
+                            counters.values().removeIf(count -> count == 0);
+
+                            counterBatchRepository.replaceAll(counters);
+                            return new StatusCounterRebuildDTO(replayed + caughtUp, counters.size());
+                        }));
+                    });
+
+                    if (!ran) {
+                        throw new AppointmentStatsException("A rebuild of the status counters is already running");
+                    }
+                    log.info("Rebuilt {} status counters from {} events",
+                            result.get().getCounters(), result.get().getEventsReplayed());
+                    return result.get();
+                },
+                AppointmentStatsException::new,
+                "Rebuild Status Counters");
+    }
+
+    private AppointmentStatusCountsDTO getCounts(String scope, String scopeKey) {
+        return ServiceExceptionHandler.executeWithExceptionHandling(
+                () -> {
+                    Map<String, Long> counts = new TreeMap<>();
+                    counterRepository.findByScopeAndScopeKey(scope, scopeKey)
+                            .forEach(counter -> counts.put(counter.getStatus(), counter.getAppointmentCount()));
+                    long total = counts.values().stream().mapToLong(Long::longValue).sum();
+                    return new AppointmentStatusCountsDTO(scope, scopeKey, counts, total);
+                },
+                AppointmentStatsException::new,
+                "Get Status Counts");
+    }
+}
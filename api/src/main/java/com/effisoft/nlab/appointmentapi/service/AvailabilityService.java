@@ -0,0 +1,171 @@
+package com.effisoft.nlab.appointmentapi.service;
+
+import com.effisoft.nlab.appointmentapi.config.BookingProperties;
+import com.effisoft.nlab.appointmentapi.dto.AvailabilitySlotDTO;
+import com.effisoft.nlab.appointmentapi.dto.BookedSlot;
+import com.effisoft.nlab.appointmentapi.entity.Nutritionist;
+import com.effisoft.nlab.appointmentapi.entity.SlotHold;
+import com.effisoft.nlab.appointmentapi.exception.AppointmentServiceException;
+import com.effisoft.nlab.appointmentapi.repository.AppointmentRepository;
+import com.effisoft.nlab.appointmentapi.repository.NutritionistRepository;
+import com.effisoft.nlab.appointmentapi.service.base.ServiceExceptionHandler;
+import com.effisoft.nlab.appointmentapi.service.booking.NutritionistBookingIndex;
+import com.effisoft.nlab.appointmentapi.service.booking.NutritionistScheduleIndex;
+import com.effisoft.nlab.appointmentapi.service.booking.SlotHoldStore;
+import com.effisoft.nlab.appointmentapi.service.booking.SlotBitmap;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Answers "who is free between these times?" across all active nutritionists.
+ * Booked intervals of every nutritionist are loaded with one range query and the open
+ * slots of each nutritionist are computed in parallel on the fork/join pool, as slot
+ * bitmaps of the nutritionist's working hours minus the booked appointments and the
+ * slots held by other bookings.
+ */
+@Service
+@RequiredArgsConstructor
+public class AvailabilityService {
+    private final NutritionistRepository nutritionistRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final BookingProperties bookingProperties;
+    private final NutritionistScheduleIndex scheduleIndex;
+    private final SlotHoldStore slotHoldStore;
+
+    @Transactional(readOnly = true)
+    public List<AvailabilitySlotDTO> findAvailableSlots(LocalDateTime from, LocalDateTime to, Integer durationMinutes) {
+        return ServiceExceptionHandler.executeWithExceptionHandling(
+                () -> {
+                    if (!from.isBefore(to)) {
+                        throw new AppointmentServiceException("Start date must be before end date");
+                    }
+
+                    if (ChronoUnit.DAYS.between(from, to) > bookingProperties.getAvailabilityMaxDays()) {
+                        throw new AppointmentServiceException(
+                                "Date range must not exceed " + bookingProperties.getAvailabilityMaxDays() + " days");
+                    }
+
+                    Duration duration = durationMinutes != null
+                            ? Duration.ofMinutes(durationMinutes)
+                            : bookingProperties.appointmentDuration();
+                    if (duration.isNegative() || duration.isZero() || duration.toMinutes() > SlotBitmap.MINUTES_PER_DAY) {
+                        throw new AppointmentServiceException("Duration must be between 1 minute and 24 hours");
+                    }
+
+                    List<Nutritionist> nutritionists = nutritionistRepository.findByActiveTrue();
+                    Duration bookedDuration = bookingProperties.appointmentDuration();
+
+                    // One range query for the bookings of every nutritionist
+                    Map<Integer, NavigableSet<LocalDateTime>> bookedByNutritionist = appointmentRepository
+                            .findBookedSlots(from.minus(bookedDuration), to, NutritionistBookingIndex.BLOCKING_STATUSES)
+                            .stream()
+                            .collect(Collectors.groupingBy(
+                                    BookedSlot::getNutritionistId,
+                                    Collectors.mapping(BookedSlot::getAppointmentDateTime,
+                                            Collectors.toCollection(TreeSet::new))));
+
+                    // Holds last one appointment, so they block the same slots as a booking
+                    for (SlotHold hold : slotHoldStore.findActiveBetween(
+                            from.minus(bookedDuration), to, LocalDateTime.now())) {
+                        bookedByNutritionist.computeIfAbsent(hold.getNutritionistId(), id -> new TreeSet<>())
+                                .add(hold.getStartsAt());
+                    }
+
+                    LocalDateTime earliest = from.isAfter(LocalDateTime.now()) ? from : LocalDateTime.now();
+                    // Nutritionists without working hours are offered within the clinic hours
+                    long[] clinicHours = SlotBitmap.within(
+                            bookingProperties.getOpeningTime(), bookingProperties.getClosingTime());
+
+                    return nutritionists.parallelStream()
+                            .flatMap(nutritionist -> openSlots(
+                                    nutritionist,
+                                    bookedByNutritionist.getOrDefault(nutritionist.getId(), new TreeSet<>()),
+                                    earliest,
+                                    to,
+                                    duration,
+                                    bookedDuration,
+                                    clinicHours).stream())
+                            .sorted(Comparator.comparing(AvailabilitySlotDTO::getStart)
+                                    .thenComparing(AvailabilitySlotDTO::getNutritionistName)
+                                    .thenComparing(AvailabilitySlotDTO::getNutritionistId))
+                            .toList();
+                },
+                AppointmentServiceException::new,
+                "Find Available Slots");
+    }
+
+    /**
+     * Builds the free-slot bitmap of every day in the range, working hours ANDNOT booked
+     * appointments, and keeps the candidate starts whose slots are all free. A booking
+     * always lasts the booked duration, so a shorter requested duration is only offered
+     * where a whole booking fits.
+     */
+    private List<AvailabilitySlotDTO> openSlots(
+            Nutritionist nutritionist,
+            NavigableSet<LocalDateTime> booked,
+            LocalDateTime from,
+            LocalDateTime to,
+            Duration duration,
+            Duration bookedDuration,
+            long[] clinicHours) {
+        List<AvailabilitySlotDTO> slots = new ArrayList<>();
+        String nutritionistName = nutritionist.getFirstName() + " " + nutritionist.getLastName();
+        Duration step = Duration.ofMinutes(bookingProperties.getAvailabilityStepMinutes());
+        Duration occupied = duration.compareTo(bookedDuration) < 0 ? bookedDuration : duration;
+        int occupiedMinutes = (int) occupied.toMinutes();
+
+        for (LocalDate day = from.toLocalDate(); !day.isAfter(to.toLocalDate()); day = day.plusDays(1)) {
+            long[] free = SlotBitmap.andNot(
+                    scheduleIndex.availableSlots(nutritionist.getId(), day, clinicHours),
+                    bookedSlots(booked, day, bookedDuration));
+
+            LocalDateTime dayEnd = day.plusDays(1).atStartOfDay();
+            for (LocalDateTime start = day.atStartOfDay();
+                    !start.plus(occupied).isAfter(dayEnd) && !start.plus(occupied).isAfter(to);
+                    start = start.plus(step)) {
+                if (start.isBefore(from)) {
+                    continue;
+                }
+
+                int startMinute = SlotBitmap.minuteOfDay(start.toLocalTime());
+                if (SlotBitmap.covers(free, SlotBitmap.ofMinutes(startMinute, startMinute + occupiedMinutes))) {
+                    slots.add(new AvailabilitySlotDTO(nutritionist.getId(), nutritionistName, start, start.plus(duration)));
+                }
+            }
+        }
+
+        return slots;
+    }
+
+    /**
+     * Slots of the day touched by a booked appointment, including one that started the day before
+     */
+    private long[] bookedSlots(NavigableSet<LocalDateTime> booked, LocalDate day, Duration bookedDuration) {
+        LocalDateTime dayStart = day.atStartOfDay();
+        LocalDateTime dayEnd = day.plusDays(1).atStartOfDay();
+
+        long[] bits = SlotBitmap.empty();
+        for (LocalDateTime start : booked.subSet(dayStart.minus(bookedDuration), false, dayEnd, false)) {
+            LocalDateTime end = start.plus(bookedDuration);
+            int fromMinute = start.isBefore(dayStart) ? 0 : SlotBitmap.minuteOfDay(start.toLocalTime());
+            int toMinute = end.isBefore(dayEnd) ? SlotBitmap.minuteOfDay(end.toLocalTime()) : SlotBitmap.MINUTES_PER_DAY;
+            bits = SlotBitmap.or(bits, SlotBitmap.ofMinutes(fromMinute, toMinute));
+        }
+        return bits;
+    }
+}
@@ -1,7 +1,7 @@
 package com.effisoft.nlab.appointmentapi.service;
 
 import com.effisoft.nlab.appointmentapi.dto.NutritionistPaymentPeriodDTO;
-import com.effisoft.nlab.appointmentapi.entity.Appointment;
+import com.effisoft.nlab.appointmentapi.dto.PaymentPeriodTotals;
 import com.effisoft.nlab.appointmentapi.entity.Nutritionist;
 import com.effisoft.nlab.appointmentapi.entity.NutritionistPaymentPeriod;
 import com.effisoft.nlab.appointmentapi.exception.NutritionistPaymentPeriodException;
@@ -17,6 +17,7 @@ import org.springframework.validation.annotation.Validated;
 
 import jakarta.validation.Valid;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -46,28 +47,8 @@ public class NutritionistPaymentPeriodService {
                 paymentPeriod.setPeriodEndDate(dto.getPeriodEndDate());
 
                 // Calculate total appointments and amount based on COMPLETADA appointments
-                LocalDateTime startDateTime = dto.getPeriodStartDate().atStartOfDay();
-                LocalDateTime endDateTime = dto.getPeriodEndDate().atTime(23, 59, 59);
-
-                List<Appointment> COMPLETADAAppointments = appointmentRepository
-                        .findByNutritionistIdAndAppointmentDateTimeBetween(
-                                nutritionist.getId(),
-                                startDateTime,
-                                endDateTime
-                        )
-                        .stream()
-                        .filter(appointment -> "COMPLETADA".equals(appointment.getStatus()))
-                        .toList();
-
-                paymentPeriod.setTotalAppointments(COMPLETADAAppointments.size());
-
-                // Calculate total amount based on package types' nutritionist rates
-                BigDecimal totalAmount = COMPLETADAAppointments.stream()
-                        .map(appointment ->
-                                appointment.getPurchasedPackage().getPackageType().getNutritionistRate())
-                        .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-                paymentPeriod.setTotalAmount(totalAmount);
+                applyTotals(paymentPeriod, nutritionist.getId(), dto.getPeriodStartDate(), dto.getPeriodEndDate());
+
                 paymentPeriod.setPaymentStatus("PENDING");
 
                 return nutritionistPaymentPeriodRepository.save(paymentPeriod);
@@ -89,7 +70,7 @@ public class NutritionistPaymentPeriodService {
     @Transactional(readOnly = true)
     public NutritionistPaymentPeriod getPaymentPeriodById(Integer id) {
         return ServiceExceptionHandler.executeWithExceptionHandling(
-            () -> nutritionistPaymentPeriodRepository.findById(id)
+            () -> nutritionistPaymentPeriodRepository.findWithNutritionistById(id)
                 .orElseThrow(() -> new NutritionistPaymentPeriodException(
                     "Payment period not found with id: " + id)),
             NutritionistPaymentPeriodException::new,
@@ -140,27 +121,9 @@ public class NutritionistPaymentPeriodService {
                 existingPeriod.setPeriodEndDate(dto.getPeriodEndDate());
 
                 // Recalculate appointments and amount
-                LocalDateTime startDateTime = dto.getPeriodStartDate().atStartOfDay();
-                LocalDateTime endDateTime = dto.getPeriodEndDate().atTime(23, 59, 59);
-
-                List<Appointment> COMPLETADAAppointments = appointmentRepository
-                        .findByNutritionistIdAndAppointmentDateTimeBetween(
-                                existingPeriod.getNutritionist().getId(),
-                                startDateTime,
-                                endDateTime
-                        )
-                        .stream()
-                        .filter(appointment -> "COMPLETADA".equals(appointment.getStatus()))
-                        .toList();
-
-                existingPeriod.setTotalAppointments(COMPLETADAAppointments.size());
-
-                BigDecimal totalAmount = COMPLETADAAppointments.stream()
-                        .map(appointment ->
-                                appointment.getPurchasedPackage().getPackageType().getNutritionistRate())
-                        .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-                existingPeriod.setTotalAmount(totalAmount);
+                applyTotals(existingPeriod, existingPeriod.getNutritionist().getId(),
+                        dto.getPeriodStartDate(), dto.getPeriodEndDate());
+
                 existingPeriod.setPaymentStatus(dto.getPaymentStatus());
 
                 return nutritionistPaymentPeriodRepository.save(existingPeriod);
@@ -187,4 +150,20 @@ public class NutritionistPaymentPeriodService {
             "Cancel Payment Period"
         );
     }
+
+    /**
+     * Sets the count and nutritionist rate total of the COMPLETADA appointments in the
+     * period, aggregated by the database instead of loading the appointments
+     */
+    private void applyTotals(NutritionistPaymentPeriod period, Integer nutritionistId,
+            LocalDate periodStartDate, LocalDate periodEndDate) {
+        PaymentPeriodTotals totals = appointmentRepository.sumNutritionistRates(
+                nutritionistId,
+                "COMPLETADA",
+                periodStartDate.atStartOfDay(),
+                periodEndDate.atTime(23, 59, 59));
+
+        period.setTotalAppointments(totals.getTotalAppointments().intValue());
+        period.setTotalAmount(totals.getTotalAmount() == null ? BigDecimal.ZERO : totals.getTotalAmount());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,134 @@
+package com.effisoft.nlab.appointmentapi.service;
+
+import com.effisoft.nlab.appointmentapi.dto.NutritionistPaymentTotals;
+import com.effisoft.nlab.appointmentapi.dto.PayrollRunResultDTO;
+import com.effisoft.nlab.appointmentapi.entity.NutritionistPaymentPeriod;
+import com.effisoft.nlab.appointmentapi.exception.NutritionistPaymentPeriodException;
+import com.effisoft.nlab.appointmentapi.repository.AppointmentRepository;
+import com.effisoft.nlab.appointmentapi.repository.NutritionistPaymentPeriodBatchRepository;
+import com.effisoft.nlab.appointmentapi.repository.NutritionistPaymentPeriodRepository;
+import com.effisoft.nlab.appointmentapi.repository.NutritionistRepository;
+import com.effisoft.nlab.appointmentapi.service.base.ServiceExceptionHandler;
+import com.effisoft.nlab.appointmentapi.service.job.ClusterJobRunner;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Month-end payroll, the payment periods of every active nutritionist created in one run.
+ *
+ * The totals of all nutritionists come from a single grouped aggregate over the completed
+ * appointments, and the new periods are written in one JDBC batch, so a run costs a fixed
+ * number of statements however many nutritionists there are. Runs go through the
+ * {@link ClusterJobRunner}, which keeps them to one at a time across instances and
+ * publishes their duration as {@code nlab.jobs.duration}.
+ */
+@Service
+@RequiredArgsConstructor
+public class NutritionistPayrollService {
+    private static final Logger log = LoggerFactory.getLogger(NutritionistPayrollService.class);
+
+    public static final String JOB_NAME = "NutritionistPayrollRun";
+
+    private final NutritionistRepository nutritionistRepository;
+    private final NutritionistPaymentPeriodRepository nutritionistPaymentPeriodRepository;
+    private final NutritionistPaymentPeriodBatchRepository nutritionistPaymentPeriodBatchRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final ClusterJobRunner clusterJobRunner;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Creates a PENDING period for every active nutritionist with completed appointments
+     * in the range. Nutritionists that already have a period overlapping it, other than a
+     * cancelled one, are skipped, so a run can be repeated safely.
+     */
+    public PayrollRunResultDTO runPayroll(LocalDate periodStartDate, LocalDate periodEndDate) {
+        return ServiceExceptionHandler.executeWithExceptionHandling(
+                () -> {
+                    if (periodEndDate.isBefore(periodStartDate)) {
+                        throw new NutritionistPaymentPeriodException("End date cannot be before start date");
+                    }
+
+                    long start = System.nanoTime();
+                    AtomicReference<PayrollRunResultDTO> result = new AtomicReference<>();
+                    boolean ran = clusterJobRunner.runExclusively(JOB_NAME, () ->
+                            result.set(transactionTemplate.execute(
+                                    status -> createPeriods(periodStartDate, periodEndDate))));
+
+                    if (!ran) {
+                        throw new NutritionistPaymentPeriodException("A payroll run is already in progress");
+                    }
+
+                    PayrollRunResultDTO summary = result.get();
+                    summary.setDurationMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                    log.info("Payroll run {} to {} created {} periods, skipped {} overlapping and {} without appointments",
+                            periodStartDate, periodEndDate, summary.getCreated(),
+                            summary.getSkippedOverlapping(), summary.getSkippedWithoutAppointments());
+                    return summary;
+                },
+                NutritionistPaymentPeriodException::new,
+                "Run Payroll");
+    }
+
+    private PayrollRunResultDTO createPeriods(LocalDate periodStartDate, LocalDate periodEndDate) {
+        List<Integer> activeIds = nutritionistRepository.findActiveIds();
+        Set<Integer> withPeriods = new HashSet<>(nutritionistPaymentPeriodRepository
+                .findNutritionistIdsWithPeriodsOverlapping(periodStartDate, periodEndDate));
+
+        Map<Integer, NutritionistPaymentTotals> totalsByNutritionist = new HashMap<>();
+        for (NutritionistPaymentTotals totals : appointmentRepository.sumNutritionistRatesByNutritionist(
+                "COMPLETADA", periodStartDate.atStartOfDay(), periodEndDate.atTime(23, 59, 59))) {
+            totalsByNutritionist.put(totals.getNutritionistId(), totals);
+        }
+
+        List<NutritionistPaymentPeriod> periods = new ArrayList<>();
+        int skippedOverlapping = 0;
+        int skippedWithoutAppointments = 0;
+        long totalAppointments = 0;
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        for (Integer nutritionistId : activeIds) {
+            if (withPeriods.contains(nutritionistId)) {
+                skippedOverlapping++;
+                continue;
+            }
+
+            // A period has to pay something, nutritionists without completed appointments get none
+            NutritionistPaymentTotals totals = totalsByNutritionist.get(nutritionistId);
+            if (totals == null || totals.getTotalAmount() == null
+                    || totals.getTotalAmount().signum() <= 0) {
+                skippedWithoutAppointments++;
+                continue;
+            }
+
+            NutritionistPaymentPeriod period = new NutritionistPaymentPeriod();
+            period.setNutritionist(nutritionistRepository.getReferenceById(nutritionistId));
+            period.setPeriodStartDate(periodStartDate);
+            period.setPeriodEndDate(periodEndDate);
+            period.setTotalAppointments(totals.getTotalAppointments().intValue());
+            period.setTotalAmount(totals.getTotalAmount());
+            period.setPaymentStatus("PENDING");
+            periods.add(period);
+
+            totalAppointments += totals.getTotalAppointments();
+            totalAmount = totalAmount.add(totals.getTotalAmount());
+        }
+
+        int created = periods.isEmpty() ? 0 : nutritionistPaymentPeriodBatchRepository.insertAll(periods);
+        return new PayrollRunResultDTO(periodStartDate, periodEndDate, created, skippedOverlapping,
+                skippedWithoutAppointments, totalAppointments, totalAmount, 0);
+    }
+}
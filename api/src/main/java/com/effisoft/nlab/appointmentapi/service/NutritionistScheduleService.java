@@ -0,0 +1,153 @@
+package com.effisoft.nlab.appointmentapi.service;
+
+import com.effisoft.nlab.appointmentapi.dto.BlockOutDTO;
+import com.effisoft.nlab.appointmentapi.dto.WorkingHoursDTO;
+import com.effisoft.nlab.appointmentapi.entity.Nutritionist;
+import com.effisoft.nlab.appointmentapi.entity.NutritionistBlockOut;
+import com.effisoft.nlab.appointmentapi.entity.NutritionistWorkingHours;
+import com.effisoft.nlab.appointmentapi.event.NutritionistScheduleChangedEvent;
+import com.effisoft.nlab.appointmentapi.exception.NutritionistScheduleException;
+import com.effisoft.nlab.appointmentapi.repository.NutritionistBlockOutRepository;
+import com.effisoft.nlab.appointmentapi.repository.NutritionistRepository;
+import com.effisoft.nlab.appointmentapi.repository.NutritionistWorkingHoursRepository;
+import com.effisoft.nlab.appointmentapi.service.base.ServiceExceptionHandler;
+import com.effisoft.nlab.appointmentapi.service.booking.SlotBitmap;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+@Service
+@Validated
+@RequiredArgsConstructor
+public class NutritionistScheduleService {
+    private final NutritionistRepository nutritionistRepository;
+    private final NutritionistWorkingHoursRepository workingHoursRepository;
+    private final NutritionistBlockOutRepository blockOutRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Replaces the weekly template of the nutritionist. An empty list removes the
+     * template, leaving the nutritionist unrestricted.
+     */
+    @Transactional
+    public List<NutritionistWorkingHours> replaceWorkingHours(
+            Integer nutritionistId, List<@Valid WorkingHoursDTO> workingHours) {
+        return ServiceExceptionHandler.executeWithExceptionHandling(
+                () -> {
+                    Nutritionist nutritionist = findNutritionist(nutritionistId);
+
+                    List<NutritionistWorkingHours> windows = workingHours.stream()
+                            .map(dto -> {
+                                validateWorkingHours(dto);
+
+                                NutritionistWorkingHours window = new NutritionistWorkingHours();
+                                window.setNutritionist(nutritionist);
+                                window.setDayOfWeek(dto.getDayOfWeek().getValue());
+                                window.setStartTime(dto.getStartTime());
+                                window.setEndTime(dto.getEndTime());
+                                return window;
+                            })
+                            .toList();
+
+                    workingHoursRepository.deleteByNutritionistId(nutritionistId);
+                    List<NutritionistWorkingHours> saved = workingHoursRepository.saveAll(windows);
+                    eventPublisher.publishEvent(new NutritionistScheduleChangedEvent(nutritionistId));
+                    return saved;
+                },
+                NutritionistScheduleException::new,
+                "Replace Working Hours");
+    }
+
+    @Transactional(readOnly = true)
+    public List<NutritionistWorkingHours> getWorkingHours(Integer nutritionistId) {
+        return ServiceExceptionHandler.executeWithExceptionHandling(
+                () -> {
+                    findNutritionist(nutritionistId);
+                    return workingHoursRepository.findByNutritionistIdOrderByDayOfWeekAscStartTimeAsc(nutritionistId);
+                },
+                NutritionistScheduleException::new,
+                "Get Working Hours");
+    }
+
+    @Transactional
+    public NutritionistBlockOut addBlockOut(Integer nutritionistId, @Valid BlockOutDTO dto) {
+        return ServiceExceptionHandler.executeWithExceptionHandling(
+                () -> {
+                    Nutritionist nutritionist = findNutritionist(nutritionistId);
+
+                    if (!dto.getStartDateTime().isBefore(dto.getEndDateTime())) {
+                        throw new NutritionistScheduleException("Start date/time must be before end date/time");
+                    }
+
+                    NutritionistBlockOut blockOut = new NutritionistBlockOut();
+                    blockOut.setNutritionist(nutritionist);
+                    blockOut.setStartDateTime(dto.getStartDateTime());
+                    blockOut.setEndDateTime(dto.getEndDateTime());
+                    blockOut.setReason(dto.getReason());
+                    blockOut.setCreatedAt(LocalDateTime.now());
+
+                    NutritionistBlockOut saved = blockOutRepository.save(blockOut);
+                    eventPublisher.publishEvent(new NutritionistScheduleChangedEvent(nutritionistId));
+                    return saved;
+                },
+                NutritionistScheduleException::new,
+                "Add Block Out");
+    }
+
+    @Transactional(readOnly = true)
+    public List<NutritionistBlockOut> getUpcomingBlockOuts(Integer nutritionistId) {
+        return ServiceExceptionHandler.executeWithExceptionHandling(
+                () -> {
+                    findNutritionist(nutritionistId);
+                    return blockOutRepository.findByNutritionistIdAndEndDateTimeAfterOrderByStartDateTimeAsc(
+                            nutritionistId, LocalDateTime.now());
+                },
+                NutritionistScheduleException::new,
+                "Get Block Outs");
+    }
+
+    @Transactional
+    public NutritionistBlockOut deleteBlockOut(Integer nutritionistId, Integer blockOutId) {
+        return ServiceExceptionHandler.executeWithExceptionHandling(
+                () -> {
+                    NutritionistBlockOut blockOut = blockOutRepository.findById(blockOutId)
+                            .filter(b -> b.getNutritionist().getId().equals(nutritionistId))
+                            .orElseThrow(() -> new NutritionistScheduleException("Block out not found"));
+
+                    blockOutRepository.delete(blockOut);
+                    eventPublisher.publishEvent(new NutritionistScheduleChangedEvent(nutritionistId));
+                    return blockOut;
+                },
+                NutritionistScheduleException::new,
+                "Delete Block Out");
+    }
+
+    private Nutritionist findNutritionist(Integer nutritionistId) {
+        return nutritionistRepository.findById(nutritionistId)
+                .orElseThrow(() -> new NutritionistScheduleException("Nutritionist not found"));
+    }
+
+    private void validateWorkingHours(WorkingHoursDTO dto) {
+        if (!isSlotAligned(dto.getStartTime()) || !isSlotAligned(dto.getEndTime())) {
+            throw new NutritionistScheduleException(
+                    "Working hours must start and end on " + SlotBitmap.SLOT_MINUTES + "-minute boundaries");
+        }
+
+        if (!dto.getEndTime().equals(LocalTime.MIDNIGHT) && !dto.getStartTime().isBefore(dto.getEndTime())) {
+            throw new NutritionistScheduleException("Start time must be before end time");
+        }
+    }
+
+    private boolean isSlotAligned(LocalTime time) {
+        return time.getSecond() == 0 && time.getNano() == 0 && time.getMinute() % SlotBitmap.SLOT_MINUTES == 0;
+    }
+}
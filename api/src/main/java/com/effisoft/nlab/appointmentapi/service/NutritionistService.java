@@ -25,6 +25,7 @@ import java.util.List;
 public class NutritionistService {
     private final NutritionistRepository nutritionistRepository;
     private final NutritionistMapper nutritionistMapper;
+    private final AppointmentReadModelProjector readModelProjector;
 
     @Transactional
     public Nutritionist createNutritionist(@Valid NutritionistDTO dto) {
@@ -62,8 +63,16 @@ public class NutritionistService {
                         }
                     }
 
+                    String previousName = AppointmentReadModelProjector.fullName(
+                            existingNutritionist.getFirstName(), existingNutritionist.getLastName());
                     nutritionistMapper.updateNutritionistFromDTO(dto, existingNutritionist);
-                    return nutritionistRepository.save(existingNutritionist);
+                    Nutritionist savedNutritionist = nutritionistRepository.save(existingNutritionist);
+
+                    if (!previousName.equals(AppointmentReadModelProjector.fullName(
+                            existingNutritionist.getFirstName(), existingNutritionist.getLastName()))) {
+                        readModelProjector.nutritionistRenamed(existingNutritionist);
+                    }
+                    return savedNutritionist;
                 },
                 NutritionistServiceException::new,
                 "Update Nutritionist");
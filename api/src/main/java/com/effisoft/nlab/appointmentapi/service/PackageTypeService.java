@@ -1,17 +1,20 @@
 package com.effisoft.nlab.appointmentapi.service;
 
+import com.effisoft.nlab.appointmentapi.dto.CursorPageResponseDTO;
 import com.effisoft.nlab.appointmentapi.dto.PackageTypeDTO;
 import com.effisoft.nlab.appointmentapi.dto.PackageTypeSelectDTO;
 import com.effisoft.nlab.appointmentapi.entity.PackageType;
 import com.effisoft.nlab.appointmentapi.exception.PackageTypeServiceException;
 import com.effisoft.nlab.appointmentapi.mapper.PackageTypeMapper;
 import com.effisoft.nlab.appointmentapi.repository.PackageTypeRepository;
+import com.effisoft.nlab.appointmentapi.service.base.CursorPagination;
 import com.effisoft.nlab.appointmentapi.service.base.ServiceExceptionHandler;
 
 import lombok.RequiredArgsConstructor;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
@@ -20,13 +23,20 @@ import jakarta.validation.Valid;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 @Service
 @Validated
 @RequiredArgsConstructor
 public class PackageTypeService {
+    private static final Map<String, String> CURSOR_SORTS = Map.of(
+            "name", "name",
+            "price", "price");
+
     private final PackageTypeRepository packageTypeRepository;
     private final PackageTypeMapper packageTypeMapper;
+    private final AppointmentReadModelProjector readModelProjector;
 
     @Transactional
     public PackageType createPackageType(@Valid PackageTypeDTO dto) {
@@ -75,6 +85,23 @@ public class PackageTypeService {
                 .map(packageTypeMapper::toDto);
     }
 
+    @Transactional(readOnly = true)
+    public CursorPageResponseDTO<PackageTypeDTO> scrollPackageTypes(String cursor, int size, String sortBy,
+            Sort.Direction direction, String searchTerm, Boolean active) {
+        return ServiceExceptionHandler.executeWithExceptionHandling(
+                () -> {
+                    Sort sort = CursorPagination.sort(sortBy, direction, CURSOR_SORTS, "id");
+                    int pageSize = CursorPagination.pageSize(size);
+                    return CursorPagination.toResponse(
+                            packageTypeRepository.findBy(PackageTypeRepository.matching(searchTerm, active),
+                                    q -> q.sortBy(sort).limit(pageSize)
+                                            .scroll(CursorPagination.position(cursor, sort))),
+                            packageTypeMapper::toDto, pageSize);
+                },
+                PackageTypeServiceException::new,
+                "Scroll Package Types");
+    }
+
     @Transactional(readOnly = true)
     public PackageType getPackageTypeById(Integer id) {
         return ServiceExceptionHandler.executeWithExceptionHandling(
@@ -89,9 +116,15 @@ public class PackageTypeService {
         return ServiceExceptionHandler.executeWithExceptionHandling(
                 () -> {
                     PackageType existingPackageType = getPackageTypeById(id);
+                    String previousName = existingPackageType.getName();
                     packageTypeMapper.updatePackageTypeFromDTO(dto, existingPackageType);
                     existingPackageType.setUpdatedAt(LocalDateTime.now());
-                    return packageTypeRepository.save(existingPackageType);
+                    PackageType savedPackageType = packageTypeRepository.save(existingPackageType);
+
+                    if (!Objects.equals(previousName, existingPackageType.getName())) {
+                        readModelProjector.packageTypeRenamed(existingPackageType);
+                    }
+                    return savedPackageType;
                 },
                 PackageTypeServiceException::new,
                 "Update Package Type");
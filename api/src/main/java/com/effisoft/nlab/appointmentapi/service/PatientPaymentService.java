@@ -1,6 +1,5 @@
 package com.effisoft.nlab.appointmentapi.service;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -9,17 +8,14 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 
 import com.effisoft.nlab.appointmentapi.dto.PatientPaymentDTO;
-import com.effisoft.nlab.appointmentapi.dto.PatientPurchasedPackageDTO;
-import com.effisoft.nlab.appointmentapi.dto.PurchasedPackageDTO;
 import com.effisoft.nlab.appointmentapi.entity.CardPaymentType;
 import com.effisoft.nlab.appointmentapi.entity.PatientPayment;
 import com.effisoft.nlab.appointmentapi.entity.PaymentMethod;
-import com.effisoft.nlab.appointmentapi.entity.PurchasedPackage;
 import com.effisoft.nlab.appointmentapi.exception.PatientPaymentException;
-import com.effisoft.nlab.appointmentapi.mapper.PurchasedPackageMapper;
 import com.effisoft.nlab.appointmentapi.repository.CardPaymentTypeRepository;
 import com.effisoft.nlab.appointmentapi.repository.PatientPaymentRepository;
 import com.effisoft.nlab.appointmentapi.repository.PaymentMethodRepository;
+import com.effisoft.nlab.appointmentapi.repository.PurchasedPackageRepository;
 import com.effisoft.nlab.appointmentapi.service.base.ServiceExceptionHandler;
 
 import jakarta.validation.Valid;
@@ -32,8 +28,7 @@ public class PatientPaymentService {
     private final PatientPaymentRepository patientPaymentRepository;
     private final PaymentMethodRepository paymentMethodRepository;
     private final CardPaymentTypeRepository cardPaymentTypeRepository;
-    private final PurchasedPackageService purchasedPackageService;
-    private final PurchasedPackageMapper purchasedPackageMapper;
+    private final PurchasedPackageRepository purchasedPackageRepository;
 
     @Transactional
     public PatientPayment createPatientPayment(@Valid PatientPaymentDTO dto) {
@@ -42,15 +37,6 @@ public class PatientPaymentService {
                     PatientPayment patientPayment = new PatientPayment();
                     CardPaymentType cardPaymentType = null;
 
-                    PatientPurchasedPackageDTO patientPurchasedPackageDTO = purchasedPackageService
-                            .getPatientPurchasedPackageByPackageId(dto.getPurchasedPackageId());
-
-                    if(patientPurchasedPackageDTO == null) {
-                        throw new PatientPaymentException("Purchased Package not found");
-                    }
-
-                    PurchasedPackage purchasedPackage = patientPurchasedPackageDTO.getPurchasedPackage();
-
                     PaymentMethod paymentMethod = paymentMethodRepository.findById(dto.getPaymentMethodId())
                             .orElseThrow(() -> new PatientPaymentException("Payment Method not found"));
 
@@ -59,19 +45,17 @@ public class PatientPaymentService {
                                 .orElseThrow(() -> new PatientPaymentException("Card Payment Type not found"));
                     }
 
-                    BigDecimal packageTotalPaid = patientPurchasedPackageDTO.getPackagePaidTotal().add(dto.getTotalPaid());
-
-                    if(packageTotalPaid.compareTo(purchasedPackage.getPackageType().getPrice()) == 1) {
+                    // The price check and the paid in full flag are a single conditional update, it
+                    // locks the package row so concurrent payments of the package cannot overpay it
+                    if (purchasedPackageRepository.addPayment(dto.getPurchasedPackageId(), dto.getTotalPaid()) == 0) {
+                        if (!purchasedPackageRepository.existsById(dto.getPurchasedPackageId())) {
+                            throw new PatientPaymentException("Purchased Package not found");
+                        }
                         throw new PatientPaymentException("El pago excede el total del paquete");
-                    } else if (packageTotalPaid.compareTo(purchasedPackage.getPackageType().getPrice()) == 0) {
-                        purchasedPackage.setPaidInFull(true);
-                        PurchasedPackageDTO purchasedPackageDTO = purchasedPackageMapper.toDto(purchasedPackage);
-                        purchasedPackageDTO.setPatientId(purchasedPackage.getPatient().getId());
-                        purchasedPackageDTO.setPackageTypeId(purchasedPackage.getPackageType().getId());
-                        purchasedPackageService.updatePurchasedPackage(purchasedPackageDTO.getId(), purchasedPackageDTO);
                     }
 
-                    patientPayment.setPurchasedPackage(purchasedPackage);
+                    patientPayment.setPurchasedPackage(
+                            purchasedPackageRepository.getReferenceById(dto.getPurchasedPackageId()));
                     patientPayment.setPaymentMethod(paymentMethod);
                     patientPayment.setCardPaymentType(cardPaymentType);
                     patientPayment.setTotalPaid(dto.getTotalPaid());
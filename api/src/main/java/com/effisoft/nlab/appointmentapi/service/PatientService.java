@@ -1,10 +1,12 @@
 package com.effisoft.nlab.appointmentapi.service;
 
+import com.effisoft.nlab.appointmentapi.dto.CursorPageResponseDTO;
 import com.effisoft.nlab.appointmentapi.dto.PatientDTO;
 import com.effisoft.nlab.appointmentapi.entity.Patient;
 import com.effisoft.nlab.appointmentapi.exception.PatientServiceException;
 import com.effisoft.nlab.appointmentapi.mapper.PatientMapper;
 import com.effisoft.nlab.appointmentapi.repository.PatientRepository;
+import com.effisoft.nlab.appointmentapi.service.base.CursorPagination;
 import com.effisoft.nlab.appointmentapi.service.base.ServiceExceptionHandler;
 
 import jakarta.validation.Valid;
@@ -12,19 +14,27 @@ import lombok.RequiredArgsConstructor;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @Validated
 @RequiredArgsConstructor
 public class PatientService {
+    private static final Map<String, String> CURSOR_SORTS = Map.of(
+            "lastName", "lastName",
+            "firstName", "firstName",
+            "email", "email");
+
     private final PatientRepository patientRepository;
     private final PatientMapper patientMapper;
+    private final AppointmentReadModelProjector readModelProjector;
 
     @Transactional
     public Patient createPatient(@Valid PatientDTO dto) {
@@ -82,9 +92,17 @@ public class PatientService {
                         }
                     }
 
+                    String previousName = AppointmentReadModelProjector.fullName(
+                            existingPatient.getFirstName(), existingPatient.getLastName());
                     patientMapper.updatePatientFromDTO(dto, existingPatient);
                     existingPatient.setUpdatedAt(LocalDateTime.now());
-                    return patientRepository.save(existingPatient);
+                    Patient savedPatient = patientRepository.save(existingPatient);
+
+                    if (!previousName.equals(AppointmentReadModelProjector.fullName(
+                            existingPatient.getFirstName(), existingPatient.getLastName()))) {
+                        readModelProjector.patientRenamed(existingPatient);
+                    }
+                    return savedPatient;
                 }, PatientServiceException::new, "Update Patient");
     }
 
@@ -105,6 +123,21 @@ public class PatientService {
                 .map(patientMapper::toDto);
     }
 
+    @Transactional(readOnly = true)
+    public CursorPageResponseDTO<PatientDTO> scrollPatients(String cursor, int size, String sortBy,
+            Sort.Direction direction, String searchTerm, Boolean active) {
+        return ServiceExceptionHandler.executeWithExceptionHandling(
+                () -> {
+                    Sort sort = CursorPagination.sort(sortBy, direction, CURSOR_SORTS, "id");
+                    int pageSize = CursorPagination.pageSize(size);
+                    return CursorPagination.toResponse(
+                            patientRepository.findBy(PatientRepository.matching(searchTerm, active),
+                                    q -> q.sortBy(sort).limit(pageSize)
+                                            .scroll(CursorPagination.position(cursor, sort))),
+                            patientMapper::toDto, pageSize);
+                }, PatientServiceException::new, "Scroll Patients");
+    }
+
     private Patient findById(Integer id) {
         return patientRepository.findById(id)
                 .orElseThrow(() -> new PatientServiceException("Patient not found with id: " + id));
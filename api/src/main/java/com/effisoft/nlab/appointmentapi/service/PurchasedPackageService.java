@@ -1,17 +1,22 @@
 package com.effisoft.nlab.appointmentapi.service;
 
+import com.effisoft.nlab.appointmentapi.dto.CursorPageResponseDTO;
 import com.effisoft.nlab.appointmentapi.dto.PatientPackagePaymentsDTO;
 import com.effisoft.nlab.appointmentapi.dto.PatientPurchasedPackageDTO;
 import com.effisoft.nlab.appointmentapi.dto.PurchasedPackageDTO;
+import com.effisoft.nlab.appointmentapi.dto.PurchasedPackageResponseDTO;
 import com.effisoft.nlab.appointmentapi.entity.*;
 import com.effisoft.nlab.appointmentapi.exception.PurchasedPackageServiceException;
+import com.effisoft.nlab.appointmentapi.mapper.PurchasedPackageMapper;
 import com.effisoft.nlab.appointmentapi.repository.*;
+import com.effisoft.nlab.appointmentapi.service.base.CursorPagination;
 import com.effisoft.nlab.appointmentapi.service.base.ServiceExceptionHandler;
 
 import lombok.RequiredArgsConstructor;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
@@ -20,15 +25,22 @@ import jakarta.validation.Valid;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @Validated
 @RequiredArgsConstructor
 public class PurchasedPackageService {
+        private static final Map<String, String> CURSOR_SORTS = Map.of(
+                        "purchaseDate", "purchaseDate",
+                        "expirationDate", "expirationDate");
+
         private final PurchasedPackageRepository purchasedPackageRepository;
         private final PatientRepository patientRepository;
         private final PackageTypeRepository packageTypeRepository;
         private final PatientPaymentRepository patientPaymentRepository;
+        private final AppointmentRepository appointmentRepository;
+        private final PurchasedPackageMapper purchasedPackageMapper;
 
         @Transactional
         public PurchasedPackage createPurchasedPackage(@Valid PurchasedPackageDTO dto) {
@@ -71,7 +83,7 @@ public class PurchasedPackageService {
         public PurchasedPackage getPurchasedPackageById(Integer id) {
                 return ServiceExceptionHandler.executeWithExceptionHandling(
                                 () -> {
-                                        return purchasedPackageRepository.findById(id)
+                                        return purchasedPackageRepository.findWithDetailsById(id)
                                                         .orElseThrow(() -> new PurchasedPackageServiceException(
                                                                         "Purchased package not found with id: " + id));
                                 },
@@ -90,6 +102,15 @@ public class PurchasedPackageService {
                                         existingPackage.setExpirationDate(dto.getExpirationDate());
                                         existingPackage.setPaidInFull(dto.getPaidInFull());
 
+                                        // An extended package is usable again, the sweeper marks it once the new date passes
+                                        if (Boolean.TRUE.equals(existingPackage.getExpired())
+                                                        && dto.getExpirationDate() != null
+                                                        && dto.getExpirationDate().isAfter(LocalDateTime.now())) {
+                                                existingPackage.setExpired(false);
+                                                purchasedPackageRepository.clearExpired(id);
+                                                appointmentRepository.clearPackageExpired(id);
+                                        }
+
                                         return purchasedPackageRepository.save(existingPackage);
                                 },
                                 PurchasedPackageServiceException::new,
@@ -124,13 +145,38 @@ public class PurchasedPackageService {
                                 "Get Purchased Packages by Patient ID");
         }
 
+        @Transactional(readOnly = true)
+        public CursorPageResponseDTO<PurchasedPackageResponseDTO> scrollPurchasedPackagesByPatientId(Integer patientId,
+                        String cursor, int size, String sortBy, Sort.Direction direction) {
+                return ServiceExceptionHandler.executeWithExceptionHandling(
+                                () -> {
+                                        // Later pages come from a cursor issued for an existing patient
+                                        if ((cursor == null || cursor.isBlank()) && !patientRepository.existsById(patientId)) {
+                                                throw new PurchasedPackageServiceException(
+                                                                "Patient not found with id: " + patientId);
+                                        }
+                                        Sort sort = CursorPagination.sort(sortBy, direction, CURSOR_SORTS, "id");
+                                        int pageSize = CursorPagination.pageSize(size);
+                                        return CursorPagination.toResponse(
+                                                        purchasedPackageRepository.findBy(
+                                                                        PurchasedPackageRepository.ofPatient(patientId),
+                                                                        q -> q.sortBy(sort).limit(pageSize)
+                                                                                        .project("patient", "packageType")
+                                                                                        .scroll(CursorPagination.position(cursor, sort))),
+                                                        purchasedPackageMapper::toResponseDto, pageSize);
+                                },
+                                PurchasedPackageServiceException::new,
+                                "Scroll Purchased Packages by Patient ID");
+        }
+
         @Transactional(readOnly = true)
         public PatientPurchasedPackageDTO getPatientPurchasedPackageByPackageId(Integer purchasedPackageId) {
                 return ServiceExceptionHandler.executeWithExceptionHandling(
                                 () -> {
                                         PurchasedPackage purchasedPackage = getPurchasedPackageById(purchasedPackageId);
                                         PatientPurchasedPackageDTO patientPurchasedPackage = new PatientPurchasedPackageDTO();
-                                        patientPurchasedPackage.setPurchasedPackage(purchasedPackage);
+                                        patientPurchasedPackage.setPurchasedPackage(purchasedPackageMapper.toResponseDto(purchasedPackage));
+                                        patientPurchasedPackage.setPackagePaidTotal(purchasedPackage.getPaidTotal());
                                         List<PatientPayment> patientPayments = patientPaymentRepository
                                                         .findByPurchasedPackageId(purchasedPackageId);
                                         if (!patientPayments.isEmpty()) {
@@ -0,0 +1,162 @@
+package com.effisoft.nlab.appointmentapi.service;
+
+import com.effisoft.nlab.appointmentapi.dto.AppointmentDTO;
+import com.effisoft.nlab.appointmentapi.dto.WaitlistEntryDTO;
+import com.effisoft.nlab.appointmentapi.entity.Appointment;
+import com.effisoft.nlab.appointmentapi.entity.PurchasedPackage;
+import com.effisoft.nlab.appointmentapi.entity.WaitlistEntry;
+import com.effisoft.nlab.appointmentapi.exception.WaitlistServiceException;
+import com.effisoft.nlab.appointmentapi.repository.NutritionistRepository;
+import com.effisoft.nlab.appointmentapi.repository.PurchasedPackageRepository;
+import com.effisoft.nlab.appointmentapi.repository.WaitlistEntryRepository;
+import com.effisoft.nlab.appointmentapi.service.base.ServiceExceptionHandler;
+import com.effisoft.nlab.appointmentapi.service.waitlist.WaitlistQueue;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+@Validated
+@RequiredArgsConstructor
+public class WaitlistService {
+    private final WaitlistEntryRepository waitlistEntryRepository;
+    private final PurchasedPackageRepository purchasedPackageRepository;
+    private final NutritionistRepository nutritionistRepository;
+    private final AppointmentService appointmentService;
+    private final WaitlistQueue waitlistQueue;
+
+    @Transactional
+    public WaitlistEntry addEntry(Integer nutritionistId, @Valid WaitlistEntryDTO dto) {
+        return ServiceExceptionHandler.executeWithExceptionHandling(
+                () -> {
+                    nutritionistRepository.findById(nutritionistId)
+                            .orElseThrow(() -> new WaitlistServiceException("Nutritionist not found"));
+
+                    if (dto.getLatestDateTime().isBefore(dto.getEarliestDateTime())) {
+                        throw new WaitlistServiceException("Earliest date/time must be before latest date/time");
+                    }
+
+                    PurchasedPackage purchasedPackage = purchasedPackageRepository
+                            .findById(dto.getPurchasedPackageId())
+                            .orElseThrow(() -> new WaitlistServiceException("Purchased package not found"));
+                    ensurePackageCovers(purchasedPackage, dto.getEarliestDateTime());
+
+                    WaitlistEntry entry = new WaitlistEntry();
+                    entry.setNutritionistId(nutritionistId);
+                    entry.setPatientId(purchasedPackage.getPatient().getId());
+                    entry.setPurchasedPackageId(purchasedPackage.getId());
+                    entry.setEarliestDateTime(dto.getEarliestDateTime());
+                    entry.setLatestDateTime(dto.getLatestDateTime());
+                    entry.setStatus(WaitlistEntry.WAITING);
+
+                    WaitlistEntry saved = waitlistEntryRepository.save(entry);
+                    afterCommit(() -> waitlistQueue.add(saved));
+                    return saved;
+                },
+                WaitlistServiceException::new,
+                "Add Waitlist Entry");
+    }
+
+    @Transactional(readOnly = true)
+    public List<WaitlistEntry> getWaitingEntries(Integer nutritionistId) {
+        return ServiceExceptionHandler.executeWithExceptionHandling(
+                () -> waitlistEntryRepository.findByNutritionistIdAndStatusOrderByRequestedAtAsc(
+                        nutritionistId, WaitlistEntry.WAITING),
+                WaitlistServiceException::new,
+                "Get Waitlist Entries");
+    }
+
+    @Transactional
+    public WaitlistEntry cancelEntry(Integer nutritionistId, Integer entryId) {
+        return ServiceExceptionHandler.executeWithExceptionHandling(
+                () -> {
+                    WaitlistEntry entry = waitlistEntryRepository.findById(entryId)
+                            .filter(e -> e.getNutritionistId().equals(nutritionistId))
+                            .orElseThrow(() -> new WaitlistServiceException("Waitlist entry not found"));
+
+                    if (!WaitlistEntry.WAITING.equals(entry.getStatus())) {
+                        throw new WaitlistServiceException(
+                                "Cannot cancel waitlist entry with status: " + entry.getStatus());
+                    }
+
+                    entry.setStatus(WaitlistEntry.CANCELLED);
+                    WaitlistEntry saved = waitlistEntryRepository.save(entry);
+                    afterCommit(() -> waitlistQueue.remove(saved));
+                    return saved;
+                },
+                WaitlistServiceException::new,
+                "Cancel Waitlist Entry");
+    }
+
+    /**
+     * Books the freed slot for a waiting request. The request is claimed with a conditional
+     * update, so when another instance booked or the patient cancelled it in the meantime
+     * the appointment is rolled back.
+     */
+    @Transactional
+    public Appointment bookFromWaitlist(Integer entryId, LocalDateTime slot) {
+        return ServiceExceptionHandler.executeWithExceptionHandling(
+                () -> {
+                    WaitlistEntry entry = waitlistEntryRepository.findById(entryId)
+                            .filter(e -> WaitlistEntry.WAITING.equals(e.getStatus()))
+                            .orElseThrow(() -> new WaitlistServiceException("Waitlist entry is no longer waiting"));
+
+                    PurchasedPackage purchasedPackage = purchasedPackageRepository
+                            .findById(entry.getPurchasedPackageId())
+                            .orElseThrow(() -> new WaitlistServiceException("Purchased package not found"));
+                    ensurePackageCovers(purchasedPackage, slot);
+
+                    AppointmentDTO appointmentDTO = new AppointmentDTO();
+                    appointmentDTO.setPurchasedPackageId(entry.getPurchasedPackageId());
+                    appointmentDTO.setNutritionistId(entry.getNutritionistId());
+                    appointmentDTO.setAppointmentDateTime(slot);
+                    appointmentDTO.setStatus("AGENDADA");
+                    appointmentDTO.setNotes("Booked from the waitlist");
+                    Appointment appointment = appointmentService.scheduleAppointment(appointmentDTO);
+
+                    if (waitlistEntryRepository.markBooked(entryId, appointment.getId()) == 0) {
+                        throw new WaitlistServiceException("Waitlist entry is no longer waiting");
+                    }
+                    return appointment;
+                },
+                WaitlistServiceException::new,
+                "Book From Waitlist");
+    }
+
+    private void ensurePackageCovers(PurchasedPackage purchasedPackage, LocalDateTime dateTime) {
+        if (purchasedPackage.getRemainingAppointments() <= 0) {
+            throw new WaitlistServiceException("No remaining appointments in the package");
+        }
+
+        if (Boolean.TRUE.equals(purchasedPackage.getExpired()) ||
+                (purchasedPackage.getExpirationDate() != null
+                        && purchasedPackage.getExpirationDate().isBefore(dateTime))) {
+            throw new WaitlistServiceException("Package expires before the requested date");
+        }
+    }
+
+    /**
+     * Applies a change to the in-memory queue once it is visible in the database
+     */
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
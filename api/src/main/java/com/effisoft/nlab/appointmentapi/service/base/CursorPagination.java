@@ -0,0 +1,137 @@
+package com.effisoft.nlab.appointmentapi.service.base;
+
+import com.effisoft.nlab.appointmentapi.dto.CursorPageResponseDTO;
+import com.effisoft.nlab.appointmentapi.exception.InvalidCursorException;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.math.BigDecimal;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Helpers for keyset (seek) pagination. A listing is sorted by one whitelisted property
+ * plus the id as tie-breaker; the cursor handed to clients is the opaque encoding of the
+ * sort key values of the last row returned, so the next page is a seek predicate on an
+ * index instead of an OFFSET, and no count query is needed.
+ */
+public final class CursorPagination {
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private CursorPagination() {
+    }
+
+    /**
+     * Seek sort for the requested property followed by the id
+     *
+     * @param sortableProperties request sort names mapped to the entity property they seek on
+     */
+    public static Sort sort(String sortBy, Sort.Direction direction,
+            Map<String, String> sortableProperties, String idProperty) {
+        String property = sortableProperties.get(sortBy);
+        if (property == null) {
+            throw new InvalidCursorException("Sorting by " + sortBy + " is not supported with cursor paging");
+        }
+        return Sort.by(direction, property).and(Sort.by(direction, idProperty));
+    }
+
+    /**
+     * Scroll position for the cursor, the first page when the cursor is empty
+     */
+    public static KeysetScrollPosition position(String cursor, Sort sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+
+        Map<String, Object> keys = decode(cursor);
+        Set<String> sortProperties = sort.stream().map(Sort.Order::getProperty).collect(Collectors.toSet());
+        if (!keys.keySet().equals(sortProperties)) {
+            throw new InvalidCursorException("Cursor does not match the requested sort");
+        }
+        return ScrollPosition.forward(keys);
+    }
+
+    public static int pageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    public static <T, R> CursorPageResponseDTO<R> toResponse(Window<T> window, Function<T, R> mapper, int pageSize) {
+        String nextCursor = null;
+        if (window.hasNext() && !window.isEmpty()) {
+            KeysetScrollPosition last = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+            nextCursor = encode(last.getKeys());
+        }
+        return new CursorPageResponseDTO<>(window.map(mapper).getContent(), pageSize, nextCursor, window.hasNext());
+    }
+
+    /**
+     * Encodes the keys as {@code name=type:value} pairs, base64url so the token is opaque
+     * and safe to pass as a query parameter. The type tag restores the Java type on decode.
+     */
+    public static String encode(Map<String, ?> keys) {
+        StringJoiner joiner = new StringJoiner("&");
+        keys.forEach((name, value) -> joiner.add(urlEncode(name) + "=" + tag(value) + ":" + urlEncode(String.valueOf(value))));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(joiner.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Map<String, Object> decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            Map<String, Object> keys = new LinkedHashMap<>();
+            for (String pair : decoded.split("&")) {
+                int equals = pair.indexOf('=');
+                int colon = pair.indexOf(':', equals);
+                String name = URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8);
+                String value = URLDecoder.decode(pair.substring(colon + 1), StandardCharsets.UTF_8);
+                keys.put(name, parse(pair.substring(equals + 1, colon), value));
+            }
+            return keys;
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("Invalid cursor", e);
+        }
+    }
+
+    private static String tag(Object value) {
+        if (value instanceof String) return "s";
+        if (value instanceof Integer) return "i";
+        if (value instanceof Long) return "l";
+        if (value instanceof BigDecimal) return "n";
+        if (value instanceof Boolean) return "b";
+        if (value instanceof LocalDate) return "d";
+        if (value instanceof LocalDateTime) return "dt";
+        if (value instanceof LocalTime) return "t";
+        throw new InvalidCursorException("Unsupported cursor key type: " + value.getClass().getSimpleName());
+    }
+
+    private static Object parse(String tag, String value) {
+        return switch (tag) {
+            case "s" -> value;
+            case "i" -> Integer.valueOf(value);
+            case "l" -> Long.valueOf(value);
+            case "n" -> new BigDecimal(value);
+            case "b" -> Boolean.valueOf(value);
+            case "d" -> LocalDate.parse(value);
+            case "dt" -> LocalDateTime.parse(value);
+            case "t" -> LocalTime.parse(value);
+            default -> throw new InvalidCursorException("Invalid cursor");
+        };
+    }
+
+    private static String urlEncode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,77 @@
+package com.effisoft.nlab.appointmentapi.service.booking;
+
+import com.effisoft.nlab.appointmentapi.entity.SlotHold;
+import com.effisoft.nlab.appointmentapi.repository.SlotHoldRepository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Slot holds shared by every API instance through the SlotHold table. The unique index on
+ * (NutritionistId, StartsAt) rejects the common race of two instances holding the same
+ * slot at once. Overlapping holds with different starts that race past the overlap
+ * check are still caught at booking time by the Appointment slot index.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "nlab.booking", name = "hold-store", havingValue = "database")
+public class DatabaseSlotHoldStore implements SlotHoldStore {
+    private final SlotHoldRepository slotHoldRepository;
+
+    @Override
+    @Transactional
+    public Optional<SlotHold> tryHold(SlotHold hold, LocalDateTime now) {
+        // Expired holds would otherwise collide with the new one on the unique index
+        slotHoldRepository.deleteExpired(hold.getNutritionistId(), now);
+        if (!slotHoldRepository.findActive(hold.getNutritionistId(), hold.getStartsAt(), hold.getEndsAt(), now)
+                .isEmpty()) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(slotHoldRepository.saveAndFlush(hold));
+        } catch (DataIntegrityViolationException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SlotHold> findActive(Integer nutritionistId, LocalDateTime from, LocalDateTime to, LocalDateTime now) {
+        return slotHoldRepository.findActive(nutritionistId, from, to, now);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SlotHold> findActiveBetween(LocalDateTime from, LocalDateTime to, LocalDateTime now) {
+        return slotHoldRepository.findActiveBetween(from, to, now);
+    }
+
+    /**
+     * Runs in its own transaction, bookings release their hold after they committed
+     */
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void release(String holdId) {
+        slotHoldRepository.deleteById(holdId);
+    }
+
+    /**
+     * Deleting expired rows is idempotent, so every instance may run it
+     */
+    @Scheduled(fixedDelayString = "${nlab.booking.hold-purge-seconds:30}", timeUnit = TimeUnit.SECONDS)
+    @Transactional
+    public void purgeExpired() {
+        slotHoldRepository.deleteAllExpired(LocalDateTime.now());
+    }
+}
@@ -0,0 +1,133 @@
+package com.effisoft.nlab.appointmentapi.service.booking;
+
+import com.effisoft.nlab.appointmentapi.entity.SlotHold;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Slot holds of a single API instance. Holds of a nutritionist are kept sorted by start,
+ * so overlap checks stop at the first hold starting after the range, and all holds are
+ * also kept sorted by expiry, so
+ * the purge only walks the holds that actually expired. Expired holds are ignored by
+ * every lookup even before they are purged.
+ */
+@Component
+@ConditionalOnProperty(prefix = "nlab.booking", name = "hold-store", havingValue = "memory", matchIfMissing = true)
+public class InMemorySlotHoldStore implements SlotHoldStore {
+    private static final Comparator<SlotHold> BY_START = Comparator
+            .comparing(SlotHold::getStartsAt)
+            .thenComparing(SlotHold::getId);
+
+    private static final Comparator<SlotHold> BY_EXPIRY = Comparator
+            .comparing(SlotHold::getExpiresAt)
+            .thenComparing(SlotHold::getId);
+
+    private final Map<String, SlotHold> holdsById = new ConcurrentHashMap<>();
+    private final Map<Integer, NavigableSet<SlotHold>> holdsByNutritionist = new ConcurrentHashMap<>();
+    private final NavigableSet<SlotHold> holdsByExpiry = new ConcurrentSkipListSet<>(BY_EXPIRY);
+
+    @Override
+    public Optional<SlotHold> tryHold(SlotHold hold, LocalDateTime now) {
+        NavigableSet<SlotHold> holds = holdsByNutritionist.computeIfAbsent(
+                hold.getNutritionistId(), id -> new ConcurrentSkipListSet<>(BY_START));
+
+        // Check and insert under the nutritionist's set so two holds cannot both pass the check
+        synchronized (holds) {
+            if (!overlapping(holds, hold.getStartsAt(), hold.getEndsAt(), now).isEmpty()) {
+                return Optional.empty();
+            }
+            holds.add(hold);
+            holdsById.put(hold.getId(), hold);
+            holdsByExpiry.add(hold);
+        }
+        return Optional.of(hold);
+    }
+
+    @Override
+    public List<SlotHold> findActive(Integer nutritionistId, LocalDateTime from, LocalDateTime to, LocalDateTime now) {
+        NavigableSet<SlotHold> holds = holdsByNutritionist.get(nutritionistId);
+        return holds == null ? List.of() : overlapping(holds, from, to, now);
+    }
+
+    @Override
+    public List<SlotHold> findActiveBetween(LocalDateTime from, LocalDateTime to, LocalDateTime now) {
+        List<SlotHold> result = new ArrayList<>();
+        for (NavigableSet<SlotHold> holds : holdsByNutritionist.values()) {
+            result.addAll(overlapping(holds, from, to, now));
+        }
+        return result;
+    }
+
+    @Override
+    public void release(String holdId) {
+        SlotHold hold = holdsById.remove(holdId);
+        if (hold != null) {
+            remove(hold);
+        }
+    }
+
+    /**
+     * Drops the holds that expired, walking the expiry order up to now
+     */
+    @Scheduled(fixedDelayString = "${nlab.booking.hold-purge-seconds:30}", timeUnit = TimeUnit.SECONDS)
+    public void purgeExpired() {
+        purgeExpired(LocalDateTime.now());
+    }
+
+    void purgeExpired(LocalDateTime now) {
+        SlotHold oldest;
+        while ((oldest = holdsByExpiry.pollFirst()) != null) {
+            if (oldest.getExpiresAt().isAfter(now)) {
+                holdsByExpiry.add(oldest);
+                return;
+            }
+            holdsById.remove(oldest.getId());
+            NavigableSet<SlotHold> holds = holdsByNutritionist.get(oldest.getNutritionistId());
+            if (holds != null) {
+                holds.remove(oldest);
+            }
+        }
+    }
+
+    int size() {
+        return holdsById.size();
+    }
+
+    private void remove(SlotHold hold) {
+        holdsByExpiry.remove(hold);
+        NavigableSet<SlotHold> holds = holdsByNutritionist.get(hold.getNutritionistId());
+        if (holds != null) {
+            holds.remove(hold);
+        }
+    }
+
+    /**
+     * Holds of the set overlapping [from, to)
+     */
+    private static List<SlotHold> overlapping(NavigableSet<SlotHold> holds, LocalDateTime from,
+            LocalDateTime to, LocalDateTime now) {
+        List<SlotHold> result = new ArrayList<>();
+        for (SlotHold hold : holds) {
+            if (!hold.getStartsAt().isBefore(to)) {
+                break;
+            }
+            if (hold.overlaps(from, to, now)) {
+                result.add(hold);
+            }
+        }
+        return result;
+    }
+}
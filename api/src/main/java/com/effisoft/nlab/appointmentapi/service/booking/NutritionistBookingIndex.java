@@ -0,0 +1,207 @@
+package com.effisoft.nlab.appointmentapi.service.booking;
+
+import com.effisoft.nlab.appointmentapi.config.BookingProperties;
+import com.effisoft.nlab.appointmentapi.dto.BookedSlot;
+import com.effisoft.nlab.appointmentapi.event.AppointmentChangedEvent;
+import com.effisoft.nlab.appointmentapi.repository.AppointmentRepository;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-memory index of booked appointment intervals per nutritionist for the near-future
+ * horizon. Intervals of a nutritionist are kept sorted by start time, so an overlap
+ * lookup is a single range scan of the entries starting within one appointment length
+ * of the requested slot.
+ *
+ * The index is warmed from the Appointment table at startup, refreshed daily so the
+ * horizon keeps moving forward, and updated after commit from appointment events. A
+ * refresh builds a new snapshot off to the side and publishes it with a single reference
+ * swap, so lookups never see a half-loaded index. Events arriving while the snapshot is
+ * loaded are applied to the live one and replayed onto the new one before the swap.
+ */
+@Component
+@RequiredArgsConstructor
+public class NutritionistBookingIndex {
+    private static final Logger log = LoggerFactory.getLogger(NutritionistBookingIndex.class);
+
+    /**
+     * Statuses that keep a slot occupied
+     */
+    public static final Set<String> BLOCKING_STATUSES = Set.of("AGENDADA", "REAGENDADA");
+
+    public enum SlotState {
+        /** The slot overlaps a booked appointment */
+        CONFLICT,
+        /** The slot is free according to the index */
+        FREE,
+        /** The slot is outside the indexed horizon, the database has to answer */
+        UNKNOWN
+    }
+
+    private static final Comparator<BookedInterval> BY_START = Comparator
+            .comparing(BookedInterval::start)
+            .thenComparing(BookedInterval::appointmentId);
+
+    private final AppointmentRepository appointmentRepository;
+    private final BookingProperties bookingProperties;
+
+    /**
+     * Guards the snapshot swap against events, so an event is either in the snapshot
+     * being replaced and replayed, or applied to the new one
+     */
+    private final Object eventLock = new Object();
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Events seen while a refresh loads, null when no refresh is running
+     */
+    private List<AppointmentChangedEvent> pendingEvents;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        refresh();
+    }
+
+    /**
+     * Reloads the index from the database, moving the covered horizon forward
+     */
+    @Scheduled(cron = "${nlab.booking.index-refresh-cron:0 30 3 * * *}")
+    public synchronized void refresh() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime horizon = now.plusDays(bookingProperties.getIndexHorizonDays());
+
+        synchronized (eventLock) {
+            pendingEvents = new ArrayList<>();
+        }
+
+        List<BookedSlot> slots;
+        try {
+            slots = appointmentRepository.findBookedSlots(
+                    now.minus(bookingProperties.appointmentDuration()), horizon, BLOCKING_STATUSES);
+        } catch (RuntimeException e) {
+            synchronized (eventLock) {
+                pendingEvents = null;
+            }
+            throw e;
+        }
+
+        Map<Integer, NavigableSet<BookedInterval>> loaded = new ConcurrentHashMap<>();
+        for (BookedSlot slot : slots) {
+            loaded.computeIfAbsent(slot.getNutritionistId(), id -> new ConcurrentSkipListSet<>(BY_START))
+                    .add(new BookedInterval(slot.getAppointmentId(), slot.getAppointmentDateTime()));
+        }
+
+        int replayed;
+        synchronized (eventLock) {
+            // Applying an event twice leaves the same intervals, so events already in the load are harmless
+            pendingEvents.forEach(event -> apply(loaded, event));
+            replayed = pendingEvents.size();
+            pendingEvents = null;
+            snapshot = new Snapshot(loaded, horizon);
+        }
+
+        log.info("Booking index loaded {} appointments for {} nutritionists up to {}, replayed {} events",
+                slots.size(), loaded.size(), horizon, replayed);
+    }
+
+    /**
+     * Looks up whether the slot starting at the given time overlaps a booked appointment
+     * of the nutritionist.
+     *
+     * @param excludedAppointmentId appointment to ignore, used when moving an existing appointment
+     */
+    public SlotState check(Integer nutritionistId, LocalDateTime start, Integer excludedAppointmentId) {
+        Snapshot current = snapshot;
+        Duration duration = bookingProperties.appointmentDuration();
+        LocalDateTime end = start.plus(duration);
+
+        if (current == null || end.isAfter(current.coveredUntil())) {
+            return SlotState.UNKNOWN;
+        }
+
+        NavigableSet<BookedInterval> intervals = current.intervalsByNutritionist().get(nutritionistId);
+        if (intervals != null) {
+            // Every interval overlapping [start, end) starts inside (start - duration, end)
+            BookedInterval from = new BookedInterval(Integer.MAX_VALUE, start.minus(duration));
+            BookedInterval to = new BookedInterval(Integer.MIN_VALUE, end);
+            for (BookedInterval interval : intervals.subSet(from, false, to, false)) {
+                if (!interval.appointmentId().equals(excludedAppointmentId)) {
+                    return SlotState.CONFLICT;
+                }
+            }
+        }
+
+        return bookingProperties.isIndexAuthoritative() ? SlotState.FREE : SlotState.UNKNOWN;
+    }
+
+    /**
+     * Runs first among the after-commit listeners, so a freed slot handed to the waitlist
+     * is already free in the index
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        synchronized (eventLock) {
+            Snapshot current = snapshot;
+            if (current != null) {
+                apply(current.intervalsByNutritionist(), event);
+            }
+            if (pendingEvents != null) {
+                pendingEvents.add(event);
+            }
+        }
+    }
+
+    private static void apply(Map<Integer, NavigableSet<BookedInterval>> intervalsByNutritionist,
+            AppointmentChangedEvent event) {
+        if (event.getPreviousNutritionistId() != null && event.getPreviousDateTime() != null) {
+            remove(intervalsByNutritionist, event.getPreviousNutritionistId(),
+                    event.getAppointmentId(), event.getPreviousDateTime());
+        }
+
+        if (BLOCKING_STATUSES.contains(event.getStatus())) {
+            intervalsByNutritionist
+                    .computeIfAbsent(event.getNutritionistId(), id -> new ConcurrentSkipListSet<>(BY_START))
+                    .add(new BookedInterval(event.getAppointmentId(), event.getAppointmentDateTime()));
+        } else {
+            remove(intervalsByNutritionist, event.getNutritionistId(),
+                    event.getAppointmentId(), event.getAppointmentDateTime());
+        }
+    }
+
+    private static void remove(Map<Integer, NavigableSet<BookedInterval>> intervalsByNutritionist,
+            Integer nutritionistId, Integer appointmentId, LocalDateTime start) {
+        NavigableSet<BookedInterval> intervals = intervalsByNutritionist.get(nutritionistId);
+        if (intervals != null) {
+            intervals.remove(new BookedInterval(appointmentId, start));
+        }
+    }
+
+    private record BookedInterval(Integer appointmentId, LocalDateTime start) {
+    }
+
+    private record Snapshot(Map<Integer, NavigableSet<BookedInterval>> intervalsByNutritionist,
+            LocalDateTime coveredUntil) {
+    }
+}
@@ -0,0 +1,82 @@
+package com.effisoft.nlab.appointmentapi.service.booking;
+
+import com.effisoft.nlab.appointmentapi.config.BookingProperties;
+import com.effisoft.nlab.appointmentapi.exception.AppointmentServiceException;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped locks that serialize booking transactions touching the same nutritionist
+ * within this API instance. Bookings of different nutritionists proceed in parallel
+ * unless they happen to share a stripe.
+ *
+ * Locks are held until the surrounding transaction completes, so a second booking for
+ * the same nutritionist only checks for conflicts once the first one is committed and
+ * visible. Across instances the unique slot index on the Appointment table is the
+ * final guard.
+ */
+@Component
+public class NutritionistLockStripes {
+    private final ReentrantLock[] stripes;
+    private final long timeoutMillis;
+
+    public NutritionistLockStripes(BookingProperties bookingProperties) {
+        this.stripes = new ReentrantLock[Math.max(1, bookingProperties.getLockStripes())];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.timeoutMillis = bookingProperties.getLockTimeoutMillis();
+    }
+
+    /**
+     * Locks the stripes of the given nutritionists until the current transaction
+     * completes. Stripes are always acquired in index order to avoid deadlocks between
+     * transactions that lock several nutritionists. Outside of a transaction there is
+     * nothing to protect and the call is a no-op.
+     */
+    public void lockUntilTransactionCompletes(Integer... nutritionistIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        int[] indexes = Arrays.stream(nutritionistIds)
+                .filter(Objects::nonNull)
+                .mapToInt(this::stripeIndex)
+                .distinct()
+                .sorted()
+                .toArray();
+
+        for (int index : indexes) {
+            ReentrantLock lock = stripes[index];
+            acquire(lock);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    lock.unlock();
+                }
+            });
+        }
+    }
+
+    private void acquire(ReentrantLock lock) {
+        try {
+            if (!lock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new AppointmentServiceException("The nutritionist's schedule is busy, please try again");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AppointmentServiceException("Interrupted while waiting for the nutritionist's schedule", e);
+        }
+    }
+
+    private int stripeIndex(Integer nutritionistId) {
+        return Math.floorMod(nutritionistId.hashCode(), stripes.length);
+    }
+}
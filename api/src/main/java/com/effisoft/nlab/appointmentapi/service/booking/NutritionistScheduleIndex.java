@@ -0,0 +1,173 @@
+package com.effisoft.nlab.appointmentapi.service.booking;
+
+import com.effisoft.nlab.appointmentapi.entity.NutritionistBlockOut;
+import com.effisoft.nlab.appointmentapi.entity.NutritionistWorkingHours;
+import com.effisoft.nlab.appointmentapi.event.NutritionistScheduleChangedEvent;
+import com.effisoft.nlab.appointmentapi.repository.NutritionistBlockOutRepository;
+import com.effisoft.nlab.appointmentapi.repository.NutritionistWorkingHoursRepository;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Working hours of every nutritionist compiled into per-day slot bitmaps: a weekly
+ * template of seven bitmaps plus the block-out bitmaps of the days covered by an
+ * upcoming vacation or sick leave. Checking whether a booking falls inside working hours
+ * is then a couple of bitwise operations instead of a query.
+ *
+ * A nutritionist without a weekly template is not restricted to any hours; block-outs
+ * still apply.
+ *
+ * The compiled schedules are an immutable map published with a single reference swap.
+ * Refreshes and reloads build the next map under the index lock, lookups read the
+ * current one without locking and never see it half-built.
+ */
+@Component
+@RequiredArgsConstructor
+public class NutritionistScheduleIndex {
+    private static final Logger log = LoggerFactory.getLogger(NutritionistScheduleIndex.class);
+
+    private static final long[] FULL_DAY = SlotBitmap.fullDay();
+
+    private final NutritionistWorkingHoursRepository workingHoursRepository;
+    private final NutritionistBlockOutRepository blockOutRepository;
+
+    private volatile Map<Integer, CompiledSchedule> schedules = Map.of();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        refresh();
+    }
+
+    /**
+     * Recompiles every schedule, dropping block-outs that are over
+     */
+    @Scheduled(cron = "${nlab.booking.index-refresh-cron:0 30 3 * * *}")
+    public synchronized void refresh() {
+        Map<Integer, List<NutritionistWorkingHours>> hours = workingHoursRepository.findAll().stream()
+                .collect(Collectors.groupingBy(w -> w.getNutritionist().getId()));
+        Map<Integer, List<NutritionistBlockOut>> blockOuts = blockOutRepository
+                .findByEndDateTimeAfter(LocalDate.now().atStartOfDay()).stream()
+                .collect(Collectors.groupingBy(b -> b.getNutritionist().getId()));
+
+        Map<Integer, CompiledSchedule> compiled = new HashMap<>();
+        for (Integer nutritionistId : hours.keySet()) {
+            compiled.put(nutritionistId, compile(hours.get(nutritionistId), blockOuts.getOrDefault(nutritionistId, List.of())));
+        }
+        for (Integer nutritionistId : blockOuts.keySet()) {
+            compiled.computeIfAbsent(nutritionistId, id -> compile(List.of(), blockOuts.get(id)));
+        }
+
+        schedules = Map.copyOf(compiled);
+
+        log.info("Schedule index compiled working hours for {} nutritionists", compiled.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScheduleChanged(NutritionistScheduleChangedEvent event) {
+        reload(event.getNutritionistId());
+    }
+
+    /**
+     * Recompiles the schedule of one nutritionist from the database. Runs under the index
+     * lock, so a refresh loading at the same time cannot publish over it with older data.
+     */
+    public synchronized void reload(Integer nutritionistId) {
+        CompiledSchedule schedule = compile(
+                workingHoursRepository.findByNutritionistIdOrderByDayOfWeekAscStartTimeAsc(nutritionistId),
+                blockOutRepository.findByNutritionistIdAndEndDateTimeAfterOrderByStartDateTimeAsc(
+                        nutritionistId, LocalDate.now().atStartOfDay()));
+
+        Map<Integer, CompiledSchedule> next = new HashMap<>(schedules);
+        next.put(nutritionistId, schedule);
+        schedules = Map.copyOf(next);
+    }
+
+    /**
+     * Whether the nutritionist works during all of {@code [start, start + duration)}.
+     * Looks at one bitmap per calendar day touched, so the cost does not depend on the
+     * number of templates or block-outs.
+     */
+    public boolean isWithinWorkingHours(Integer nutritionistId, LocalDateTime start, Duration duration) {
+        LocalDateTime end = start.plus(duration);
+        for (LocalDate day = start.toLocalDate(); day.atStartOfDay().isBefore(end); day = day.plusDays(1)) {
+            int fromMinute = day.equals(start.toLocalDate()) ? SlotBitmap.minuteOfDay(start.toLocalTime()) : 0;
+            int toMinute = day.equals(end.toLocalDate())
+                    ? SlotBitmap.minuteOfDay(end.toLocalTime())
+                    : SlotBitmap.MINUTES_PER_DAY;
+            if (!SlotBitmap.covers(availableSlots(nutritionistId, day, FULL_DAY),
+                    SlotBitmap.ofMinutes(fromMinute, toMinute))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Slots of the day the nutritionist can be booked, before looking at appointments.
+     *
+     * @param defaultSlots slots to use when the nutritionist has no weekly template
+     */
+    public long[] availableSlots(Integer nutritionistId, LocalDate day, long[] defaultSlots) {
+        CompiledSchedule schedule = schedules.get(nutritionistId);
+        if (schedule == null) {
+            return defaultSlots;
+        }
+
+        long[] working = schedule.weekly() != null
+                ? schedule.weekly()[day.getDayOfWeek().getValue() - 1]
+                : defaultSlots;
+        long[] blocked = schedule.blockedDays().get(day);
+        return blocked != null ? SlotBitmap.andNot(working, blocked) : working;
+    }
+
+    private CompiledSchedule compile(List<NutritionistWorkingHours> hours, List<NutritionistBlockOut> blockOuts) {
+        long[][] weekly = null;
+        if (!hours.isEmpty()) {
+            weekly = new long[7][];
+            for (int day = 0; day < 7; day++) {
+                weekly[day] = SlotBitmap.empty();
+            }
+            for (NutritionistWorkingHours window : hours) {
+                weekly[window.getDayOfWeek() - 1] = SlotBitmap.or(
+                        weekly[window.getDayOfWeek() - 1],
+                        SlotBitmap.within(window.getStartTime(), window.getEndTime()));
+            }
+        }
+
+        Map<LocalDate, long[]> blockedDays = new HashMap<>();
+        for (NutritionistBlockOut blockOut : blockOuts) {
+            LocalDateTime start = blockOut.getStartDateTime();
+            LocalDateTime end = blockOut.getEndDateTime();
+            for (LocalDate day = start.toLocalDate(); day.atStartOfDay().isBefore(end); day = day.plusDays(1)) {
+                int fromMinute = day.equals(start.toLocalDate()) ? SlotBitmap.minuteOfDay(start.toLocalTime()) : 0;
+                int toMinute = day.equals(end.toLocalDate())
+                        ? SlotBitmap.minuteOfDay(end.toLocalTime())
+                        : SlotBitmap.MINUTES_PER_DAY;
+                blockedDays.merge(day, SlotBitmap.ofMinutes(fromMinute, toMinute), SlotBitmap::or);
+            }
+        }
+
+        return new CompiledSchedule(weekly, blockedDays);
+    }
+
+    /**
+     * @param weekly seven bitmaps from Monday to Sunday, {@code null} when unrestricted
+     */
+    private record CompiledSchedule(long[][] weekly, Map<LocalDate, long[]> blockedDays) {
+    }
+}
@@ -0,0 +1,108 @@
+package com.effisoft.nlab.appointmentapi.service.booking;
+
+import java.time.LocalTime;
+
+/**
+ * Bitmaps of the 15-minute slots of one day. Bit {@code n} is slot {@code n}, starting at
+ * {@code n * 15} minutes past midnight; the 96 slots of a day fit in two longs, so set
+ * operations on a day cost a couple of bitwise instructions.
+ *
+ * Times off the slot grid are rounded in the safe direction: availability masks, like
+ * working hours, only keep the slots entirely inside their window, while occupancy masks,
+ * like bookings and block-outs, take every slot they touch.
+ */
+public final class SlotBitmap {
+    public static final int SLOT_MINUTES = 15;
+    public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+    public static final int MINUTES_PER_DAY = 24 * 60;
+
+    private static final int WORDS = (SLOTS_PER_DAY + Long.SIZE - 1) / Long.SIZE;
+
+    private SlotBitmap() {
+    }
+
+    public static long[] empty() {
+        return new long[WORDS];
+    }
+
+    public static long[] fullDay() {
+        return ofMinutes(0, MINUTES_PER_DAY);
+    }
+
+    /**
+     * Slots entirely inside {@code [start, end)}, for availability windows. An end of
+     * midnight means the end of the day.
+     */
+    public static long[] within(LocalTime start, LocalTime end) {
+        int endMinute = end.equals(LocalTime.MIDNIGHT) ? MINUTES_PER_DAY : minuteOfDay(end);
+        return withinMinutes(minuteOfDay(start), endMinute);
+    }
+
+    /**
+     * Slots entirely inside the minutes {@code [startMinute, endMinute)} of the day. A
+     * partially covered slot is left out, so a shift ending at 17:10 ends at the 17:00 slot.
+     */
+    public static long[] withinMinutes(int startMinute, int endMinute) {
+        long[] bits = empty();
+        setRange(bits, (startMinute + SLOT_MINUTES - 1) / SLOT_MINUTES, endMinute / SLOT_MINUTES);
+        return bits;
+    }
+
+    /**
+     * Slots touched by the minutes {@code [startMinute, endMinute)} of the day, for
+     * occupancy. A partially covered slot counts as touched.
+     */
+    public static long[] ofMinutes(int startMinute, int endMinute) {
+        long[] bits = empty();
+        setRange(bits, startMinute / SLOT_MINUTES, (endMinute + SLOT_MINUTES - 1) / SLOT_MINUTES);
+        return bits;
+    }
+
+    /**
+     * Sets the slots {@code [fromSlot, toSlot)} in place
+     */
+    public static void setRange(long[] bits, int fromSlot, int toSlot) {
+        int from = Math.max(0, fromSlot);
+        int to = Math.min(SLOTS_PER_DAY, toSlot);
+        for (int word = 0; word < WORDS; word++) {
+            int lo = Math.max(from, word * Long.SIZE) - word * Long.SIZE;
+            int hi = Math.min(to, (word + 1) * Long.SIZE) - word * Long.SIZE;
+            if (lo < hi) {
+                long mask = hi - lo == Long.SIZE ? -1L : ((1L << (hi - lo)) - 1) << lo;
+                bits[word] |= mask;
+            }
+        }
+    }
+
+    public static long[] or(long[] a, long[] b) {
+        long[] result = empty();
+        for (int word = 0; word < WORDS; word++) {
+            result[word] = a[word] | b[word];
+        }
+        return result;
+    }
+
+    public static long[] andNot(long[] a, long[] b) {
+        long[] result = empty();
+        for (int word = 0; word < WORDS; word++) {
+            result[word] = a[word] & ~b[word];
+        }
+        return result;
+    }
+
+    /**
+     * Whether every requested slot is set in the available bitmap
+     */
+    public static boolean covers(long[] available, long[] requested) {
+        for (int word = 0; word < WORDS; word++) {
+            if ((requested[word] & ~available[word]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+}
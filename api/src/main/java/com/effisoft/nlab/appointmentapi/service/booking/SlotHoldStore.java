@@ -0,0 +1,33 @@
+package com.effisoft.nlab.appointmentapi.service.booking;
+
+import com.effisoft.nlab.appointmentapi.entity.SlotHold;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Storage of slot holds. {@code nlab.booking.hold-store=memory} keeps them in the API
+ * instance, {@code database} shares them between instances through the SlotHold table.
+ */
+public interface SlotHoldStore {
+
+    /**
+     * Stores the hold unless an active hold of the same nutritionist overlaps it
+     *
+     * @return the stored hold, empty when the slot is already held
+     */
+    Optional<SlotHold> tryHold(SlotHold hold, LocalDateTime now);
+
+    /**
+     * Active holds of the nutritionist overlapping [from, to)
+     */
+    List<SlotHold> findActive(Integer nutritionistId, LocalDateTime from, LocalDateTime to, LocalDateTime now);
+
+    /**
+     * Active holds of every nutritionist overlapping [from, to)
+     */
+    List<SlotHold> findActiveBetween(LocalDateTime from, LocalDateTime to, LocalDateTime now);
+
+    void release(String holdId);
+}
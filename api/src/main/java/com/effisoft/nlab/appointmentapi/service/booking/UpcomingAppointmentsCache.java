@@ -0,0 +1,217 @@
+package com.effisoft.nlab.appointmentapi.service.booking;
+
+import com.effisoft.nlab.appointmentapi.config.BookingProperties;
+import com.effisoft.nlab.appointmentapi.dto.AppointmentCalendarRow;
+import com.effisoft.nlab.appointmentapi.event.AppointmentChangedEvent;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+/**
+ * Size-bounded LRU cache of each nutritionist's upcoming appointments, the rolling
+ * one-month window polled by the dashboard home screen.
+ *
+ * An entry is loaded for a window that extends one TTL past the month, so until it
+ * expires every request can be answered exactly by filtering the cached rows to
+ * [now, now + 1 month]. Appointment events patch a cached row in place when the
+ * appointment only moved or changed status, and evict the entry otherwise.
+ *
+ * Hit, miss and eviction counts are published under the Micrometer {@code cache.*} meters
+ * with {@code cache=upcomingAppointments}.
+ */
+@Component
+@RequiredArgsConstructor
+public class UpcomingAppointmentsCache implements MeterBinder {
+    public static final String CACHE_NAME = "upcomingAppointments";
+
+    private static final Comparator<AppointmentCalendarRow> BY_DATE = Comparator
+            .comparing(AppointmentCalendarRow::getAppointmentDateTime)
+            .thenComparing(AppointmentCalendarRow::getId);
+
+    private final BookingProperties bookingProperties;
+
+    private final Map<Integer, CachedWindow> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Bumped by every appointment change, a load that raced with a change is not cached
+     */
+    private final AtomicLong changes = new AtomicLong();
+
+    /**
+     * Returns the nutritionist's appointments in [now, now + 1 month]
+     *
+     * @param loader loads the appointments of the nutritionist between two instants
+     */
+    public List<AppointmentCalendarRow> get(Integer nutritionistId, LocalDateTime now,
+            BiFunction<LocalDateTime, LocalDateTime, List<AppointmentCalendarRow>> loader) {
+        LocalDateTime windowEnd = now.plusMonths(1);
+
+        CachedWindow cached;
+        synchronized (entries) {
+            cached = entries.get(nutritionistId);
+            if (cached != null && !now.isBefore(cached.expiresAt())) {
+                entries.remove(nutritionistId);
+                cached = null;
+            }
+        }
+
+        if (cached != null) {
+            hits.increment();
+            return cached.between(now, windowEnd);
+        }
+
+        misses.increment();
+        long changesBeforeLoad = changes.get();
+        LocalDateTime expiresAt = now.plus(ttl());
+        CachedWindow loaded = new CachedWindow(
+                List.copyOf(loader.apply(now, expiresAt.plusMonths(1))), expiresAt);
+
+        synchronized (entries) {
+            if (changes.get() == changesBeforeLoad) {
+                put(nutritionistId, loaded);
+            }
+        }
+        return loaded.between(now, windowEnd);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        synchronized (entries) {
+            changes.incrementAndGet();
+
+            Integer previousNutritionistId = event.getPreviousNutritionistId();
+            if (previousNutritionistId != null && !previousNutritionistId.equals(event.getNutritionistId())) {
+                evict(previousNutritionistId);
+                evict(event.getNutritionistId());
+                return;
+            }
+
+            CachedWindow cached = entries.get(event.getNutritionistId());
+            if (cached == null) {
+                return;
+            }
+
+            // A new row needs patient and package names the event does not carry
+            CachedWindow patched = event.getChangeType() == AppointmentChangedEvent.ChangeType.SCHEDULED
+                    ? null
+                    : cached.patched(event);
+            if (patched == null) {
+                evict(event.getNutritionistId());
+            } else {
+                entries.put(event.getNutritionistId(), patched);
+            }
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", hits, LongAdder::doubleValue)
+                .tags("cache", CACHE_NAME, "result", "hit")
+                .description("Upcoming appointment requests served from memory")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::doubleValue)
+                .tags("cache", CACHE_NAME, "result", "miss")
+                .description("Upcoming appointment requests loaded from the database")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", evictions, LongAdder::doubleValue)
+                .tags("cache", CACHE_NAME)
+                .register(registry);
+        Gauge.builder("cache.size", this, UpcomingAppointmentsCache::size)
+                .tags("cache", CACHE_NAME)
+                .register(registry);
+    }
+
+    long hitCount() {
+        return hits.sum();
+    }
+
+    long missCount() {
+        return misses.sum();
+    }
+
+    private void put(Integer nutritionistId, CachedWindow window) {
+        entries.put(nutritionistId, window);
+        if (entries.size() > bookingProperties.getUpcomingCacheMaxEntries()) {
+            // Access order, the first key is the least recently used
+            entries.remove(entries.keySet().iterator().next());
+            evictions.increment();
+        }
+    }
+
+    private void evict(Integer nutritionistId) {
+        if (entries.remove(nutritionistId) != null) {
+            evictions.increment();
+        }
+    }
+
+    private Duration ttl() {
+        return Duration.ofMinutes(bookingProperties.getUpcomingCacheTtlMinutes());
+    }
+
+    /**
+     * Rows of the nutritionist sorted by date, covering the loaded window up to
+     * one month past the expiry
+     */
+    private record CachedWindow(List<AppointmentCalendarRow> rows, LocalDateTime expiresAt) {
+
+        List<AppointmentCalendarRow> between(LocalDateTime from, LocalDateTime to) {
+            List<AppointmentCalendarRow> result = new ArrayList<>();
+            for (AppointmentCalendarRow row : rows) {
+                LocalDateTime start = row.getAppointmentDateTime();
+                if (!start.isBefore(from) && !start.isAfter(to)) {
+                    result.add(row);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Copy with the changed appointment moved or restatused, null when the appointment
+         * is not cached
+         */
+        CachedWindow patched(AppointmentChangedEvent event) {
+            List<AppointmentCalendarRow> patchedRows = new ArrayList<>(rows.size());
+            boolean found = false;
+            for (AppointmentCalendarRow row : rows) {
+                if (row.getId().equals(event.getAppointmentId())) {
+                    patchedRows.add(new AppointmentCalendarRow(row.getId(), event.getAppointmentDateTime(),
+                            event.getStatus(), row.getPurchasedPackageId(), row.getPatientId(),
+                            row.getPatientName(), row.getPackageName()));
+                    found = true;
+                } else {
+                    patchedRows.add(row);
+                }
+            }
+            if (!found) {
+                return null;
+            }
+            patchedRows.sort(BY_DATE);
+            return new CachedWindow(List.copyOf(patchedRows), expiresAt);
+        }
+    }
+}
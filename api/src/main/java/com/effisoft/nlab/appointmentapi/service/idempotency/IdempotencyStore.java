@@ -0,0 +1,331 @@
+package com.effisoft.nlab.appointmentapi.service.idempotency;
+
+import com.effisoft.nlab.appointmentapi.config.IdempotencyProperties;
+import com.effisoft.nlab.appointmentapi.entity.IdempotencyKey;
+import com.effisoft.nlab.appointmentapi.repository.IdempotencyKeyRepository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keys and responses of the requests sent with an {@code Idempotency-Key} header.
+ *
+ * Duplicates arriving on this instance while the first request runs wait on it in memory
+ * and replay its response. The IdempotencyKey table makes the claim visible to the other
+ * instances, which poll it until the response is stored. Completed responses are kept in a
+ * size-bounded LRU, so most retries are answered without touching the database.
+ *
+ * Every table operation commits on its own, the claim has to be visible while the
+ * request is still running.
+ */
+@Component
+public class IdempotencyStore implements MeterBinder {
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    public enum Outcome {
+        /** The caller runs the request and completes or releases the key */
+        ACQUIRED,
+        /** The request already ran, the stored response is replayed */
+        REPLAYED,
+        /** The key was used for a different request */
+        MISMATCH,
+        /** Another request with the key is still running */
+        IN_PROGRESS
+    }
+
+    /**
+     * Response of a completed request, with the hash of the request that produced it
+     */
+    public record StoredResponse(String requestHash, int status, String contentType, byte[] body) {
+    }
+
+    /**
+     * @param response the response to replay, only set for {@link Outcome#REPLAYED}
+     */
+    public record Claim(Outcome outcome, StoredResponse response) {
+    }
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final IdempotencyProperties idempotencyProperties;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<String, CachedResponse> responses = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Map<Outcome, LongAdder> outcomes = new EnumMap<>(Outcome.class);
+    private final LongAdder coalesced = new LongAdder();
+
+    public IdempotencyStore(IdempotencyKeyRepository idempotencyKeyRepository,
+            IdempotencyProperties idempotencyProperties, PlatformTransactionManager transactionManager) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.idempotencyProperties = idempotencyProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        for (Outcome outcome : Outcome.values()) {
+            outcomes.put(outcome, new LongAdder());
+        }
+    }
+
+    /**
+     * Claims the key for a request, waiting for a duplicate that holds it to finish
+     *
+     * @param key         caller scope and Idempotency-Key
+     * @param requestHash hash of the request, tells a retry from a reused key
+     */
+    public Claim claim(String key, String requestHash) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(idempotencyProperties.getWaitSeconds());
+        Claim claim = claim(key, requestHash, deadline);
+        outcomes.get(claim.outcome()).increment();
+        return claim;
+    }
+
+    /**
+     * Stores the response of a request that claimed its key, and hands it to the duplicates
+     * waiting on this instance
+     */
+    public void complete(String key, StoredResponse response) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> idempotencyKeyRepository.complete(
+                    key, response.status(), response.contentType(), response.body()));
+        } catch (RuntimeException e) {
+            // The request itself succeeded, the key expires and a retry after that runs it again
+            log.warn("Could not store the response of idempotency key {}", key, e);
+        }
+        remember(key, response);
+
+        CompletableFuture<StoredResponse> running = inFlight.remove(key);
+        if (running != null) {
+            running.complete(response);
+        }
+    }
+
+    /**
+     * Gives up the key of a request that failed, the next retry runs it again
+     */
+    public void release(String key) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> idempotencyKeyRepository.release(key));
+        } catch (RuntimeException e) {
+            // The claim runs out after lockSeconds and is taken over by the next retry
+            log.warn("Could not release idempotency key {}", key, e);
+        }
+
+        CompletableFuture<StoredResponse> running = inFlight.remove(key);
+        if (running != null) {
+            running.complete(null);
+        }
+    }
+
+    /**
+     * Deleting expired rows is idempotent, so every instance may run it
+     */
+    @Scheduled(fixedDelayString = "${nlab.idempotency.purge-minutes:15}", timeUnit = TimeUnit.MINUTES)
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        Integer deleted = transactionTemplate.execute(status -> idempotencyKeyRepository.deleteAllExpired(now));
+        synchronized (responses) {
+            responses.values().removeIf(cached -> !now.isBefore(cached.expiresAt()));
+        }
+        log.debug("Purged {} expired idempotency keys", deleted);
+    }
+
+    public int cachedResponses() {
+        synchronized (responses) {
+            return responses.size();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Outcome outcome : Outcome.values()) {
+            FunctionCounter.builder("nlab.idempotency.requests", outcomes.get(outcome), LongAdder::doubleValue)
+                    .tags("outcome", outcome.name().toLowerCase())
+                    .description("Requests sent with an Idempotency-Key")
+                    .register(registry);
+        }
+        FunctionCounter.builder("nlab.idempotency.coalesced", coalesced, LongAdder::doubleValue)
+                .description("Duplicates that waited in memory for the request holding their key")
+                .register(registry);
+    }
+
+    long coalescedCount() {
+        return coalesced.sum();
+    }
+
+    private Claim claim(String key, String requestHash, long deadline) {
+        while (true) {
+            StoredResponse cached = cachedResponse(key);
+            if (cached != null) {
+                return replay(cached, requestHash);
+            }
+
+            CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(key, mine);
+            if (running != null) {
+                coalesced.increment();
+                StoredResponse response;
+                try {
+                    response = running.get(remainingNanos(deadline), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    return new Claim(Outcome.IN_PROGRESS, null);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return new Claim(Outcome.IN_PROGRESS, null);
+                } catch (ExecutionException e) {
+                    response = null;
+                }
+                if (response != null) {
+                    return replay(response, requestHash);
+                }
+                // The request holding the key failed or is held elsewhere, try again
+                if (remainingNanos(deadline) <= 0) {
+                    return new Claim(Outcome.IN_PROGRESS, null);
+                }
+                continue;
+            }
+
+            Claim claim;
+            try {
+                claim = claimInDatabase(key, requestHash, deadline);
+            } catch (RuntimeException e) {
+                inFlight.remove(key, mine);
+                mine.complete(null);
+                throw e;
+            }
+            if (claim.outcome() != Outcome.ACQUIRED) {
+                // Waiters replay the stored response, or go to the database themselves
+                inFlight.remove(key, mine);
+                mine.complete(claim.outcome() == Outcome.REPLAYED ? claim.response() : null);
+            }
+            return claim;
+        }
+    }
+
+    private Claim claimInDatabase(String key, String requestHash, long deadline) {
+        while (true) {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime lockedUntil = now.plusSeconds(idempotencyProperties.getLockSeconds());
+            if (insert(key, requestHash, now, lockedUntil)) {
+                return new Claim(Outcome.ACQUIRED, null);
+            }
+
+            IdempotencyKey row = transactionTemplate.execute(
+                    status -> idempotencyKeyRepository.findById(key).orElse(null));
+            if (row != null && !now.isBefore(row.getExpiresAt())) {
+                transactionTemplate.executeWithoutResult(
+                        status -> idempotencyKeyRepository.deleteIfExpired(key, now));
+                continue;
+            }
+            if (row != null && IdempotencyKey.COMPLETED.equals(row.getStatus())) {
+                StoredResponse response = new StoredResponse(row.getRequestHash(), row.getResponseStatus(),
+                        row.getContentType(), row.getResponseBody() == null ? new byte[0] : row.getResponseBody());
+                remember(key, response, row.getExpiresAt());
+                return replay(response, requestHash);
+            }
+            if (row != null && !row.getRequestHash().equals(requestHash)) {
+                return new Claim(Outcome.MISMATCH, null);
+            }
+            if (row != null && !now.isBefore(row.getLockedUntil())) {
+                Integer taken = transactionTemplate.execute(
+                        status -> idempotencyKeyRepository.takeOver(key, requestHash, now, lockedUntil));
+                if (taken != null && taken > 0) {
+                    log.warn("Took over idempotency key {} after its instance stopped", key);
+                    return new Claim(Outcome.ACQUIRED, null);
+                }
+            }
+
+            // Another instance is running the request, or released the key since the insert
+            if (remainingNanos(deadline) <= 0) {
+                return new Claim(Outcome.IN_PROGRESS, null);
+            }
+            if (!pause()) {
+                return new Claim(Outcome.IN_PROGRESS, null);
+            }
+        }
+    }
+
+    private boolean insert(String key, String requestHash, LocalDateTime now, LocalDateTime lockedUntil) {
+        LocalDateTime expiresAt = now.plusHours(idempotencyProperties.getTtlHours());
+        try {
+            Integer inserted = transactionTemplate.execute(status ->
+                    idempotencyKeyRepository.insert(key, requestHash, now, lockedUntil, expiresAt));
+            return inserted != null && inserted > 0;
+        } catch (DataIntegrityViolationException e) {
+            // The key was claimed before
+            return false;
+        }
+    }
+
+    private Claim replay(StoredResponse response, String requestHash) {
+        return response.requestHash().equals(requestHash)
+                ? new Claim(Outcome.REPLAYED, response)
+                : new Claim(Outcome.MISMATCH, null);
+    }
+
+    private StoredResponse cachedResponse(String key) {
+        synchronized (responses) {
+            CachedResponse cached = responses.get(key);
+            if (cached == null) {
+                return null;
+            }
+            if (!LocalDateTime.now().isBefore(cached.expiresAt())) {
+                responses.remove(key);
+                return null;
+            }
+            return cached.response();
+        }
+    }
+
+    private void remember(String key, StoredResponse response) {
+        remember(key, response, LocalDateTime.now().plusHours(idempotencyProperties.getTtlHours()));
+    }
+
+    private void remember(String key, StoredResponse response, LocalDateTime expiresAt) {
+        synchronized (responses) {
+            responses.put(key, new CachedResponse(response, expiresAt));
+            if (responses.size() > idempotencyProperties.getMaxCachedResponses()) {
+                // Access order, the first key is the least recently used
+                responses.remove(responses.keySet().iterator().next());
+            }
+        }
+    }
+
+    private static long remainingNanos(long deadline) {
+        return deadline - System.nanoTime();
+    }
+
+    /**
+     * @return false when the thread was interrupted, the application is shutting down
+     */
+    private boolean pause() {
+        try {
+            Thread.sleep(idempotencyProperties.getPollMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private record CachedResponse(StoredResponse response, LocalDateTime expiresAt) {
+    }
+}
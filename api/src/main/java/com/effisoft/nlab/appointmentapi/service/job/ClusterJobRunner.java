@@ -0,0 +1,130 @@
+package com.effisoft.nlab.appointmentapi.service.job;
+
+import com.effisoft.nlab.appointmentapi.config.JobProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs background jobs on one API instance at a time. Scheduled methods of cluster-wide
+ * jobs hand their work to {@link #runExclusively}, which only runs it on the instance
+ * that takes the job lease. Work that keeps per-instance state, like the in-memory
+ * booking index, keeps running on every instance and does not go through here.
+ *
+ * Leases of running jobs are extended on every heartbeat. A job that loses its lease,
+ * because the heartbeat stalled past the lease duration, sees {@link #holds} turn false
+ * and should stop at the next safe point.
+ *
+ * Run durations are published as {@code nlab.jobs.duration} tagged with the job and the
+ * outcome, runs skipped because another instance held the lease as {@code nlab.jobs.skipped}.
+ */
+@Component
+@RequiredArgsConstructor
+public class ClusterJobRunner implements MeterBinder {
+    private static final Logger log = LoggerFactory.getLogger(ClusterJobRunner.class);
+
+    private final JobLeaseService jobLeaseService;
+    private final JobProperties jobProperties;
+
+    private final Set<String> heldJobs = ConcurrentHashMap.newKeySet();
+    private volatile MeterRegistry registry;
+
+    /**
+     * Runs the job when this instance gets its lease
+     *
+     * @return false when another instance holds the lease and the job was skipped
+     */
+    public boolean runExclusively(String jobName, Runnable job) {
+        if (!jobLeaseService.tryAcquire(jobName, leaseDuration())) {
+            log.debug("Skipping job {}, the lease is held by another instance", jobName);
+            countSkipped(jobName);
+            return false;
+        }
+
+        heldJobs.add(jobName);
+        long start = System.nanoTime();
+        String outcome = "failure";
+        try {
+            job.run();
+            outcome = "success";
+        } finally {
+            heldJobs.remove(jobName);
+            recordDuration(jobName, outcome, System.nanoTime() - start);
+            release(jobName);
+        }
+        return true;
+    }
+
+    /**
+     * Whether this instance still holds the lease of a job it is running
+     */
+    public boolean holds(String jobName) {
+        return heldJobs.contains(jobName);
+    }
+
+    @Scheduled(fixedDelayString = "${nlab.jobs.heartbeat-seconds:60}", timeUnit = TimeUnit.SECONDS)
+    public void heartbeat() {
+        for (String jobName : heldJobs) {
+            if (!jobLeaseService.heartbeat(jobName, leaseDuration())) {
+                heldJobs.remove(jobName);
+                log.warn("Lost the lease of job {}, another instance took it over", jobName);
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        Gauge.builder("nlab.jobs.running", heldJobs, Set::size)
+                .description("Cluster jobs running on this instance")
+                .register(registry);
+    }
+
+    private void release(String jobName) {
+        try {
+            jobLeaseService.release(jobName);
+        } catch (RuntimeException e) {
+            // The lease runs out on its own, another instance only has to wait longer
+            log.warn("Could not release the lease of job {}", jobName, e);
+        }
+    }
+
+    private void recordDuration(String jobName, String outcome, long nanos) {
+        MeterRegistry meters = registry;
+        if (meters != null) {
+            Timer.builder("nlab.jobs.duration")
+                    .tags("job", jobName, "outcome", outcome)
+                    .description("Run time of cluster jobs on the lease holder")
+                    .register(meters)
+                    .record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void countSkipped(String jobName) {
+        MeterRegistry meters = registry;
+        if (meters != null) {
+            Counter.builder("nlab.jobs.skipped")
+                    .tags("job", jobName)
+                    .description("Runs skipped because another instance held the lease")
+                    .register(meters)
+                    .increment();
+        }
+    }
+
+    private Duration leaseDuration() {
+        return Duration.ofMinutes(jobProperties.getLeaseMinutes());
+    }
+}
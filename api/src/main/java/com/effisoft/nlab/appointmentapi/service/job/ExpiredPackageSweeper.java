@@ -0,0 +1,104 @@
+package com.effisoft.nlab.appointmentapi.service.job;
+
+import com.effisoft.nlab.appointmentapi.config.JobProperties;
+import com.effisoft.nlab.appointmentapi.repository.AppointmentRepository;
+import com.effisoft.nlab.appointmentapi.repository.PurchasedPackageRepository;
+import com.effisoft.nlab.appointmentapi.service.booking.NutritionistBookingIndex;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Marks purchased packages past their expiration date as expired and flags the active
+ * appointments booked on them after that date.
+ *
+ * Packages are scanned in id order, one chunk per transaction, with a pause between
+ * chunks and a cap on the chunks of a run, so a large backlog is worked off over several
+ * nightly runs instead of holding locks during the day. Runs go through the
+ * {@link ClusterJobRunner}, so only one instance sweeps.
+ */
+@Component
+@RequiredArgsConstructor
+public class ExpiredPackageSweeper {
+    private static final Logger log = LoggerFactory.getLogger(ExpiredPackageSweeper.class);
+
+    public static final String JOB_NAME = "ExpiredPackageSweeper";
+
+    private final PurchasedPackageRepository purchasedPackageRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final ClusterJobRunner clusterJobRunner;
+    private final JobProperties jobProperties;
+    private final TransactionTemplate transactionTemplate;
+
+    @Scheduled(cron = "${nlab.jobs.expired-packages-cron:0 0 2 * * *}")
+    public void run() {
+        clusterJobRunner.runExclusively(JOB_NAME, () -> sweep(LocalDateTime.now()));
+    }
+
+    /**
+     * Sweeps the packages that expired before the given instant, the caller holds the job lease
+     *
+     * @return number of packages marked expired
+     */
+    public int sweep(LocalDateTime now) {
+        int chunkSize = jobProperties.getExpiredPackagesChunkSize();
+        int packages = 0;
+        int appointments = 0;
+        int lastId = 0;
+        for (int chunk = 0; chunk < jobProperties.getMaxChunksPerRun(); chunk++) {
+            List<Integer> ids = purchasedPackageRepository.findExpiredIdsAfter(
+                    lastId, now, PageRequest.of(0, chunkSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            Integer flagged = transactionTemplate.execute(status -> {
+                purchasedPackageRepository.markExpired(ids);
+                return appointmentRepository.flagPackageExpired(
+                        ids, now, NutritionistBookingIndex.BLOCKING_STATUSES);
+            });
+            packages += ids.size();
+            appointments += flagged == null ? 0 : flagged;
+            lastId = ids.getLast();
+
+            if (ids.size() < chunkSize) {
+                break;
+            }
+            if (!clusterJobRunner.holds(JOB_NAME)) {
+                log.warn("Lost the expired package sweep lease after package {}", lastId);
+                break;
+            }
+            if (!pause()) {
+                break;
+            }
+        }
+
+        log.info("Expired package sweep marked {} packages and flagged {} appointments", packages, appointments);
+        return packages;
+    }
+
+    /**
+     * @return false when the thread was interrupted, the application is shutting down
+     */
+    private boolean pause() {
+        long millis = jobProperties.getChunkPauseMillis();
+        if (millis <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
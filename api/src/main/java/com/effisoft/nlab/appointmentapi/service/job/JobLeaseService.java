@@ -0,0 +1,108 @@
+package com.effisoft.nlab.appointmentapi.service.job;
+
+import com.effisoft.nlab.appointmentapi.repository.JobLeaseRepository;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Database leases that keep a background job to one API instance at a time. Every
+ * lease operation commits on its own, so a lease is visible to the other instances
+ * while the job is still working.
+ */
+@Component
+public class JobLeaseService {
+    private final JobLeaseRepository jobLeaseRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String owner;
+
+    public JobLeaseService(JobLeaseRepository jobLeaseRepository, PlatformTransactionManager transactionManager) {
+        this.jobLeaseRepository = jobLeaseRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.owner = hostName() + ":" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * Takes the lease of the job, or renews it when this instance already holds it
+     *
+     * @return false when another instance holds an unexpired lease
+     */
+    public boolean tryAcquire(String jobName, Duration duration) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plus(duration);
+
+        Integer updated = transactionTemplate.execute(
+                status -> jobLeaseRepository.acquire(jobName, owner, now, until));
+        if (updated != null && updated > 0) {
+            return true;
+        }
+
+        try {
+            Integer inserted = transactionTemplate.execute(
+                    status -> jobLeaseRepository.insert(jobName, owner, now, until));
+            return inserted != null && inserted > 0;
+        } catch (DataIntegrityViolationException e) {
+            // The row exists, another instance holds the lease
+            return false;
+        }
+    }
+
+    /**
+     * Extends the lease of a job this instance is running
+     *
+     * @return false when the lease expired and another instance took it over
+     */
+    public boolean heartbeat(String jobName, Duration duration) {
+        LocalDateTime now = LocalDateTime.now();
+        Integer updated = transactionTemplate.execute(
+                status -> jobLeaseRepository.heartbeat(jobName, owner, now, now.plus(duration)));
+        return updated != null && updated > 0;
+    }
+
+    /**
+     * Id a job that scans a table over several runs continues after
+     *
+     * @return 0 when the job has not saved a position, the next run starts from the beginning
+     */
+    public int resumeAfterId(String jobName) {
+        return transactionTemplate.execute(status -> jobLeaseRepository.findResumeAfterId(jobName))
+                .orElse(0);
+    }
+
+    /**
+     * Saves where the next run of the job continues, null starts it from the beginning
+     *
+     * @return false when the lease was taken over and the position was not saved
+     */
+    public boolean saveResumeAfterId(String jobName, Integer resumeAfterId) {
+        Integer updated = transactionTemplate.execute(
+                status -> jobLeaseRepository.saveResumeAfterId(jobName, owner, resumeAfterId));
+        return updated != null && updated > 0;
+    }
+
+    /**
+     * Gives the lease up so another instance does not have to wait for it to expire
+     */
+    public void release(String jobName) {
+        transactionTemplate.executeWithoutResult(
+                status -> jobLeaseRepository.release(jobName, owner, LocalDateTime.now()));
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+}
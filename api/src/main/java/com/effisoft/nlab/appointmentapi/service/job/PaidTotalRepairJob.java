@@ -0,0 +1,112 @@
+package com.effisoft.nlab.appointmentapi.service.job;
+
+import com.effisoft.nlab.appointmentapi.config.JobProperties;
+import com.effisoft.nlab.appointmentapi.repository.PurchasedPackageRepository;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Recomputes the running paid total of the purchased packages from their payments and
+ * corrects the ones that drifted, e.g. after a payment was edited or deleted by hand.
+ *
+ * Packages are scanned in id order, one chunk per transaction, with the same pause and
+ * per-run cap as the expired package sweeper. The last repaired id is saved in the job
+ * lease after every chunk, so a run stopped by the cap or a lost lease continues where it
+ * left off, and the scan starts over once it reached the last package. Runs go through the
+ * {@link ClusterJobRunner}, so only one instance repairs.
+ */
+@Component
+@RequiredArgsConstructor
+public class PaidTotalRepairJob {
+    private static final Logger log = LoggerFactory.getLogger(PaidTotalRepairJob.class);
+
+    public static final String JOB_NAME = "PaidTotalRepairJob";
+
+    private final PurchasedPackageRepository purchasedPackageRepository;
+    private final ClusterJobRunner clusterJobRunner;
+    private final JobLeaseService jobLeaseService;
+    private final JobProperties jobProperties;
+    private final TransactionTemplate transactionTemplate;
+
+    @Scheduled(cron = "${nlab.jobs.paid-total-repair-cron:0 30 2 * * SUN}")
+    public void run() {
+        clusterJobRunner.runExclusively(JOB_NAME, this::repair);
+    }
+
+    /**
+     * Repairs the paid totals of the packages after the saved position, the caller holds the job lease
+     *
+     * @return number of packages whose total was corrected
+     */
+    public int repair() {
+        int chunkSize = jobProperties.getPaidTotalRepairChunkSize();
+        int checked = 0;
+        int repaired = 0;
+        int lastId = jobLeaseService.resumeAfterId(JOB_NAME);
+        boolean reachedEnd = false;
+        for (int chunk = 0; chunk < jobProperties.getMaxChunksPerRun(); chunk++) {
+            List<Integer> ids = purchasedPackageRepository.findIdsAfter(lastId, PageRequest.of(0, chunkSize));
+            if (ids.isEmpty()) {
+                reachedEnd = true;
+                break;
+            }
+
+            // Payments lock their package before inserting, the range lock waits for them
+            Integer fixed = transactionTemplate.execute(status -> {
+                purchasedPackageRepository.lockIdRange(ids.getFirst(), ids.getLast());
+                return purchasedPackageRepository.repairPaidTotals(ids.getFirst(), ids.getLast());
+            });
+            checked += ids.size();
+            repaired += fixed == null ? 0 : fixed;
+            lastId = ids.getLast();
+
+            if (ids.size() < chunkSize) {
+                reachedEnd = true;
+                break;
+            }
+            if (!jobLeaseService.saveResumeAfterId(JOB_NAME, lastId) || !clusterJobRunner.holds(JOB_NAME)) {
+                log.warn("Lost the paid total repair lease after package {}", lastId);
+                break;
+            }
+            if (!pause()) {
+                break;
+            }
+        }
+
+        if (reachedEnd) {
+            jobLeaseService.saveResumeAfterId(JOB_NAME, null);
+        }
+
+        if (repaired > 0) {
+            log.warn("Paid total repair corrected {} of {} packages", repaired, checked);
+        } else {
+            log.info("Paid total repair checked {} packages, none drifted", checked);
+        }
+        return repaired;
+    }
+
+    /**
+     * @return false when the thread was interrupted, the application is shutting down
+     */
+    private boolean pause() {
+        long millis = jobProperties.getChunkPauseMillis();
+        if (millis <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.effisoft.nlab.appointmentapi.service.notification;
+
+import com.effisoft.nlab.appointmentapi.entity.NotificationOutbox;
+import com.effisoft.nlab.appointmentapi.event.AppointmentChangedEvent;
+import com.effisoft.nlab.appointmentapi.repository.NotificationOutboxRepository;
+import com.effisoft.nlab.appointmentapi.service.booking.NutritionistBookingIndex;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Writes the reminders of active appointments to the outbox. Appointment events are
+ * delivered synchronously, so the rows commit or roll back with the booking, and the
+ * booking itself only pays for the inserts, never for the delivery.
+ */
+@Component
+@RequiredArgsConstructor
+public class AppointmentReminderOutbox {
+    private final NotificationOutboxRepository outboxRepository;
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        boolean active = isActive(event.getStatus());
+
+        if (event.getChangeType() == AppointmentChangedEvent.ChangeType.SCHEDULED) {
+            if (active) {
+                enqueue(event.getAppointmentId(), event.getAppointmentDateTime(), LocalDateTime.now());
+            }
+            return;
+        }
+
+        boolean wasActive = isActive(event.getPreviousStatus());
+        boolean moved = !Objects.equals(event.getPreviousDateTime(), event.getAppointmentDateTime());
+        if (!active) {
+            outboxRepository.cancelPending(event.getAppointmentId());
+        } else if (moved || !wasActive) {
+            outboxRepository.cancelPending(event.getAppointmentId());
+            enqueue(event.getAppointmentId(), event.getAppointmentDateTime(), LocalDateTime.now());
+        }
+    }
+
+    private void enqueue(Integer appointmentId, LocalDateTime appointmentDateTime, LocalDateTime now) {
+        List<NotificationOutbox> reminders = new ArrayList<>();
+        for (ReminderKind kind : ReminderKind.values()) {
+            LocalDateTime dueAt = appointmentDateTime.minus(kind.getLeadTime());
+            // A reminder whose time already passed would arrive late, booking a same-day
+            // appointment only gets the 2 hour one
+            if (dueAt.isAfter(now)) {
+                NotificationOutbox reminder = new NotificationOutbox();
+                reminder.setAppointmentId(appointmentId);
+                reminder.setKind(kind.name());
+                reminder.setStatus(NotificationOutbox.PENDING);
+                reminder.setAttempts(0);
+                reminder.setNextAttemptAt(dueAt);
+                reminders.add(reminder);
+            }
+        }
+        if (!reminders.isEmpty()) {
+            outboxRepository.saveAll(reminders);
+        }
+    }
+
+    private static boolean isActive(String status) {
+        return status != null && NutritionistBookingIndex.BLOCKING_STATUSES.contains(status);
+    }
+}
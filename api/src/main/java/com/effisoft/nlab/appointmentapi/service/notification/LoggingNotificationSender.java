@@ -0,0 +1,22 @@
+package com.effisoft.nlab.appointmentapi.service.notification;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stand-in sender that writes reminders to the log, used until a real email or SMS
+ * sender is configured with {@code nlab.notifications.sender}
+ */
+@Component
+@ConditionalOnProperty(prefix = "nlab.notifications", name = "sender", havingValue = "log", matchIfMissing = true)
+public class LoggingNotificationSender implements NotificationSender {
+    private static final Logger log = LoggerFactory.getLogger(LoggingNotificationSender.class);
+
+    @Override
+    public void send(NotificationMessage message) {
+        log.info("{} for appointment {} at {} to {} <{}>", message.getKind(), message.getAppointmentId(),
+                message.getAppointmentDateTime(), message.getPatientName(), message.getPatientEmail());
+    }
+}
@@ -0,0 +1,189 @@
+package com.effisoft.nlab.appointmentapi.service.notification;
+
+import com.effisoft.nlab.appointmentapi.config.NotificationProperties;
+import com.effisoft.nlab.appointmentapi.dto.ReminderDetails;
+import com.effisoft.nlab.appointmentapi.entity.NotificationOutbox;
+import com.effisoft.nlab.appointmentapi.repository.AppointmentRepository;
+import com.effisoft.nlab.appointmentapi.repository.NotificationOutboxRepository;
+import com.effisoft.nlab.appointmentapi.service.booking.NutritionistBookingIndex;
+import com.effisoft.nlab.appointmentapi.service.job.ClusterJobRunner;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Drains due reminders from the outbox in batches. Each batch is read with one query
+ * for the outbox rows and one for the appointment and patient details, handed to the
+ * {@link NotificationSender} outside of any transaction, and settled with bulk updates.
+ *
+ * A failed delivery is retried with exponential backoff and dead-lettered after the
+ * configured number of attempts. Reminders of appointments that were cancelled or
+ * already started are dropped. Delivery is at least once, a crash between sending and
+ * settling a batch sends its reminders again.
+ */
+@Component
+@RequiredArgsConstructor
+public class NotificationDispatcher implements MeterBinder {
+    private static final Logger log = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    public static final String JOB_NAME = "NotificationDispatcher";
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final NotificationSender notificationSender;
+    private final NotificationProperties notificationProperties;
+    private final ClusterJobRunner clusterJobRunner;
+    private final TransactionTemplate transactionTemplate;
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder deadLettered = new LongAdder();
+
+    @Scheduled(fixedDelayString = "${nlab.notifications.dispatch-delay-seconds:30}", timeUnit = TimeUnit.SECONDS)
+    public void run() {
+        clusterJobRunner.runExclusively(JOB_NAME, () -> dispatch(LocalDateTime.now()));
+    }
+
+    /**
+     * Delivers the reminders due at the given instant, the caller holds the job lease
+     *
+     * @return number of reminders delivered
+     */
+    public int dispatch(LocalDateTime now) {
+        int batchSize = notificationProperties.getBatchSize();
+        int delivered = 0;
+        for (int batch = 0; batch < notificationProperties.getMaxBatchesPerRun(); batch++) {
+            List<NotificationOutbox> due = outboxRepository.findDue(now, PageRequest.of(0, batchSize));
+            if (due.isEmpty()) {
+                break;
+            }
+
+            delivered += dispatchBatch(due, now);
+
+            if (due.size() < batchSize || !clusterJobRunner.holds(JOB_NAME)) {
+                break;
+            }
+        }
+        return delivered;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("nlab.notifications.sent", sent, LongAdder::doubleValue)
+                .description("Reminders handed to the notification sender")
+                .register(registry);
+        FunctionCounter.builder("nlab.notifications.failed", failed, LongAdder::doubleValue)
+                .description("Reminder deliveries that failed and were scheduled for a retry")
+                .register(registry);
+        FunctionCounter.builder("nlab.notifications.dead", deadLettered, LongAdder::doubleValue)
+                .description("Reminders dead-lettered after the last attempt failed")
+                .register(registry);
+    }
+
+    private int dispatchBatch(List<NotificationOutbox> due, LocalDateTime now) {
+        List<Integer> appointmentIds = due.stream().map(NotificationOutbox::getAppointmentId).distinct().toList();
+        Map<Integer, ReminderDetails> details = appointmentRepository.findReminderDetails(appointmentIds).stream()
+                .collect(Collectors.toMap(ReminderDetails::getAppointmentId, Function.identity()));
+
+        List<Long> sentIds = new ArrayList<>();
+        List<Long> droppedIds = new ArrayList<>();
+        List<NotificationOutbox> failures = new ArrayList<>();
+        for (NotificationOutbox entry : due) {
+            ReminderDetails appointment = details.get(entry.getAppointmentId());
+            if (appointment == null
+                    || !NutritionistBookingIndex.BLOCKING_STATUSES.contains(appointment.getStatus())
+                    || !appointment.getAppointmentDateTime().isAfter(now)) {
+                droppedIds.add(entry.getId());
+                continue;
+            }
+
+            try {
+                notificationSender.send(toMessage(entry, appointment));
+                sentIds.add(entry.getId());
+            } catch (RuntimeException e) {
+                entry.setLastError(truncate(e.getMessage()));
+                failures.add(entry);
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!sentIds.isEmpty()) {
+                outboxRepository.markCompleted(sentIds, NotificationOutbox.SENT, now);
+            }
+            if (!droppedIds.isEmpty()) {
+                outboxRepository.markCompleted(droppedIds, NotificationOutbox.CANCELLED, null);
+            }
+            for (NotificationOutbox failure : failures) {
+                recordFailure(failure, now);
+            }
+        });
+
+        sent.add(sentIds.size());
+        return sentIds.size();
+    }
+
+    private void recordFailure(NotificationOutbox entry, LocalDateTime now) {
+        int attempts = entry.getAttempts() + 1;
+        if (attempts >= notificationProperties.getMaxAttempts()) {
+            log.warn("Dead-lettering notification {} of appointment {} after {} attempts: {}",
+                    entry.getId(), entry.getAppointmentId(), attempts, entry.getLastError());
+            outboxRepository.recordFailure(entry.getId(), NotificationOutbox.DEAD, attempts,
+                    entry.getNextAttemptAt(), entry.getLastError());
+            deadLettered.increment();
+        } else {
+            outboxRepository.recordFailure(entry.getId(), NotificationOutbox.PENDING, attempts,
+                    now.plus(backoff(attempts)), entry.getLastError());
+            failed.increment();
+        }
+    }
+
+    /**
+     * Delay before the next attempt, doubling from the base delay up to the cap
+     */
+    Duration backoff(int attempts) {
+        Duration max = Duration.ofMinutes(notificationProperties.getMaxBackoffMinutes());
+        Duration delay = Duration.ofSeconds(notificationProperties.getBackoffSeconds())
+                .multipliedBy(1L << Math.min(attempts - 1, 30));
+        return delay.compareTo(max) > 0 ? max : delay;
+    }
+
+    private static NotificationMessage toMessage(NotificationOutbox entry, ReminderDetails appointment) {
+        return new NotificationMessage(
+                entry.getId(),
+                ReminderKind.valueOf(entry.getKind()),
+                appointment.getAppointmentId(),
+                appointment.getAppointmentDateTime(),
+                appointment.getPatientId(),
+                appointment.getPatientFirstName() + " " + appointment.getPatientLastName(),
+                appointment.getPatientEmail(),
+                appointment.getPatientPhone(),
+                appointment.getNutritionistFirstName() + " " + appointment.getNutritionistLastName());
+    }
+
+    private static String truncate(String error) {
+        if (error == null) {
+            return null;
+        }
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+}
@@ -0,0 +1,22 @@
+package com.effisoft.nlab.appointmentapi.service.notification;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Everything a sender needs to deliver one reminder, the outbox id lets senders
+ * deduplicate redelivered messages
+ */
+@Value
+public class NotificationMessage {
+    Long outboxId;
+    ReminderKind kind;
+    Integer appointmentId;
+    LocalDateTime appointmentDateTime;
+    Integer patientId;
+    String patientName;
+    String patientEmail;
+    String patientPhone;
+    String nutritionistName;
+}
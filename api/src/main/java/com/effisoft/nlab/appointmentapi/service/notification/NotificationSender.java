@@ -0,0 +1,11 @@
+package com.effisoft.nlab.appointmentapi.service.notification;
+
+/**
+ * Delivers notifications over a channel such as email or SMS. Implementations are called
+ * by the dispatcher outside of any transaction and signal a failed delivery by throwing,
+ * the dispatcher then retries with backoff.
+ */
+public interface NotificationSender {
+
+    void send(NotificationMessage message);
+}
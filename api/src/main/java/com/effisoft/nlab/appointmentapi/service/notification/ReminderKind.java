@@ -0,0 +1,21 @@
+package com.effisoft.nlab.appointmentapi.service.notification;
+
+import java.time.Duration;
+
+/**
+ * Reminders sent ahead of an active appointment, stored in the outbox by name
+ */
+public enum ReminderKind {
+    REMINDER_24H(Duration.ofHours(24)),
+    REMINDER_2H(Duration.ofHours(2));
+
+    private final Duration leadTime;
+
+    ReminderKind(Duration leadTime) {
+        this.leadTime = leadTime;
+    }
+
+    public Duration getLeadTime() {
+        return leadTime;
+    }
+}
@@ -0,0 +1,155 @@
+package com.effisoft.nlab.appointmentapi.service.stats;
+
+import com.effisoft.nlab.appointmentapi.dto.StatusCounterKey;
+import com.effisoft.nlab.appointmentapi.entity.AppointmentStatusCounter;
+import com.effisoft.nlab.appointmentapi.entity.AppointmentStatusEvent;
+import com.effisoft.nlab.appointmentapi.event.AppointmentChangedEvent;
+import com.effisoft.nlab.appointmentapi.exception.AppointmentServiceException;
+import com.effisoft.nlab.appointmentapi.repository.AppointmentRepository;
+import com.effisoft.nlab.appointmentapi.repository.AppointmentStatusCounterBatchRepository;
+import com.effisoft.nlab.appointmentapi.repository.AppointmentStatusEventRepository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Appends every appointment change to the status log and folds it into the status
+ * counters, inside the transaction that changed the appointment. Each change moves the
+ * appointment out of the counters of its previous nutritionist, patient, day and status
+ * and into those of the new ones.
+ *
+ * Changes are gathered per transaction and written just before it commits: the patients
+ * of all changed appointments are read in one query and the counter deltas are merged
+ * and applied once, in key order. A bulk operation then takes each counter lock once and
+ * late in the transaction, and concurrent transactions lock shared counters in the same
+ * order instead of deadlocking.
+ *
+ * The counters are a pure function of the log, {@link #replay} is the same fold used to
+ * rebuild them from scratch.
+ */
+@Component
+@RequiredArgsConstructor
+public class AppointmentStatusProjector {
+    private final AppointmentRepository appointmentRepository;
+    private final AppointmentStatusEventRepository statusEventRepository;
+    private final AppointmentStatusCounterBatchRepository counterBatchRepository;
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        pendingChanges().add(event);
+    }
+
+    /**
+     * Logs the changes of a transaction and applies their combined counter deltas
+     */
+    void project(List<AppointmentChangedEvent> changes) {
+        Set<Integer> appointmentIds = new HashSet<>();
+        changes.forEach(change -> appointmentIds.add(change.getAppointmentId()));
+        Map<Integer, Integer> patientIds = new HashMap<>();
+        appointmentRepository.findPatientIdsByIds(appointmentIds)
+                .forEach(row -> patientIds.put(row.getAppointmentId(), row.getPatientId()));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<AppointmentStatusEvent> entries = new ArrayList<>(changes.size());
+        SortedMap<StatusCounterKey, Long> deltas = new TreeMap<>();
+        for (AppointmentChangedEvent change : changes) {
+            Integer patientId = patientIds.get(change.getAppointmentId());
+            if (patientId == null) {
+                throw new AppointmentServiceException("Appointment not found");
+            }
+
+            AppointmentStatusEvent entry = new AppointmentStatusEvent();
+            entry.setAppointmentId(change.getAppointmentId());
+            entry.setChangeType(change.getChangeType().name());
+            entry.setPatientId(patientId);
+            entry.setPreviousNutritionistId(change.getPreviousNutritionistId());
+            entry.setPreviousDateTime(change.getPreviousDateTime());
+            entry.setPreviousStatus(change.getPreviousStatus());
+            entry.setNutritionistId(change.getNutritionistId());
+            entry.setAppointmentDateTime(change.getAppointmentDateTime());
+            entry.setStatus(change.getStatus());
+            entry.setOccurredAt(now);
+            entries.add(entry);
+
+            replay(entry, deltas);
+        }
+        statusEventRepository.saveAll(entries);
+
+        deltas.values().removeIf(delta -> delta == 0);
+        if (!deltas.isEmpty()) {
+            counterBatchRepository.applyDeltas(deltas);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<AppointmentChangedEvent> pendingChanges() {
+        List<AppointmentChangedEvent> pending =
+                (List<AppointmentChangedEvent>) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) {
+            return pending;
+        }
+
+        List<AppointmentChangedEvent> changes = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(this, changes);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                project(changes);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(AppointmentStatusProjector.this);
+            }
+        });
+        return changes;
+    }
+
+    /**
+     * Applies a logged change to counters held in memory
+     */
+    public static void replay(AppointmentStatusEvent entry, Map<StatusCounterKey, Long> counters) {
+        deltas(entry).forEach((key, delta) -> counters.merge(key, delta, Long::sum));
+    }
+
+    /**
+     * Counter changes caused by one logged change, in key order and without zero deltas
+     */
+    static SortedMap<StatusCounterKey, Long> deltas(AppointmentStatusEvent entry) {
+        SortedMap<StatusCounterKey, Long> deltas = new TreeMap<>();
+        if (entry.getPreviousStatus() != null) {
+            add(deltas, entry.getPreviousNutritionistId(), entry.getPatientId(), entry.getPreviousDateTime(),
+                    entry.getPreviousStatus(), -1);
+        }
+        add(deltas, entry.getNutritionistId(), entry.getPatientId(), entry.getAppointmentDateTime(),
+                entry.getStatus(), 1);
+        deltas.values().removeIf(delta -> delta == 0);
+        return deltas;
+    }
+
+    private static void add(Map<StatusCounterKey, Long> deltas, Integer nutritionistId, Integer patientId,
+            LocalDateTime dateTime, String status, long delta) {
+        deltas.merge(new StatusCounterKey(AppointmentStatusCounter.NUTRITIONIST, nutritionistId.toString(), status),
+                delta, Long::sum);
+        deltas.merge(new StatusCounterKey(AppointmentStatusCounter.PATIENT, patientId.toString(), status),
+                delta, Long::sum);
+        deltas.merge(new StatusCounterKey(AppointmentStatusCounter.DAY, dateTime.toLocalDate().toString(), status),
+                delta, Long::sum);
+    }
+}
@@ -0,0 +1,183 @@
+package com.effisoft.nlab.appointmentapi.service.stream;
+
+import com.effisoft.nlab.appointmentapi.config.StreamProperties;
+import com.effisoft.nlab.appointmentapi.dto.AppointmentChangeDTO;
+import com.effisoft.nlab.appointmentapi.event.AppointmentChangedEvent;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pushes committed appointment changes to the open dashboards of the nutritionist as
+ * Server-Sent Events. The appointment events are the in-process bus. Delivery happens
+ * after commit, and each connection drains its own bounded buffer on a small dispatch
+ * pool, so a slow browser never blocks the request that changed the appointment.
+ */
+@Component
+public class AppointmentStreamBroker implements MeterBinder {
+    private static final Logger log = LoggerFactory.getLogger(AppointmentStreamBroker.class);
+
+    private final StreamProperties streamProperties;
+    private final Executor dispatcher;
+
+    private final Map<Integer, Set<StreamSubscriber>> subscribersByNutritionist = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+
+    @Autowired
+    public AppointmentStreamBroker(StreamProperties streamProperties) {
+        this(streamProperties, newDispatcher(streamProperties.getDispatchThreads()));
+    }
+
+    AppointmentStreamBroker(StreamProperties streamProperties, Executor dispatcher) {
+        this.streamProperties = streamProperties;
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * Opens a stream of the nutritionist's appointment changes
+     */
+    public SseEmitter subscribe(Integer nutritionistId) {
+        SseEmitter emitter = new SseEmitter(Duration.ofMinutes(streamProperties.getTimeoutMinutes()).toMillis());
+        StreamSubscriber subscriber = new StreamSubscriber(nutritionistId, emitter, streamProperties.getBufferSize());
+
+        subscribersByNutritionist.computeIfAbsent(nutritionistId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+
+        try {
+            // Commits the response headers so proxies start streaming right away
+            emitter.send(SseEmitter.event().comment("connected"));
+        } catch (IOException e) {
+            remove(subscriber);
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        AppointmentChangeDTO change = AppointmentChangeDTO.from(event);
+        long id = sequence.incrementAndGet();
+
+        publish(event.getNutritionistId(), id, change);
+        Integer previousNutritionistId = event.getPreviousNutritionistId();
+        if (previousNutritionistId != null && !previousNutritionistId.equals(event.getNutritionistId())) {
+            publish(previousNutritionistId, id, change);
+        }
+    }
+
+    /**
+     * Keeps idle connections open through proxies and finds the ones the browser closed
+     */
+    @Scheduled(fixedDelayString = "${nlab.stream.heartbeat-seconds:25}", timeUnit = TimeUnit.SECONDS)
+    public void heartbeat() {
+        subscribersByNutritionist.values().forEach(subscribers -> subscribers.forEach(subscriber -> {
+            try {
+                subscriber.emitter().send(SseEmitter.event().comment("keep-alive"));
+            } catch (IOException | IllegalStateException e) {
+                remove(subscriber);
+            }
+        }));
+    }
+
+    public int subscriberCount() {
+        return subscribersByNutritionist.values().stream().mapToInt(Set::size).sum();
+    }
+
+    Set<StreamSubscriber> subscribersOf(Integer nutritionistId) {
+        return subscribersByNutritionist.getOrDefault(nutritionistId, Set.of());
+    }
+
+    long droppedCount() {
+        return dropped.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("nlab.stream.subscribers", this, AppointmentStreamBroker::subscriberCount)
+                .description("Open appointment change streams")
+                .register(registry);
+        FunctionCounter.builder("nlab.stream.dropped", dropped, LongAdder::doubleValue)
+                .description("Appointment changes dropped from full subscriber buffers")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (dispatcher instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+        subscribersByNutritionist.values().forEach(subscribers ->
+                subscribers.forEach(subscriber -> subscriber.emitter().complete()));
+        subscribersByNutritionist.clear();
+    }
+
+    private void publish(Integer nutritionistId, long id, AppointmentChangeDTO change) {
+        Set<StreamSubscriber> subscribers = subscribersByNutritionist.get(nutritionistId);
+        if (subscribers == null) {
+            return;
+        }
+
+        for (StreamSubscriber subscriber : subscribers) {
+            if (subscriber.offer(id, change)) {
+                dropped.increment();
+            }
+            // At most one queued drain per subscriber, so the dispatch queue stays bounded too
+            if (subscriber.tryStartDrain()) {
+                dispatcher.execute(() -> drain(subscriber));
+            }
+        }
+    }
+
+    private void drain(StreamSubscriber subscriber) {
+        try {
+            subscriber.drain();
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Closing appointment stream of nutritionist {}: {}", subscriber.nutritionistId(), e.getMessage());
+            subscriber.releaseDrain();
+            remove(subscriber);
+            subscriber.emitter().completeWithError(e);
+        }
+    }
+
+    private void remove(StreamSubscriber subscriber) {
+        subscribersByNutritionist.computeIfPresent(subscriber.nutritionistId(), (id, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    private static ExecutorService newDispatcher(int threads) {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "appointment-stream-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,102 @@
+package com.effisoft.nlab.appointmentapi.service.stream;
+
+import com.effisoft.nlab.appointmentapi.dto.AppointmentChangeDTO;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One open stream connection. Events are queued in a bounded buffer and written by a
+ * single drain at a time, so a slow connection only ever holds {@code capacity} events
+ * and loses the oldest ones first.
+ */
+final class StreamSubscriber {
+    private final Integer nutritionistId;
+    private final SseEmitter emitter;
+    private final int capacity;
+    private final Deque<PendingEvent> buffer = new ArrayDeque<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    StreamSubscriber(Integer nutritionistId, SseEmitter emitter, int capacity) {
+        this.nutritionistId = nutritionistId;
+        this.emitter = emitter;
+        this.capacity = capacity;
+    }
+
+    Integer nutritionistId() {
+        return nutritionistId;
+    }
+
+    SseEmitter emitter() {
+        return emitter;
+    }
+
+    /**
+     * Queues the event, dropping the oldest queued one when the buffer is full
+     *
+     * @return true when an event was dropped
+     */
+    boolean offer(long id, AppointmentChangeDTO change) {
+        synchronized (buffer) {
+            boolean dropped = false;
+            if (buffer.size() >= capacity) {
+                buffer.pollFirst();
+                dropped = true;
+            }
+            buffer.addLast(new PendingEvent(id, change));
+            return dropped;
+        }
+    }
+
+    /**
+     * Claims the drain, only one thread writes to the connection at a time
+     */
+    boolean tryStartDrain() {
+        return draining.compareAndSet(false, true);
+    }
+
+    /**
+     * Writes queued events until the buffer is empty, then releases the drain
+     */
+    void drain() throws IOException {
+        while (true) {
+            PendingEvent next;
+            synchronized (buffer) {
+                next = buffer.pollFirst();
+                if (next == null) {
+                    // Released under the buffer lock, an event offered afterwards starts a new drain
+                    draining.set(false);
+                    return;
+                }
+            }
+            emitter.send(SseEmitter.event()
+                    .id(String.valueOf(next.id()))
+                    .name("appointment")
+                    .data(next.change(), MediaType.APPLICATION_JSON));
+        }
+    }
+
+    void releaseDrain() {
+        draining.set(false);
+    }
+
+    int buffered() {
+        synchronized (buffer) {
+            return buffer.size();
+        }
+    }
+
+    PendingEvent peekOldest() {
+        synchronized (buffer) {
+            return buffer.peekFirst();
+        }
+    }
+
+    record PendingEvent(long id, AppointmentChangeDTO change) {
+    }
+}
@@ -0,0 +1,114 @@
+package com.effisoft.nlab.appointmentapi.service.waitlist;
+
+import com.effisoft.nlab.appointmentapi.config.BookingProperties;
+import com.effisoft.nlab.appointmentapi.entity.Appointment;
+import com.effisoft.nlab.appointmentapi.entity.WaitlistEntry;
+import com.effisoft.nlab.appointmentapi.event.AppointmentChangedEvent;
+import com.effisoft.nlab.appointmentapi.exception.AppointmentServiceException;
+import com.effisoft.nlab.appointmentapi.exception.WaitlistServiceException;
+import com.effisoft.nlab.appointmentapi.service.WaitlistService;
+import com.effisoft.nlab.appointmentapi.service.booking.NutritionistBookingIndex;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Offers a slot freed by a cancelled or moved appointment to the nutritionist's waitlist,
+ * booking it for the first waiting request that accepts it.
+ *
+ * Matching runs on the async executor once the cancellation committed, so the patient
+ * cancelling never waits for it. Booking goes through the regular appointment path, which
+ * re-checks the package, the working hours, the slot and any hold on it.
+ */
+@Component
+@RequiredArgsConstructor
+public class WaitlistMatcher implements MeterBinder {
+    private static final Logger log = LoggerFactory.getLogger(WaitlistMatcher.class);
+
+    private final WaitlistQueue waitlistQueue;
+    private final WaitlistService waitlistService;
+    private final BookingProperties bookingProperties;
+
+    private final LongAdder filled = new LongAdder();
+    private final LongAdder unfilled = new LongAdder();
+
+    @Async
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        if (!freesSlot(event)) {
+            return;
+        }
+        fill(event.getPreviousNutritionistId(), event.getPreviousDateTime(), LocalDateTime.now());
+    }
+
+    /**
+     * Books the slot for the best waiting request, trying the next candidate when the
+     * booking of one fails
+     *
+     * @return the booked appointment, empty when no request could take the slot
+     */
+    public Optional<Appointment> fill(Integer nutritionistId, LocalDateTime slot, LocalDateTime now) {
+        if (!slot.isAfter(now)) {
+            return Optional.empty();
+        }
+
+        for (WaitlistEntry candidate : waitlistQueue.candidates(
+                nutritionistId, slot, now, bookingProperties.getWaitlistMaxAttempts())) {
+            try {
+                Appointment appointment = waitlistService.bookFromWaitlist(candidate.getId(), slot);
+                waitlistQueue.remove(candidate);
+                filled.increment();
+                log.info("Waitlist entry {} booked into appointment {} at {}",
+                        candidate.getId(), appointment.getId(), slot);
+                return Optional.of(appointment);
+            } catch (WaitlistServiceException e) {
+                log.info("Waitlist entry {} could not take the slot at {}: {}",
+                        candidate.getId(), slot, e.getMessage());
+                // Booking failures are about the slot, anything else means the request
+                // was taken, cancelled or its package can no longer be used
+                if (!(e.getCause() instanceof AppointmentServiceException)) {
+                    waitlistQueue.remove(candidate);
+                }
+            }
+        }
+
+        unfilled.increment();
+        return Optional.empty();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("nlab.waitlist.matches", filled, LongAdder::doubleValue)
+                .tags("outcome", "booked")
+                .description("Freed slots booked from the waitlist")
+                .register(registry);
+        FunctionCounter.builder("nlab.waitlist.matches", unfilled, LongAdder::doubleValue)
+                .tags("outcome", "unfilled")
+                .description("Freed slots no waiting request could take")
+                .register(registry);
+    }
+
+    /**
+     * An active appointment was cancelled or left its slot
+     */
+    private boolean freesSlot(AppointmentChangedEvent event) {
+        if (event.getPreviousNutritionistId() == null || event.getPreviousDateTime() == null
+                || !NutritionistBookingIndex.BLOCKING_STATUSES.contains(event.getPreviousStatus())) {
+            return false;
+        }
+        return !NutritionistBookingIndex.BLOCKING_STATUSES.contains(event.getStatus())
+                || !event.getPreviousNutritionistId().equals(event.getNutritionistId())
+                || !event.getPreviousDateTime().equals(event.getAppointmentDateTime());
+    }
+}
@@ -0,0 +1,241 @@
+package com.effisoft.nlab.appointmentapi.service.waitlist;
+
+import com.effisoft.nlab.appointmentapi.entity.WaitlistEntry;
+import com.effisoft.nlab.appointmentapi.repository.WaitlistEntryRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory index of the waiting requests of each nutritionist. Requests are kept sorted
+ * by the start of their window, so the requests that can take a freed slot are found
+ * with one range lookup over the windows starting no earlier than the longest window
+ * before the slot, instead of a scan of every waiting request. A second ordering by the
+ * end of the window drops requests that have passed in O(log n) each.
+ *
+ * Among the requests accepting a slot the best candidate is first come first served, a
+ * tighter window wins between requests made at the same time.
+ *
+ * The WaitlistEntry table is the durable copy. The queue is loaded from it at startup and
+ * reloaded periodically so requests added or booked through another instance show up.
+ * A reload builds a new index off to the side and swaps it in, replaying the requests
+ * added or removed on this instance while it loaded, so a request booked meanwhile is
+ * not brought back.
+ */
+@Component
+@RequiredArgsConstructor
+public class WaitlistQueue implements MeterBinder {
+    private static final Logger log = LoggerFactory.getLogger(WaitlistQueue.class);
+
+    private static final Comparator<WaitlistEntry> BY_PRIORITY = Comparator
+            .comparing(WaitlistEntry::getRequestedAt)
+            .thenComparing(WaitlistEntry::getLatestDateTime)
+            .thenComparing(WaitlistEntry::getId);
+
+    private static final Comparator<WaitlistEntry> BY_WINDOW_START = Comparator
+            .comparing(WaitlistEntry::getEarliestDateTime)
+            .thenComparing(WaitlistEntry::getId);
+
+    private static final Comparator<WaitlistEntry> BY_WINDOW_END = Comparator
+            .comparing(WaitlistEntry::getLatestDateTime)
+            .thenComparing(WaitlistEntry::getId);
+
+    private final WaitlistEntryRepository waitlistEntryRepository;
+
+    /**
+     * Guards the index and the swap, every operation on it is a few tree operations
+     */
+    private final Object lock = new Object();
+
+    private Map<Integer, NutritionistQueue> queuesByNutritionist = new HashMap<>();
+
+    /**
+     * Changes made while a refresh loads, null when no refresh is running
+     */
+    private List<PendingChange> pendingChanges;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        refresh();
+    }
+
+    /**
+     * Reloads the open requests from the database
+     */
+    @Scheduled(fixedDelayString = "${nlab.waitlist.refresh-seconds:300}",
+            initialDelayString = "${nlab.waitlist.refresh-seconds:300}", timeUnit = TimeUnit.SECONDS)
+    public synchronized void refresh() {
+        synchronized (lock) {
+            pendingChanges = new ArrayList<>();
+        }
+
+        List<WaitlistEntry> open;
+        try {
+            open = waitlistEntryRepository.findOpen(LocalDateTime.now());
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                pendingChanges = null;
+            }
+            throw e;
+        }
+
+        Map<Integer, NutritionistQueue> loaded = new HashMap<>();
+        for (WaitlistEntry entry : open) {
+            loaded.computeIfAbsent(entry.getNutritionistId(), id -> new NutritionistQueue()).add(entry);
+        }
+
+        synchronized (lock) {
+            for (PendingChange change : pendingChanges) {
+                if (change.added()) {
+                    add(loaded, change.entry());
+                } else {
+                    remove(loaded, change.entry());
+                }
+            }
+            pendingChanges = null;
+            queuesByNutritionist = loaded;
+        }
+
+        log.info("Waitlist loaded {} requests for {} nutritionists", open.size(), loaded.size());
+    }
+
+    public void add(WaitlistEntry entry) {
+        synchronized (lock) {
+            add(queuesByNutritionist, entry);
+            if (pendingChanges != null) {
+                pendingChanges.add(new PendingChange(entry, true));
+            }
+        }
+    }
+
+    public void remove(WaitlistEntry entry) {
+        synchronized (lock) {
+            remove(queuesByNutritionist, entry);
+            if (pendingChanges != null) {
+                pendingChanges.add(new PendingChange(entry, false));
+            }
+        }
+    }
+
+    /**
+     * Requests of the nutritionist that accept a slot starting at the given time, best
+     * candidate first. Requests whose window has already passed are dropped on the way.
+     *
+     * @param limit maximum number of candidates returned
+     */
+    public List<WaitlistEntry> candidates(Integer nutritionistId, LocalDateTime slot, LocalDateTime now, int limit) {
+        synchronized (lock) {
+            NutritionistQueue queue = queuesByNutritionist.get(nutritionistId);
+            if (queue == null) {
+                return new ArrayList<>();
+            }
+            queue.dropEndedBefore(now);
+            return queue.candidates(slot, limit);
+        }
+    }
+
+    public int size() {
+        synchronized (lock) {
+            return queuesByNutritionist.values().stream().mapToInt(NutritionistQueue::size).sum();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("nlab.waitlist.size", this, WaitlistQueue::size)
+                .description("Waiting requests held in memory")
+                .register(registry);
+    }
+
+    private static void add(Map<Integer, NutritionistQueue> queues, WaitlistEntry entry) {
+        queues.computeIfAbsent(entry.getNutritionistId(), id -> new NutritionistQueue()).add(entry);
+    }
+
+    private static void remove(Map<Integer, NutritionistQueue> queues, WaitlistEntry entry) {
+        NutritionistQueue queue = queues.get(entry.getNutritionistId());
+        if (queue != null) {
+            queue.remove(entry);
+        }
+    }
+
+    /**
+     * Waiting requests of one nutritionist, sorted by window start and by window end
+     */
+    private static final class NutritionistQueue {
+        private final NavigableSet<WaitlistEntry> byWindowStart = new TreeSet<>(BY_WINDOW_START);
+        private final NavigableSet<WaitlistEntry> byWindowEnd = new TreeSet<>(BY_WINDOW_END);
+
+        /**
+         * Longest window seen, bounds how far before a slot an accepting window can start
+         */
+        private Duration longestWindow = Duration.ZERO;
+
+        void add(WaitlistEntry entry) {
+            if (byWindowStart.add(entry)) {
+                byWindowEnd.add(entry);
+                Duration window = Duration.between(entry.getEarliestDateTime(), entry.getLatestDateTime());
+                if (window.compareTo(longestWindow) > 0) {
+                    longestWindow = window;
+                }
+            }
+        }
+
+        void remove(WaitlistEntry entry) {
+            byWindowStart.remove(entry);
+            byWindowEnd.remove(entry);
+        }
+
+        void dropEndedBefore(LocalDateTime now) {
+            while (!byWindowEnd.isEmpty() && byWindowEnd.first().getLatestDateTime().isBefore(now)) {
+                byWindowStart.remove(byWindowEnd.pollFirst());
+            }
+        }
+
+        List<WaitlistEntry> candidates(LocalDateTime slot, int limit) {
+            // Every window containing the slot starts inside [slot - longestWindow, slot]
+            WaitlistEntry from = probe(slot.minus(longestWindow), Integer.MIN_VALUE);
+            WaitlistEntry to = probe(slot, Integer.MAX_VALUE);
+            List<WaitlistEntry> accepting = new ArrayList<>();
+            for (WaitlistEntry entry : byWindowStart.subSet(from, true, to, true)) {
+                if (!entry.getLatestDateTime().isBefore(slot)) {
+                    accepting.add(entry);
+                }
+            }
+            accepting.sort(BY_PRIORITY);
+            return accepting.size() > limit ? new ArrayList<>(accepting.subList(0, limit)) : accepting;
+        }
+
+        int size() {
+            return byWindowStart.size();
+        }
+
+        private static WaitlistEntry probe(LocalDateTime earliestDateTime, Integer id) {
+            WaitlistEntry probe = new WaitlistEntry();
+            probe.setId(id);
+            probe.setEarliestDateTime(earliestDateTime);
+            return probe;
+        }
+    }
+
+    private record PendingChange(WaitlistEntry entry, boolean added) {
+    }
+}
@@ -0,0 +1,186 @@
+package com.effisoft.nlab.appointmentapi.filter;
+
+import com.effisoft.nlab.appointmentapi.config.IdempotencyProperties;
+import com.effisoft.nlab.appointmentapi.service.idempotency.IdempotencyStore;
+import com.effisoft.nlab.appointmentapi.service.idempotency.IdempotencyStore.Claim;
+import com.effisoft.nlab.appointmentapi.service.idempotency.IdempotencyStore.Outcome;
+import com.effisoft.nlab.appointmentapi.service.idempotency.IdempotencyStore.StoredResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyKeyFilterTest {
+
+    @Mock
+    private IdempotencyStore idempotencyStore;
+
+    @Mock
+    private FilterChain chain;
+
+    private IdempotencyKeyFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        filter = new IdempotencyKeyFilter(idempotencyStore, new IdempotencyProperties(),
+                new ObjectMapper().registerModule(new JavaTimeModule()));
+        request = new MockHttpServletRequest("POST", "/api/patient-payment");
+        request.addHeader(IdempotencyKeyFilter.HEADER, "3f0c");
+        request.setContent("{\"purchasedPackageId\":1}".getBytes(StandardCharsets.UTF_8));
+        response = new MockHttpServletResponse();
+    }
+
+    @Test
+    void doFilter_WhenKeyIsNew_ShouldRunTheRequestAndStoreItsResponse() throws Exception {
+        // Arrange
+        when(idempotencyStore.claim(eq("anonymous:3f0c"), anyString()))
+                .thenReturn(new Claim(Outcome.ACQUIRED, null));
+        doAnswer(invocation -> {
+            // The controller still reads the body consumed for the request hash
+            ServletRequest servletRequest = invocation.getArgument(0);
+            HttpServletResponse servletResponse = invocation.getArgument(1);
+            assertEquals("{\"purchasedPackageId\":1}",
+                    new String(servletRequest.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+            servletResponse.setStatus(201);
+            servletResponse.setContentType("application/json");
+            servletResponse.getWriter().write("{\"id\":7}");
+            return null;
+        }).when(chain).doFilter(any(), any());
+
+        // Act
+        filter.doFilter(request, response, chain);
+
+        // Assert
+        ArgumentCaptor<StoredResponse> stored = ArgumentCaptor.forClass(StoredResponse.class);
+        verify(idempotencyStore).complete(eq("anonymous:3f0c"), stored.capture());
+        assertEquals(201, stored.getValue().status());
+        assertEquals("{\"id\":7}", new String(stored.getValue().body(), StandardCharsets.UTF_8));
+        assertEquals(201, response.getStatus());
+        assertEquals("{\"id\":7}", response.getContentAsString());
+        verify(idempotencyStore, never()).release(any());
+    }
+
+    @Test
+    void doFilter_WhenTheRequestIsReadAsynchronously_ShouldDeliverTheCachedBody() throws Exception {
+        // Arrange
+        when(idempotencyStore.claim(eq("anonymous:3f0c"), anyString()))
+                .thenReturn(new Claim(Outcome.ACQUIRED, null));
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        AtomicBoolean allRead = new AtomicBoolean();
+        doAnswer(invocation -> {
+            ServletInputStream input = invocation.<ServletRequest>getArgument(0).getInputStream();
+            input.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    while (input.isReady() && !input.isFinished()) {
+                        received.write(input.read());
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    allRead.set(true);
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    fail(t);
+                }
+            });
+            invocation.<HttpServletResponse>getArgument(1).setStatus(201);
+            return null;
+        }).when(chain).doFilter(any(), any());
+
+        // Act
+        filter.doFilter(request, response, chain);
+
+        // Assert
+        assertEquals("{\"purchasedPackageId\":1}", received.toString(StandardCharsets.UTF_8));
+        assertTrue(allRead.get());
+    }
+
+    @Test
+    void doFilter_WhenAlreadyCompleted_ShouldReplayWithoutRunningTheRequest() throws Exception {
+        // Arrange
+        when(idempotencyStore.claim(eq("anonymous:3f0c"), anyString())).thenReturn(new Claim(Outcome.REPLAYED,
+                new StoredResponse("hash", 201, "application/json", "{\"id\":7}".getBytes(StandardCharsets.UTF_8))));
+
+        // Act
+        filter.doFilter(request, response, chain);
+
+        // Assert
+        verifyNoInteractions(chain);
+        assertEquals(201, response.getStatus());
+        assertEquals("true", response.getHeader(IdempotencyKeyFilter.REPLAYED_HEADER));
+        assertEquals("{\"id\":7}", response.getContentAsString());
+    }
+
+    @Test
+    void doFilter_WhenRequestFailsWithServerError_ShouldReleaseTheKey() throws Exception {
+        // Arrange
+        when(idempotencyStore.claim(any(), anyString())).thenReturn(new Claim(Outcome.ACQUIRED, null));
+        doAnswer(invocation -> {
+            invocation.<HttpServletResponse>getArgument(1).setStatus(500);
+            return null;
+        }).when(chain).doFilter(any(), any());
+
+        // Act
+        filter.doFilter(request, response, chain);
+
+        // Assert
+        verify(idempotencyStore).release("anonymous:3f0c");
+        verify(idempotencyStore, never()).complete(any(), any());
+    }
+
+    @Test
+    void doFilter_WhenKeyWasUsedForAnotherRequest_ShouldAnswerUnprocessable() throws Exception {
+        // Arrange
+        when(idempotencyStore.claim(any(), anyString())).thenReturn(new Claim(Outcome.MISMATCH, null));
+
+        // Act
+        filter.doFilter(request, response, chain);
+
+        // Assert
+        verifyNoInteractions(chain);
+        assertEquals(422, response.getStatus());
+    }
+
+    @Test
+    void doFilter_WithoutKeyOrOnGet_ShouldPassThrough() throws Exception {
+        // Arrange
+        MockHttpServletRequest withoutKey = new MockHttpServletRequest("POST", "/api/patient-payment");
+        MockHttpServletRequest get = new MockHttpServletRequest("GET", "/api/patients");
+        get.addHeader(IdempotencyKeyFilter.HEADER, "3f0c");
+
+        // Act
+        filter.doFilter(withoutKey, response, chain);
+        filter.doFilter(get, new MockHttpServletResponse(), chain);
+
+        // Assert
+        verify(chain, times(2)).doFilter(any(), any());
+        verifyNoInteractions(idempotencyStore);
+    }
+}
@@ -0,0 +1,113 @@
+package com.effisoft.nlab.appointmentapi.service;
+
+import com.effisoft.nlab.appointmentapi.config.BookingProperties;
+import com.effisoft.nlab.appointmentapi.dto.AppointmentDTO;
+import com.effisoft.nlab.appointmentapi.entity.*;
+import com.effisoft.nlab.appointmentapi.exception.AppointmentServiceException;
+import com.effisoft.nlab.appointmentapi.repository.AppointmentBatchRepository;
+import com.effisoft.nlab.appointmentapi.service.booking.InMemorySlotHoldStore;
+import com.effisoft.nlab.appointmentapi.service.booking.NutritionistBookingIndex;
+import com.effisoft.nlab.appointmentapi.service.booking.NutritionistLockStripes;
+import com.effisoft.nlab.appointmentapi.service.booking.NutritionistScheduleIndex;
+import com.effisoft.nlab.appointmentapi.service.booking.UpcomingAppointmentsCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Multi-threaded booking, each booking in its own transaction
+ */
+@Import({ AppointmentService.class, AppointmentBatchRepository.class, NutritionistBookingIndex.class,
+        NutritionistLockStripes.class, NutritionistScheduleIndex.class, UpcomingAppointmentsCache.class, BookingProperties.class,
+        InMemorySlotHoldStore.class,
+        AppointmentReadModelProjector.class })
+@TestPropertySource(properties =
+        "spring.datasource.url=jdbc:h2:mem:booking;MODE=MSSQLServer;LOCK_TIMEOUT=10000;DB_CLOSE_DELAY=-1")
+class AppointmentBookingConcurrencyTest extends ConcurrencyTestSupport {
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private NutritionistBookingIndex bookingIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Nutritionist nutritionist;
+    private LocalDateTime firstSlot;
+
+    @BeforeEach
+    void setUp() {
+        // H2 has no filtered indexes, a plain unique index is enough as long as nothing is cancelled
+        jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS UX_Appointment_Slot " +
+                "ON Appointment (NutritionistID, appointmentDateTime)");
+
+        nutritionist = new Nutritionist();
+        nutritionist.setFirstName("Jane");
+        nutritionist.setLastName("Doe");
+        nutritionist.setEmail("jane.doe@example.com");
+        nutritionist.setCreatedAt(LocalDateTime.now());
+        nutritionist.setActive(true);
+        nutritionist = nutritionistRepository.save(nutritionist);
+
+        firstSlot = LocalDateTime.now().plusDays(1).withHour(8).withMinute(0).withSecond(0).withNano(0);
+        bookingIndex.refresh();
+    }
+
+    @Test
+    void scheduleAppointment_WhenPackageIsOverbookedConcurrently_ShouldNeverGoBelowZero() throws Exception {
+        PurchasedPackage purchasedPackage = purchasedPackage(5);
+
+        List<RuntimeException> rejections = bookConcurrently(
+                i -> bookingDTO(purchasedPackage.getId(), firstSlot.plusHours(i)));
+
+        assertEquals(THREADS - 5, rejections.size());
+        assertRejectedWith(rejections, AppointmentServiceException.class, "No remaining appointments in the package");
+        assertEquals(0, purchasedPackageRepository.findById(purchasedPackage.getId())
+                .orElseThrow().getRemainingAppointments());
+        assertEquals(5, appointmentRepository.count());
+    }
+
+    @Test
+    void scheduleAppointment_WhenSameSlotIsBookedConcurrently_ShouldAcceptOnlyOne() throws Exception {
+        PurchasedPackage purchasedPackage = purchasedPackage(THREADS);
+
+        List<RuntimeException> rejections = bookConcurrently(i -> bookingDTO(purchasedPackage.getId(), firstSlot));
+
+        assertEquals(THREADS - 1, rejections.size());
+        assertRejectedWith(rejections, AppointmentServiceException.class, "Appointment time is already booked");
+        // Rejected bookings roll back their decrement
+        assertEquals(THREADS - 1, purchasedPackageRepository.findById(purchasedPackage.getId())
+                .orElseThrow().getRemainingAppointments());
+        assertEquals(1, appointmentRepository.count());
+    }
+
+    private List<RuntimeException> bookConcurrently(IntFunction<AppointmentDTO> bookingFactory) throws Exception {
+        List<Runnable> bookings = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            AppointmentDTO dto = bookingFactory.apply(i);
+            bookings.add(() -> appointmentService.scheduleAppointment(dto));
+        }
+        return runConcurrently(bookings);
+    }
+
+    private AppointmentDTO bookingDTO(Integer purchasedPackageId, LocalDateTime dateTime) {
+        AppointmentDTO dto = new AppointmentDTO();
+        dto.setPurchasedPackageId(purchasedPackageId);
+        dto.setNutritionistId(nutritionist.getId());
+        dto.setAppointmentDateTime(dateTime);
+        dto.setStatus("AGENDADA");
+        return dto;
+    }
+}
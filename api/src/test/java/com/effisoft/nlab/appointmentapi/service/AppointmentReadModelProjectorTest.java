@@ -0,0 +1,157 @@
+package com.effisoft.nlab.appointmentapi.service;
+
+import com.effisoft.nlab.appointmentapi.config.BookingProperties;
+import com.effisoft.nlab.appointmentapi.dto.AppointmentDTO;
+import com.effisoft.nlab.appointmentapi.entity.*;
+import com.effisoft.nlab.appointmentapi.repository.AppointmentBatchRepository;
+import com.effisoft.nlab.appointmentapi.repository.AppointmentReadModelRepository;
+import com.effisoft.nlab.appointmentapi.service.booking.InMemorySlotHoldStore;
+import com.effisoft.nlab.appointmentapi.service.booking.NutritionistBookingIndex;
+import com.effisoft.nlab.appointmentapi.service.booking.NutritionistLockStripes;
+import com.effisoft.nlab.appointmentapi.service.booking.NutritionistScheduleIndex;
+import com.effisoft.nlab.appointmentapi.service.booking.UpcomingAppointmentsCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Appointment writes go through the real service against H2, so the read model rows are
+ * produced by the same native projection statement used in production.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ AppointmentService.class, AppointmentBatchRepository.class, NutritionistBookingIndex.class,
+        NutritionistLockStripes.class, NutritionistScheduleIndex.class, UpcomingAppointmentsCache.class, BookingProperties.class,
+        InMemorySlotHoldStore.class,
+        AppointmentReadModelProjector.class })
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:readmodel;MODE=MSSQLServer;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class AppointmentReadModelProjectorTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentReadModelProjector readModelProjector;
+
+    @Autowired
+    private AppointmentReadModelRepository readModelRepository;
+
+    private Nutritionist nutritionist;
+    private PackageType packageType;
+    private PurchasedPackage purchasedPackage;
+
+    @BeforeEach
+    void setUp() {
+        nutritionist = new Nutritionist();
+        nutritionist.setFirstName("Jane");
+        nutritionist.setLastName("Doe");
+        nutritionist.setEmail("jane.doe@example.com");
+        nutritionist.setCreatedAt(LocalDateTime.now());
+        nutritionist.setActive(true);
+        entityManager.persist(nutritionist);
+
+        Patient patient = new Patient();
+        patient.setFirstName("John");
+        patient.setLastName("Smith");
+        patient.setEmail("john.smith@example.com");
+        patient.setCreatedAt(LocalDateTime.now());
+        patient.setActive(true);
+        entityManager.persist(patient);
+
+        packageType = new PackageType();
+        packageType.setName("Paquete Mensual");
+        packageType.setNumberOfAppointments(10);
+        packageType.setPrice(new BigDecimal("1000.00"));
+        packageType.setNutritionistRate(new BigDecimal("250.00"));
+        packageType.setActive(true);
+        packageType.setCreatedAt(LocalDateTime.now());
+        entityManager.persist(packageType);
+
+        purchasedPackage = new PurchasedPackage();
+        purchasedPackage.setPatient(patient);
+        purchasedPackage.setPackageType(packageType);
+        purchasedPackage.setPurchaseDate(LocalDateTime.now());
+        purchasedPackage.setPaidInFull(false);
+        purchasedPackage.setRemainingAppointments(10);
+        purchasedPackage.setExpirationDate(LocalDateTime.now().plusMonths(6));
+        entityManager.persist(purchasedPackage);
+        entityManager.flush();
+    }
+
+    @Test
+    void scheduleAppointment_ShouldWriteReadModelRowInTheSameTransaction() {
+        // Act
+        Appointment appointment = appointmentService.scheduleAppointment(bookingDTO());
+        entityManager.clear();
+
+        // Assert
+        AppointmentReadModel row = readModelRepository.findById(appointment.getId()).orElseThrow();
+        assertEquals("John Smith", row.getPatientName());
+        assertEquals("Jane Doe", row.getNutritionistName());
+        assertEquals("Paquete Mensual", row.getPackageName());
+        assertEquals(purchasedPackage.getId(), row.getPurchasedPackageId());
+        assertEquals("AGENDADA", row.getStatus());
+    }
+
+    @Test
+    void cancelAppointment_ShouldUpdateReadModelStatus() {
+        // Arrange
+        Appointment appointment = appointmentService.scheduleAppointment(bookingDTO());
+
+        // Act
+        appointmentService.cancelAppointment(appointment.getId());
+        entityManager.clear();
+
+        // Assert
+        assertEquals("CANCELADA", readModelRepository.findById(appointment.getId()).orElseThrow().getStatus());
+        assertEquals(1, readModelRepository.count());
+    }
+
+    @Test
+    void renames_ShouldUpdateEveryRowOfTheEntity() {
+        // Arrange
+        Appointment appointment = appointmentService.scheduleAppointment(bookingDTO());
+        nutritionist.setLastName("Roe");
+        packageType.setName("Paquete Anual");
+
+        // Act
+        readModelProjector.nutritionistRenamed(nutritionist);
+        readModelProjector.packageTypeRenamed(packageType);
+        entityManager.clear();
+
+        // Assert
+        AppointmentReadModel row = readModelRepository.findById(appointment.getId()).orElseThrow();
+        assertEquals("Jane Roe", row.getNutritionistName());
+        assertEquals("Paquete Anual", row.getPackageName());
+    }
+
+    private AppointmentDTO bookingDTO() {
+        AppointmentDTO dto = new AppointmentDTO();
+        dto.setPurchasedPackageId(purchasedPackage.getId());
+        dto.setNutritionistId(nutritionist.getId());
+        dto.setAppointmentDateTime(LocalDate.now().plusDays(1).atTime(9, 0));
+        dto.setStatus("AGENDADA");
+        return dto;
+    }
+}
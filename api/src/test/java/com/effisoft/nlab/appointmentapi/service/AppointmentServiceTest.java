@@ -1,22 +1,48 @@
 package com.effisoft.nlab.appointmentapi.service;
 
+import com.effisoft.nlab.appointmentapi.config.BookingProperties;
+import com.effisoft.nlab.appointmentapi.dto.AppointmentCalendarRow;
 import com.effisoft.nlab.appointmentapi.dto.AppointmentDTO;
+import com.effisoft.nlab.appointmentapi.dto.AppointmentSeriesDTO;
+import com.effisoft.nlab.appointmentapi.dto.AppointmentStatusChangeDTO;
+import com.effisoft.nlab.appointmentapi.dto.AppointmentStatusResultDTO;
+import com.effisoft.nlab.appointmentapi.dto.BookedSlot;
+import com.effisoft.nlab.appointmentapi.dto.BulkReassignDTO;
+import com.effisoft.nlab.appointmentapi.dto.BulkReassignResultDTO;
+import com.effisoft.nlab.appointmentapi.dto.SlotHoldDTO;
 import com.effisoft.nlab.appointmentapi.entity.*;
 import com.effisoft.nlab.appointmentapi.exception.AppointmentServiceException;
+import com.effisoft.nlab.appointmentapi.repository.AppointmentBatchRepository;
+import com.effisoft.nlab.appointmentapi.repository.AppointmentReadModelRepository;
 import com.effisoft.nlab.appointmentapi.repository.AppointmentRepository;
 import com.effisoft.nlab.appointmentapi.repository.NutritionistRepository;
 import com.effisoft.nlab.appointmentapi.repository.PurchasedPackageRepository;
+import com.effisoft.nlab.appointmentapi.service.booking.NutritionistBookingIndex;
+import com.effisoft.nlab.appointmentapi.service.booking.NutritionistBookingIndex.SlotState;
+import com.effisoft.nlab.appointmentapi.service.booking.NutritionistLockStripes;
+import com.effisoft.nlab.appointmentapi.service.booking.NutritionistScheduleIndex;
+import com.effisoft.nlab.appointmentapi.service.booking.SlotHoldStore;
+import com.effisoft.nlab.appointmentapi.service.booking.UpcomingAppointmentsCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 
+import java.time.DayOfWeek;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.BiFunction;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -28,12 +54,42 @@ class AppointmentServiceTest {
     @Mock
     private AppointmentRepository appointmentRepository;
 
+    @Mock
+    private AppointmentBatchRepository appointmentBatchRepository;
+
+    @Mock
+    private AppointmentReadModelRepository readModelRepository;
+
     @Mock
     private PurchasedPackageRepository purchasedPackageRepository;
 
     @Mock
     private NutritionistRepository nutritionistRepository;
 
+    @Mock
+    private NutritionistBookingIndex bookingIndex;
+
+    @Mock
+    private NutritionistLockStripes lockStripes;
+
+    @Mock
+    private NutritionistScheduleIndex scheduleIndex;
+
+    @Mock
+    private UpcomingAppointmentsCache upcomingAppointmentsCache;
+
+    @Mock
+    private SlotHoldStore slotHoldStore;
+
+    @Mock
+    private BookingProperties bookingProperties;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private AppointmentService appointmentService;
 
@@ -89,10 +145,13 @@ class AppointmentServiceTest {
     @Test
     void scheduleAppointment_WhenValidAppointment_ShouldCreateAppointment() {
         // Arrange
+        when(purchasedPackageRepository.decrementRemainingAppointments(1)).thenReturn(1);
         when(purchasedPackageRepository.findById(1)).thenReturn(Optional.of(purchasedPackage));
         when(nutritionistRepository.findById(1)).thenReturn(Optional.of(nutritionist));
-        when(appointmentRepository.save(any(Appointment.class))).thenReturn(existingAppointment);
-        when(appointmentRepository.existsByNutritionistIdAndAppointmentDateTime(any(), any())).thenReturn(false);
+        when(appointmentRepository.saveAndFlush(any(Appointment.class))).thenReturn(existingAppointment);
+        when(bookingIndex.check(any(), any(), any())).thenReturn(SlotState.FREE);
+        when(bookingProperties.appointmentDuration()).thenReturn(Duration.ofMinutes(60));
+        when(scheduleIndex.isWithinWorkingHours(eq(1), any(), any())).thenReturn(true);
 
         // Act
         Appointment scheduledAppointment = appointmentService.scheduleAppointment(validAppointmentDTO);
@@ -101,14 +160,40 @@ class AppointmentServiceTest {
         assertNotNull(scheduledAppointment);
         assertEquals("AGENDADA", scheduledAppointment.getStatus());
         assertNotNull(scheduledAppointment.getCreatedAt());
-        verify(purchasedPackageRepository).save(any(PurchasedPackage.class));
-        verify(appointmentRepository).save(any(Appointment.class));
+        verify(purchasedPackageRepository).decrementRemainingAppointments(1);
+        verify(purchasedPackageRepository, never()).save(any(PurchasedPackage.class));
+        verify(lockStripes).lockUntilTransactionCompletes(1);
+        verify(appointmentRepository).saveAndFlush(any(Appointment.class));
+        verify(appointmentRepository, never()).existsOverlapping(any(), any(), any(), any(), any());
+        verify(eventPublisher).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void scheduleAppointment_WhenSlotOutsideIndexHorizon_ShouldConfirmWithDatabase() {
+        // Arrange
+        when(purchasedPackageRepository.decrementRemainingAppointments(1)).thenReturn(1);
+        when(purchasedPackageRepository.findById(1)).thenReturn(Optional.of(purchasedPackage));
+        when(nutritionistRepository.findById(1)).thenReturn(Optional.of(nutritionist));
+        when(bookingIndex.check(any(), any(), any())).thenReturn(SlotState.UNKNOWN);
+        when(bookingProperties.appointmentDuration()).thenReturn(Duration.ofMinutes(60));
+        when(appointmentRepository.existsOverlapping(eq(1), any(), any(), any(), isNull())).thenReturn(true);
+        when(scheduleIndex.isWithinWorkingHours(eq(1), any(), any())).thenReturn(true);
+
+        // Act & Assert
+        AppointmentServiceException exception = assertThrows(
+                AppointmentServiceException.class,
+                () -> appointmentService.scheduleAppointment(validAppointmentDTO)
+        );
+
+        assertEquals("Appointment time is already booked", exception.getMessage());
+        verify(appointmentRepository, never()).saveAndFlush(any(Appointment.class));
     }
 
     @Test
     void scheduleAppointment_WhenNoRemainingAppointments_ShouldThrowException() {
         // Arrange
         purchasedPackage.setRemainingAppointments(0);
+        when(purchasedPackageRepository.decrementRemainingAppointments(1)).thenReturn(0);
         when(purchasedPackageRepository.findById(1)).thenReturn(Optional.of(purchasedPackage));
 
         // Act & Assert
@@ -126,20 +211,58 @@ class AppointmentServiceTest {
         // Arrange
         LocalDateTime startDate = LocalDateTime.now();
         LocalDateTime endDate = startDate.plusDays(7);
-        List<Appointment> appointments = Arrays.asList(existingAppointment);
-        
-        when(appointmentRepository.findByNutritionistIdAndAppointmentDateTimeBetween(
-                1, startDate, endDate)).thenReturn(appointments);
+        List<AppointmentCalendarRow> rows = Arrays.asList(new AppointmentCalendarRow(
+                1, existingAppointment.getAppointmentDateTime(), "AGENDADA", 1, 1, "John Smith", "Basic"));
+
+        when(readModelRepository.findCalendarRows(1, startDate, endDate)).thenReturn(rows);
         when(nutritionistRepository.existsById(1)).thenReturn(true);
 
         // Act
-        List<Appointment> result = appointmentService
+        List<AppointmentCalendarRow> result = appointmentService
                 .getAppointmentsByNutritionistAndDateRange(1, startDate, endDate);
 
         // Assert
         assertEquals(1, result.size());
-        verify(appointmentRepository)
-                .findByNutritionistIdAndAppointmentDateTimeBetween(1, startDate, endDate);
+        assertEquals("John Smith", result.get(0).getPatientName());
+        verify(readModelRepository).findCalendarRows(1, startDate, endDate);
+        verify(appointmentRepository, never())
+                .findByNutritionistIdAndAppointmentDateTimeBetween(any(), any(), any());
+    }
+
+    @Test
+    void getUpcomingAppointments_WhenCached_ShouldNotOpenATransaction() {
+        // Arrange
+        List<AppointmentCalendarRow> rows = List.of(new AppointmentCalendarRow(
+                1, existingAppointment.getAppointmentDateTime(), "AGENDADA", 1, 1, "John Smith", "Basic"));
+        when(upcomingAppointmentsCache.get(eq(1), any(LocalDateTime.class), any())).thenReturn(rows);
+
+        // Act
+        List<AppointmentCalendarRow> result = appointmentService.getUpcomingAppointments(1);
+
+        // Assert
+        assertEquals(rows, result);
+        verifyNoInteractions(transactionManager, readModelRepository);
+    }
+
+    @Test
+    void getUpcomingAppointments_WhenNotCached_ShouldLoadInAReadOnlyTransaction() {
+        // Arrange
+        LocalDateTime from = LocalDateTime.now();
+        LocalDateTime to = from.plusMonths(1);
+        List<AppointmentCalendarRow> rows = List.of(new AppointmentCalendarRow(
+                1, existingAppointment.getAppointmentDateTime(), "AGENDADA", 1, 1, "John Smith", "Basic"));
+        when(upcomingAppointmentsCache.get(eq(1), any(LocalDateTime.class), any())).thenAnswer(invocation ->
+                invocation.<BiFunction<LocalDateTime, LocalDateTime, List<AppointmentCalendarRow>>>getArgument(2)
+                        .apply(from, to));
+        when(nutritionistRepository.existsById(1)).thenReturn(true);
+        when(readModelRepository.findCalendarRows(1, from, to)).thenReturn(rows);
+
+        // Act
+        List<AppointmentCalendarRow> result = appointmentService.getUpcomingAppointments(1);
+
+        // Assert
+        assertEquals(rows, result);
+        verify(transactionManager).getTransaction(argThat(TransactionDefinition::isReadOnly));
     }
 
     @Test
@@ -147,31 +270,45 @@ class AppointmentServiceTest {
         // Arrange
         when(appointmentRepository.findById(1)).thenReturn(Optional.of(existingAppointment));
         when(nutritionistRepository.findById(1)).thenReturn(Optional.of(nutritionist));
-        when(appointmentRepository.save(any(Appointment.class))).thenReturn(existingAppointment);
+        when(appointmentRepository.saveAndFlush(any(Appointment.class))).thenReturn(existingAppointment);
 
         // Act
         Appointment updated = appointmentService.updateAppointmentStatus(updatedAppointmentDTO);
 
         // Assert
         assertEquals("COMPLETADA", updated.getStatus());
-        verify(appointmentRepository).save(existingAppointment);
+        verify(appointmentRepository).saveAndFlush(existingAppointment);
     }
 
 
+    @Test
+    void updateAppointmentStatus_WhenSlotIndexRejectsTheUpdate_ShouldReportTheSlotAsBooked() {
+        // Arrange
+        when(appointmentRepository.findById(1)).thenReturn(Optional.of(existingAppointment));
+        when(nutritionistRepository.findById(1)).thenReturn(Optional.of(nutritionist));
+        when(appointmentRepository.saveAndFlush(any(Appointment.class)))
+                .thenThrow(new DataIntegrityViolationException("UX_Appointment_NutritionistID_AppointmentDateTime"));
+
+        // Act & Assert
+        AppointmentServiceException exception = assertThrows(AppointmentServiceException.class,
+                () -> appointmentService.updateAppointmentStatus(updatedAppointmentDTO));
+        assertEquals("Appointment time is already booked", exception.getMessage());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
     @Test
     void cancelAppointment_WhenValid_ShouldCancelAndRestoreAppointment() {
         // Arrange
         when(appointmentRepository.findById(1)).thenReturn(Optional.of(existingAppointment));
         when(appointmentRepository.save(any(Appointment.class))).thenReturn(existingAppointment);
-        when(purchasedPackageRepository.save(any(PurchasedPackage.class))).thenReturn(purchasedPackage);
+        when(purchasedPackageRepository.incrementRemainingAppointments(1)).thenReturn(1);
 
         // Act
         appointmentService.cancelAppointment(1);
 
         // Assert
         assertEquals("CANCELADA", existingAppointment.getStatus());
-        assertEquals(6, purchasedPackage.getRemainingAppointments()); // Increased by 1
-        verify(purchasedPackageRepository).save(purchasedPackage);
+        verify(purchasedPackageRepository).incrementRemainingAppointments(1); // Increased by 1
         verify(appointmentRepository).save(existingAppointment);
     }
 
@@ -187,16 +324,18 @@ class AppointmentServiceTest {
         );
 
         assertEquals("Appointment not found", exception.getMessage());
-        verify(purchasedPackageRepository, never()).save(any(PurchasedPackage.class));
+        verify(purchasedPackageRepository, never()).incrementRemainingAppointments(any());
         verify(appointmentRepository, never()).save(any(Appointment.class));
     }
 
     @Test
     void scheduleAppointment_WhenAppointmentTimeAlreadyBooked_ShouldThrowException() {
         // Arrange
+        when(purchasedPackageRepository.decrementRemainingAppointments(1)).thenReturn(1);
         when(purchasedPackageRepository.findById(1)).thenReturn(Optional.of(purchasedPackage));
         when(nutritionistRepository.findById(1)).thenReturn(Optional.of(nutritionist));
-        when(appointmentRepository.existsByNutritionistIdAndAppointmentDateTime(any(), any())).thenReturn(true);
+        when(bookingIndex.check(any(), any(), any())).thenReturn(SlotState.CONFLICT);
+        when(scheduleIndex.isWithinWorkingHours(eq(1), any(), any())).thenReturn(true);
 
         // Act & Assert
         AppointmentServiceException exception = assertThrows(
@@ -205,13 +344,123 @@ class AppointmentServiceTest {
         );
 
         assertEquals("Appointment time is already booked", exception.getMessage());
-        verify(appointmentRepository, never()).save(any(Appointment.class));
+        verify(appointmentRepository, never()).saveAndFlush(any(Appointment.class));
+    }
+
+    @Test
+    void scheduleAppointment_WhenSlotHeldByAnotherBooking_ShouldThrowException() {
+        // Arrange
+        SlotHold hold = slotHold("other-hold");
+        validAppointmentDTO.setHoldId("own-hold");
+        when(purchasedPackageRepository.decrementRemainingAppointments(1)).thenReturn(1);
+        when(purchasedPackageRepository.findById(1)).thenReturn(Optional.of(purchasedPackage));
+        when(nutritionistRepository.findById(1)).thenReturn(Optional.of(nutritionist));
+        when(bookingIndex.check(any(), any(), any())).thenReturn(SlotState.FREE);
+        when(bookingProperties.appointmentDuration()).thenReturn(Duration.ofMinutes(60));
+        when(scheduleIndex.isWithinWorkingHours(eq(1), any(), any())).thenReturn(true);
+        when(slotHoldStore.findActive(eq(1), any(), any(), any())).thenReturn(List.of(hold));
+
+        // Act & Assert
+        AppointmentServiceException exception = assertThrows(
+                AppointmentServiceException.class,
+                () -> appointmentService.scheduleAppointment(validAppointmentDTO)
+        );
+
+        assertEquals("Appointment time is held by another booking", exception.getMessage());
+        verify(appointmentRepository, never()).saveAndFlush(any(Appointment.class));
+    }
+
+    @Test
+    void scheduleAppointment_WhenBookingOwnHold_ShouldBookAndReleaseHold() {
+        // Arrange
+        validAppointmentDTO.setHoldId("own-hold");
+        when(purchasedPackageRepository.decrementRemainingAppointments(1)).thenReturn(1);
+        when(purchasedPackageRepository.findById(1)).thenReturn(Optional.of(purchasedPackage));
+        when(nutritionistRepository.findById(1)).thenReturn(Optional.of(nutritionist));
+        when(appointmentRepository.saveAndFlush(any(Appointment.class))).thenReturn(existingAppointment);
+        when(bookingIndex.check(any(), any(), any())).thenReturn(SlotState.FREE);
+        when(bookingProperties.appointmentDuration()).thenReturn(Duration.ofMinutes(60));
+        when(scheduleIndex.isWithinWorkingHours(eq(1), any(), any())).thenReturn(true);
+        when(slotHoldStore.findActive(eq(1), any(), any(), any())).thenReturn(List.of(slotHold("own-hold")));
+
+        // Act
+        appointmentService.scheduleAppointment(validAppointmentDTO);
+
+        // Assert, no transaction is active so the hold is released right away
+        verify(appointmentRepository).saveAndFlush(any(Appointment.class));
+        verify(slotHoldStore).release("own-hold");
+    }
+
+    @Test
+    void holdSlot_WhenSlotFree_ShouldStoreHold() {
+        // Arrange
+        SlotHoldDTO holdDTO = new SlotHoldDTO();
+        holdDTO.setNutritionistId(1);
+        holdDTO.setAppointmentDateTime(validAppointmentDTO.getAppointmentDateTime());
+        when(nutritionistRepository.existsById(1)).thenReturn(true);
+        when(bookingIndex.check(any(), any(), any())).thenReturn(SlotState.FREE);
+        when(bookingProperties.appointmentDuration()).thenReturn(Duration.ofMinutes(60));
+        when(bookingProperties.getHoldTtlMinutes()).thenReturn(5);
+        when(bookingProperties.getHoldMaxMinutes()).thenReturn(15);
+        when(scheduleIndex.isWithinWorkingHours(eq(1), any(), any())).thenReturn(true);
+        when(slotHoldStore.tryHold(any(SlotHold.class), any())).thenAnswer(invocation -> Optional.of(invocation.getArgument(0)));
+
+        // Act
+        SlotHold hold = appointmentService.holdSlot(holdDTO);
+
+        // Assert
+        assertNotNull(hold.getId());
+        assertEquals(holdDTO.getAppointmentDateTime().plusHours(1), hold.getEndsAt());
+        verify(lockStripes).lockUntilTransactionCompletes(1);
+    }
+
+    @Test
+    void holdSlot_WhenAlreadyHeld_ShouldThrowException() {
+        // Arrange
+        SlotHoldDTO holdDTO = new SlotHoldDTO();
+        holdDTO.setNutritionistId(1);
+        holdDTO.setAppointmentDateTime(validAppointmentDTO.getAppointmentDateTime());
+        when(nutritionistRepository.existsById(1)).thenReturn(true);
+        when(bookingIndex.check(any(), any(), any())).thenReturn(SlotState.FREE);
+        when(bookingProperties.appointmentDuration()).thenReturn(Duration.ofMinutes(60));
+        when(bookingProperties.getHoldTtlMinutes()).thenReturn(5);
+        when(bookingProperties.getHoldMaxMinutes()).thenReturn(15);
+        when(scheduleIndex.isWithinWorkingHours(eq(1), any(), any())).thenReturn(true);
+        when(slotHoldStore.tryHold(any(SlotHold.class), any())).thenReturn(Optional.empty());
+
+        // Act & Assert
+        AppointmentServiceException exception = assertThrows(
+                AppointmentServiceException.class,
+                () -> appointmentService.holdSlot(holdDTO)
+        );
+
+        assertEquals("Appointment time is held by another booking", exception.getMessage());
+    }
+
+    @Test
+    void scheduleAppointment_WhenOutsideWorkingHours_ShouldThrowException() {
+        // Arrange
+        when(purchasedPackageRepository.decrementRemainingAppointments(1)).thenReturn(1);
+        when(purchasedPackageRepository.findById(1)).thenReturn(Optional.of(purchasedPackage));
+        when(nutritionistRepository.findById(1)).thenReturn(Optional.of(nutritionist));
+        when(scheduleIndex.isWithinWorkingHours(eq(1), any(), any())).thenReturn(false);
+
+        // Act & Assert
+        AppointmentServiceException exception = assertThrows(
+                AppointmentServiceException.class,
+                () -> appointmentService.scheduleAppointment(validAppointmentDTO)
+        );
+
+        assertEquals("Appointment time is outside the nutritionist's working hours", exception.getMessage());
+        verify(bookingIndex, never()).check(any(), any(), any());
+        verify(appointmentRepository, never()).saveAndFlush(any(Appointment.class));
     }
 
     @Test
     void scheduleAppointment_WhenPackageExpired_ShouldThrowException() {
         // Arrange
         purchasedPackage.setExpirationDate(LocalDateTime.now().minusDays(1));
+        when(purchasedPackageRepository.decrementRemainingAppointments(1)).thenReturn(1);
         when(purchasedPackageRepository.findById(1)).thenReturn(Optional.of(purchasedPackage));
 
         // Act & Assert
@@ -222,6 +471,273 @@ class AppointmentServiceTest {
 
         assertEquals("Package has expired", exception.getMessage());
         verify(nutritionistRepository, never()).findById(any());
-        verify(appointmentRepository, never()).save(any(Appointment.class));
+        verify(appointmentRepository, never()).saveAndFlush(any(Appointment.class));
+    }
+
+    @Test
+    void scheduleAppointmentSeries_WhenSlotsAreFree_ShouldBatchInsertAndDecrementOnce() {
+        // Arrange
+        AppointmentSeriesDTO seriesDTO = weeklySeries(3);
+        purchasedPackage.setExpirationDate(LocalDateTime.now().plusMonths(6));
+        when(purchasedPackageRepository.decrementRemainingAppointmentsBy(1, 3)).thenReturn(1);
+        when(purchasedPackageRepository.findById(1)).thenReturn(Optional.of(purchasedPackage));
+        when(nutritionistRepository.findById(1)).thenReturn(Optional.of(nutritionist));
+        when(bookingProperties.appointmentDuration()).thenReturn(Duration.ofMinutes(60));
+        when(appointmentRepository.findBookedSlotsByNutritionist(eq(1), any(), any(), any())).thenReturn(List.of());
+        when(appointmentRepository.findByPurchasedPackageIdAndNutritionistIdAndStatusAndAppointmentDateTimeIn(
+                eq(1), eq(1), eq("AGENDADA"), any()))
+                .thenReturn(List.of(existingAppointment));
+        when(scheduleIndex.isWithinWorkingHours(eq(1), any(), any())).thenReturn(true);
+
+        // Act
+        List<Appointment> appointments = appointmentService.scheduleAppointmentSeries(seriesDTO);
+
+        // Assert
+        assertEquals(1, appointments.size());
+        verify(purchasedPackageRepository).decrementRemainingAppointmentsBy(1, 3);
+        verify(appointmentBatchRepository).insertAll(argThat(batch ->
+                batch.size() == 3 &&
+                batch.get(1).getAppointmentDateTime().equals(seriesDTO.getFirstAppointmentDateTime().plusWeeks(1)) &&
+                batch.stream().allMatch(appointment -> "AGENDADA".equals(appointment.getStatus()))));
+        verify(appointmentRepository, never()).saveAndFlush(any(Appointment.class));
+    }
+
+    @Test
+    void scheduleAppointmentSeries_WhenOneSlotIsBooked_ShouldRejectWholeSeries() {
+        // Arrange
+        AppointmentSeriesDTO seriesDTO = weeklySeries(3);
+        purchasedPackage.setExpirationDate(LocalDateTime.now().plusMonths(6));
+        BookedSlot bookedSlot = mock(BookedSlot.class);
+        when(bookedSlot.getAppointmentDateTime())
+                .thenReturn(seriesDTO.getFirstAppointmentDateTime().plusWeeks(2).plusMinutes(30));
+        when(purchasedPackageRepository.decrementRemainingAppointmentsBy(1, 3)).thenReturn(1);
+        when(purchasedPackageRepository.findById(1)).thenReturn(Optional.of(purchasedPackage));
+        when(nutritionistRepository.findById(1)).thenReturn(Optional.of(nutritionist));
+        when(bookingProperties.appointmentDuration()).thenReturn(Duration.ofMinutes(60));
+        when(appointmentRepository.findBookedSlotsByNutritionist(eq(1), any(), any(), any()))
+                .thenReturn(List.of(bookedSlot));
+        when(scheduleIndex.isWithinWorkingHours(eq(1), any(), any())).thenReturn(true);
+
+        // Act & Assert
+        AppointmentServiceException exception = assertThrows(
+                AppointmentServiceException.class,
+                () -> appointmentService.scheduleAppointmentSeries(seriesDTO)
+        );
+
+        assertTrue(exception.getMessage().startsWith("Appointment time is already booked"));
+        verify(appointmentBatchRepository, never()).insertAll(any());
+    }
+
+    @Test
+    void scheduleAppointmentSeries_WhenPackageHasTooFewAppointments_ShouldThrowException() {
+        // Arrange
+        AppointmentSeriesDTO seriesDTO = weeklySeries(10);
+        when(purchasedPackageRepository.decrementRemainingAppointmentsBy(1, 10)).thenReturn(0);
+        when(purchasedPackageRepository.findById(1)).thenReturn(Optional.of(purchasedPackage));
+
+        // Act & Assert
+        AppointmentServiceException exception = assertThrows(
+                AppointmentServiceException.class,
+                () -> appointmentService.scheduleAppointmentSeries(seriesDTO)
+        );
+
+        assertEquals("Not enough remaining appointments in the package for 10 sessions", exception.getMessage());
+        verify(appointmentBatchRepository, never()).insertAll(any());
+    }
+
+    @Test
+    void updateAppointmentStatuses_ShouldApplyValidChangesAndReportTheOthers() {
+        // Arrange, closing the appointments that already took place
+        LocalDateTime day = LocalDateTime.now().minusHours(4).withNano(0);
+        Appointment attended = appointment(11, day);
+        attended.setNotes("Brought lab results");
+        Appointment missed = appointment(12, day.plusHours(1));
+        Appointment completed = appointment(13, day.plusHours(2));
+        completed.setStatus("COMPLETADA");
+        when(appointmentRepository.findAllById(List.of(11, 12, 13, 14)))
+                .thenReturn(List.of(attended, missed, completed));
+
+        // Act
+        List<AppointmentStatusResultDTO> results = appointmentService.updateAppointmentStatuses(List.of(
+                statusChange(11, "COMPLETADA"),
+                statusChange(12, "NO_ASISTENCIA"),
+                statusChange(13, "NO_ASISTENCIA"),
+                statusChange(14, "COMPLETADA")));
+
+        // Assert
+        assertEquals(List.of(true, true, false, false),
+                results.stream().map(AppointmentStatusResultDTO::isUpdated).toList());
+        assertEquals("Cannot update status of COMPLETADA appointment", results.get(2).getError());
+        assertEquals("Appointment not found", results.get(3).getError());
+        assertEquals("Brought lab results", attended.getNotes());
+        verify(appointmentBatchRepository).updateStatuses(Map.of(11, "COMPLETADA", 12, "NO_ASISTENCIA"));
+        verify(appointmentRepository, never()).saveAllAndFlush(any());
+        verify(eventPublisher, times(2)).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void updateAppointmentStatuses_WhenReactivatingIntoABookedSlot_ShouldReportConflict() {
+        // Arrange
+        Appointment missed = appointment(11, LocalDateTime.now().plusDays(1));
+        missed.setStatus("NO_ASISTENCIA");
+        when(appointmentRepository.findAllById(List.of(11))).thenReturn(List.of(missed));
+        when(bookingIndex.check(1, missed.getAppointmentDateTime(), 11)).thenReturn(SlotState.CONFLICT);
+
+        // Act
+        List<AppointmentStatusResultDTO> results = appointmentService.updateAppointmentStatuses(
+                List.of(statusChange(11, "REAGENDADA")));
+
+        // Assert
+        assertFalse(results.get(0).isUpdated());
+        assertEquals("Appointment time is already booked", results.get(0).getError());
+        assertEquals("NO_ASISTENCIA", missed.getStatus());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void updateAppointmentStatuses_WhenReactivatingOverlappingAppointments_ShouldLockOnceAndRejectTheSecond() {
+        // Arrange
+        LocalDateTime day = LocalDateTime.now().plusDays(1).withHour(10).withMinute(0).withSecond(0).withNano(0);
+        Appointment first = appointment(11, day);
+        first.setStatus("NO_ASISTENCIA");
+        Appointment second = appointment(12, day.plusMinutes(30));
+        second.setStatus("NO_ASISTENCIA");
+        when(appointmentRepository.findAllById(List.of(11, 12))).thenReturn(List.of(first, second));
+        when(bookingIndex.check(eq(1), any(), any())).thenReturn(SlotState.FREE);
+        when(bookingProperties.appointmentDuration()).thenReturn(Duration.ofMinutes(60));
+
+        // Act
+        List<AppointmentStatusResultDTO> results = appointmentService.updateAppointmentStatuses(List.of(
+                statusChange(11, "REAGENDADA"),
+                statusChange(12, "REAGENDADA")));
+
+        // Assert
+        assertEquals(List.of(true, false), results.stream().map(AppointmentStatusResultDTO::isUpdated).toList());
+        assertEquals("Appointment time is already booked", results.get(1).getError());
+        verify(lockStripes, times(1)).lockUntilTransactionCompletes(1);
+        verify(appointmentBatchRepository).updateStatuses(Map.of(11, "REAGENDADA"));
+    }
+
+    private AppointmentStatusChangeDTO statusChange(Integer id, String status) {
+        AppointmentStatusChangeDTO change = new AppointmentStatusChangeDTO();
+        change.setId(id);
+        change.setStatus(status);
+        return change;
+    }
+
+    @Test
+    void bulkReassign_WhenTargetHasAConflict_ShouldMoveTheOthersAndReportIt() {
+        // Arrange
+        Nutritionist colleague = new Nutritionist();
+        colleague.setId(2);
+        LocalDateTime day = LocalDateTime.now().plusDays(2).withHour(10).withMinute(0).withSecond(0).withNano(0);
+        Appointment first = appointment(11, day);
+        Appointment second = appointment(12, day.plusHours(2));
+        BookedSlot colleagueSlot = mock(BookedSlot.class);
+        when(colleagueSlot.getAppointmentId()).thenReturn(30);
+        when(colleagueSlot.getAppointmentDateTime()).thenReturn(day.plusHours(2).plusMinutes(30));
+        when(nutritionistRepository.existsById(1)).thenReturn(true);
+        when(nutritionistRepository.findById(2)).thenReturn(Optional.of(colleague));
+        when(appointmentRepository.findActiveByNutritionist(eq(1), any(), any(), any(), any()))
+                .thenReturn(List.of(second, first));
+        when(appointmentRepository.findBookedSlotsByNutritionist(eq(2), any(), any(), any()))
+                .thenReturn(List.of(colleagueSlot));
+        when(bookingProperties.appointmentDuration()).thenReturn(Duration.ofMinutes(60));
+        when(scheduleIndex.isWithinWorkingHours(eq(2), any(), any())).thenReturn(true);
+
+        // Act
+        BulkReassignResultDTO result = appointmentService.bulkReassign(bulkReassign(2, null, day));
+
+        // Assert
+        assertEquals(1, result.getMoved());
+        assertEquals(1, result.getSkipped());
+        assertEquals("Appointment time is already booked", result.getResults().get(0).getReason());
+        assertTrue(result.getResults().get(1).isMoved());
+        assertEquals(colleague, first.getNutritionist());
+        assertEquals(nutritionist, second.getNutritionist());
+        verify(appointmentRepository).saveAllAndFlush(List.of(first));
+        verify(eventPublisher, times(1)).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void bulkReassign_WhenShiftingWithinTheSameNutritionist_ShouldMoveIntoVacatedSlots() {
+        // Arrange
+        LocalDateTime day = LocalDateTime.now().plusDays(2).withHour(10).withMinute(0).withSecond(0).withNano(0);
+        Appointment first = appointment(11, day);
+        Appointment second = appointment(12, day.plusHours(1));
+        BookedSlot secondSlot = mock(BookedSlot.class);
+        when(secondSlot.getAppointmentId()).thenReturn(12);
+        when(nutritionistRepository.existsById(1)).thenReturn(true);
+        when(nutritionistRepository.findById(1)).thenReturn(Optional.of(nutritionist));
+        when(appointmentRepository.findActiveByNutritionist(eq(1), any(), any(), any(), any()))
+                .thenReturn(List.of(second, first));
+        when(appointmentRepository.findBookedSlotsByNutritionist(eq(1), any(), any(), any()))
+                .thenReturn(List.of(secondSlot));
+        when(bookingProperties.appointmentDuration()).thenReturn(Duration.ofMinutes(60));
+        when(scheduleIndex.isWithinWorkingHours(eq(1), any(), any())).thenReturn(true);
+
+        // Act
+        BulkReassignResultDTO result = appointmentService.bulkReassign(bulkReassign(null, 60, day));
+
+        // Assert, the first appointment takes the slot the second one left
+        assertEquals(2, result.getMoved());
+        assertEquals(day.plusHours(1), first.getAppointmentDateTime());
+        assertEquals(day.plusHours(2), second.getAppointmentDateTime());
+        assertEquals("REAGENDADA", first.getStatus());
+        verify(appointmentRepository).saveAllAndFlush(List.of(second, first));
+    }
+
+    @Test
+    void bulkReassign_WithoutTargetOrShift_ShouldThrowException() {
+        // Act & Assert
+        AppointmentServiceException exception = assertThrows(
+                AppointmentServiceException.class,
+                () -> appointmentService.bulkReassign(bulkReassign(null, null, LocalDateTime.now().plusDays(1)))
+        );
+
+        assertEquals("A target nutritionist or a shift is required", exception.getMessage());
+        verify(appointmentRepository, never()).saveAllAndFlush(any());
+    }
+
+    private BulkReassignDTO bulkReassign(Integer targetNutritionistId, Integer shiftMinutes, LocalDateTime day) {
+        BulkReassignDTO dto = new BulkReassignDTO();
+        dto.setSourceNutritionistId(1);
+        dto.setTargetNutritionistId(targetNutritionistId);
+        dto.setShiftMinutes(shiftMinutes);
+        dto.setStartDateTime(day.toLocalDate().atStartOfDay());
+        dto.setEndDateTime(day.toLocalDate().plusDays(1).atStartOfDay());
+        return dto;
+    }
+
+    private Appointment appointment(Integer id, LocalDateTime dateTime) {
+        purchasedPackage.setExpirationDate(LocalDateTime.now().plusMonths(6));
+        Appointment appointment = new Appointment();
+        appointment.setId(id);
+        appointment.setPurchasedPackage(purchasedPackage);
+        appointment.setNutritionist(nutritionist);
+        appointment.setAppointmentDateTime(dateTime);
+        appointment.setStatus("AGENDADA");
+        return appointment;
+    }
+
+    private AppointmentSeriesDTO weeklySeries(int occurrences) {
+        AppointmentSeriesDTO seriesDTO = new AppointmentSeriesDTO();
+        seriesDTO.setPurchasedPackageId(1);
+        seriesDTO.setNutritionistId(1);
+        seriesDTO.setFirstAppointmentDateTime(LocalDateTime.now().plusDays(1)
+                .with(TemporalAdjusters.nextOrSame(DayOfWeek.TUESDAY))
+                .withHour(10).withMinute(0).withSecond(0).withNano(0));
+        seriesDTO.setOccurrences(occurrences);
+        return seriesDTO;
+    }
+
+    private SlotHold slotHold(String id) {
+        SlotHold hold = new SlotHold();
+        hold.setId(id);
+        hold.setNutritionistId(1);
+        hold.setStartsAt(validAppointmentDTO.getAppointmentDateTime());
+        hold.setEndsAt(validAppointmentDTO.getAppointmentDateTime().plusHours(1));
+        hold.setExpiresAt(LocalDateTime.now().plusMinutes(5));
+        return hold;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,181 @@
+package com.effisoft.nlab.appointmentapi.service;
+
+import com.effisoft.nlab.appointmentapi.config.BookingProperties;
+import com.effisoft.nlab.appointmentapi.dto.AvailabilitySlotDTO;
+import com.effisoft.nlab.appointmentapi.dto.BookedSlot;
+import com.effisoft.nlab.appointmentapi.entity.Nutritionist;
+import com.effisoft.nlab.appointmentapi.entity.SlotHold;
+import com.effisoft.nlab.appointmentapi.exception.AppointmentServiceException;
+import com.effisoft.nlab.appointmentapi.repository.AppointmentRepository;
+import com.effisoft.nlab.appointmentapi.repository.NutritionistBlockOutRepository;
+import com.effisoft.nlab.appointmentapi.repository.NutritionistRepository;
+import com.effisoft.nlab.appointmentapi.repository.NutritionistWorkingHoursRepository;
+import com.effisoft.nlab.appointmentapi.service.booking.InMemorySlotHoldStore;
+import com.effisoft.nlab.appointmentapi.service.booking.NutritionistScheduleIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityServiceTest {
+
+    @Mock
+    private NutritionistRepository nutritionistRepository;
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    private AvailabilityService availabilityService;
+    private BookingProperties bookingProperties;
+    private InMemorySlotHoldStore slotHoldStore;
+
+    private LocalDate day;
+    private Nutritionist ana;
+    private Nutritionist bruno;
+
+    @BeforeEach
+    void setUp() {
+        bookingProperties = new BookingProperties();
+        bookingProperties.setOpeningTime(LocalTime.of(9, 0));
+        bookingProperties.setClosingTime(LocalTime.of(12, 0));
+        bookingProperties.setAvailabilityStepMinutes(60);
+
+        NutritionistScheduleIndex scheduleIndex = new NutritionistScheduleIndex(
+                mock(NutritionistWorkingHoursRepository.class), mock(NutritionistBlockOutRepository.class));
+
+        slotHoldStore = new InMemorySlotHoldStore();
+        availabilityService = new AvailabilityService(
+                nutritionistRepository, appointmentRepository, bookingProperties, scheduleIndex, slotHoldStore);
+
+        day = LocalDate.now().plusDays(7);
+        ana = nutritionist(1, "Ana");
+        bruno = nutritionist(2, "Bruno");
+    }
+
+    @Test
+    void findAvailableSlots_ShouldSkipBookedSlotsAndSortByStart() {
+        // Arrange
+        when(nutritionistRepository.findByActiveTrue()).thenReturn(List.of(bruno, ana));
+        when(appointmentRepository.findBookedSlots(any(), any(), any()))
+                .thenReturn(List.of(bookedSlot(10, 1, day.atTime(10, 0))));
+
+        // Act
+        List<AvailabilitySlotDTO> slots = availabilityService.findAvailableSlots(
+                day.atStartOfDay(), day.plusDays(1).atStartOfDay(), null);
+
+        // Assert
+        assertEquals(5, slots.size());
+        assertEquals(day.atTime(9, 0), slots.get(0).getStart());
+        assertEquals("Ana Test", slots.get(0).getNutritionistName());
+        assertEquals("Bruno Test", slots.get(1).getNutritionistName());
+        assertTrue(slots.stream().noneMatch(slot ->
+                slot.getNutritionistId() == 1 && slot.getStart().equals(day.atTime(10, 0))));
+        verify(appointmentRepository, times(1)).findBookedSlots(any(), any(), any());
+    }
+
+    @Test
+    void findAvailableSlots_ShouldRejectLongerDurationsOverlappingBookings() {
+        // Arrange
+        when(nutritionistRepository.findByActiveTrue()).thenReturn(List.of(ana));
+        when(appointmentRepository.findBookedSlots(any(), any(), any()))
+                .thenReturn(List.of(bookedSlot(10, 1, day.atTime(11, 0))));
+
+        // Act
+        List<AvailabilitySlotDTO> slots = availabilityService.findAvailableSlots(
+                day.atStartOfDay(), day.plusDays(1).atStartOfDay(), 120);
+
+        // Assert
+        assertEquals(1, slots.size());
+        assertEquals(day.atTime(9, 0), slots.get(0).getStart());
+        assertEquals(day.atTime(11, 0), slots.get(0).getEnd());
+    }
+
+    @Test
+    void findAvailableSlots_WhenShorterThanABooking_ShouldOnlyOfferStartsAWholeBookingFits() {
+        // Arrange, a booking lasts an hour whatever duration is searched
+        bookingProperties.setAvailabilityStepMinutes(30);
+        when(nutritionistRepository.findByActiveTrue()).thenReturn(List.of(ana));
+        when(appointmentRepository.findBookedSlots(any(), any(), any()))
+                .thenReturn(List.of(bookedSlot(10, 1, day.atTime(11, 0))));
+
+        // Act
+        List<AvailabilitySlotDTO> slots = availabilityService.findAvailableSlots(
+                day.atStartOfDay(), day.plusDays(1).atStartOfDay(), 30);
+
+        // Assert, 10:30 would run into the 11:00 appointment
+        assertEquals(List.of(day.atTime(9, 0), day.atTime(9, 30), day.atTime(10, 0)),
+                slots.stream().map(AvailabilitySlotDTO::getStart).toList());
+        assertEquals(day.atTime(9, 30), slots.get(0).getEnd());
+    }
+
+    @Test
+    void findAvailableSlots_ShouldSkipHeldSlots() {
+        // Arrange
+        SlotHold hold = new SlotHold();
+        hold.setId("hold");
+        hold.setNutritionistId(1);
+        hold.setStartsAt(day.atTime(10, 0));
+        hold.setEndsAt(day.atTime(11, 0));
+        hold.setExpiresAt(LocalDateTime.now().plusMinutes(5));
+        slotHoldStore.tryHold(hold, LocalDateTime.now());
+        when(nutritionistRepository.findByActiveTrue()).thenReturn(List.of(ana));
+        when(appointmentRepository.findBookedSlots(any(), any(), any())).thenReturn(List.of());
+
+        // Act
+        List<AvailabilitySlotDTO> slots = availabilityService.findAvailableSlots(
+                day.atStartOfDay(), day.plusDays(1).atStartOfDay(), null);
+
+        // Assert
+        assertEquals(List.of(day.atTime(9, 0), day.atTime(11, 0)),
+                slots.stream().map(AvailabilitySlotDTO::getStart).toList());
+    }
+
+    @Test
+    void findAvailableSlots_WhenRangeInvalid_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(AppointmentServiceException.class, () ->
+                availabilityService.findAvailableSlots(day.atTime(12, 0), day.atTime(9, 0), null));
+        assertThrows(AppointmentServiceException.class, () ->
+                availabilityService.findAvailableSlots(day.atStartOfDay(), day.plusDays(60).atStartOfDay(), null));
+        verifyNoInteractions(appointmentRepository);
+    }
+
+    private Nutritionist nutritionist(Integer id, String firstName) {
+        Nutritionist nutritionist = new Nutritionist();
+        nutritionist.setId(id);
+        nutritionist.setFirstName(firstName);
+        nutritionist.setLastName("Test");
+        nutritionist.setActive(true);
+        return nutritionist;
+    }
+
+    private BookedSlot bookedSlot(Integer appointmentId, Integer nutritionistId, LocalDateTime start) {
+        return new BookedSlot() {
+            @Override
+            public Integer getAppointmentId() {
+                return appointmentId;
+            }
+
+            @Override
+            public Integer getNutritionistId() {
+                return nutritionistId;
+            }
+
+            @Override
+            public LocalDateTime getAppointmentDateTime() {
+                return start;
+            }
+        };
+    }
+}
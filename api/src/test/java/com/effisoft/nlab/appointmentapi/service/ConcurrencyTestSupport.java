@@ -0,0 +1,150 @@
+package com.effisoft.nlab.appointmentapi.service;
+
+import com.effisoft.nlab.appointmentapi.entity.*;
+import com.effisoft.nlab.appointmentapi.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Fixture shared by the multi-threaded tests, run against an embedded H2 database in SQL
+ * Server mode standing in for the real database. Each call runs in its own transaction.
+ * Subclasses name their own database with {@code spring.datasource.url}.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+abstract class ConcurrencyTestSupport {
+    protected static final int THREADS = 16;
+
+    @Autowired
+    protected PatientPaymentRepository patientPaymentRepository;
+
+    @Autowired
+    protected AppointmentRepository appointmentRepository;
+
+    @Autowired
+    protected PurchasedPackageRepository purchasedPackageRepository;
+
+    @Autowired
+    protected PackageTypeRepository packageTypeRepository;
+
+    @Autowired
+    protected PatientRepository patientRepository;
+
+    @Autowired
+    protected NutritionistRepository nutritionistRepository;
+
+    protected Patient patient;
+    protected PackageType packageType;
+
+    @BeforeEach
+    void setUpPatientAndPackageType() {
+        patientPaymentRepository.deleteAll();
+        appointmentRepository.deleteAll();
+        purchasedPackageRepository.deleteAll();
+        packageTypeRepository.deleteAll();
+        patientRepository.deleteAll();
+        nutritionistRepository.deleteAll();
+
+        patient = new Patient();
+        patient.setFirstName("John");
+        patient.setLastName("Smith");
+        patient.setEmail("john.smith@example.com");
+        patient.setCreatedAt(LocalDateTime.now());
+        patient.setActive(true);
+        patient = patientRepository.save(patient);
+
+        packageType = new PackageType();
+        packageType.setName("Paquete Mensual");
+        packageType.setNumberOfAppointments(10);
+        packageType.setPrice(new BigDecimal("1000.00"));
+        packageType.setNutritionistRate(new BigDecimal("0.50"));
+        packageType.setActive(true);
+        packageType.setCreatedAt(LocalDateTime.now());
+        packageType = packageTypeRepository.save(packageType);
+    }
+
+    protected PurchasedPackage purchasedPackage(int remainingAppointments) {
+        PurchasedPackage purchasedPackage = new PurchasedPackage();
+        purchasedPackage.setPatient(patient);
+        purchasedPackage.setPackageType(packageType);
+        purchasedPackage.setPurchaseDate(LocalDateTime.now());
+        purchasedPackage.setPaidInFull(false);
+        purchasedPackage.setRemainingAppointments(remainingAppointments);
+        purchasedPackage.setExpirationDate(LocalDateTime.now().plusMonths(6));
+        return purchasedPackageRepository.save(purchasedPackage);
+    }
+
+    /**
+     * Releases the calls at the same time, one thread each, and waits for all of them
+     *
+     * @return the runtime exception of every call that was rejected, anything else fails the test
+     */
+    protected static List<RuntimeException> runConcurrently(List<Runnable> calls) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(calls.size());
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<RuntimeException>> futures = new ArrayList<>();
+
+        try {
+            for (Runnable call : calls) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        call.run();
+                        return null;
+                    } catch (RuntimeException e) {
+                        return e;
+                    }
+                }));
+            }
+
+            start.countDown();
+            List<RuntimeException> rejections = new ArrayList<>();
+            for (Future<RuntimeException> future : futures) {
+                RuntimeException rejection = future.get(30, TimeUnit.SECONDS);
+                if (rejection != null) {
+                    rejections.add(rejection);
+                }
+            }
+            return rejections;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Fails unless every rejection is the expected domain exception, so a lock timeout or an
+     * unexpected error is not counted as a rejected call
+     */
+    protected static void assertRejectedWith(List<RuntimeException> rejections,
+            Class<? extends RuntimeException> type, String message) {
+        for (RuntimeException rejection : rejections) {
+            assertInstanceOf(type, rejection, () -> "Unexpected rejection: " + rejection);
+            assertEquals(message, rejection.getMessage());
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.effisoft.nlab.appointmentapi.service;
 
 import com.effisoft.nlab.appointmentapi.dto.NutritionistPaymentPeriodDTO;
+import com.effisoft.nlab.appointmentapi.dto.PaymentPeriodTotals;
 import com.effisoft.nlab.appointmentapi.entity.*;
 import com.effisoft.nlab.appointmentapi.exception.NutritionistPaymentPeriodException;
 import com.effisoft.nlab.appointmentapi.repository.AppointmentRepository;
@@ -16,8 +17,6 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.Arrays;
-import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -42,7 +41,6 @@ class NutritionistPaymentPeriodServiceTest {
     private NutritionistPaymentPeriodDTO validDTO;
     private NutritionistPaymentPeriod existingPeriod;
     private Nutritionist nutritionist;
-    private List<Appointment> COMPLETADAAppointments;
 
     @BeforeEach
     void setUp() {
@@ -60,19 +58,6 @@ class NutritionistPaymentPeriodServiceTest {
         validDTO.setPeriodEndDate(LocalDate.now());
         validDTO.setPaymentStatus("PENDING");
 
-        // Set up COMPLETADA appointments
-        PackageType packageType = new PackageType();
-        packageType.setNutritionistRate(new BigDecimal("50.00"));
-
-        PurchasedPackage purchasedPackage = new PurchasedPackage();
-        purchasedPackage.setPackageType(packageType);
-
-        Appointment appointment = new Appointment();
-        appointment.setPurchasedPackage(purchasedPackage);
-        appointment.setStatus("COMPLETADA");
-
-        COMPLETADAAppointments = Arrays.asList(appointment);
-
         // Set up existing period
         existingPeriod = new NutritionistPaymentPeriod();
         existingPeriod.setId(1);
@@ -88,11 +73,11 @@ class NutritionistPaymentPeriodServiceTest {
     void createPaymentPeriod_WhenValidDTO_ShouldCreatePeriod() {
         // Arrange
         when(nutritionistRepository.findById(1)).thenReturn(Optional.of(nutritionist));
-        when(appointmentRepository.findByNutritionistIdAndAppointmentDateTimeBetween(
-                eq(1), any(LocalDateTime.class), any(LocalDateTime.class)))
-                .thenReturn(COMPLETADAAppointments);
+        when(appointmentRepository.sumNutritionistRates(
+                eq(1), eq("COMPLETADA"), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(totals(1L, new BigDecimal("50.00")));
         when(paymentPeriodRepository.save(any(NutritionistPaymentPeriod.class)))
-                .thenReturn(existingPeriod);
+                .thenAnswer(invocation -> invocation.getArgument(0));
 
         // Act
         NutritionistPaymentPeriod created = paymentPeriodService.createPaymentPeriod(validDTO);
@@ -104,11 +89,31 @@ class NutritionistPaymentPeriodServiceTest {
         assertEquals(0, new BigDecimal("50.00").compareTo(created.getTotalAmount()));
 
         verify(nutritionistRepository).findById(1);
-        verify(appointmentRepository).findByNutritionistIdAndAppointmentDateTimeBetween(
-                eq(1), any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(appointmentRepository).sumNutritionistRates(
+                1, "COMPLETADA", validDTO.getPeriodStartDate().atStartOfDay(),
+                validDTO.getPeriodEndDate().atTime(23, 59, 59));
+        verify(appointmentRepository, never()).findByNutritionistIdAndAppointmentDateTimeBetween(any(), any(), any());
         verify(paymentPeriodRepository).save(any(NutritionistPaymentPeriod.class));
     }
 
+    @Test
+    void updatePaymentPeriod_WhenNoCompletedAppointments_ShouldResetTotalsToZero() {
+        // Arrange
+        when(paymentPeriodRepository.findWithNutritionistById(1)).thenReturn(Optional.of(existingPeriod));
+        when(appointmentRepository.sumNutritionistRates(
+                eq(1), eq("COMPLETADA"), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(totals(0L, null));
+        when(paymentPeriodRepository.save(any(NutritionistPaymentPeriod.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        NutritionistPaymentPeriod updated = paymentPeriodService.updatePaymentPeriod(1, validDTO);
+
+        // Assert
+        assertEquals(0, updated.getTotalAppointments());
+        assertEquals(0, BigDecimal.ZERO.compareTo(updated.getTotalAmount()));
+    }
+
     @Test
     void createPaymentPeriod_WhenInvalidDateRange_ShouldThrowException() {
         // Arrange
@@ -127,7 +132,7 @@ class NutritionistPaymentPeriodServiceTest {
     @Test
     void processPayment_WhenPending_ShouldProcessSuccessfully() {
         // Arrange
-        when(paymentPeriodRepository.findById(1)).thenReturn(Optional.of(existingPeriod));
+        when(paymentPeriodRepository.findWithNutritionistById(1)).thenReturn(Optional.of(existingPeriod));
         when(paymentPeriodRepository.save(any(NutritionistPaymentPeriod.class)))
                 .thenReturn(existingPeriod);
 
@@ -144,7 +149,7 @@ class NutritionistPaymentPeriodServiceTest {
     void processPayment_WhenAlreadyPaid_ShouldThrowException() {
         // Arrange
         existingPeriod.setPaymentStatus("PAID");
-        when(paymentPeriodRepository.findById(1)).thenReturn(Optional.of(existingPeriod));
+        when(paymentPeriodRepository.findWithNutritionistById(1)).thenReturn(Optional.of(existingPeriod));
 
         // Act & Assert
         NutritionistPaymentPeriodException exception = assertThrows(
@@ -158,7 +163,7 @@ class NutritionistPaymentPeriodServiceTest {
     @Test
     void cancelPaymentPeriod_WhenPending_ShouldCancelSuccessfully() {
         // Arrange
-        when(paymentPeriodRepository.findById(1)).thenReturn(Optional.of(existingPeriod));
+        when(paymentPeriodRepository.findWithNutritionistById(1)).thenReturn(Optional.of(existingPeriod));
         when(paymentPeriodRepository.save(any(NutritionistPaymentPeriod.class)))
                 .thenReturn(existingPeriod);
 
@@ -174,7 +179,7 @@ class NutritionistPaymentPeriodServiceTest {
     void cancelPaymentPeriod_WhenPaid_ShouldThrowException() {
         // Arrange
         existingPeriod.setPaymentStatus("PAID");
-        when(paymentPeriodRepository.findById(1)).thenReturn(Optional.of(existingPeriod));
+        when(paymentPeriodRepository.findWithNutritionistById(1)).thenReturn(Optional.of(existingPeriod));
 
         // Act & Assert
         NutritionistPaymentPeriodException exception = assertThrows(
@@ -184,4 +189,18 @@ class NutritionistPaymentPeriodServiceTest {
 
         assertEquals("Cannot cancel paid payment period", exception.getMessage());
     }
+
+    private PaymentPeriodTotals totals(Long totalAppointments, BigDecimal totalAmount) {
+        return new PaymentPeriodTotals() {
+            @Override
+            public Long getTotalAppointments() {
+                return totalAppointments;
+            }
+
+            @Override
+            public BigDecimal getTotalAmount() {
+                return totalAmount;
+            }
+        };
+    }
 }
\ No newline at end of file
@@ -0,0 +1,170 @@
+package com.effisoft.nlab.appointmentapi.service;
+
+import com.effisoft.nlab.appointmentapi.dto.NutritionistPaymentTotals;
+import com.effisoft.nlab.appointmentapi.dto.PayrollRunResultDTO;
+import com.effisoft.nlab.appointmentapi.entity.Nutritionist;
+import com.effisoft.nlab.appointmentapi.entity.NutritionistPaymentPeriod;
+import com.effisoft.nlab.appointmentapi.exception.NutritionistPaymentPeriodException;
+import com.effisoft.nlab.appointmentapi.repository.AppointmentRepository;
+import com.effisoft.nlab.appointmentapi.repository.NutritionistPaymentPeriodBatchRepository;
+import com.effisoft.nlab.appointmentapi.repository.NutritionistPaymentPeriodRepository;
+import com.effisoft.nlab.appointmentapi.repository.NutritionistRepository;
+import com.effisoft.nlab.appointmentapi.service.job.ClusterJobRunner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NutritionistPayrollServiceTest {
+
+    @Mock
+    private NutritionistRepository nutritionistRepository;
+
+    @Mock
+    private NutritionistPaymentPeriodRepository paymentPeriodRepository;
+
+    @Mock
+    private NutritionistPaymentPeriodBatchRepository paymentPeriodBatchRepository;
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private ClusterJobRunner clusterJobRunner;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private NutritionistPayrollService payrollService;
+
+    private final LocalDate start = LocalDate.of(2026, 9, 1);
+    private final LocalDate end = LocalDate.of(2026, 9, 30);
+
+    @BeforeEach
+    void setUp() {
+        payrollService = new NutritionistPayrollService(nutritionistRepository, paymentPeriodRepository,
+                paymentPeriodBatchRepository, appointmentRepository, clusterJobRunner,
+                new TransactionTemplate(transactionManager));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void runPayroll_ShouldBatchInsertPeriodsOfNutritionistsWithoutOverlap() {
+        // Arrange
+        holdLease();
+        when(nutritionistRepository.findActiveIds()).thenReturn(List.of(1, 2, 3, 4));
+        when(paymentPeriodRepository.findNutritionistIdsWithPeriodsOverlapping(start, end)).thenReturn(List.of(2));
+        when(appointmentRepository.sumNutritionistRatesByNutritionist(
+                eq("COMPLETADA"), eq(start.atStartOfDay()), eq(end.atTime(23, 59, 59))))
+                .thenReturn(List.of(
+                        totals(1, 3L, new BigDecimal("150.00")),
+                        totals(2, 1L, new BigDecimal("50.00")),
+                        totals(3, 2L, new BigDecimal("120.00"))));
+        when(nutritionistRepository.getReferenceById(anyInt())).thenAnswer(invocation -> {
+            Nutritionist nutritionist = new Nutritionist();
+            nutritionist.setId(invocation.getArgument(0));
+            return nutritionist;
+        });
+        when(paymentPeriodBatchRepository.insertAll(anyList()))
+                .thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+
+        // Act
+        PayrollRunResultDTO result = payrollService.runPayroll(start, end);
+
+        // Assert
+        assertEquals(2, result.getCreated());
+        assertEquals(1, result.getSkippedOverlapping());
+        assertEquals(1, result.getSkippedWithoutAppointments());
+        assertEquals(5L, result.getTotalAppointments());
+        assertEquals(new BigDecimal("270.00"), result.getTotalAmount());
+
+        ArgumentCaptor<List<NutritionistPaymentPeriod>> captor = ArgumentCaptor.forClass(List.class);
+        verify(paymentPeriodBatchRepository).insertAll(captor.capture());
+        List<NutritionistPaymentPeriod> periods = captor.getValue();
+        assertEquals(List.of(1, 3), periods.stream().map(period -> period.getNutritionist().getId()).toList());
+        assertEquals("PENDING", periods.get(0).getPaymentStatus());
+        assertEquals(new BigDecimal("120.00"), periods.get(1).getTotalAmount());
+        verify(appointmentRepository, never()).sumNutritionistRates(any(), any(), any(), any());
+    }
+
+    @Test
+    void runPayroll_WhenNothingToCreate_ShouldNotInsert() {
+        // Arrange
+        holdLease();
+        when(nutritionistRepository.findActiveIds()).thenReturn(List.of(1));
+        when(paymentPeriodRepository.findNutritionistIdsWithPeriodsOverlapping(start, end)).thenReturn(List.of(1));
+        when(appointmentRepository.sumNutritionistRatesByNutritionist(
+                anyString(), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(List.of());
+
+        // Act
+        PayrollRunResultDTO result = payrollService.runPayroll(start, end);
+
+        // Assert
+        assertEquals(0, result.getCreated());
+        assertEquals(1, result.getSkippedOverlapping());
+        verifyNoInteractions(paymentPeriodBatchRepository);
+    }
+
+    @Test
+    void runPayroll_WhenAnotherRunHoldsTheLease_ShouldThrowException() {
+        // Arrange
+        when(clusterJobRunner.runExclusively(eq(NutritionistPayrollService.JOB_NAME), any(Runnable.class)))
+                .thenReturn(false);
+
+        // Act & Assert
+        NutritionistPaymentPeriodException exception = assertThrows(NutritionistPaymentPeriodException.class,
+                () -> payrollService.runPayroll(start, end));
+        assertEquals("A payroll run is already in progress", exception.getMessage());
+        verifyNoInteractions(paymentPeriodBatchRepository);
+    }
+
+    @Test
+    void runPayroll_WhenEndBeforeStart_ShouldThrowException() {
+        // Act & Assert
+        NutritionistPaymentPeriodException exception = assertThrows(NutritionistPaymentPeriodException.class,
+                () -> payrollService.runPayroll(end, start));
+        assertEquals("End date cannot be before start date", exception.getMessage());
+        verifyNoInteractions(clusterJobRunner);
+    }
+
+    private void holdLease() {
+        when(clusterJobRunner.runExclusively(eq(NutritionistPayrollService.JOB_NAME), any(Runnable.class)))
+                .thenAnswer(invocation -> {
+                    invocation.<Runnable>getArgument(1).run();
+                    return true;
+                });
+    }
+
+    private NutritionistPaymentTotals totals(Integer nutritionistId, Long totalAppointments, BigDecimal totalAmount) {
+        return new NutritionistPaymentTotals() {
+            @Override
+            public Integer getNutritionistId() {
+                return nutritionistId;
+            }
+
+            @Override
+            public Long getTotalAppointments() {
+                return totalAppointments;
+            }
+
+            @Override
+            public BigDecimal getTotalAmount() {
+                return totalAmount;
+            }
+        };
+    }
+}
@@ -31,6 +31,9 @@ class NutritionistServiceTest {
     @Mock
     private NutritionistMapper nutritionistMapper;
 
+    @Mock
+    private AppointmentReadModelProjector readModelProjector;
+
     @InjectMocks
     private NutritionistService nutritionistService;
 
@@ -36,6 +36,9 @@ class PackageTypeServiceTest {
     @Mock
     private PackageTypeMapper packageTypeMapper;
 
+    @Mock
+    private AppointmentReadModelProjector readModelProjector;
+
     @InjectMocks
     private PackageTypeService packageTypeService;
 
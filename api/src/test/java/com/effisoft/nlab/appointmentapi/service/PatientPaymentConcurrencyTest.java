@@ -0,0 +1,164 @@
+package com.effisoft.nlab.appointmentapi.service;
+
+import com.effisoft.nlab.appointmentapi.config.JobProperties;
+import com.effisoft.nlab.appointmentapi.dto.PatientPaymentDTO;
+import com.effisoft.nlab.appointmentapi.entity.*;
+import com.effisoft.nlab.appointmentapi.exception.PatientPaymentException;
+import com.effisoft.nlab.appointmentapi.repository.CardPaymentTypeRepository;
+import com.effisoft.nlab.appointmentapi.repository.PaymentMethodRepository;
+import com.effisoft.nlab.appointmentapi.service.job.ClusterJobRunner;
+import com.effisoft.nlab.appointmentapi.service.job.JobLeaseService;
+import com.effisoft.nlab.appointmentapi.service.job.PaidTotalRepairJob;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Simultaneous payments of one package, each in its own transaction, and payments
+ * racing the paid total repair
+ */
+@Import(PatientPaymentService.class)
+@TestPropertySource(properties =
+        "spring.datasource.url=jdbc:h2:mem:payments;MODE=MSSQLServer;LOCK_TIMEOUT=10000;DB_CLOSE_DELAY=-1")
+class PatientPaymentConcurrencyTest extends ConcurrencyTestSupport {
+    private static final String OVERPAYMENT = "El pago excede el total del paquete";
+
+    @Autowired
+    private PatientPaymentService patientPaymentService;
+
+    @Autowired
+    private PaymentMethodRepository paymentMethodRepository;
+
+    @Autowired
+    private CardPaymentTypeRepository cardPaymentTypeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private PurchasedPackage purchasedPackage;
+    private PaymentMethod paymentMethod;
+    private CardPaymentType cardPaymentType;
+
+    @BeforeEach
+    void setUp() {
+        paymentMethodRepository.deleteAll();
+        cardPaymentTypeRepository.deleteAll();
+
+        purchasedPackage = purchasedPackage(10);
+
+        paymentMethod = new PaymentMethod();
+        paymentMethod.setName("Tarjeta");
+        paymentMethod = paymentMethodRepository.save(paymentMethod);
+
+        cardPaymentType = new CardPaymentType();
+        cardPaymentType.setName("Visa");
+        cardPaymentType.setBankFeePercentage(new BigDecimal("2.50"));
+        cardPaymentType.setNumberOfInstallments(1);
+        cardPaymentType = cardPaymentTypeRepository.save(cardPaymentType);
+    }
+
+    @Test
+    void createPatientPayment_WhenPaidConcurrently_ShouldNeverExceedThePrice() throws Exception {
+        // 16 cashiers post 300 each against a price of 1000, only three fit
+        List<RuntimeException> rejections = payConcurrently(new BigDecimal("300.00"));
+
+        PurchasedPackage reloaded = purchasedPackageRepository.findById(purchasedPackage.getId()).orElseThrow();
+        assertEquals(THREADS - 3, rejections.size());
+        assertRejectedWith(rejections, PatientPaymentException.class, OVERPAYMENT);
+        assertEquals(0, new BigDecimal("900.00").compareTo(reloaded.getPaidTotal()));
+        assertFalse(reloaded.getPaidInFull());
+        assertEquals(3, patientPaymentRepository.count());
+    }
+
+    @Test
+    void createPatientPayment_WhenLastPaymentReachesThePrice_ShouldMarkPaidInFull() throws Exception {
+        List<RuntimeException> rejections = payConcurrently(new BigDecimal("250.00"));
+
+        PurchasedPackage reloaded = purchasedPackageRepository.findById(purchasedPackage.getId()).orElseThrow();
+        assertEquals(THREADS - 4, rejections.size());
+        assertRejectedWith(rejections, PatientPaymentException.class, OVERPAYMENT);
+        assertEquals(0, new BigDecimal("1000.00").compareTo(reloaded.getPaidTotal()));
+        assertTrue(reloaded.getPaidInFull());
+        assertEquals(4, patientPaymentRepository.count());
+    }
+
+    @Test
+    void repairPaidTotals_WhenAPaymentIsInFlight_ShouldNotEraseIt() throws Exception {
+        PurchasedPackage drifted = purchasedPackage(10);
+        drifted.setPaidTotal(new BigDecimal("50.00"));
+        drifted = purchasedPackageRepository.save(drifted);
+        patientPaymentService.createPatientPayment(payment(new BigDecimal("100.00")));
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        PaidTotalRepairJob repairJob = new PaidTotalRepairJob(purchasedPackageRepository,
+                mock(ClusterJobRunner.class), mock(JobLeaseService.class), new JobProperties(), transactionTemplate);
+        CountDownLatch paymentLocked = new CountDownLatch(1);
+
+        // The payment holds its package locked and its row uncommitted while the repair starts
+        List<RuntimeException> failures = runConcurrently(List.of(
+                () -> transactionTemplate.executeWithoutResult(status -> {
+                    patientPaymentService.createPatientPayment(payment(new BigDecimal("300.00")));
+                    paymentLocked.countDown();
+                    sleep(500);
+                }),
+                () -> {
+                    await(paymentLocked);
+                    repairJob.repair();
+                }));
+
+        assertEquals(List.of(), failures);
+        PurchasedPackage reloaded = purchasedPackageRepository.findById(purchasedPackage.getId()).orElseThrow();
+        assertEquals(0, new BigDecimal("400.00").compareTo(reloaded.getPaidTotal()));
+        PurchasedPackage repaired = purchasedPackageRepository.findById(drifted.getId()).orElseThrow();
+        assertEquals(0, BigDecimal.ZERO.compareTo(repaired.getPaidTotal()));
+    }
+
+    private List<RuntimeException> payConcurrently(BigDecimal amount) throws Exception {
+        List<Runnable> payments = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            PatientPaymentDTO dto = payment(amount);
+            payments.add(() -> patientPaymentService.createPatientPayment(dto));
+        }
+        return runConcurrently(payments);
+    }
+
+    private PatientPaymentDTO payment(BigDecimal amount) {
+        PatientPaymentDTO dto = new PatientPaymentDTO();
+        dto.setPurchasedPackageId(purchasedPackage.getId());
+        dto.setPaymentMethodId(paymentMethod.getId());
+        dto.setCardPaymentTypeId(cardPaymentType.getId());
+        dto.setTotalPaid(amount);
+        return dto;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -17,18 +17,15 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import com.effisoft.nlab.appointmentapi.dto.PatientPaymentDTO;
-import com.effisoft.nlab.appointmentapi.dto.PatientPurchasedPackageDTO;
 import com.effisoft.nlab.appointmentapi.entity.CardPaymentType;
 import com.effisoft.nlab.appointmentapi.entity.PatientPayment;
 import com.effisoft.nlab.appointmentapi.entity.PaymentMethod;
 import com.effisoft.nlab.appointmentapi.entity.PurchasedPackage;
-import com.effisoft.nlab.appointmentapi.entity.PackageType;
-import com.effisoft.nlab.appointmentapi.entity.Patient;
 import com.effisoft.nlab.appointmentapi.exception.PatientPaymentException;
-import com.effisoft.nlab.appointmentapi.mapper.PurchasedPackageMapper;
 import com.effisoft.nlab.appointmentapi.repository.CardPaymentTypeRepository;
 import com.effisoft.nlab.appointmentapi.repository.PatientPaymentRepository;
 import com.effisoft.nlab.appointmentapi.repository.PaymentMethodRepository;
+import com.effisoft.nlab.appointmentapi.repository.PurchasedPackageRepository;
 
 @ExtendWith(MockitoExtension.class)
 class PatientPaymentServiceTest {
@@ -43,10 +40,7 @@ class PatientPaymentServiceTest {
     private CardPaymentTypeRepository cardPaymentTypeRepository;
 
     @Mock
-    private PurchasedPackageService purchasedPackageService;
-
-    @Mock
-    private PurchasedPackageMapper purchasedPackageMapper;
+    private PurchasedPackageRepository purchasedPackageRepository;
 
     @InjectMocks
     private PatientPaymentService patientPaymentService;
@@ -55,7 +49,6 @@ class PatientPaymentServiceTest {
     private PaymentMethod paymentMethod;
     private CardPaymentType cardPaymentType;
     private PurchasedPackage purchasedPackage;
-    private PatientPurchasedPackageDTO patientPurchasedPackageDTO;
 
     @BeforeEach
     void setUp() {
@@ -74,44 +67,31 @@ class PatientPaymentServiceTest {
         cardPaymentType.setId(1);
         cardPaymentType.setName("Visa");
 
-        PackageType packageType = new PackageType();
-        packageType.setId(1);
-        packageType.setPrice(new BigDecimal("200.00"));
-
-        Patient patient = new Patient();
-        patient.setId(1);
-
         purchasedPackage = new PurchasedPackage();
         purchasedPackage.setId(1);
-        purchasedPackage.setPackageType(packageType);
-        purchasedPackage.setPatient(patient);
-        purchasedPackage.setPaidInFull(false);
-
-        patientPurchasedPackageDTO = new PatientPurchasedPackageDTO();
-        patientPurchasedPackageDTO.setPurchasedPackage(purchasedPackage);
-        
-        // Set empty payments list to initialize packagePaidTotal to zero
-        patientPurchasedPackageDTO.setPatientPayments(Arrays.asList());
     }
 
     @Test
     void createPatientPayment_Success() {
         // Arrange
-        when(purchasedPackageService.getPatientPurchasedPackageByPackageId(any()))
-            .thenReturn(patientPurchasedPackageDTO);
         when(paymentMethodRepository.findById(any()))
             .thenReturn(Optional.of(paymentMethod));
         when(cardPaymentTypeRepository.findById(any()))
             .thenReturn(Optional.of(cardPaymentType));
+        when(purchasedPackageRepository.addPayment(1, new BigDecimal("100.00")))
+            .thenReturn(1);
+        when(purchasedPackageRepository.getReferenceById(1))
+            .thenReturn(purchasedPackage);
         when(patientPaymentRepository.save(any()))
-            .thenReturn(new PatientPayment());
+            .thenAnswer(invocation -> invocation.getArgument(0));
 
         // Act
         PatientPayment result = patientPaymentService.createPatientPayment(paymentDTO);
 
         // Assert
         assertNotNull(result);
-        verify(purchasedPackageService).getPatientPurchasedPackageByPackageId(1);
+        assertSame(purchasedPackage, result.getPurchasedPackage());
+        assertSame(cardPaymentType, result.getCardPaymentType());
         verify(paymentMethodRepository).findById(1);
         verify(cardPaymentTypeRepository).findById(1);
         verify(patientPaymentRepository).save(any());
@@ -123,10 +103,12 @@ class PatientPaymentServiceTest {
         paymentMethod.setName("Efectivo");
         paymentDTO.setCardPaymentTypeId(null);
 
-        when(purchasedPackageService.getPatientPurchasedPackageByPackageId(any()))
-            .thenReturn(patientPurchasedPackageDTO);
         when(paymentMethodRepository.findById(any()))
             .thenReturn(Optional.of(paymentMethod));
+        when(purchasedPackageRepository.addPayment(1, new BigDecimal("100.00")))
+            .thenReturn(1);
+        when(purchasedPackageRepository.getReferenceById(1))
+            .thenReturn(purchasedPackage);
         when(patientPaymentRepository.save(any()))
             .thenReturn(new PatientPayment());
 
@@ -135,7 +117,6 @@ class PatientPaymentServiceTest {
 
         // Assert
         assertNotNull(result);
-        verify(purchasedPackageService).getPatientPurchasedPackageByPackageId(1);
         verify(paymentMethodRepository).findById(1);
         verify(cardPaymentTypeRepository, never()).findById(any());
         verify(patientPaymentRepository).save(any());
@@ -144,20 +125,26 @@ class PatientPaymentServiceTest {
     @Test
     void createPatientPayment_PackageNotFound() {
         // Arrange
-        when(purchasedPackageService.getPatientPurchasedPackageByPackageId(any()))
-            .thenReturn(null);
+        when(paymentMethodRepository.findById(any()))
+            .thenReturn(Optional.of(paymentMethod));
+        when(cardPaymentTypeRepository.findById(any()))
+            .thenReturn(Optional.of(cardPaymentType));
+        when(purchasedPackageRepository.addPayment(any(), any()))
+            .thenReturn(0);
+        when(purchasedPackageRepository.existsById(1))
+            .thenReturn(false);
 
         // Act & Assert
-        assertThrows(PatientPaymentException.class, () -> {
+        PatientPaymentException exception = assertThrows(PatientPaymentException.class, () -> {
             patientPaymentService.createPatientPayment(paymentDTO);
         });
+        assertTrue(exception.getMessage().contains("Purchased Package not found"));
+        verify(patientPaymentRepository, never()).save(any());
     }
 
     @Test
     void createPatientPayment_PaymentMethodNotFound() {
         // Arrange
-        when(purchasedPackageService.getPatientPurchasedPackageByPackageId(any()))
-            .thenReturn(patientPurchasedPackageDTO);
         when(paymentMethodRepository.findById(any()))
             .thenReturn(Optional.empty());
 
@@ -165,13 +152,12 @@ class PatientPaymentServiceTest {
         assertThrows(PatientPaymentException.class, () -> {
             patientPaymentService.createPatientPayment(paymentDTO);
         });
+        verify(purchasedPackageRepository, never()).addPayment(any(), any());
     }
 
     @Test
     void createPatientPayment_CardPaymentTypeNotFound() {
         // Arrange
-        when(purchasedPackageService.getPatientPurchasedPackageByPackageId(any()))
-            .thenReturn(patientPurchasedPackageDTO);
         when(paymentMethodRepository.findById(any()))
             .thenReturn(Optional.of(paymentMethod));
         when(cardPaymentTypeRepository.findById(any()))
@@ -181,23 +167,28 @@ class PatientPaymentServiceTest {
         assertThrows(PatientPaymentException.class, () -> {
             patientPaymentService.createPatientPayment(paymentDTO);
         });
+        verify(purchasedPackageRepository, never()).addPayment(any(), any());
     }
 
     @Test
     void createPatientPayment_ExceedsPackageTotal() {
         // Arrange
         paymentDTO.setTotalPaid(new BigDecimal("300.00"));
-        when(purchasedPackageService.getPatientPurchasedPackageByPackageId(any()))
-            .thenReturn(patientPurchasedPackageDTO);
         when(paymentMethodRepository.findById(any()))
             .thenReturn(Optional.of(paymentMethod));
         when(cardPaymentTypeRepository.findById(any()))
             .thenReturn(Optional.of(cardPaymentType));
+        when(purchasedPackageRepository.addPayment(1, new BigDecimal("300.00")))
+            .thenReturn(0);
+        when(purchasedPackageRepository.existsById(1))
+            .thenReturn(true);
 
         // Act & Assert
-        assertThrows(PatientPaymentException.class, () -> {
+        PatientPaymentException exception = assertThrows(PatientPaymentException.class, () -> {
             patientPaymentService.createPatientPayment(paymentDTO);
         });
+        assertTrue(exception.getMessage().contains("El pago excede el total del paquete"));
+        verify(patientPaymentRepository, never()).save(any());
     }
 
     @Test
@@ -37,6 +37,9 @@ class PatientServiceTest {
     @Mock
     private PatientMapper patientMapper;
 
+    @Mock
+    private AppointmentReadModelProjector readModelProjector;
+
     @InjectMocks
     private PatientService patientService;
 
@@ -191,6 +194,29 @@ class PatientServiceTest {
         verify(patientMapper).updatePatientFromDTO(eq(updateDTO), eq(existingPatient));
         verify(patientRepository).findById(1);
         verify(patientRepository).save(any(Patient.class));
+        verify(readModelProjector, never()).patientRenamed(any());
+    }
+
+    @Test
+    void updatePatient_WhenNameChanges_ShouldRenameInReadModel() {
+        // Arrange
+        PatientDTO updateDTO = new PatientDTO();
+        updateDTO.setFirstName("Jane");
+        updateDTO.setLastName("Doe");
+        updateDTO.setEmail("john.doe@example.com");
+
+        when(patientRepository.findById(1)).thenReturn(Optional.of(existingPatient));
+        doAnswer(invocation -> {
+            existingPatient.setFirstName("Jane");
+            return null;
+        }).when(patientMapper).updatePatientFromDTO(updateDTO, existingPatient);
+        when(patientRepository.save(existingPatient)).thenReturn(existingPatient);
+
+        // Act
+        patientService.updatePatient(1, updateDTO);
+
+        // Assert
+        verify(readModelProjector).patientRenamed(existingPatient);
     }
 
     @Test
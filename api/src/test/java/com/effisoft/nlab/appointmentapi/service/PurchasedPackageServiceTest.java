@@ -34,6 +34,9 @@ class PurchasedPackageServiceTest {
     @Mock
     private PackageTypeRepository packageTypeRepository;
 
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
     @InjectMocks
     private PurchasedPackageService purchasedPackageService;
 
@@ -144,7 +147,7 @@ class PurchasedPackageServiceTest {
     @Test
     void getPurchasedPackageById_WhenExists_ShouldReturnPackage() {
         // Arrange
-        when(purchasedPackageRepository.findById(1)).thenReturn(Optional.of(existingPackage));
+        when(purchasedPackageRepository.findWithDetailsById(1)).thenReturn(Optional.of(existingPackage));
 
         // Act
         PurchasedPackage result = purchasedPackageService.getPurchasedPackageById(1);
@@ -158,7 +161,7 @@ class PurchasedPackageServiceTest {
     @Test
     void getPurchasedPackageById_WhenNotExists_ShouldThrowException() {
         // Arrange
-        when(purchasedPackageRepository.findById(999)).thenReturn(Optional.empty());
+        when(purchasedPackageRepository.findWithDetailsById(999)).thenReturn(Optional.empty());
 
         // Act & Assert
         PurchasedPackageServiceException exception = assertThrows(
@@ -176,7 +179,7 @@ class PurchasedPackageServiceTest {
         updateDTO.setRemainingAppointments(2);
         updateDTO.setExpirationDate(LocalDateTime.now().plusMonths(3));
 
-        when(purchasedPackageRepository.findById(1)).thenReturn(Optional.of(existingPackage));
+        when(purchasedPackageRepository.findWithDetailsById(1)).thenReturn(Optional.of(existingPackage));
         when(purchasedPackageRepository.save(any(PurchasedPackage.class))).thenReturn(existingPackage);
 
         // Act
@@ -190,10 +193,30 @@ class PurchasedPackageServiceTest {
         verify(purchasedPackageRepository).save(any(PurchasedPackage.class));
     }
 
+    @Test
+    void updatePurchasedPackage_WhenExpiredPackageExtended_ShouldClearExpiredFlags() {
+        // Arrange
+        existingPackage.setExpired(true);
+        PurchasedPackageDTO updateDTO = new PurchasedPackageDTO();
+        updateDTO.setRemainingAppointments(2);
+        updateDTO.setExpirationDate(LocalDateTime.now().plusMonths(1));
+
+        when(purchasedPackageRepository.findWithDetailsById(1)).thenReturn(Optional.of(existingPackage));
+        when(purchasedPackageRepository.save(any(PurchasedPackage.class))).thenReturn(existingPackage);
+
+        // Act
+        PurchasedPackage updated = purchasedPackageService.updatePurchasedPackage(1, updateDTO);
+
+        // Assert
+        assertFalse(updated.getExpired());
+        verify(purchasedPackageRepository).clearExpired(1);
+        verify(appointmentRepository).clearPackageExpired(1);
+    }
+
     @Test
     void isPackageValid_WhenValidPackage_ShouldReturnTrue() {
         // Arrange
-        when(purchasedPackageRepository.findById(1)).thenReturn(Optional.of(existingPackage));
+        when(purchasedPackageRepository.findWithDetailsById(1)).thenReturn(Optional.of(existingPackage));
 
         // Act
         boolean isValid = purchasedPackageService.isPackageValid(1);
@@ -207,7 +230,7 @@ class PurchasedPackageServiceTest {
     void isPackageValid_WhenExpired_ShouldReturnFalse() {
         // Arrange
         existingPackage.setExpirationDate(LocalDateTime.now().minusDays(1));
-        when(purchasedPackageRepository.findById(1)).thenReturn(Optional.of(existingPackage));
+        when(purchasedPackageRepository.findWithDetailsById(1)).thenReturn(Optional.of(existingPackage));
 
         // Act
         boolean isValid = purchasedPackageService.isPackageValid(1);
@@ -221,7 +244,7 @@ class PurchasedPackageServiceTest {
     void isPackageValid_WhenNoRemainingAppointments_ShouldReturnFalse() {
         // Arrange
         existingPackage.setRemainingAppointments(0);
-        when(purchasedPackageRepository.findById(1)).thenReturn(Optional.of(existingPackage));
+        when(purchasedPackageRepository.findWithDetailsById(1)).thenReturn(Optional.of(existingPackage));
 
         // Act
         boolean isValid = purchasedPackageService.isPackageValid(1);
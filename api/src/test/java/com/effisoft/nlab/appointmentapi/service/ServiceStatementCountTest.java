@@ -0,0 +1,381 @@
+package com.effisoft.nlab.appointmentapi.service;
+
+import com.effisoft.nlab.appointmentapi.config.BookingProperties;
+import com.effisoft.nlab.appointmentapi.dto.AppointmentCalendarRow;
+import com.effisoft.nlab.appointmentapi.dto.AppointmentDTO;
+import com.effisoft.nlab.appointmentapi.dto.AppointmentResponseDTO;
+import com.effisoft.nlab.appointmentapi.dto.AppointmentStatusChangeDTO;
+import com.effisoft.nlab.appointmentapi.dto.AppointmentStatusResultDTO;
+import com.effisoft.nlab.appointmentapi.dto.CursorPageResponseDTO;
+import com.effisoft.nlab.appointmentapi.dto.NutritionistPaymentPeriodDTO;
+import com.effisoft.nlab.appointmentapi.dto.NutritionistPaymentPeriodResponseDTO;
+import com.effisoft.nlab.appointmentapi.dto.PatientPaymentDTO;
+import com.effisoft.nlab.appointmentapi.dto.PatientPurchasedPackageDTO;
+import com.effisoft.nlab.appointmentapi.dto.PurchasedPackageResponseDTO;
+import com.effisoft.nlab.appointmentapi.entity.*;
+import com.effisoft.nlab.appointmentapi.mapper.AppointmentMapper;
+import com.effisoft.nlab.appointmentapi.mapper.AppointmentMapperImpl;
+import com.effisoft.nlab.appointmentapi.mapper.NutritionistPaymentPeriodMapper;
+import com.effisoft.nlab.appointmentapi.mapper.NutritionistPaymentPeriodMapperImpl;
+import com.effisoft.nlab.appointmentapi.mapper.PatientPaymentMapper;
+import com.effisoft.nlab.appointmentapi.mapper.PatientPaymentMapperImpl;
+import com.effisoft.nlab.appointmentapi.mapper.PurchasedPackageMapper;
+import com.effisoft.nlab.appointmentapi.mapper.PurchasedPackageMapperImpl;
+import com.effisoft.nlab.appointmentapi.repository.AppointmentBatchRepository;
+import com.effisoft.nlab.appointmentapi.service.booking.InMemorySlotHoldStore;
+import com.effisoft.nlab.appointmentapi.service.booking.NutritionistBookingIndex;
+import com.effisoft.nlab.appointmentapi.service.booking.NutritionistLockStripes;
+import com.effisoft.nlab.appointmentapi.service.booking.NutritionistScheduleIndex;
+import com.effisoft.nlab.appointmentapi.service.booking.UpcomingAppointmentsCache;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pins the number of SQL statements issued by the services and by mapping their results
+ * to the response DTOs the controllers return, so a lazy association touched outside its
+ * entity graph shows up as a failing count instead of an N+1 in production. Every test
+ * seeds several rows, so per-row loading would change the count.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ AppointmentService.class, AppointmentBatchRepository.class, NutritionistBookingIndex.class,
+        NutritionistLockStripes.class, NutritionistScheduleIndex.class, UpcomingAppointmentsCache.class, BookingProperties.class,
+        InMemorySlotHoldStore.class,
+        PurchasedPackageService.class, NutritionistPaymentPeriodService.class, PatientPaymentService.class,
+        AppointmentReadModelProjector.class, AppointmentMapperImpl.class, PurchasedPackageMapperImpl.class,
+        NutritionistPaymentPeriodMapperImpl.class, PatientPaymentMapperImpl.class })
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:statements;MODE=MSSQLServer;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class ServiceStatementCountTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private PurchasedPackageService purchasedPackageService;
+
+    @Autowired
+    private NutritionistPaymentPeriodService nutritionistPaymentPeriodService;
+
+    @Autowired
+    private PatientPaymentService patientPaymentService;
+
+    @Autowired
+    private AppointmentReadModelProjector readModelProjector;
+
+    @Autowired
+    private AppointmentMapper appointmentMapper;
+
+    @Autowired
+    private PurchasedPackageMapper purchasedPackageMapper;
+
+    @Autowired
+    private NutritionistPaymentPeriodMapper nutritionistPaymentPeriodMapper;
+
+    @Autowired
+    private PatientPaymentMapper patientPaymentMapper;
+
+    private Statistics statistics;
+    private Nutritionist nutritionist;
+    private Patient patient;
+    private PurchasedPackage purchasedPackage;
+    private Appointment appointment;
+    private PaymentMethod paymentMethod;
+    private CardPaymentType cardPaymentType;
+    private LocalDateTime tomorrow;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        tomorrow = LocalDate.now().plusDays(1).atTime(9, 0);
+
+        nutritionist = new Nutritionist();
+        nutritionist.setFirstName("Jane");
+        nutritionist.setLastName("Doe");
+        nutritionist.setEmail("jane.doe@example.com");
+        nutritionist.setCreatedAt(LocalDateTime.now());
+        nutritionist.setActive(true);
+        entityManager.persist(nutritionist);
+
+        patient = new Patient();
+        patient.setFirstName("John");
+        patient.setLastName("Smith");
+        patient.setEmail("john.smith@example.com");
+        patient.setCreatedAt(LocalDateTime.now());
+        patient.setActive(true);
+        entityManager.persist(patient);
+
+        PackageType packageType = new PackageType();
+        packageType.setName("Paquete Mensual");
+        packageType.setNumberOfAppointments(10);
+        packageType.setPrice(new BigDecimal("1000.00"));
+        packageType.setNutritionistRate(new BigDecimal("250.00"));
+        packageType.setActive(true);
+        packageType.setCreatedAt(LocalDateTime.now());
+        entityManager.persist(packageType);
+
+        for (int i = 0; i < 3; i++) {
+            PurchasedPackage pkg = new PurchasedPackage();
+            pkg.setPatient(patient);
+            pkg.setPackageType(packageType);
+            pkg.setPurchaseDate(LocalDateTime.now());
+            pkg.setPaidInFull(false);
+            pkg.setRemainingAppointments(10);
+            pkg.setExpirationDate(LocalDateTime.now().plusMonths(6));
+            entityManager.persist(pkg);
+            purchasedPackage = pkg;
+        }
+
+        for (int i = 0; i < 3; i++) {
+            Appointment a = new Appointment();
+            a.setPurchasedPackage(purchasedPackage);
+            a.setNutritionist(nutritionist);
+            a.setAppointmentDateTime(tomorrow.plusHours(i));
+            a.setStatus(i == 0 ? "COMPLETADA" : "AGENDADA");
+            a.setCreatedAt(LocalDateTime.now());
+            entityManager.persist(a);
+            readModelProjector.project(a.getId());
+            appointment = a;
+        }
+
+        paymentMethod = new PaymentMethod();
+        paymentMethod.setName("Tarjeta");
+        entityManager.persist(paymentMethod);
+
+        cardPaymentType = new CardPaymentType();
+        cardPaymentType.setName("Visa");
+        cardPaymentType.setBankFeePercentage(new BigDecimal("2.50"));
+        cardPaymentType.setNumberOfInstallments(1);
+        entityManager.persist(cardPaymentType);
+
+        for (int i = 0; i < 2; i++) {
+            PatientPayment payment = new PatientPayment();
+            payment.setPurchasedPackage(purchasedPackage);
+            payment.setPaymentMethod(paymentMethod);
+            payment.setCardPaymentType(cardPaymentType);
+            payment.setTotalPaid(new BigDecimal("100.00"));
+            payment.setPaymentDate(LocalDateTime.now());
+            entityManager.persist(payment);
+        }
+
+        // Start every test from an empty persistence context
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void getAppointmentById_ShouldNotLoadAssociations() {
+        AppointmentResponseDTO loaded = assertStatements(1, () -> appointmentMapper.toResponseDto(
+                appointmentService.getAppointmentById(appointment.getId())));
+
+        assertEquals(purchasedPackage.getId(), loaded.getPurchasedPackageId());
+        assertEquals(nutritionist.getId(), loaded.getNutritionistId());
+    }
+
+    @Test
+    void scheduleAppointment_ShouldNotLoadMoreThanTheBookingChecks() {
+        AppointmentDTO dto = new AppointmentDTO();
+        dto.setPurchasedPackageId(purchasedPackage.getId());
+        dto.setNutritionistId(nutritionist.getId());
+        dto.setAppointmentDateTime(tomorrow.plusHours(5));
+        dto.setStatus("AGENDADA");
+
+        // Package decrement, package, nutritionist, overlap check, insert, read model delete and insert
+        AppointmentResponseDTO booked = assertStatements(7, () -> appointmentMapper.toResponseDto(
+                appointmentService.scheduleAppointment(dto)));
+
+        assertEquals(purchasedPackage.getId(), booked.getPurchasedPackageId());
+        assertEquals("AGENDADA", booked.getStatus());
+    }
+
+    @Test
+    void updateAppointmentStatuses_ShouldCloseAnAppointmentFromEarlierTodayWithoutLoadingAssociations() {
+        LocalDateTime earlierToday = LocalDateTime.now().minusMinutes(30).withNano(0);
+        entityManager.getEntityManager()
+                .createNativeQuery("UPDATE Appointment SET AppointmentDateTime = ?1 WHERE Id = ?2")
+                .setParameter(1, earlierToday)
+                .setParameter(2, appointment.getId())
+                .executeUpdate();
+        AppointmentStatusChangeDTO change = new AppointmentStatusChangeDTO();
+        change.setId(appointment.getId());
+        change.setStatus("COMPLETADA");
+
+        // Appointment load, read model delete and insert, the status goes through one JDBC batch
+        List<AppointmentStatusResultDTO> results = assertStatements(3, () -> appointmentService
+                .updateAppointmentStatuses(List.of(change)));
+
+        assertTrue(results.get(0).isUpdated());
+        entityManager.flush();
+        entityManager.clear();
+        assertEquals("COMPLETADA", entityManager.find(Appointment.class, appointment.getId()).getStatus());
+    }
+
+    @Test
+    void getAppointmentsByNutritionistAndDateRange_ShouldReadOnlyTheReadModel() {
+        List<AppointmentCalendarRow> rows = assertStatements(2, () -> appointmentService
+                .getAppointmentsByNutritionistAndDateRange(nutritionist.getId(), tomorrow, tomorrow.plusDays(1)));
+
+        assertEquals(3, rows.size());
+        assertEquals("John Smith", rows.get(0).getPatientName());
+    }
+
+    @Test
+    void getUpcomingAppointments_ShouldReadOnlyTheReadModel() {
+        List<AppointmentCalendarRow> rows = assertStatements(2, () -> appointmentService
+                .getUpcomingAppointments(nutritionist.getId()));
+
+        assertEquals(3, rows.size());
+
+        // Served from the upcoming appointments cache
+        List<AppointmentCalendarRow> cached = assertStatements(0, () -> appointmentService
+                .getUpcomingAppointments(nutritionist.getId()));
+
+        assertEquals(rows, cached);
+    }
+
+    @Test
+    void getAllPurchasedPackages_ShouldFetchPatientAndPackageTypeInOneQuery() {
+        List<PurchasedPackageResponseDTO> packages = assertStatements(1, () -> purchasedPackageMapper
+                .toResponseDtoList(purchasedPackageService.getAllPurchasedPackages()));
+
+        assertEquals(3, packages.size());
+        assertEquals("John", packages.get(0).getPatient().getFirstName());
+        assertEquals("Paquete Mensual", packages.get(0).getPackageType().getName());
+    }
+
+    @Test
+    void getPurchasedPackagesByPatientId_ShouldFetchPatientAndPackageTypeWithThePage() {
+        List<PurchasedPackageResponseDTO> packages = assertStatements(2, () -> purchasedPackageMapper
+                .toResponseDtoList(purchasedPackageService
+                        .getPurchasedPackagesByPatientId(patient.getId(), PageRequest.of(0, 10)).getContent()));
+
+        assertEquals(3, packages.size());
+        assertTrue(packages.stream().allMatch(p -> "Paquete Mensual".equals(p.getPackageType().getName())));
+    }
+
+    @Test
+    void scrollPurchasedPackagesByPatientId_ShouldSeekWithoutCountQuery() {
+        // Patient check and the first window, no count
+        CursorPageResponseDTO<PurchasedPackageResponseDTO> first = assertStatements(2, () -> purchasedPackageService
+                .scrollPurchasedPackagesByPatientId(patient.getId(), "", 2, "purchaseDate", Sort.Direction.DESC));
+
+        assertEquals(2, first.getContent().size());
+        assertTrue(first.isHasMore());
+        assertTrue(first.getContent().stream().allMatch(p -> "John".equals(p.getPatient().getFirstName())));
+
+        // Later pages are a single seek
+        CursorPageResponseDTO<PurchasedPackageResponseDTO> second = assertStatements(1, () -> purchasedPackageService
+                .scrollPurchasedPackagesByPatientId(patient.getId(), first.getNextCursor(), 2, "purchaseDate",
+                        Sort.Direction.DESC));
+
+        assertEquals(1, second.getContent().size());
+        assertFalse(second.isHasMore());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void getPatientPurchasedPackageByPackageId_ShouldFetchPaymentsWithTheirTypes() {
+        PatientPurchasedPackageDTO dto = assertStatements(2, () -> purchasedPackageService
+                .getPatientPurchasedPackageByPackageId(purchasedPackage.getId()));
+
+        assertEquals(2, dto.getPatientPayments().size());
+        assertEquals("Tarjeta", dto.getPatientPayments().get(0).getPaymentMethodName());
+        assertEquals("Paquete Mensual", dto.getPurchasedPackage().getPackageType().getName());
+    }
+
+    @Test
+    void createPatientPayment_ShouldAddToThePackageTotalWithoutLoadingThePackage() {
+        PatientPaymentDTO dto = new PatientPaymentDTO();
+        dto.setPurchasedPackageId(purchasedPackage.getId());
+        dto.setPaymentMethodId(paymentMethod.getId());
+        dto.setCardPaymentTypeId(cardPaymentType.getId());
+        dto.setTotalPaid(new BigDecimal("100.00"));
+
+        // Payment method, card payment type, conditional paid total update, insert
+        PatientPaymentDTO created = assertStatements(4, () -> patientPaymentMapper.toDto(
+                patientPaymentService.createPatientPayment(dto)));
+
+        assertEquals(purchasedPackage.getId(), created.getPurchasedPackageId());
+        assertEquals(cardPaymentType.getId(), created.getCardPaymentTypeId());
+        assertNotNull(created.getPaymentDate());
+    }
+
+    @Test
+    void createPaymentPeriod_ShouldAggregateAppointmentRatesInOneQuery() {
+        NutritionistPaymentPeriodDTO dto = new NutritionistPaymentPeriodDTO();
+        dto.setNutritionistId(nutritionist.getId());
+        dto.setPeriodStartDate(tomorrow.toLocalDate());
+        dto.setPeriodEndDate(tomorrow.toLocalDate());
+        dto.setTotalAppointments(0);
+        dto.setTotalAmount(BigDecimal.ONE);
+        dto.setPaymentStatus("PENDING");
+
+        // Nutritionist, count and rate sum of the completed appointments, insert
+        NutritionistPaymentPeriodResponseDTO period = assertStatements(3, () -> nutritionistPaymentPeriodMapper
+                .toResponseDto(nutritionistPaymentPeriodService.createPaymentPeriod(dto)));
+
+        assertEquals(1, period.getTotalAppointments());
+        assertEquals(0, new BigDecimal("250.00").compareTo(period.getTotalAmount()));
+    }
+
+    @Test
+    void getAllPaymentPeriods_ShouldFetchNutritionistsInOneQuery() {
+        for (int i = 0; i < 2; i++) {
+            NutritionistPaymentPeriod period = new NutritionistPaymentPeriod();
+            period.setNutritionist(nutritionist);
+            period.setPeriodStartDate(LocalDate.now());
+            period.setPeriodEndDate(LocalDate.now());
+            period.setTotalAppointments(1);
+            period.setTotalAmount(new BigDecimal("250.00"));
+            period.setPaymentStatus("PENDING");
+            entityManager.persist(period);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        List<NutritionistPaymentPeriodResponseDTO> periods = assertStatements(1, () -> nutritionistPaymentPeriodMapper
+                .toResponseDtoList(nutritionistPaymentPeriodService.getAllPaymentPeriods()));
+
+        assertEquals(2, periods.size());
+        assertTrue(periods.stream().allMatch(p -> "Jane".equals(p.getNutritionist().getFirstName())));
+    }
+
+    private <T> T assertStatements(long expected, Supplier<T> action) {
+        statistics.clear();
+        T result = action.get();
+        assertEquals(expected, statistics.getPrepareStatementCount(), "SQL statements issued");
+        return result;
+    }
+}
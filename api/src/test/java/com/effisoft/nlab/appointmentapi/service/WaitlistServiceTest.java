@@ -0,0 +1,142 @@
+package com.effisoft.nlab.appointmentapi.service;
+
+import com.effisoft.nlab.appointmentapi.dto.AppointmentDTO;
+import com.effisoft.nlab.appointmentapi.dto.WaitlistEntryDTO;
+import com.effisoft.nlab.appointmentapi.entity.*;
+import com.effisoft.nlab.appointmentapi.exception.WaitlistServiceException;
+import com.effisoft.nlab.appointmentapi.repository.*;
+import com.effisoft.nlab.appointmentapi.service.waitlist.WaitlistQueue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WaitlistServiceTest {
+
+    @Mock
+    private WaitlistEntryRepository waitlistEntryRepository;
+
+    @Mock
+    private PurchasedPackageRepository purchasedPackageRepository;
+
+    @Mock
+    private NutritionistRepository nutritionistRepository;
+
+    @Mock
+    private AppointmentService appointmentService;
+
+    @Mock
+    private WaitlistQueue waitlistQueue;
+
+    @InjectMocks
+    private WaitlistService waitlistService;
+
+    private PurchasedPackage purchasedPackage;
+    private WaitlistEntryDTO validDTO;
+    private LocalDateTime slot;
+
+    @BeforeEach
+    void setUp() {
+        Patient patient = new Patient();
+        patient.setId(7);
+
+        purchasedPackage = new PurchasedPackage();
+        purchasedPackage.setId(3);
+        purchasedPackage.setPatient(patient);
+        purchasedPackage.setRemainingAppointments(2);
+        purchasedPackage.setExpirationDate(LocalDateTime.now().plusMonths(2));
+
+        slot = LocalDateTime.now().plusDays(3).withNano(0);
+        validDTO = new WaitlistEntryDTO();
+        validDTO.setPurchasedPackageId(3);
+        validDTO.setEarliestDateTime(slot.minusDays(1));
+        validDTO.setLatestDateTime(slot.plusDays(7));
+    }
+
+    @Test
+    void addEntry_WithValidRequest_ShouldSaveAndQueueTheRequest() {
+        // Arrange
+        when(nutritionistRepository.findById(1)).thenReturn(Optional.of(new Nutritionist()));
+        when(purchasedPackageRepository.findById(3)).thenReturn(Optional.of(purchasedPackage));
+        when(waitlistEntryRepository.save(any(WaitlistEntry.class))).thenAnswer(i -> i.getArgument(0));
+
+        // Act
+        WaitlistEntry entry = waitlistService.addEntry(1, validDTO);
+
+        // Assert
+        assertEquals(7, entry.getPatientId());
+        assertEquals(WaitlistEntry.WAITING, entry.getStatus());
+        verify(waitlistQueue).add(entry);
+    }
+
+    @Test
+    void addEntry_WhenPackageExpiresBeforeTheWindow_ShouldThrowException() {
+        // Arrange
+        purchasedPackage.setExpirationDate(slot.minusDays(2));
+        when(nutritionistRepository.findById(1)).thenReturn(Optional.of(new Nutritionist()));
+        when(purchasedPackageRepository.findById(3)).thenReturn(Optional.of(purchasedPackage));
+
+        // Act & Assert
+        assertThrows(WaitlistServiceException.class, () -> waitlistService.addEntry(1, validDTO));
+        verify(waitlistEntryRepository, never()).save(any());
+    }
+
+    @Test
+    void bookFromWaitlist_ShouldScheduleAndClaimTheRequest() {
+        // Arrange
+        WaitlistEntry entry = waitingEntry();
+        Appointment appointment = new Appointment();
+        appointment.setId(10);
+        when(waitlistEntryRepository.findById(5)).thenReturn(Optional.of(entry));
+        when(purchasedPackageRepository.findById(3)).thenReturn(Optional.of(purchasedPackage));
+        when(appointmentService.scheduleAppointment(any(AppointmentDTO.class))).thenReturn(appointment);
+        when(waitlistEntryRepository.markBooked(5, 10)).thenReturn(1);
+        ArgumentCaptor<AppointmentDTO> captor = ArgumentCaptor.forClass(AppointmentDTO.class);
+
+        // Act
+        Appointment booked = waitlistService.bookFromWaitlist(5, slot);
+
+        // Assert
+        assertEquals(10, booked.getId());
+        verify(appointmentService).scheduleAppointment(captor.capture());
+        assertEquals(slot, captor.getValue().getAppointmentDateTime());
+        assertEquals(1, captor.getValue().getNutritionistId());
+    }
+
+    @Test
+    void bookFromWaitlist_WhenClaimedElsewhere_ShouldThrowException() {
+        // Arrange
+        Appointment appointment = new Appointment();
+        appointment.setId(10);
+        when(waitlistEntryRepository.findById(5)).thenReturn(Optional.of(waitingEntry()));
+        when(purchasedPackageRepository.findById(3)).thenReturn(Optional.of(purchasedPackage));
+        when(appointmentService.scheduleAppointment(any(AppointmentDTO.class))).thenReturn(appointment);
+        when(waitlistEntryRepository.markBooked(5, 10)).thenReturn(0);
+
+        // Act & Assert, the exception rolls the appointment back
+        assertThrows(WaitlistServiceException.class, () -> waitlistService.bookFromWaitlist(5, slot));
+    }
+
+    private WaitlistEntry waitingEntry() {
+        WaitlistEntry entry = new WaitlistEntry();
+        entry.setId(5);
+        entry.setNutritionistId(1);
+        entry.setPatientId(7);
+        entry.setPurchasedPackageId(3);
+        entry.setEarliestDateTime(slot.minusDays(1));
+        entry.setLatestDateTime(slot.plusDays(7));
+        entry.setStatus(WaitlistEntry.WAITING);
+        return entry;
+    }
+}
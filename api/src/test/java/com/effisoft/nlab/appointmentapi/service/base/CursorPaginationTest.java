@@ -0,0 +1,82 @@
+package com.effisoft.nlab.appointmentapi.service.base;
+
+import com.effisoft.nlab.appointmentapi.exception.InvalidCursorException;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CursorPaginationTest {
+
+    private static final Map<String, String> SORTS = Map.of(
+            "lastName", "lastName",
+            "appointmentDate", "appointmentDateTime");
+
+    @Test
+    void encode_ShouldRoundTripTypedKeys() {
+        // Arrange
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("lastName", "Pérez & Hijos");
+        keys.put("appointmentDateTime", LocalDateTime.of(2025, 3, 10, 9, 30));
+        keys.put("price", new BigDecimal("1000.50"));
+        keys.put("id", 42);
+
+        // Act
+        Map<String, Object> decoded = CursorPagination.decode(CursorPagination.encode(keys));
+
+        // Assert
+        assertEquals(keys, decoded);
+        assertInstanceOf(Integer.class, decoded.get("id"));
+    }
+
+    @Test
+    void sort_ShouldMapRequestPropertyAndAppendId() {
+        // Act
+        Sort sort = CursorPagination.sort("appointmentDate", Sort.Direction.DESC, SORTS, "appointmentId");
+
+        // Assert
+        assertEquals(Sort.by(Sort.Direction.DESC, "appointmentDateTime", "appointmentId"), sort);
+    }
+
+    @Test
+    void sort_WithUnsupportedProperty_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(InvalidCursorException.class,
+                () -> CursorPagination.sort("phone", Sort.Direction.ASC, SORTS, "id"));
+    }
+
+    @Test
+    void position_WithEmptyCursor_ShouldStartFromTheFirstRow() {
+        // Arrange
+        Sort sort = CursorPagination.sort("lastName", Sort.Direction.ASC, SORTS, "id");
+
+        // Act
+        KeysetScrollPosition position = CursorPagination.position("", sort);
+
+        // Assert
+        assertTrue(position.isInitial());
+    }
+
+    @Test
+    void position_WithCursorOfAnotherSort_ShouldThrowException() {
+        // Arrange
+        Sort sort = CursorPagination.sort("lastName", Sort.Direction.ASC, SORTS, "id");
+        String cursor = CursorPagination.encode(Map.of("appointmentDateTime", LocalDateTime.now(), "id", 1));
+
+        // Act & Assert
+        assertThrows(InvalidCursorException.class, () -> CursorPagination.position(cursor, sort));
+    }
+
+    @Test
+    void decode_WithGarbage_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(InvalidCursorException.class, () -> CursorPagination.decode("not a cursor!"));
+    }
+}
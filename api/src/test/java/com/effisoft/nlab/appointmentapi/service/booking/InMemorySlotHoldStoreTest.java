@@ -0,0 +1,89 @@
+package com.effisoft.nlab.appointmentapi.service.booking;
+
+import com.effisoft.nlab.appointmentapi.entity.SlotHold;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemorySlotHoldStoreTest {
+
+    private InMemorySlotHoldStore store;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemorySlotHoldStore();
+        now = LocalDateTime.of(2025, 3, 10, 8, 0);
+    }
+
+    @Test
+    void tryHold_WhenOverlappingActiveHold_ShouldFail() {
+        // Arrange
+        store.tryHold(hold("a", 1, now.plusHours(2), now.plusMinutes(5)), now);
+
+        // Act
+        Optional<SlotHold> overlapping = store.tryHold(hold("b", 1, now.plusHours(2).plusMinutes(30), now.plusMinutes(5)), now);
+        Optional<SlotHold> otherNutritionist = store.tryHold(hold("c", 2, now.plusHours(2), now.plusMinutes(5)), now);
+
+        // Assert
+        assertTrue(overlapping.isEmpty());
+        assertTrue(otherNutritionist.isPresent());
+    }
+
+    @Test
+    void tryHold_WhenPreviousHoldExpired_ShouldSucceed() {
+        // Arrange
+        store.tryHold(hold("a", 1, now.plusHours(2), now.plusMinutes(5)), now);
+
+        // Act
+        Optional<SlotHold> held = store.tryHold(hold("b", 1, now.plusHours(2), now.plusMinutes(20)), now.plusMinutes(10));
+
+        // Assert
+        assertTrue(held.isPresent());
+        assertEquals(List.of("b"), store.findActive(1, now.plusHours(2), now.plusHours(3), now.plusMinutes(10))
+                .stream().map(SlotHold::getId).toList());
+    }
+
+    @Test
+    void release_ShouldFreeTheSlot() {
+        // Arrange
+        store.tryHold(hold("a", 1, now.plusHours(2), now.plusMinutes(5)), now);
+
+        // Act
+        store.release("a");
+
+        // Assert
+        assertTrue(store.findActive(1, now.plusHours(2), now.plusHours(3), now).isEmpty());
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void purgeExpired_ShouldOnlyDropExpiredHolds() {
+        // Arrange
+        store.tryHold(hold("a", 1, now.plusHours(2), now.plusMinutes(5)), now);
+        store.tryHold(hold("b", 1, now.plusHours(4), now.plusMinutes(15)), now);
+
+        // Act
+        store.purgeExpired(now.plusMinutes(10));
+
+        // Assert
+        assertEquals(1, store.size());
+        assertEquals(List.of("b"), store.findActiveBetween(now, now.plusDays(1), now.plusMinutes(10))
+                .stream().map(SlotHold::getId).toList());
+    }
+
+    private SlotHold hold(String id, Integer nutritionistId, LocalDateTime start, LocalDateTime expiresAt) {
+        SlotHold hold = new SlotHold();
+        hold.setId(id);
+        hold.setNutritionistId(nutritionistId);
+        hold.setStartsAt(start);
+        hold.setEndsAt(start.plusHours(1));
+        hold.setExpiresAt(expiresAt);
+        return hold;
+    }
+}
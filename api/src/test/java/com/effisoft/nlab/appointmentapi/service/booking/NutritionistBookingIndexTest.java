@@ -0,0 +1,130 @@
+package com.effisoft.nlab.appointmentapi.service.booking;
+
+import com.effisoft.nlab.appointmentapi.config.BookingProperties;
+import com.effisoft.nlab.appointmentapi.dto.BookedSlot;
+import com.effisoft.nlab.appointmentapi.event.AppointmentChangedEvent;
+import com.effisoft.nlab.appointmentapi.event.AppointmentChangedEvent.ChangeType;
+import com.effisoft.nlab.appointmentapi.repository.AppointmentRepository;
+import com.effisoft.nlab.appointmentapi.service.booking.NutritionistBookingIndex.SlotState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NutritionistBookingIndexTest {
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    private BookingProperties bookingProperties;
+    private NutritionistBookingIndex bookingIndex;
+    private LocalDateTime tomorrowAtTen;
+
+    @BeforeEach
+    void setUp() {
+        bookingProperties = new BookingProperties();
+        bookingProperties.setIndexAuthoritative(true);
+        bookingIndex = new NutritionistBookingIndex(appointmentRepository, bookingProperties);
+        tomorrowAtTen = LocalDateTime.now().plusDays(1).withHour(10).withMinute(0).withSecond(0).withNano(0);
+
+        when(appointmentRepository.findBookedSlots(any(), any(), any()))
+                .thenReturn(List.of(bookedSlot(1, 1, tomorrowAtTen)));
+        bookingIndex.refresh();
+    }
+
+    @Test
+    void check_WhenSlotOverlapsBooking_ShouldReturnConflict() {
+        assertEquals(SlotState.CONFLICT, bookingIndex.check(1, tomorrowAtTen, null));
+        assertEquals(SlotState.CONFLICT, bookingIndex.check(1, tomorrowAtTen.plusMinutes(30), null));
+        assertEquals(SlotState.CONFLICT, bookingIndex.check(1, tomorrowAtTen.minusMinutes(30), null));
+    }
+
+    @Test
+    void check_WhenSlotIsAdjacentToBooking_ShouldReturnFree() {
+        assertEquals(SlotState.FREE, bookingIndex.check(1, tomorrowAtTen.plusHours(1), null));
+        assertEquals(SlotState.FREE, bookingIndex.check(1, tomorrowAtTen.minusHours(1), null));
+        assertEquals(SlotState.FREE, bookingIndex.check(2, tomorrowAtTen, null));
+    }
+
+    @Test
+    void check_WhenExcludingTheBookedAppointment_ShouldReturnFree() {
+        assertEquals(SlotState.FREE, bookingIndex.check(1, tomorrowAtTen.plusMinutes(15), 1));
+    }
+
+    @Test
+    void check_WhenSlotIsBeyondHorizon_ShouldReturnUnknown() {
+        LocalDateTime farAway = tomorrowAtTen.plusDays(bookingProperties.getIndexHorizonDays() + 1);
+        assertEquals(SlotState.UNKNOWN, bookingIndex.check(1, farAway, null));
+    }
+
+    @Test
+    void check_WhenIndexIsNotAuthoritative_ShouldReturnUnknownForFreeSlots() {
+        bookingProperties.setIndexAuthoritative(false);
+
+        assertEquals(SlotState.UNKNOWN, bookingIndex.check(1, tomorrowAtTen.plusHours(2), null));
+        assertEquals(SlotState.CONFLICT, bookingIndex.check(1, tomorrowAtTen, null));
+    }
+
+    @Test
+    void onAppointmentChanged_WhenRescheduled_ShouldMoveInterval() {
+        LocalDateTime newTime = tomorrowAtTen.plusHours(3);
+
+        bookingIndex.onAppointmentChanged(new AppointmentChangedEvent(
+                ChangeType.UPDATED, 1, 1, tomorrowAtTen, "AGENDADA", 2, newTime, "REAGENDADA"));
+
+        assertEquals(SlotState.FREE, bookingIndex.check(1, tomorrowAtTen, null));
+        assertEquals(SlotState.CONFLICT, bookingIndex.check(2, newTime, null));
+    }
+
+    @Test
+    void onAppointmentChanged_WhenCancelled_ShouldFreeSlot() {
+        bookingIndex.onAppointmentChanged(new AppointmentChangedEvent(
+                ChangeType.CANCELLED, 1, 1, tomorrowAtTen, "AGENDADA", 1, tomorrowAtTen, "CANCELADA"));
+
+        assertEquals(SlotState.FREE, bookingIndex.check(1, tomorrowAtTen, null));
+    }
+
+    @Test
+    void refresh_WhenEventArrivesDuringLoad_ShouldKeepTheEvent() {
+        LocalDateTime bookedDuringLoad = tomorrowAtTen.plusHours(4);
+        when(appointmentRepository.findBookedSlots(any(), any(), any())).thenAnswer(invocation -> {
+            // Committed after the load read the table
+            bookingIndex.onAppointmentChanged(new AppointmentChangedEvent(
+                    ChangeType.SCHEDULED, 2, null, null, null, 1, bookedDuringLoad, "AGENDADA"));
+            return List.of(bookedSlot(1, 1, tomorrowAtTen));
+        });
+
+        bookingIndex.refresh();
+
+        assertEquals(SlotState.CONFLICT, bookingIndex.check(1, bookedDuringLoad, null));
+        assertEquals(SlotState.CONFLICT, bookingIndex.check(1, tomorrowAtTen, null));
+    }
+
+    private BookedSlot bookedSlot(Integer appointmentId, Integer nutritionistId, LocalDateTime dateTime) {
+        return new BookedSlot() {
+            @Override
+            public Integer getAppointmentId() {
+                return appointmentId;
+            }
+
+            @Override
+            public Integer getNutritionistId() {
+                return nutritionistId;
+            }
+
+            @Override
+            public LocalDateTime getAppointmentDateTime() {
+                return dateTime;
+            }
+        };
+    }
+}
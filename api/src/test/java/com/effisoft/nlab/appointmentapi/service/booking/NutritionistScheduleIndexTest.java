@@ -0,0 +1,131 @@
+package com.effisoft.nlab.appointmentapi.service.booking;
+
+import com.effisoft.nlab.appointmentapi.entity.Nutritionist;
+import com.effisoft.nlab.appointmentapi.entity.NutritionistBlockOut;
+import com.effisoft.nlab.appointmentapi.entity.NutritionistWorkingHours;
+import com.effisoft.nlab.appointmentapi.repository.NutritionistBlockOutRepository;
+import com.effisoft.nlab.appointmentapi.repository.NutritionistWorkingHoursRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NutritionistScheduleIndexTest {
+
+    private static final Duration ONE_HOUR = Duration.ofMinutes(60);
+
+    @Mock
+    private NutritionistWorkingHoursRepository workingHoursRepository;
+
+    @Mock
+    private NutritionistBlockOutRepository blockOutRepository;
+
+    private NutritionistScheduleIndex scheduleIndex;
+    private Nutritionist nutritionist;
+    private LocalDate nextMonday;
+
+    @BeforeEach
+    void setUp() {
+        scheduleIndex = new NutritionistScheduleIndex(workingHoursRepository, blockOutRepository);
+        nutritionist = new Nutritionist();
+        nutritionist.setId(1);
+        nextMonday = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+    }
+
+    @Test
+    void isWithinWorkingHours_WhenNoTemplate_ShouldAllowAnyTime() {
+        // Arrange
+        when(workingHoursRepository.findAll()).thenReturn(List.of());
+        when(blockOutRepository.findByEndDateTimeAfter(any())).thenReturn(List.of());
+        scheduleIndex.refresh();
+
+        // Act & Assert
+        assertTrue(scheduleIndex.isWithinWorkingHours(1, nextMonday.atTime(23, 30), ONE_HOUR));
+    }
+
+    @Test
+    void isWithinWorkingHours_ShouldFollowWeeklyTemplate() {
+        // Arrange
+        when(workingHoursRepository.findAll()).thenReturn(List.of(
+                workingHours(DayOfWeek.MONDAY, LocalTime.of(9, 0), LocalTime.of(13, 0)),
+                workingHours(DayOfWeek.MONDAY, LocalTime.of(15, 0), LocalTime.of(18, 0))));
+        when(blockOutRepository.findByEndDateTimeAfter(any())).thenReturn(List.of());
+        scheduleIndex.refresh();
+
+        // Act & Assert
+        assertTrue(scheduleIndex.isWithinWorkingHours(1, nextMonday.atTime(9, 0), ONE_HOUR));
+        assertTrue(scheduleIndex.isWithinWorkingHours(1, nextMonday.atTime(17, 0), ONE_HOUR));
+        assertFalse(scheduleIndex.isWithinWorkingHours(1, nextMonday.atTime(12, 30), ONE_HOUR));
+        assertFalse(scheduleIndex.isWithinWorkingHours(1, nextMonday.atTime(8, 45), ONE_HOUR));
+        assertFalse(scheduleIndex.isWithinWorkingHours(1, nextMonday.plusDays(1).atTime(10, 0), ONE_HOUR));
+    }
+
+    @Test
+    void isWithinWorkingHours_WhenShiftEndsOffTheSlotGrid_ShouldRoundTheShiftInward() {
+        // Arrange
+        when(workingHoursRepository.findAll()).thenReturn(List.of(
+                workingHours(DayOfWeek.MONDAY, LocalTime.of(9, 5), LocalTime.of(17, 10))));
+        when(blockOutRepository.findByEndDateTimeAfter(any())).thenReturn(List.of());
+        scheduleIndex.refresh();
+
+        // Act & Assert
+        assertTrue(scheduleIndex.isWithinWorkingHours(1, nextMonday.atTime(16, 0), ONE_HOUR));
+        assertFalse(scheduleIndex.isWithinWorkingHours(1, nextMonday.atTime(16, 30), ONE_HOUR));
+        assertFalse(scheduleIndex.isWithinWorkingHours(1, nextMonday.atTime(9, 0), ONE_HOUR));
+        assertTrue(scheduleIndex.isWithinWorkingHours(1, nextMonday.atTime(9, 15), ONE_HOUR));
+    }
+
+    @Test
+    void isWithinWorkingHours_WhenBlockedOut_ShouldReject() {
+        // Arrange
+        NutritionistBlockOut sickLeave = new NutritionistBlockOut();
+        sickLeave.setNutritionist(nutritionist);
+        sickLeave.setStartDateTime(nextMonday.atTime(11, 10));
+        sickLeave.setEndDateTime(nextMonday.plusDays(1).atTime(12, 0));
+        when(workingHoursRepository.findAll()).thenReturn(List.of());
+        when(blockOutRepository.findByEndDateTimeAfter(any())).thenReturn(List.of(sickLeave));
+        scheduleIndex.refresh();
+
+        // Act & Assert
+        assertTrue(scheduleIndex.isWithinWorkingHours(1, nextMonday.atTime(10, 0), ONE_HOUR));
+        assertFalse(scheduleIndex.isWithinWorkingHours(1, nextMonday.atTime(10, 30), ONE_HOUR));
+        assertFalse(scheduleIndex.isWithinWorkingHours(1, nextMonday.plusDays(1).atTime(9, 0), ONE_HOUR));
+        assertTrue(scheduleIndex.isWithinWorkingHours(1, nextMonday.plusDays(1).atTime(12, 0), ONE_HOUR));
+    }
+
+    @Test
+    void availableSlots_WhenNoTemplate_ShouldUseDefaultSlots() {
+        // Arrange
+        long[] clinicHours = SlotBitmap.within(LocalTime.of(8, 0), LocalTime.of(20, 0));
+
+        // Act
+        long[] slots = scheduleIndex.availableSlots(1, nextMonday, clinicHours);
+
+        // Assert
+        assertSame(clinicHours, slots);
+        verifyNoInteractions(workingHoursRepository, blockOutRepository);
+    }
+
+    private NutritionistWorkingHours workingHours(DayOfWeek day, LocalTime start, LocalTime end) {
+        NutritionistWorkingHours window = new NutritionistWorkingHours();
+        window.setNutritionist(nutritionist);
+        window.setDayOfWeek(day.getValue());
+        window.setStartTime(start);
+        window.setEndTime(end);
+        return window;
+    }
+}
@@ -0,0 +1,172 @@
+package com.effisoft.nlab.appointmentapi.service.booking;
+
+import com.effisoft.nlab.appointmentapi.config.BookingProperties;
+import com.effisoft.nlab.appointmentapi.dto.AppointmentCalendarRow;
+import com.effisoft.nlab.appointmentapi.event.AppointmentChangedEvent;
+import com.effisoft.nlab.appointmentapi.event.AppointmentChangedEvent.ChangeType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpcomingAppointmentsCacheTest {
+
+    private BookingProperties bookingProperties;
+    private UpcomingAppointmentsCache cache;
+    private LocalDateTime now;
+    private AtomicInteger loads;
+    private BiFunction<LocalDateTime, LocalDateTime, List<AppointmentCalendarRow>> loader;
+
+    @BeforeEach
+    void setUp() {
+        bookingProperties = new BookingProperties();
+        cache = new UpcomingAppointmentsCache(bookingProperties);
+        now = LocalDateTime.of(2025, 3, 10, 8, 0);
+        loads = new AtomicInteger();
+        loader = (from, to) -> {
+            loads.incrementAndGet();
+            return List.of(row(1, now.plusDays(1)), row(2, now.plusDays(2)));
+        };
+    }
+
+    @Test
+    void get_WhenCached_ShouldNotLoadAgain() {
+        // Act
+        cache.get(1, now, loader);
+        List<AppointmentCalendarRow> rows = cache.get(1, now.plusMinutes(5), loader);
+
+        // Assert
+        assertEquals(2, rows.size());
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+    }
+
+    @Test
+    void get_ShouldOnlyReturnTheRollingWindow() {
+        // Arrange
+        bookingProperties.setUpcomingCacheTtlMinutes(2 * 24 * 60);
+        cache.get(1, now, loader);
+
+        // Act, the first appointment is in the past one day later
+        List<AppointmentCalendarRow> rows = cache.get(1, now.plusDays(1).plusMinutes(1), loader);
+
+        // Assert
+        assertEquals(1, loads.get());
+        assertEquals(List.of(2), rows.stream().map(AppointmentCalendarRow::getId).toList());
+    }
+
+    @Test
+    void get_WhenExpired_ShouldReload() {
+        // Arrange
+        cache.get(1, now, loader);
+
+        // Act
+        cache.get(1, now.plusMinutes(bookingProperties.getUpcomingCacheTtlMinutes()), loader);
+
+        // Assert
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_WhenFull_ShouldEvictLeastRecentlyUsed() {
+        // Arrange
+        bookingProperties.setUpcomingCacheMaxEntries(2);
+        cache.get(1, now, loader);
+        cache.get(2, now, loader);
+        cache.get(1, now, loader);
+
+        // Act
+        cache.get(3, now, loader);
+        cache.get(1, now, loader);
+        cache.get(2, now, loader);
+
+        // Assert, 1 stayed cached while 2 was evicted
+        assertEquals(4, loads.get());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void onAppointmentChanged_WhenStatusChanges_ShouldPatchInPlace() {
+        // Arrange
+        cache.get(1, now, loader);
+
+        // Act
+        cache.onAppointmentChanged(new AppointmentChangedEvent(ChangeType.CANCELLED, 2,
+                1, now.plusDays(2), "AGENDADA", 1, now.plusDays(2), "CANCELADA"));
+        List<AppointmentCalendarRow> rows = cache.get(1, now, loader);
+
+        // Assert
+        assertEquals(1, loads.get());
+        assertEquals("CANCELADA", rows.get(1).getStatus());
+    }
+
+    @Test
+    void onAppointmentChanged_WhenMoved_ShouldKeepRowsSorted() {
+        // Arrange
+        cache.get(1, now, loader);
+
+        // Act
+        cache.onAppointmentChanged(new AppointmentChangedEvent(ChangeType.UPDATED, 2,
+                1, now.plusDays(2), "AGENDADA", 1, now.plusHours(2), "REAGENDADA"));
+        List<AppointmentCalendarRow> rows = cache.get(1, now, loader);
+
+        // Assert
+        assertEquals(1, loads.get());
+        assertEquals(List.of(2, 1), rows.stream().map(AppointmentCalendarRow::getId).toList());
+    }
+
+    @Test
+    void onAppointmentChanged_WhenScheduled_ShouldEvict() {
+        // Arrange
+        cache.get(1, now, loader);
+
+        // Act
+        cache.onAppointmentChanged(new AppointmentChangedEvent(ChangeType.SCHEDULED, 3,
+                null, null, null, 1, now.plusDays(3), "AGENDADA"));
+        cache.get(1, now, loader);
+
+        // Assert
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void onAppointmentChanged_WhenMovedToAnotherNutritionist_ShouldEvictBoth() {
+        // Arrange
+        cache.get(1, now, loader);
+        cache.get(2, now, loader);
+
+        // Act
+        cache.onAppointmentChanged(new AppointmentChangedEvent(ChangeType.UPDATED, 2,
+                1, now.plusDays(2), "AGENDADA", 2, now.plusDays(2), "AGENDADA"));
+
+        // Assert
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void bindTo_ShouldPublishHitAndMissCounts() {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+
+        // Act
+        cache.get(1, now, loader);
+        cache.get(1, now, loader);
+
+        // Assert
+        assertEquals(1.0, registry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("result", "miss").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.size").gauge().value());
+    }
+
+    private AppointmentCalendarRow row(Integer id, LocalDateTime dateTime) {
+        return new AppointmentCalendarRow(id, dateTime, "AGENDADA", 1, 1, "John Smith", "Paquete Mensual");
+    }
+}
@@ -0,0 +1,193 @@
+package com.effisoft.nlab.appointmentapi.service.idempotency;
+
+import com.effisoft.nlab.appointmentapi.config.IdempotencyProperties;
+import com.effisoft.nlab.appointmentapi.entity.IdempotencyKey;
+import com.effisoft.nlab.appointmentapi.repository.IdempotencyKeyRepository;
+import com.effisoft.nlab.appointmentapi.service.idempotency.IdempotencyStore.Claim;
+import com.effisoft.nlab.appointmentapi.service.idempotency.IdempotencyStore.Outcome;
+import com.effisoft.nlab.appointmentapi.service.idempotency.IdempotencyStore.StoredResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyStoreTest {
+    private static final String KEY = "user-1:3f0c";
+
+    @Mock
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private IdempotencyProperties idempotencyProperties;
+    private IdempotencyStore store;
+    private StoredResponse created;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyProperties = new IdempotencyProperties();
+        idempotencyProperties.setPollMillis(1);
+        store = new IdempotencyStore(idempotencyKeyRepository, idempotencyProperties, transactionManager);
+        created = new StoredResponse("hash", 201, "application/json",
+                "{\"id\":7}".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void claim_WhenKeyIsNew_ShouldAcquire() {
+        // Arrange
+        when(idempotencyKeyRepository.insert(eq(KEY), eq("hash"), any(), any(), any())).thenReturn(1);
+
+        // Act
+        Claim claim = store.claim(KEY, "hash");
+
+        // Assert
+        assertEquals(Outcome.ACQUIRED, claim.outcome());
+    }
+
+    @Test
+    void claim_AfterComplete_ShouldReplayFromMemory() {
+        // Arrange
+        when(idempotencyKeyRepository.insert(eq(KEY), eq("hash"), any(), any(), any())).thenReturn(1);
+        store.claim(KEY, "hash");
+        store.complete(KEY, created);
+
+        // Act
+        Claim claim = store.claim(KEY, "hash");
+
+        // Assert
+        assertEquals(Outcome.REPLAYED, claim.outcome());
+        assertEquals(201, claim.response().status());
+        verify(idempotencyKeyRepository).complete(eq(KEY), eq(201), eq("application/json"), any());
+        verify(idempotencyKeyRepository, never()).findById(any());
+    }
+
+    @Test
+    void claim_WhenKeyWasUsedForAnotherRequest_ShouldBeMismatch() {
+        // Arrange
+        when(idempotencyKeyRepository.insert(eq(KEY), eq("hash"), any(), any(), any())).thenReturn(1);
+        store.claim(KEY, "hash");
+        store.complete(KEY, created);
+
+        // Act
+        Claim claim = store.claim(KEY, "other-hash");
+
+        // Assert
+        assertEquals(Outcome.MISMATCH, claim.outcome());
+        assertNull(claim.response());
+    }
+
+    @Test
+    void claim_WhenDuplicateIsInFlight_ShouldWaitAndReplayWithoutRunningAgain() throws Exception {
+        // Arrange
+        when(idempotencyKeyRepository.insert(eq(KEY), eq("hash"), any(), any(), any())).thenReturn(1);
+        assertEquals(Outcome.ACQUIRED, store.claim(KEY, "hash").outcome());
+
+        // Act, the duplicate blocks until the first request completes
+        CompletableFuture<Claim> duplicate = CompletableFuture.supplyAsync(() -> store.claim(KEY, "hash"));
+        while (store.coalescedCount() == 0) {
+            Thread.onSpinWait();
+        }
+        store.complete(KEY, created);
+
+        // Assert
+        Claim claim = duplicate.get(5, TimeUnit.SECONDS);
+        assertEquals(Outcome.REPLAYED, claim.outcome());
+        assertArrayEquals(created.body(), claim.response().body());
+        verify(idempotencyKeyRepository, times(1)).insert(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void claim_WhenFirstRequestFailed_ShouldLetTheRetryRunIt() {
+        // Arrange
+        when(idempotencyKeyRepository.insert(eq(KEY), eq("hash"), any(), any(), any())).thenReturn(1);
+        store.claim(KEY, "hash");
+        store.release(KEY);
+
+        // Act
+        Claim claim = store.claim(KEY, "hash");
+
+        // Assert
+        assertEquals(Outcome.ACQUIRED, claim.outcome());
+        verify(idempotencyKeyRepository).release(KEY);
+    }
+
+    @Test
+    void claim_WhenCompletedOnAnotherInstance_ShouldReplayFromTheDatabase() {
+        // Arrange
+        when(idempotencyKeyRepository.insert(eq(KEY), eq("hash"), any(), any(), any()))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+        IdempotencyKey row = row(IdempotencyKey.COMPLETED, LocalDateTime.now().minusMinutes(1));
+        row.setResponseStatus(201);
+        row.setContentType("application/json");
+        row.setResponseBody(created.body());
+        when(idempotencyKeyRepository.findById(KEY)).thenReturn(Optional.of(row));
+
+        // Act
+        Claim first = store.claim(KEY, "hash");
+        Claim second = store.claim(KEY, "hash");
+
+        // Assert, the second retry is answered from memory
+        assertEquals(Outcome.REPLAYED, first.outcome());
+        assertEquals(Outcome.REPLAYED, second.outcome());
+        verify(idempotencyKeyRepository, times(1)).findById(KEY);
+    }
+
+    @Test
+    void claim_WhenRunningOnAnotherInstance_ShouldGiveUpAfterTheWait() {
+        // Arrange
+        idempotencyProperties.setWaitSeconds(0);
+        when(idempotencyKeyRepository.insert(eq(KEY), eq("hash"), any(), any(), any()))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+        when(idempotencyKeyRepository.findById(KEY))
+                .thenReturn(Optional.of(row(IdempotencyKey.IN_PROGRESS, LocalDateTime.now().plusMinutes(1))));
+
+        // Act
+        Claim claim = store.claim(KEY, "hash");
+
+        // Assert
+        assertEquals(Outcome.IN_PROGRESS, claim.outcome());
+        verify(idempotencyKeyRepository, never()).takeOver(any(), any(), any(), any());
+    }
+
+    @Test
+    void claim_WhenClaimingInstanceStopped_ShouldTakeTheKeyOver() {
+        // Arrange
+        when(idempotencyKeyRepository.insert(eq(KEY), eq("hash"), any(), any(), any()))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+        when(idempotencyKeyRepository.findById(KEY))
+                .thenReturn(Optional.of(row(IdempotencyKey.IN_PROGRESS, LocalDateTime.now().minusMinutes(1))));
+        when(idempotencyKeyRepository.takeOver(eq(KEY), eq("hash"), any(), any())).thenReturn(1);
+
+        // Act
+        Claim claim = store.claim(KEY, "hash");
+
+        // Assert
+        assertEquals(Outcome.ACQUIRED, claim.outcome());
+    }
+
+    private IdempotencyKey row(String status, LocalDateTime lockedUntil) {
+        IdempotencyKey row = new IdempotencyKey();
+        row.setId(KEY);
+        row.setRequestHash("hash");
+        row.setStatus(status);
+        row.setCreatedAt(LocalDateTime.now().minusMinutes(2));
+        row.setLockedUntil(lockedUntil);
+        row.setExpiresAt(LocalDateTime.now().plusHours(1));
+        return row;
+    }
+}
@@ -0,0 +1,97 @@
+package com.effisoft.nlab.appointmentapi.service.job;
+
+import com.effisoft.nlab.appointmentapi.config.JobProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ClusterJobRunnerTest {
+
+    @Mock
+    private JobLeaseService jobLeaseService;
+
+    private ClusterJobRunner runner;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        runner = new ClusterJobRunner(jobLeaseService, new JobProperties());
+        registry = new SimpleMeterRegistry();
+        runner.bindTo(registry);
+    }
+
+    @Test
+    void runExclusively_WhenLeaseAcquired_ShouldRunAndRelease() {
+        // Arrange
+        when(jobLeaseService.tryAcquire(eq("job"), any(Duration.class))).thenReturn(true);
+        AtomicBoolean heldWhileRunning = new AtomicBoolean();
+
+        // Act
+        boolean ran = runner.runExclusively("job", () -> heldWhileRunning.set(runner.holds("job")));
+
+        // Assert
+        assertTrue(ran);
+        assertTrue(heldWhileRunning.get());
+        assertFalse(runner.holds("job"));
+        verify(jobLeaseService).release("job");
+        assertEquals(1, registry.get("nlab.jobs.duration").tags("job", "job", "outcome", "success").timer().count());
+    }
+
+    @Test
+    void runExclusively_WhenLeaseHeldElsewhere_ShouldSkip() {
+        // Arrange
+        when(jobLeaseService.tryAcquire(eq("job"), any(Duration.class))).thenReturn(false);
+        AtomicBoolean ran = new AtomicBoolean();
+
+        // Act
+        boolean result = runner.runExclusively("job", () -> ran.set(true));
+
+        // Assert
+        assertFalse(result);
+        assertFalse(ran.get());
+        verify(jobLeaseService, never()).release(any());
+        assertEquals(1.0, registry.get("nlab.jobs.skipped").tag("job", "job").counter().count());
+    }
+
+    @Test
+    void runExclusively_WhenJobFails_ShouldReleaseAndRecordFailure() {
+        // Arrange
+        when(jobLeaseService.tryAcquire(eq("job"), any(Duration.class))).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> runner.runExclusively("job", () -> {
+            throw new IllegalStateException("boom");
+        }));
+        verify(jobLeaseService).release("job");
+        assertEquals(1, registry.get("nlab.jobs.duration").tags("job", "job", "outcome", "failure").timer().count());
+    }
+
+    @Test
+    void heartbeat_WhenLeaseTakenOver_ShouldStopHolding() {
+        // Arrange
+        when(jobLeaseService.tryAcquire(eq("job"), any(Duration.class))).thenReturn(true);
+        when(jobLeaseService.heartbeat(eq("job"), any(Duration.class))).thenReturn(false);
+        AtomicBoolean heldAfterHeartbeat = new AtomicBoolean(true);
+
+        // Act
+        runner.runExclusively("job", () -> {
+            runner.heartbeat();
+            heldAfterHeartbeat.set(runner.holds("job"));
+        });
+
+        // Assert
+        assertFalse(heldAfterHeartbeat.get());
+    }
+}
@@ -0,0 +1,111 @@
+package com.effisoft.nlab.appointmentapi.service.job;
+
+import com.effisoft.nlab.appointmentapi.config.JobProperties;
+import com.effisoft.nlab.appointmentapi.repository.AppointmentRepository;
+import com.effisoft.nlab.appointmentapi.repository.PurchasedPackageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExpiredPackageSweeperTest {
+
+    @Mock
+    private PurchasedPackageRepository purchasedPackageRepository;
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private ClusterJobRunner clusterJobRunner;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private JobProperties jobProperties;
+    private ExpiredPackageSweeper sweeper;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        jobProperties = new JobProperties();
+        jobProperties.setExpiredPackagesChunkSize(2);
+        jobProperties.setChunkPauseMillis(0);
+        sweeper = new ExpiredPackageSweeper(purchasedPackageRepository, appointmentRepository,
+                clusterJobRunner, jobProperties, new TransactionTemplate(transactionManager));
+        now = LocalDateTime.of(2025, 3, 10, 2, 0);
+    }
+
+    @Test
+    void run_ShouldGoThroughTheClusterJobRunner() {
+        // Act
+        sweeper.run();
+
+        // Assert, the mocked runner does not hold the lease so nothing is swept
+        verify(clusterJobRunner).runExclusively(eq(ExpiredPackageSweeper.JOB_NAME), any(Runnable.class));
+        verifyNoInteractions(purchasedPackageRepository, appointmentRepository);
+    }
+
+    @Test
+    void sweep_ShouldProcessChunksByKeysetUntilExhausted() {
+        // Arrange
+        when(clusterJobRunner.holds(ExpiredPackageSweeper.JOB_NAME)).thenReturn(true);
+        when(purchasedPackageRepository.findExpiredIdsAfter(eq(0), eq(now), any(Pageable.class)))
+                .thenReturn(List.of(4, 7));
+        when(purchasedPackageRepository.findExpiredIdsAfter(eq(7), eq(now), any(Pageable.class)))
+                .thenReturn(List.of(9));
+        when(appointmentRepository.flagPackageExpired(anyCollection(), eq(now), anyCollection())).thenReturn(1);
+
+        // Act
+        int swept = sweeper.sweep(now);
+
+        // Assert
+        assertEquals(3, swept);
+        verify(purchasedPackageRepository).markExpired(List.of(4, 7));
+        verify(purchasedPackageRepository).markExpired(List.of(9));
+        verify(appointmentRepository).flagPackageExpired(eq(List.of(4, 7)), eq(now), anyCollection());
+    }
+
+    @Test
+    void sweep_ShouldStopAfterMaxChunksPerRun() {
+        // Arrange
+        jobProperties.setMaxChunksPerRun(1);
+        when(clusterJobRunner.holds(ExpiredPackageSweeper.JOB_NAME)).thenReturn(true);
+        when(purchasedPackageRepository.findExpiredIdsAfter(eq(0), eq(now), any(Pageable.class)))
+                .thenReturn(List.of(4, 7));
+
+        // Act
+        int swept = sweeper.sweep(now);
+
+        // Assert
+        assertEquals(2, swept);
+        verify(purchasedPackageRepository, times(1)).findExpiredIdsAfter(anyInt(), any(), any());
+    }
+
+    @Test
+    void sweep_WhenLeaseLost_ShouldStopBetweenChunks() {
+        // Arrange
+        when(clusterJobRunner.holds(ExpiredPackageSweeper.JOB_NAME)).thenReturn(false);
+        when(purchasedPackageRepository.findExpiredIdsAfter(eq(0), eq(now), any(Pageable.class)))
+                .thenReturn(List.of(4, 7));
+
+        // Act
+        int swept = sweeper.sweep(now);
+
+        // Assert
+        assertEquals(2, swept);
+        verify(purchasedPackageRepository, never()).findExpiredIdsAfter(eq(7), any(), any());
+    }
+}
@@ -0,0 +1,132 @@
+package com.effisoft.nlab.appointmentapi.service.job;
+
+import com.effisoft.nlab.appointmentapi.repository.JobLeaseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two service instances stand in for two API instances sharing the JobLease table. Leases
+ * commit on their own, so the test runs outside the usual rollback transaction.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:joblease;MODE=MSSQLServer;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class JobLeaseServiceTest {
+
+    @Autowired
+    private JobLeaseRepository jobLeaseRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private JobLeaseService first;
+    private JobLeaseService second;
+
+    @BeforeEach
+    void setUp() {
+        jobLeaseRepository.deleteAll();
+        first = new JobLeaseService(jobLeaseRepository, transactionManager);
+        second = new JobLeaseService(jobLeaseRepository, transactionManager);
+    }
+
+    @Test
+    void tryAcquire_WhenHeldByAnotherInstance_ShouldFail() {
+        // Act
+        boolean firstAcquired = first.tryAcquire("job", Duration.ofMinutes(5));
+        boolean secondAcquired = second.tryAcquire("job", Duration.ofMinutes(5));
+
+        // Assert
+        assertTrue(firstAcquired);
+        assertFalse(secondAcquired);
+    }
+
+    @Test
+    void tryAcquire_WhenHeldBySameInstance_ShouldRenew() {
+        // Arrange
+        first.tryAcquire("job", Duration.ofMinutes(5));
+
+        // Act
+        boolean renewed = first.tryAcquire("job", Duration.ofMinutes(5));
+
+        // Assert
+        assertTrue(renewed);
+    }
+
+    @Test
+    void tryAcquire_WhenReleased_ShouldLetAnotherInstanceTakeOver() {
+        // Arrange
+        first.tryAcquire("job", Duration.ofMinutes(5));
+        first.release("job");
+
+        // Act
+        boolean acquired = second.tryAcquire("job", Duration.ofMinutes(5));
+
+        // Assert
+        assertTrue(acquired);
+    }
+
+    @Test
+    void tryAcquire_WhenExpired_ShouldLetAnotherInstanceTakeOver() {
+        // Arrange
+        first.tryAcquire("job", Duration.ofMinutes(-1));
+
+        // Act
+        boolean acquired = second.tryAcquire("job", Duration.ofMinutes(5));
+
+        // Assert
+        assertTrue(acquired);
+    }
+
+    @Test
+    void heartbeat_WhenTakenOverAfterExpiry_ShouldFail() {
+        // Arrange
+        first.tryAcquire("job", Duration.ofMinutes(-1));
+        second.tryAcquire("job", Duration.ofMinutes(5));
+
+        // Act
+        boolean firstHeartbeat = first.heartbeat("job", Duration.ofMinutes(5));
+        boolean secondHeartbeat = second.heartbeat("job", Duration.ofMinutes(5));
+
+        // Assert
+        assertFalse(firstHeartbeat);
+        assertTrue(secondHeartbeat);
+    }
+
+    @Test
+    void saveResumeAfterId_ShouldKeepThePositionAcrossTakeOversAndRejectFormerHolders() {
+        // Arrange
+        first.tryAcquire("job", Duration.ofMinutes(-1));
+        first.saveResumeAfterId("job", 500);
+        second.tryAcquire("job", Duration.ofMinutes(5));
+
+        // Act
+        int resumeAfterId = second.resumeAfterId("job");
+        boolean firstSaved = first.saveResumeAfterId("job", 900);
+        boolean secondSaved = second.saveResumeAfterId("job", null);
+
+        // Assert
+        assertEquals(500, resumeAfterId);
+        assertFalse(firstSaved);
+        assertTrue(secondSaved);
+        assertEquals(0, second.resumeAfterId("job"));
+    }
+}
@@ -0,0 +1,115 @@
+package com.effisoft.nlab.appointmentapi.service.job;
+
+import com.effisoft.nlab.appointmentapi.config.JobProperties;
+import com.effisoft.nlab.appointmentapi.repository.PurchasedPackageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaidTotalRepairJobTest {
+
+    @Mock
+    private PurchasedPackageRepository purchasedPackageRepository;
+
+    @Mock
+    private ClusterJobRunner clusterJobRunner;
+
+    @Mock
+    private JobLeaseService jobLeaseService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private JobProperties jobProperties;
+    private PaidTotalRepairJob job;
+
+    @BeforeEach
+    void setUp() {
+        jobProperties = new JobProperties();
+        jobProperties.setPaidTotalRepairChunkSize(2);
+        jobProperties.setChunkPauseMillis(0);
+        job = new PaidTotalRepairJob(purchasedPackageRepository, clusterJobRunner, jobLeaseService,
+                jobProperties, new TransactionTemplate(transactionManager));
+    }
+
+    @Test
+    void run_ShouldGoThroughTheClusterJobRunner() {
+        // Act
+        job.run();
+
+        // Assert, the mocked runner does not hold the lease so nothing is repaired
+        verify(clusterJobRunner).runExclusively(eq(PaidTotalRepairJob.JOB_NAME), any(Runnable.class));
+        verifyNoInteractions(purchasedPackageRepository);
+    }
+
+    @Test
+    void repair_ShouldRecomputeEachChunkByIdRange() {
+        // Arrange
+        when(clusterJobRunner.holds(PaidTotalRepairJob.JOB_NAME)).thenReturn(true);
+        when(jobLeaseService.saveResumeAfterId(PaidTotalRepairJob.JOB_NAME, 8)).thenReturn(true);
+        when(purchasedPackageRepository.findIdsAfter(eq(0), any(Pageable.class))).thenReturn(List.of(3, 8));
+        when(purchasedPackageRepository.findIdsAfter(eq(8), any(Pageable.class))).thenReturn(List.of(12));
+        when(purchasedPackageRepository.repairPaidTotals(3, 8)).thenReturn(1);
+        when(purchasedPackageRepository.repairPaidTotals(12, 12)).thenReturn(0);
+
+        // Act
+        int repaired = job.repair();
+
+        // Assert
+        assertEquals(1, repaired);
+        verify(purchasedPackageRepository, times(2)).findIdsAfter(anyInt(), any());
+        InOrder inOrder = inOrder(purchasedPackageRepository);
+        inOrder.verify(purchasedPackageRepository).lockIdRange(3, 8);
+        inOrder.verify(purchasedPackageRepository).repairPaidTotals(3, 8);
+        verify(jobLeaseService).saveResumeAfterId(PaidTotalRepairJob.JOB_NAME, null);
+    }
+
+    @Test
+    void repair_ShouldContinueAfterTheSavedPackageAndKeepThePositionAtTheCap() {
+        // Arrange
+        jobProperties.setMaxChunksPerRun(1);
+        when(jobLeaseService.resumeAfterId(PaidTotalRepairJob.JOB_NAME)).thenReturn(8);
+        when(jobLeaseService.saveResumeAfterId(PaidTotalRepairJob.JOB_NAME, 15)).thenReturn(true);
+        when(clusterJobRunner.holds(PaidTotalRepairJob.JOB_NAME)).thenReturn(true);
+        when(purchasedPackageRepository.findIdsAfter(eq(8), any(Pageable.class))).thenReturn(List.of(12, 15));
+        when(purchasedPackageRepository.repairPaidTotals(12, 15)).thenReturn(1);
+
+        // Act
+        int repaired = job.repair();
+
+        // Assert
+        assertEquals(1, repaired);
+        verify(purchasedPackageRepository, never()).findIdsAfter(eq(0), any());
+        verify(jobLeaseService, never()).saveResumeAfterId(PaidTotalRepairJob.JOB_NAME, null);
+    }
+
+    @Test
+    void repair_WhenLeaseLost_ShouldStopBetweenChunks() {
+        // Arrange
+        when(clusterJobRunner.holds(PaidTotalRepairJob.JOB_NAME)).thenReturn(false);
+        when(jobLeaseService.saveResumeAfterId(PaidTotalRepairJob.JOB_NAME, 8)).thenReturn(true);
+        when(purchasedPackageRepository.findIdsAfter(eq(0), any(Pageable.class))).thenReturn(List.of(3, 8));
+        when(purchasedPackageRepository.repairPaidTotals(3, 8)).thenReturn(2);
+
+        // Act
+        int repaired = job.repair();
+
+        // Assert
+        assertEquals(2, repaired);
+        verify(purchasedPackageRepository, never()).findIdsAfter(eq(8), any());
+        verify(jobLeaseService, never()).saveResumeAfterId(PaidTotalRepairJob.JOB_NAME, null);
+    }
+}
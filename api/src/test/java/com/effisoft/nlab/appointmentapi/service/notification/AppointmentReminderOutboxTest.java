@@ -0,0 +1,106 @@
+package com.effisoft.nlab.appointmentapi.service.notification;
+
+import com.effisoft.nlab.appointmentapi.entity.NotificationOutbox;
+import com.effisoft.nlab.appointmentapi.event.AppointmentChangedEvent;
+import com.effisoft.nlab.appointmentapi.event.AppointmentChangedEvent.ChangeType;
+import com.effisoft.nlab.appointmentapi.repository.NotificationOutboxRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AppointmentReminderOutboxTest {
+
+    @Mock
+    private NotificationOutboxRepository outboxRepository;
+
+    @InjectMocks
+    private AppointmentReminderOutbox reminderOutbox;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void onAppointmentChanged_WhenScheduled_ShouldEnqueueBothReminders() {
+        // Arrange
+        LocalDateTime appointmentDateTime = LocalDateTime.now().plusDays(3).withNano(0);
+        ArgumentCaptor<List<NotificationOutbox>> captor = ArgumentCaptor.forClass(List.class);
+
+        // Act
+        reminderOutbox.onAppointmentChanged(new AppointmentChangedEvent(ChangeType.SCHEDULED, 5,
+                null, null, null, 1, appointmentDateTime, "AGENDADA"));
+
+        // Assert
+        verify(outboxRepository).saveAll(captor.capture());
+        List<NotificationOutbox> reminders = captor.getValue();
+        assertEquals(2, reminders.size());
+        assertEquals("REMINDER_24H", reminders.get(0).getKind());
+        assertEquals(appointmentDateTime.minusHours(24), reminders.get(0).getNextAttemptAt());
+        assertEquals(appointmentDateTime.minusHours(2), reminders.get(1).getNextAttemptAt());
+        assertEquals(NotificationOutbox.PENDING, reminders.get(1).getStatus());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void onAppointmentChanged_WhenScheduledForToday_ShouldOnlyEnqueueTheLateReminder() {
+        // Arrange
+        ArgumentCaptor<List<NotificationOutbox>> captor = ArgumentCaptor.forClass(List.class);
+
+        // Act
+        reminderOutbox.onAppointmentChanged(new AppointmentChangedEvent(ChangeType.SCHEDULED, 5,
+                null, null, null, 1, LocalDateTime.now().plusHours(5), "AGENDADA"));
+
+        // Assert
+        verify(outboxRepository).saveAll(captor.capture());
+        assertEquals(List.of("REMINDER_2H"), captor.getValue().stream().map(NotificationOutbox::getKind).toList());
+    }
+
+    @Test
+    void onAppointmentChanged_WhenCancelled_ShouldCancelPendingReminders() {
+        // Arrange
+        LocalDateTime appointmentDateTime = LocalDateTime.now().plusDays(3);
+
+        // Act
+        reminderOutbox.onAppointmentChanged(new AppointmentChangedEvent(ChangeType.CANCELLED, 5,
+                1, appointmentDateTime, "AGENDADA", 1, appointmentDateTime, "CANCELADA"));
+
+        // Assert
+        verify(outboxRepository).cancelPending(5);
+        verify(outboxRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void onAppointmentChanged_WhenMoved_ShouldReplacePendingReminders() {
+        // Arrange
+        LocalDateTime appointmentDateTime = LocalDateTime.now().plusDays(3);
+
+        // Act
+        reminderOutbox.onAppointmentChanged(new AppointmentChangedEvent(ChangeType.UPDATED, 5,
+                1, appointmentDateTime, "AGENDADA", 1, appointmentDateTime.plusDays(1), "REAGENDADA"));
+
+        // Assert
+        verify(outboxRepository).cancelPending(5);
+        verify(outboxRepository).saveAll(any());
+    }
+
+    @Test
+    void onAppointmentChanged_WhenOnlyStatusChangesBetweenActiveStatuses_ShouldKeepReminders() {
+        // Arrange
+        LocalDateTime appointmentDateTime = LocalDateTime.now().plusDays(3);
+
+        // Act
+        reminderOutbox.onAppointmentChanged(new AppointmentChangedEvent(ChangeType.UPDATED, 5,
+                1, appointmentDateTime, "AGENDADA", 1, appointmentDateTime, "REAGENDADA"));
+
+        // Assert
+        verifyNoInteractions(outboxRepository);
+    }
+}
@@ -0,0 +1,157 @@
+package com.effisoft.nlab.appointmentapi.service.notification;
+
+import com.effisoft.nlab.appointmentapi.config.NotificationProperties;
+import com.effisoft.nlab.appointmentapi.dto.ReminderDetails;
+import com.effisoft.nlab.appointmentapi.entity.NotificationOutbox;
+import com.effisoft.nlab.appointmentapi.repository.AppointmentRepository;
+import com.effisoft.nlab.appointmentapi.repository.NotificationOutboxRepository;
+import com.effisoft.nlab.appointmentapi.service.job.ClusterJobRunner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationDispatcherTest {
+
+    @Mock
+    private NotificationOutboxRepository outboxRepository;
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private ClusterJobRunner clusterJobRunner;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private NotificationProperties notificationProperties;
+    private RecordingSender sender;
+    private NotificationDispatcher dispatcher;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        notificationProperties = new NotificationProperties();
+        sender = new RecordingSender();
+        dispatcher = new NotificationDispatcher(outboxRepository, appointmentRepository, sender,
+                notificationProperties, clusterJobRunner, new TransactionTemplate(transactionManager));
+        now = LocalDateTime.of(2025, 3, 10, 8, 0);
+    }
+
+    @Test
+    void dispatch_ShouldSendDueRemindersAndMarkThemSent() {
+        // Arrange
+        when(outboxRepository.findDue(eq(now), any(Pageable.class))).thenReturn(List.of(outbox(1L, 10, 0)));
+        when(appointmentRepository.findReminderDetails(List.of(10)))
+                .thenReturn(List.of(details(10, now.plusHours(2), "AGENDADA")));
+
+        // Act
+        int delivered = dispatcher.dispatch(now);
+
+        // Assert
+        assertEquals(1, delivered);
+        assertEquals("John Doe", sender.messages.getFirst().getPatientName());
+        verify(outboxRepository).markCompleted(List.of(1L), NotificationOutbox.SENT, now);
+    }
+
+    @Test
+    void dispatch_WhenAppointmentCancelled_ShouldDropReminder() {
+        // Arrange
+        when(outboxRepository.findDue(eq(now), any(Pageable.class))).thenReturn(List.of(outbox(1L, 10, 0)));
+        when(appointmentRepository.findReminderDetails(List.of(10)))
+                .thenReturn(List.of(details(10, now.plusHours(2), "CANCELADA")));
+
+        // Act
+        int delivered = dispatcher.dispatch(now);
+
+        // Assert
+        assertEquals(0, delivered);
+        assertTrue(sender.messages.isEmpty());
+        verify(outboxRepository).markCompleted(List.of(1L), NotificationOutbox.CANCELLED, null);
+    }
+
+    @Test
+    void dispatch_WhenSenderFails_ShouldRetryWithBackoff() {
+        // Arrange
+        sender.failing = true;
+        when(outboxRepository.findDue(eq(now), any(Pageable.class))).thenReturn(List.of(outbox(1L, 10, 1)));
+        when(appointmentRepository.findReminderDetails(List.of(10)))
+                .thenReturn(List.of(details(10, now.plusHours(2), "AGENDADA")));
+
+        // Act
+        dispatcher.dispatch(now);
+
+        // Assert, second attempt failed so the next one waits twice the base delay
+        verify(outboxRepository).recordFailure(1L, NotificationOutbox.PENDING, 2,
+                now.plusSeconds(2 * notificationProperties.getBackoffSeconds()), "smtp down");
+    }
+
+    @Test
+    void dispatch_WhenLastAttemptFails_ShouldDeadLetter() {
+        // Arrange
+        sender.failing = true;
+        NotificationOutbox entry = outbox(1L, 10, notificationProperties.getMaxAttempts() - 1);
+        when(outboxRepository.findDue(eq(now), any(Pageable.class))).thenReturn(List.of(entry));
+        when(appointmentRepository.findReminderDetails(List.of(10)))
+                .thenReturn(List.of(details(10, now.plusHours(2), "AGENDADA")));
+
+        // Act
+        dispatcher.dispatch(now);
+
+        // Assert
+        verify(outboxRepository).recordFailure(eq(1L), eq(NotificationOutbox.DEAD),
+                eq(notificationProperties.getMaxAttempts()), any(), eq("smtp down"));
+    }
+
+    @Test
+    void backoff_ShouldDoubleUpToTheCap() {
+        // Act & Assert
+        assertEquals(Duration.ofSeconds(60), dispatcher.backoff(1));
+        assertEquals(Duration.ofSeconds(240), dispatcher.backoff(3));
+        assertEquals(Duration.ofMinutes(60), dispatcher.backoff(20));
+    }
+
+    private NotificationOutbox outbox(Long id, Integer appointmentId, int attempts) {
+        NotificationOutbox entry = new NotificationOutbox();
+        entry.setId(id);
+        entry.setAppointmentId(appointmentId);
+        entry.setKind(ReminderKind.REMINDER_2H.name());
+        entry.setStatus(NotificationOutbox.PENDING);
+        entry.setAttempts(attempts);
+        entry.setNextAttemptAt(now);
+        return entry;
+    }
+
+    private ReminderDetails details(Integer appointmentId, LocalDateTime dateTime, String status) {
+        return new ReminderDetails(appointmentId, dateTime, status, 1, "John", "Doe",
+                "john.doe@example.com", "5551234567", "Jane", "Smith");
+    }
+
+    private static class RecordingSender implements NotificationSender {
+        private final List<NotificationMessage> messages = new ArrayList<>();
+        private boolean failing;
+
+        @Override
+        public void send(NotificationMessage message) {
+            if (failing) {
+                throw new IllegalStateException("smtp down");
+            }
+            messages.add(message);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.effisoft.nlab.appointmentapi.service.stats;
+
+import com.effisoft.nlab.appointmentapi.dto.AppointmentPatient;
+import com.effisoft.nlab.appointmentapi.dto.StatusCounterKey;
+import com.effisoft.nlab.appointmentapi.entity.AppointmentStatusEvent;
+import com.effisoft.nlab.appointmentapi.event.AppointmentChangedEvent;
+import com.effisoft.nlab.appointmentapi.event.AppointmentChangedEvent.ChangeType;
+import com.effisoft.nlab.appointmentapi.repository.AppointmentRepository;
+import com.effisoft.nlab.appointmentapi.repository.AppointmentStatusCounterBatchRepository;
+import com.effisoft.nlab.appointmentapi.repository.AppointmentStatusEventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AppointmentStatusProjectorTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 3, 10, 10, 0);
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private AppointmentStatusEventRepository statusEventRepository;
+
+    @Mock
+    private AppointmentStatusCounterBatchRepository counterBatchRepository;
+
+    @InjectMocks
+    private AppointmentStatusProjector projector;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.unbindResourceIfPossible(projector);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void onAppointmentChanged_WhenStatusChanges_ShouldLogAndMoveTheCountsBeforeCommit() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        when(appointmentRepository.findPatientIdsByIds(Set.of(5))).thenReturn(List.of(patient(5, 7)));
+        ArgumentCaptor<List<AppointmentStatusEvent>> entryCaptor = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<SortedMap<StatusCounterKey, Long>> deltaCaptor = ArgumentCaptor.forClass(SortedMap.class);
+
+        // Act
+        projector.onAppointmentChanged(new AppointmentChangedEvent(ChangeType.UPDATED, 5,
+                1, DAY, "AGENDADA", 1, DAY, "NO_ASISTENCIA"));
+        verifyNoInteractions(appointmentRepository, statusEventRepository, counterBatchRepository);
+        beforeCommit();
+
+        // Assert
+        verify(statusEventRepository).saveAll(entryCaptor.capture());
+        assertEquals(7, entryCaptor.getValue().get(0).getPatientId());
+        assertEquals("AGENDADA", entryCaptor.getValue().get(0).getPreviousStatus());
+        verify(counterBatchRepository).applyDeltas(deltaCaptor.capture());
+        SortedMap<StatusCounterKey, Long> deltas = deltaCaptor.getValue();
+        assertEquals(6, deltas.size());
+        assertEquals(-1L, deltas.get(new StatusCounterKey("NUTRITIONIST", "1", "AGENDADA")));
+        assertEquals(1L, deltas.get(new StatusCounterKey("PATIENT", "7", "NO_ASISTENCIA")));
+        assertEquals(1L, deltas.get(new StatusCounterKey("DAY", "2025-03-10", "NO_ASISTENCIA")));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void onAppointmentChanged_WhenSeveralChangesInATransaction_ShouldApplyTheirDeltasOnce() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        when(appointmentRepository.findPatientIdsByIds(Set.of(5, 6)))
+                .thenReturn(List.of(patient(5, 7), patient(6, 7)));
+        ArgumentCaptor<SortedMap<StatusCounterKey, Long>> deltaCaptor = ArgumentCaptor.forClass(SortedMap.class);
+
+        // Act
+        projector.onAppointmentChanged(new AppointmentChangedEvent(ChangeType.SCHEDULED, 5,
+                null, null, null, 1, DAY, "AGENDADA"));
+        projector.onAppointmentChanged(new AppointmentChangedEvent(ChangeType.SCHEDULED, 6,
+                null, null, null, 1, DAY.plusHours(1), "AGENDADA"));
+        projector.onAppointmentChanged(new AppointmentChangedEvent(ChangeType.CANCELLED, 5,
+                1, DAY, "AGENDADA", 1, DAY, "CANCELADA"));
+        beforeCommit();
+
+        // Assert
+        verify(appointmentRepository, times(1)).findPatientIdsByIds(any());
+        verify(counterBatchRepository, times(1)).applyDeltas(deltaCaptor.capture());
+        assertEquals(new TreeMap<>(Map.of(
+                new StatusCounterKey("NUTRITIONIST", "1", "AGENDADA"), 1L,
+                new StatusCounterKey("NUTRITIONIST", "1", "CANCELADA"), 1L,
+                new StatusCounterKey("PATIENT", "7", "AGENDADA"), 1L,
+                new StatusCounterKey("PATIENT", "7", "CANCELADA"), 1L,
+                new StatusCounterKey("DAY", "2025-03-10", "AGENDADA"), 1L,
+                new StatusCounterKey("DAY", "2025-03-10", "CANCELADA"), 1L)), deltaCaptor.getValue());
+    }
+
+    @Test
+    void deltas_WhenMovedToAColleagueTheSameDay_ShouldOnlyMoveTheNutritionistCounts() {
+        // Act
+        SortedMap<StatusCounterKey, Long> deltas = AppointmentStatusProjector.deltas(
+                entry(1, DAY, "AGENDADA", 2, DAY.plusHours(3), "AGENDADA"));
+
+        // Assert
+        assertEquals(Map.of(
+                new StatusCounterKey("NUTRITIONIST", "1", "AGENDADA"), -1L,
+                new StatusCounterKey("NUTRITIONIST", "2", "AGENDADA"), 1L), deltas);
+    }
+
+    @Test
+    void replay_ShouldFoldTheLogIntoCurrentCounts() {
+        // Arrange
+        Map<StatusCounterKey, Long> counters = new HashMap<>();
+
+        // Act
+        AppointmentStatusProjector.replay(entry(null, null, null, 1, DAY, "AGENDADA"), counters);
+        AppointmentStatusProjector.replay(entry(1, DAY, "AGENDADA", 1, DAY.plusDays(1), "REAGENDADA"), counters);
+        AppointmentStatusProjector.replay(entry(1, DAY.plusDays(1), "REAGENDADA", 1, DAY.plusDays(1), "COMPLETADA"),
+                counters);
+        counters.values().removeIf(count -> count == 0);
+
+        // Assert
+        assertEquals(Map.of(
+                new StatusCounterKey("NUTRITIONIST", "1", "COMPLETADA"), 1L,
+                new StatusCounterKey("PATIENT", "7", "COMPLETADA"), 1L,
+                new StatusCounterKey("DAY", "2025-03-11", "COMPLETADA"), 1L), counters);
+        verifyNoInteractions(counterBatchRepository);
+    }
+
+    private void beforeCommit() {
+        TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.beforeCommit(false));
+    }
+
+    private AppointmentPatient patient(Integer appointmentId, Integer patientId) {
+        return new AppointmentPatient() {
+            @Override
+            public Integer getAppointmentId() {
+                return appointmentId;
+            }
+
+            @Override
+            public Integer getPatientId() {
+                return patientId;
+            }
+        };
+    }
+
+    private AppointmentStatusEvent entry(Integer previousNutritionistId, LocalDateTime previousDateTime,
+            String previousStatus, Integer nutritionistId, LocalDateTime dateTime, String status) {
+        AppointmentStatusEvent entry = new AppointmentStatusEvent();
+        entry.setAppointmentId(5);
+        entry.setPatientId(7);
+        entry.setPreviousNutritionistId(previousNutritionistId);
+        entry.setPreviousDateTime(previousDateTime);
+        entry.setPreviousStatus(previousStatus);
+        entry.setNutritionistId(nutritionistId);
+        entry.setAppointmentDateTime(dateTime);
+        entry.setStatus(status);
+        return entry;
+    }
+}
@@ -0,0 +1,110 @@
+package com.effisoft.nlab.appointmentapi.service.stream;
+
+import com.effisoft.nlab.appointmentapi.config.StreamProperties;
+import com.effisoft.nlab.appointmentapi.event.AppointmentChangedEvent;
+import com.effisoft.nlab.appointmentapi.event.AppointmentChangedEvent.ChangeType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AppointmentStreamBrokerTest {
+
+    private StreamProperties streamProperties;
+    private List<Runnable> pendingDrains;
+    private AppointmentStreamBroker broker;
+    private LocalDateTime tomorrow;
+
+    @BeforeEach
+    void setUp() {
+        streamProperties = new StreamProperties();
+        streamProperties.setBufferSize(3);
+        // Drains only run when the test says so, standing in for a slow connection
+        pendingDrains = new ArrayList<>();
+        broker = new AppointmentStreamBroker(streamProperties, pendingDrains::add);
+        tomorrow = LocalDateTime.now().plusDays(1).withHour(9).withMinute(0).withSecond(0).withNano(0);
+    }
+
+    @Test
+    void onAppointmentChanged_WhenSubscriberIsSlow_ShouldDropOldestEvents() {
+        // Arrange
+        broker.subscribe(1);
+
+        // Act
+        for (int appointmentId = 1; appointmentId <= 5; appointmentId++) {
+            broker.onAppointmentChanged(scheduled(appointmentId, 1));
+        }
+
+        // Assert
+        StreamSubscriber subscriber = broker.subscribersOf(1).iterator().next();
+        assertEquals(3, subscriber.buffered());
+        assertEquals(3, subscriber.peekOldest().change().getAppointmentId());
+        assertEquals(2, broker.droppedCount());
+        assertEquals(1, pendingDrains.size());
+    }
+
+    @Test
+    void onAppointmentChanged_WhenDrained_ShouldEmptyBufferAndAllowNextDrain() {
+        // Arrange
+        broker.subscribe(1);
+        broker.onAppointmentChanged(scheduled(1, 1));
+
+        // Act
+        pendingDrains.remove(0).run();
+        broker.onAppointmentChanged(scheduled(2, 1));
+
+        // Assert
+        StreamSubscriber subscriber = broker.subscribersOf(1).iterator().next();
+        assertEquals(1, subscriber.buffered());
+        assertEquals(1, pendingDrains.size());
+        assertEquals(1, broker.subscriberCount());
+    }
+
+    @Test
+    void onAppointmentChanged_ShouldOnlyReachSubscribersOfTheNutritionist() {
+        // Arrange
+        broker.subscribe(1);
+        broker.subscribe(2);
+
+        // Act
+        broker.onAppointmentChanged(scheduled(1, 1));
+
+        // Assert
+        assertEquals(1, broker.subscribersOf(1).iterator().next().buffered());
+        assertEquals(0, broker.subscribersOf(2).iterator().next().buffered());
+    }
+
+    @Test
+    void onAppointmentChanged_WhenMovedToAnotherNutritionist_ShouldReachBoth() {
+        // Arrange
+        broker.subscribe(1);
+        broker.subscribe(2);
+
+        // Act
+        broker.onAppointmentChanged(new AppointmentChangedEvent(ChangeType.UPDATED, 1,
+                1, tomorrow, "AGENDADA", 2, tomorrow, "AGENDADA"));
+
+        // Assert
+        assertEquals(1, broker.subscribersOf(1).iterator().next().buffered());
+        assertEquals(1, broker.subscribersOf(2).iterator().next().buffered());
+    }
+
+    @Test
+    void onAppointmentChanged_WithoutSubscribers_ShouldDoNothing() {
+        // Act
+        broker.onAppointmentChanged(scheduled(1, 1));
+
+        // Assert
+        assertTrue(pendingDrains.isEmpty());
+        assertEquals(0, broker.subscriberCount());
+    }
+
+    private AppointmentChangedEvent scheduled(Integer appointmentId, Integer nutritionistId) {
+        return new AppointmentChangedEvent(ChangeType.SCHEDULED, appointmentId,
+                null, null, null, nutritionistId, tomorrow.plusHours(appointmentId), "AGENDADA");
+    }
+}
@@ -0,0 +1,200 @@
+package com.effisoft.nlab.appointmentapi.service.waitlist;
+
+import com.effisoft.nlab.appointmentapi.config.BookingProperties;
+import com.effisoft.nlab.appointmentapi.entity.Appointment;
+import com.effisoft.nlab.appointmentapi.entity.WaitlistEntry;
+import com.effisoft.nlab.appointmentapi.event.AppointmentChangedEvent;
+import com.effisoft.nlab.appointmentapi.event.AppointmentChangedEvent.ChangeType;
+import com.effisoft.nlab.appointmentapi.exception.AppointmentServiceException;
+import com.effisoft.nlab.appointmentapi.exception.WaitlistServiceException;
+import com.effisoft.nlab.appointmentapi.repository.WaitlistEntryRepository;
+import com.effisoft.nlab.appointmentapi.service.WaitlistService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class WaitlistMatcherTest {
+
+    private WaitlistEntryRepository waitlistEntryRepository;
+    private WaitlistService waitlistService;
+    private WaitlistQueue waitlistQueue;
+    private WaitlistMatcher waitlistMatcher;
+    private LocalDateTime now;
+    private LocalDateTime slot;
+
+    @BeforeEach
+    void setUp() {
+        waitlistEntryRepository = mock(WaitlistEntryRepository.class);
+        waitlistService = mock(WaitlistService.class);
+        waitlistQueue = new WaitlistQueue(waitlistEntryRepository);
+        waitlistMatcher = new WaitlistMatcher(waitlistQueue, waitlistService, new BookingProperties());
+        now = LocalDateTime.now().withNano(0);
+        slot = now.plusDays(2);
+    }
+
+    @Test
+    void fill_ShouldBookTheOldestRequestAcceptingTheSlot() {
+        // Arrange
+        waitlistQueue.add(entry(1, now.minusDays(3), slot.plusDays(1), slot.plusDays(5)));
+        waitlistQueue.add(entry(2, now.minusDays(2), slot.minusDays(1), slot.plusDays(1)));
+        waitlistQueue.add(entry(3, now.minusDays(1), slot.minusDays(1), slot.plusDays(1)));
+        when(waitlistService.bookFromWaitlist(2, slot)).thenReturn(appointment(10));
+
+        // Act
+        Optional<Appointment> booked = waitlistMatcher.fill(1, slot, now);
+
+        // Assert
+        assertEquals(10, booked.orElseThrow().getId());
+        verify(waitlistService, never()).bookFromWaitlist(eq(3), any());
+        assertEquals(2, waitlistQueue.size());
+    }
+
+    @Test
+    void fill_WhenBookingFails_ShouldTryTheNextRequest() {
+        // Arrange
+        waitlistQueue.add(entry(1, now.minusDays(2), slot.minusDays(1), slot.plusDays(1)));
+        waitlistQueue.add(entry(2, now.minusDays(1), slot.minusDays(1), slot.plusDays(1)));
+        when(waitlistService.bookFromWaitlist(1, slot)).thenThrow(new WaitlistServiceException(
+                "No remaining appointments in the package"));
+        when(waitlistService.bookFromWaitlist(2, slot)).thenReturn(appointment(10));
+
+        // Act
+        Optional<Appointment> booked = waitlistMatcher.fill(1, slot, now);
+
+        // Assert, the first request can no longer be served and leaves the queue
+        assertTrue(booked.isPresent());
+        assertEquals(0, waitlistQueue.size());
+    }
+
+    @Test
+    void fill_WhenTheSlotIsTaken_ShouldKeepTheRequestQueued() {
+        // Arrange
+        waitlistQueue.add(entry(1, now.minusDays(2), slot.minusDays(1), slot.plusDays(1)));
+        when(waitlistService.bookFromWaitlist(1, slot)).thenThrow(new WaitlistServiceException(
+                "Appointment time is held by another booking",
+                new AppointmentServiceException("Appointment time is held by another booking")));
+
+        // Act
+        Optional<Appointment> booked = waitlistMatcher.fill(1, slot, now);
+
+        // Assert
+        assertTrue(booked.isEmpty());
+        assertEquals(1, waitlistQueue.size());
+    }
+
+    @Test
+    void fill_ShouldDropRequestsWhoseWindowHasPassed() {
+        // Arrange
+        waitlistQueue.add(entry(1, now.minusDays(9), now.minusDays(5), now.minusDays(1)));
+
+        // Act
+        waitlistMatcher.fill(1, slot, now);
+
+        // Assert
+        assertEquals(0, waitlistQueue.size());
+        verifyNoInteractions(waitlistService);
+    }
+
+    @Test
+    void onAppointmentChanged_WhenOnlyTheStatusOfAnActiveAppointmentChanged_ShouldNotMatch() {
+        // Arrange
+        waitlistQueue.add(entry(1, now.minusDays(2), slot.minusDays(1), slot.plusDays(1)));
+
+        // Act
+        waitlistMatcher.onAppointmentChanged(new AppointmentChangedEvent(ChangeType.UPDATED, 5,
+                1, slot, "AGENDADA", 1, slot, "REAGENDADA"));
+
+        // Assert
+        verifyNoInteractions(waitlistService);
+    }
+
+    @Test
+    void onAppointmentChanged_WhenMoved_ShouldOfferTheOldSlot() {
+        // Arrange
+        waitlistQueue.add(entry(1, now.minusDays(2), slot.minusDays(1), slot.plusDays(1)));
+        when(waitlistService.bookFromWaitlist(1, slot)).thenReturn(appointment(10));
+
+        // Act
+        waitlistMatcher.onAppointmentChanged(new AppointmentChangedEvent(ChangeType.UPDATED, 5,
+                1, slot, "AGENDADA", 1, slot.plusDays(7), "REAGENDADA"));
+
+        // Assert
+        verify(waitlistService).bookFromWaitlist(1, slot);
+    }
+
+    @Test
+    void refresh_ShouldReplaceTheQueueWithTheOpenRequests() {
+        // Arrange
+        waitlistQueue.add(entry(1, now.minusDays(2), slot.minusDays(1), slot.plusDays(1)));
+        when(waitlistEntryRepository.findOpen(any())).thenReturn(List.of(
+                entry(2, now.minusDays(1), slot.minusDays(1), slot.plusDays(1)),
+                entry(3, now.minusDays(1), slot.minusDays(1), slot.plusDays(1))));
+
+        // Act
+        waitlistQueue.refresh();
+
+        // Assert
+        assertEquals(2, waitlistQueue.size());
+        assertEquals(List.of(2, 3), waitlistQueue.candidates(1, slot, now, 5).stream()
+                .map(WaitlistEntry::getId).toList());
+    }
+
+    @Test
+    void candidates_ShouldReturnOnlyTheWindowsContainingTheSlotOldestFirst() {
+        // Arrange
+        waitlistQueue.add(entry(1, now.minusDays(1), slot.minusDays(10), slot.plusDays(10)));
+        waitlistQueue.add(entry(2, now.minusDays(5), slot.minusDays(3), slot.minusDays(1)));
+        waitlistQueue.add(entry(3, now.minusDays(4), slot, slot));
+        waitlistQueue.add(entry(4, now.minusDays(6), slot.plusHours(1), slot.plusDays(1)));
+
+        // Act
+        List<WaitlistEntry> candidates = waitlistQueue.candidates(1, slot, now, 5);
+
+        // Assert
+        assertEquals(List.of(3, 1), candidates.stream().map(WaitlistEntry::getId).toList());
+    }
+
+    @Test
+    void refresh_WhenARequestIsBookedWhileLoading_ShouldNotBringItBack() {
+        // Arrange, the load reads the request before the booking commits
+        WaitlistEntry booked = entry(1, now.minusDays(2), slot.minusDays(1), slot.plusDays(1));
+        waitlistQueue.add(booked);
+        when(waitlistEntryRepository.findOpen(any())).thenAnswer(invocation -> {
+            waitlistQueue.remove(booked);
+            return List.of(entry(1, now.minusDays(2), slot.minusDays(1), slot.plusDays(1)));
+        });
+
+        // Act
+        waitlistQueue.refresh();
+
+        // Assert
+        assertEquals(0, waitlistQueue.size());
+        assertTrue(waitlistQueue.candidates(1, slot, now, 5).isEmpty());
+    }
+
+    private WaitlistEntry entry(Integer id, LocalDateTime requestedAt, LocalDateTime earliest, LocalDateTime latest) {
+        WaitlistEntry entry = new WaitlistEntry();
+        entry.setId(id);
+        entry.setNutritionistId(1);
+        entry.setPatientId(1);
+        entry.setPurchasedPackageId(id);
+        entry.setRequestedAt(requestedAt);
+        entry.setEarliestDateTime(earliest);
+        entry.setLatestDateTime(latest);
+        entry.setStatus(WaitlistEntry.WAITING);
+        return entry;
+    }
+
+    private Appointment appointment(Integer id) {
+        Appointment appointment = new Appointment();
+        appointment.setId(id);
+        return appointment;
+    }
+}
@@ -183,8 +183,29 @@ export async function authGet<T>(endpoint: string, options: RequestInit = {}): P
   return await response.json();
 }
 
+/**
+ * Sends a mutating request with an Idempotency-Key, retrying once with the same key when the
+ * connection drops, so the API replays the first response instead of running it twice
+ */
+async function idempotentFetch(endpoint: string, options: RequestInit): Promise<Response> {
+  const headers = {
+    'Idempotency-Key': crypto.randomUUID(),
+    ...options.headers,
+  };
+
+  try {
+    return await authFetch(endpoint, { ...options, headers });
+  } catch (err) {
+    // fetch only rejects on network errors, HTTP errors resolve
+    if (err instanceof TypeError) {
+      return await authFetch(endpoint, { ...options, headers });
+    }
+    throw err;
+  }
+}
+
 export async function authPost<T>(endpoint: string, data: any, options: RequestInit = {}): Promise<T> {
-  const response = await authFetch(endpoint, {
+  const response = await idempotentFetch(endpoint, {
     ...options,
     method: 'POST',
     headers: {
@@ -202,7 +223,7 @@ export async function authPost<T>(endpoint: string, data: any, options: RequestI
 }
 
 export async function authPut<T>(endpoint: string, data: any, options: RequestInit = {}): Promise<T> {
-  const response = await authFetch(endpoint, {
+  const response = await idempotentFetch(endpoint, {
     ...options,
     method: 'PUT',
     headers: {
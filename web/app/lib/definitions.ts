@@ -150,22 +150,22 @@ export type PatientPaymentDTO = {
 
 export type PatientPayment = {
   id: number;
-  purchasedPackage: PurchasedPackage;
-  paymentMethod: PaymentMethod;
-  cardPaymentType: CardPaymentType;
+  purchasedPackageId: number;
+  paymentMethodId: number;
+  cardPaymentTypeId: number | null;
   paymentDate: Date;
   totalPaid: string;
 }
 
 export type Appointment = {
   id: number;
-  purchasedPackage: PurchasedPackage;
-  nutritionist: Nutritionist;
+  purchasedPackageId: number;
+  nutritionistId: number;
   appointmentDateTime: Date;
   status: string;
   notes: string;
+  packageExpired: boolean;
   createdAt: Date;
-  updatedAt: Date;
 }
 
 export type AppointmentDTO = {
@@ -192,7 +192,7 @@ export type PatientAppointmentView = {
 
 export type AppointmentNotes = {
   id: number;
-  appointment: Appointment;
+  appointmentId: number;
   weight: number;
   totalFat: number;
   upperFat: number;
@@ -213,8 +213,6 @@ export type AppointmentNotes = {
   circumferenceWaist: number;
   circumferenceHip: number;
   notes: string;
-  createdAt: Date;
-  updatedAt: Date;
 }
 
 export type AppointmentNotesDTO = {
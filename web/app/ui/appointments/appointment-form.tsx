@@ -68,13 +68,13 @@ const AppointmentForm = ({
             setNutritionists(pNutritionists);
 
             if (pAppointment) {
-                form.setValue("purchasedPackageId", pAppointment.purchasedPackage.id);
+                form.setValue("purchasedPackageId", pAppointment.purchasedPackageId);
                 const appointmentDate = new Date(pAppointment.appointmentDateTime);
                 const localDate = new Date(appointmentDate.getTime() - appointmentDate.getTimezoneOffset() * 60000);
                 form.setValue("appointmentDateTime", localDate);
                 form.setValue("notes", pAppointment.notes || "");
-                if (pAppointment.nutritionist) {
-                    const nutritionistId = pAppointment.nutritionist.id.toString();
+                if (pAppointment.nutritionistId) {
+                    const nutritionistId = pAppointment.nutritionistId.toString();
                     setTimeout(() => {
                         form.setValue("nutritionistId", nutritionistId, {
                             shouldValidate: true,